@@ -27,6 +27,7 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 
 import org.apache.avro.*;
@@ -40,9 +41,13 @@ import org.apache.kafka.common.errors.SerializationException;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import io.confluent.kafka.example.ExtendedUser;
 import io.confluent.kafka.example.User;
@@ -453,6 +458,54 @@ public class KafkaAvroSerializerTest {
     assertEquals(avroRecord, avroDecoder.fromBytes(bytes));
   }
 
+  @Test
+  public void testKafkaAvroSerializerUseLatestWithTtl()
+      throws IOException, RestClientException {
+    Map configs = ImmutableMap.of(
+        KafkaAvroDeserializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+        "bogus",
+        KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS,
+        false,
+        KafkaAvroSerializerConfig.USE_LATEST_VERSION,
+        true,
+        KafkaAvroSerializerConfig.LATEST_CACHE_TTL,
+        60L
+    );
+    AtomicLong now = new AtomicLong();
+    Queue<Runnable> refreshes = new ArrayDeque<>();
+    avroSerializer.nanoClock = now::get;
+    avroSerializer.refreshExecutor = refreshes::add;
+    avroSerializer.configure(configs, false);
+    IndexedRecord avroRecord = createUserRecord();
+    int id = schemaRegistry.register(topic + "-value", new AvroSchema(avroRecord.getSchema()));
+    byte[] bytes = avroSerializer.serialize(topic, avroRecord);
+    assertEquals(id, ByteBuffer.wrap(bytes, 1, 4).getInt());
+    assertEquals(avroRecord, avroDeserializer.deserialize(topic, bytes));
+
+    // the latest version is not looked up again within the TTL
+    Schema documentedSchema = new Schema.Parser().parse(
+        "{\"namespace\": \"example.avro\", \"type\": \"record\", \"name\": \"User\","
+            + "\"doc\": \"A user\","
+            + "\"fields\": [{\"name\": \"name\", \"type\": \"string\"}]}");
+    int newId = schemaRegistry.register(topic + "-value", new AvroSchema(documentedSchema));
+    bytes = avroSerializer.serialize(topic, avroRecord);
+    assertEquals(id, ByteBuffer.wrap(bytes, 1, 4).getInt());
+
+    // after the TTL, the cached version is still used while it is refreshed in the background
+    now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+    bytes = avroSerializer.serialize(topic, avroRecord);
+    assertEquals(id, ByteBuffer.wrap(bytes, 1, 4).getInt());
+    assertEquals(1, refreshes.size());
+
+    // the new latest version is used once refreshed, without closing the serializer
+    refreshes.poll().run();
+    bytes = avroSerializer.serialize(topic, avroRecord);
+    assertEquals(newId, ByteBuffer.wrap(bytes, 1, 4).getInt());
+    assertTrue(refreshes.isEmpty());
+    assertEquals("testUser",
+        ((IndexedRecord) avroDeserializer.deserialize(topic, bytes)).get(0).toString());
+  }
+
   @Test
   public void testKafkaAvroSerializerWithPreRegisteredRemoveJavaProperties()
       throws IOException, RestClientException {
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.rest.filters;
+
+import io.confluent.kafka.schemaregistry.utils.QualifiedSubject;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static io.confluent.kafka.schemaregistry.utils.QualifiedSubject.CONTEXT_PREFIX;
+import static io.confluent.kafka.schemaregistry.utils.QualifiedSubject.CONTEXT_WILDCARD;
+import static io.confluent.kafka.schemaregistry.utils.QualifiedSubject.DEFAULT_CONTEXT;
+
+/**
+ *  Measures the path handling of the context filter on representative request paths, with and
+ *  without a context.
+ *
+ *  <p>The {@code split} implementation copies the relative path of every request, and splits
+ *  and rebuilds the paths of context requests, as the filter did before it scanned the paths.
+ *  Run with {@code -prof gc} to compare allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ContextFilterBenchmark {
+
+  private static final String BASE_PATH = "/";
+
+  @State(Scope.Benchmark)
+  public static class PathState {
+
+    final ContextFilter filter = new ContextFilter();
+
+    @Param({"scanning", "split"})
+    public String implementation;
+
+    @Param({
+        "/subjects/orders-value/versions/latest",
+        "/schemas/ids/100042",
+        "/contexts/.prod/subjects/orders-value/versions",
+        "/contexts/.prod/config/orders-value"
+    })
+    public String requestPath;
+  }
+
+  @SuppressWarnings("MethodMayBeStatic") // Tests can not be static
+  @Benchmark
+  public void filterPath(final PathState state, final Blackhole blackhole) {
+    if ("scanning".equals(state.implementation)) {
+      if (ContextFilter.isContextPath(state.requestPath, BASE_PATH.length())) {
+        String path = state.requestPath.substring(BASE_PATH.length());
+        blackhole.consume(state.filter.modifyUriPath(path));
+      }
+    } else {
+      String path = state.requestPath.substring(BASE_PATH.length());
+      if (path.startsWith("contexts/")) {
+        blackhole.consume(splitModifyUriPath(path));
+      }
+    }
+  }
+
+  /**
+   * Rewrites the path like {@link ContextFilter#modifyUriPath}, by splitting it into segments.
+   */
+  static String splitModifyUriPath(String path) {
+    boolean contextPathFound = false;
+    String context = DEFAULT_CONTEXT;
+    boolean configOrModeFound = false;
+    boolean subjectPathFound = false;
+    StringBuilder modifiedPath = new StringBuilder();
+    boolean isFirst = true;
+    for (String uriPathStr : path.split("/")) {
+      String modifiedUriPathStr = uriPathStr;
+      if (contextPathFound) {
+        context = uriPathStr;
+        contextPathFound = false;
+        continue;
+      }
+      if (uriPathStr.equals("contexts")) {
+        contextPathFound = true;
+        continue;
+      }
+      if (subjectPathFound) {
+        if (!uriPathStr.startsWith(CONTEXT_PREFIX) && !uriPathStr.startsWith(CONTEXT_WILDCARD)) {
+          modifiedUriPathStr = QualifiedSubject.normalizeContext(context) + uriPathStr;
+        }
+        subjectPathFound = false;
+      }
+      boolean isRootConfigOrMode = isFirst
+          && (uriPathStr.equals("config") || uriPathStr.equals("mode"));
+      if (uriPathStr.equals("subjects") || isRootConfigOrMode) {
+        subjectPathFound = true;
+        if (isRootConfigOrMode) {
+          configOrModeFound = true;
+        }
+      }
+      modifiedPath.append(modifiedUriPathStr).append("/");
+      if (isFirst && !uriPathStr.isEmpty()) {
+        isFirst = false;
+      }
+    }
+    if (configOrModeFound && subjectPathFound) {
+      String normalizedContext = QualifiedSubject.normalizeContext(context);
+      if (!normalizedContext.isEmpty()) {
+        modifiedPath.append(normalizedContext).append("/");
+      }
+    } else if (contextPathFound) {
+      modifiedPath.append("contexts").append("/");
+    }
+    return modifiedPath.toString();
+  }
+
+  public static void main(final String[] args) throws Exception {
+
+    final Options opt = args.length != 0
+        ? new CommandLineOptions(args)
+        : new OptionsBuilder()
+            .include(ContextFilterBenchmark.class.getSimpleName())
+            .shouldFailOnError(true)
+            .build();
+
+    new Runner(opt).run();
+  }
+}
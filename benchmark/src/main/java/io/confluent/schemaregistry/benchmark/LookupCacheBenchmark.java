@@ -0,0 +1,158 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.schemaregistry.benchmark;
+
+import io.confluent.kafka.schemaregistry.storage.CompactInMemoryCache;
+import io.confluent.kafka.schemaregistry.storage.InMemoryCache;
+import io.confluent.kafka.schemaregistry.storage.LookupCache;
+import io.confluent.kafka.schemaregistry.storage.SchemaKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
+import io.confluent.kafka.schemaregistry.storage.serialization.SchemaRegistrySerializer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *  Compares the heap retained by the lookup cache implementations, and the cost of reading a
+ *  schema version from them.
+ *
+ *  <p>The store is filled with subjects that each have several versions, where most subjects
+ *  share their schemas with other subjects, as happens with per-topic subjects of the same
+ *  record type. The retained heap is printed at the end of the setup of each trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class LookupCacheBenchmark {
+
+  private static final int FIELDS_PER_SCHEMA = 30;
+
+  @State(Scope.Benchmark)
+  public static class CacheState {
+
+    LookupCache<SchemaRegistryKey, SchemaRegistryValue> cache;
+
+    @Param({"memory", "compact"})
+    public String type;
+
+    @Param({"100000"})
+    public int subjects;
+
+    @Param({"10"})
+    public int versionsPerSubject;
+
+    // the number of subjects that share the same schemas
+    @Param({"10"})
+    public int subjectsPerSchema;
+
+    @Setup(Level.Trial)
+    public void setUp() throws StoreException {
+      long before = usedHeap();
+      cache = "compact".equals(type)
+          ? new CompactInMemoryCache<>(new SchemaRegistrySerializer())
+          : new InMemoryCache<>(new SchemaRegistrySerializer());
+      int id = 0;
+      for (int s = 0; s < subjects; s++) {
+        String subject = "topic-" + s + "-value";
+        for (int v = 1; v <= versionsPerSubject; v++) {
+          SchemaKey key = new SchemaKey(subject, v);
+          // built for every version, like values deserialized from the topic
+          SchemaValue value = new SchemaValue(subject, v, ++id,
+              schema(s / subjectsPerSchema, v), false);
+          SchemaValue oldValue = (SchemaValue) cache.put(key, value);
+          cache.schemaRegistered(key, value, oldValue);
+        }
+      }
+      long retained = usedHeap() - before;
+      System.out.printf("%n%s cache retains %,d bytes for %,d versions (%,d bytes per version)%n",
+          type, retained, (long) subjects * versionsPerSubject,
+          retained / ((long) subjects * versionsPerSubject));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws StoreException {
+      cache.close();
+    }
+
+    private static long usedHeap() {
+      MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+      for (int i = 0; i < 3; i++) {
+        System.gc();
+      }
+      return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static String schema(int record, int version) {
+      StringBuilder sb = new StringBuilder("{\"type\":\"record\",\"name\":\"Record")
+          .append(record).append("\",\"namespace\":\"io.confluent.benchmark\",\"fields\":[");
+      for (int f = 0; f < FIELDS_PER_SCHEMA + version; f++) {
+        if (f > 0) {
+          sb.append(',');
+        }
+        sb.append("{\"name\":\"field").append(f)
+            .append("\",\"type\":[\"null\",\"string\"],\"default\":null,")
+            .append("\"doc\":\"Field ").append(f).append(" of the record\"}");
+      }
+      return sb.append("]}").toString();
+    }
+  }
+
+  @SuppressWarnings("MethodMayBeStatic") // Tests can not be static
+  @Benchmark
+  public SchemaRegistryValue getVersion(final CacheState state) throws StoreException {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    String subject = "topic-" + random.nextInt(state.subjects) + "-value";
+    return state.cache.get(
+        new SchemaKey(subject, 1 + random.nextInt(state.versionsPerSubject)));
+  }
+
+  public static void main(final String[] args) throws Exception {
+
+    final Options opt = args.length != 0
+        ? new CommandLineOptions(args)
+        : new OptionsBuilder()
+            .include(LookupCacheBenchmark.class.getSimpleName())
+            .shouldFailOnError(true)
+            .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.schemaregistry.benchmark;
+
+import io.confluent.kafka.schemaregistry.storage.CloseableIterator;
+import io.confluent.kafka.schemaregistry.storage.ContextKey;
+import io.confluent.kafka.schemaregistry.storage.ContextValue;
+import io.confluent.kafka.schemaregistry.storage.InMemoryCache;
+import io.confluent.kafka.schemaregistry.storage.SchemaKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistry;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
+import io.confluent.kafka.schemaregistry.storage.serialization.SchemaRegistrySerializer;
+import io.confluent.kafka.schemaregistry.utils.QualifiedSubject;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *  Measures resolving a schema id that is not in the default context, as done for
+ *  {@code GET /schemas/ids/{id}?subject=...} with an unqualified subject.
+ *
+ *  <p>{@code scan} probes every context in turn, as the registry did before the lookup cache
+ *  kept an index of the contexts of each id; {@code index} uses that index.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class SchemaIdContextLookupBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class CacheState {
+
+    InMemoryCache<SchemaRegistryKey, SchemaRegistryValue> cache;
+
+    @Param({"1000"})
+    public int contexts;
+
+    @Param({"20"})
+    public int schemasPerContext;
+
+    @Setup(Level.Trial)
+    public void setUp() throws StoreException {
+      cache = new InMemoryCache<>(new SchemaRegistrySerializer());
+      int id = 0;
+      for (int c = 0; c < contexts; c++) {
+        String context = ".team-" + c;
+        cache.put(new ContextKey(SchemaRegistry.DEFAULT_TENANT, context),
+            new ContextValue(SchemaRegistry.DEFAULT_TENANT, context));
+        for (int s = 0; s < schemasPerContext; s++) {
+          String subject = ":" + context + ":subject-" + s;
+          SchemaKey key = new SchemaKey(subject, 1);
+          SchemaValue value = new SchemaValue(subject, 1, ++id, "\"string\"", false);
+          SchemaValue oldValue = (SchemaValue) cache.put(key, value);
+          cache.schemaRegistered(key, value, oldValue);
+        }
+      }
+    }
+
+    int randomId() {
+      return 1 + ThreadLocalRandom.current().nextInt(contexts * schemasPerContext);
+    }
+  }
+
+  @SuppressWarnings("MethodMayBeStatic") // Tests can not be static
+  @Benchmark
+  public SchemaKey scan(final CacheState state) throws StoreException {
+    int id = state.randomId();
+    SchemaKey key = state.cache.schemaKeyById(id, "subject");
+    if (key != null) {
+      return key;
+    }
+    try (CloseableIterator<SchemaRegistryValue> iter = state.cache.getAll(
+        new ContextKey(SchemaRegistry.DEFAULT_TENANT, String.valueOf(Character.MIN_VALUE)),
+        new ContextKey(SchemaRegistry.DEFAULT_TENANT, String.valueOf(Character.MAX_VALUE)))) {
+      while (iter.hasNext()) {
+        ContextValue v = (ContextValue) iter.next();
+        QualifiedSubject qs = new QualifiedSubject(v.getTenant(), v.getContext(), "subject");
+        key = state.cache.schemaKeyById(id, qs.toQualifiedSubject());
+        if (key != null) {
+          return key;
+        }
+      }
+    }
+    return null;
+  }
+
+  @SuppressWarnings("MethodMayBeStatic") // Tests can not be static
+  @Benchmark
+  public SchemaKey index(final CacheState state) throws StoreException {
+    int id = state.randomId();
+    SchemaKey key = state.cache.schemaKeyById(id, "subject");
+    return key != null ? key : state.cache.schemaKeyByIdInAnyContext(id);
+  }
+
+  public static void main(final String[] args) throws Exception {
+
+    final Options opt = args.length != 0
+        ? new CommandLineOptions(args)
+        : new OptionsBuilder()
+            .include(SchemaIdContextLookupBenchmark.class.getSimpleName())
+            .shouldFailOnError(true)
+            .build();
+
+    new Runner(opt).run();
+  }
+}
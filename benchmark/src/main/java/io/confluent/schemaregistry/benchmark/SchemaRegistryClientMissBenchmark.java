@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.schemaregistry.benchmark;
+
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.RestService;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *  Measures the throughput of concurrent cache misses of the schema registry client, as when
+ *  the consumers of a group restart against a topic with many schema ids.
+ *
+ *  <p>The client talks to a stub registry that answers lookups by id after a simulated round
+ *  trip. Every lookup is for an id the client has not seen yet. The {@code synchronized}
+ *  implementation holds the client monitor across the miss, as the client did before it
+ *  deduplicated misses per key.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 3, time = 30)
+@Threads(32)
+@Fork(1)
+public class SchemaRegistryClientMissBenchmark {
+
+  private static final String SUBJECT = "orders-value";
+
+  @State(Scope.Benchmark)
+  public static class ClientState {
+
+    CachedSchemaRegistryClient client;
+    final AtomicInteger nextId = new AtomicInteger();
+
+    @Param({"single-flight", "synchronized"})
+    public String implementation;
+
+    @Param({"1000"})
+    public long roundTripMicros;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      // a new client per iteration, so that every lookup misses
+      client = new CachedSchemaRegistryClient(
+          new StubRestService(roundTripMicros), 100000, Collections.emptyMap());
+    }
+  }
+
+  @SuppressWarnings("MethodMayBeStatic") // Tests can not be static
+  @Benchmark
+  public ParsedSchema getSchemaOnMiss(final ClientState state)
+      throws IOException, RestClientException {
+    int id = state.nextId.incrementAndGet();
+    if ("single-flight".equals(state.implementation)) {
+      return state.client.getSchemaBySubjectAndId(SUBJECT, id);
+    } else {
+      synchronized (state.client) {
+        return state.client.getSchemaBySubjectAndId(SUBJECT, id);
+      }
+    }
+  }
+
+  /**
+   * Answers every lookup by id with a schema named after the id, after a simulated round trip.
+   */
+  static class StubRestService extends RestService {
+
+    private final long roundTripNanos;
+
+    StubRestService(long roundTripMicros) {
+      super("http://localhost:8081");
+      this.roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+    }
+
+    @Override
+    public SchemaString getId(int id, String subject) {
+      LockSupport.parkNanos(roundTripNanos);
+      return new SchemaString("{\"type\":\"record\",\"name\":\"Record" + id + "\","
+          + "\"fields\":[{\"name\":\"f\",\"type\":\"string\"}]}");
+    }
+  }
+
+  public static void main(final String[] args) throws Exception {
+
+    final Options opt = args.length != 0
+        ? new CommandLineOptions(args)
+        : new OptionsBuilder()
+            .include(SchemaRegistryClientMissBenchmark.class.getSimpleName())
+            .shouldFailOnError(true)
+            .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.schemaregistry.benchmark;
+
+import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
+import io.confluent.kafka.schemaregistry.storage.SchemaKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import io.confluent.kafka.schemaregistry.storage.exceptions.SerializationException;
+import io.confluent.kafka.schemaregistry.storage.serialization.SchemaRegistrySerializer;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *  Measures decoding a dump of the schemas topic, as the store reader does while bootstrapping,
+ *  with schema values in the JSON or the binary encoding of the Kafka store.
+ *
+ *  <p>Each operation decodes the keys and values of every record of the dump.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class SchemasTopicDecodeBenchmark {
+
+  private static final int FIELDS_PER_SCHEMA = 10;
+
+  @State(Scope.Benchmark)
+  public static class TopicState {
+
+    SchemaRegistrySerializer serializer;
+    byte[][] keys;
+    byte[][] values;
+
+    @Param({"json", "binary"})
+    public String encoding;
+
+    @Param({"1000000"})
+    public int records;
+
+    @Param({"10"})
+    public int versionsPerSubject;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SerializationException {
+      serializer = new SchemaRegistrySerializer();
+      serializer.configure(Collections.singletonMap(
+          SchemaRegistryConfig.KAFKASTORE_VALUE_ENCODING_CONFIG, encoding));
+      keys = new byte[records][];
+      values = new byte[records][];
+      long bytes = 0;
+      for (int i = 0; i < records; i++) {
+        String subject = "topic-" + (i / versionsPerSubject) + "-value";
+        int version = 1 + i % versionsPerSubject;
+        SchemaKey key = new SchemaKey(subject, version);
+        SchemaValue value = new SchemaValue(subject, version, i + 1,
+            schema(i / versionsPerSubject, version), false);
+        keys[i] = serializer.serializeKey(key);
+        values[i] = serializer.serializeValue(value);
+        bytes += keys[i].length + values[i].length;
+      }
+      System.out.printf("%n%s dump of %,d records is %,d bytes%n", encoding, records, bytes);
+    }
+
+    private static String schema(int record, int version) {
+      StringBuilder sb = new StringBuilder("{\"type\":\"record\",\"name\":\"Record")
+          .append(record).append("\",\"namespace\":\"io.confluent.benchmark\",\"fields\":[");
+      for (int f = 0; f < FIELDS_PER_SCHEMA + version; f++) {
+        if (f > 0) {
+          sb.append(',');
+        }
+        sb.append("{\"name\":\"field").append(f)
+            .append("\",\"type\":[\"null\",\"string\"],\"default\":null,")
+            .append("\"doc\":\"Field ").append(f).append(" of the record\"}");
+      }
+      return sb.append("]}").toString();
+    }
+  }
+
+  @SuppressWarnings("MethodMayBeStatic") // Tests can not be static
+  @Benchmark
+  public void decode(final TopicState state, final Blackhole blackhole)
+      throws SerializationException {
+    for (int i = 0; i < state.records; i++) {
+      SchemaRegistryKey key = state.serializer.deserializeKey(state.keys[i]);
+      SchemaRegistryValue value = state.serializer.deserializeValue(key, state.values[i]);
+      blackhole.consume(value);
+    }
+  }
+
+  public static void main(final String[] args) throws Exception {
+
+    final Options opt = args.length != 0
+        ? new CommandLineOptions(args)
+        : new OptionsBuilder()
+            .include(SchemasTopicDecodeBenchmark.class.getSimpleName())
+            .shouldFailOnError(true)
+            .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.schemaregistry.benchmark;
+
+import io.confluent.kafka.schemaregistry.storage.SchemaKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import io.confluent.kafka.schemaregistry.storage.SubjectKey;
+import io.confluent.kafka.schemaregistry.storage.SubjectKeyComparator;
+import io.confluent.kafka.schemaregistry.utils.QualifiedSubject;
+
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *  Measures get, put and range scan throughput on a store ordered by subject keys.
+ *
+ *  <p>The {@code parsing} comparator parses both subjects on every comparison, as the store
+ *  did before sort keys were cached on the keys.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 3, time = 30)
+@Threads(4)
+@Fork(1)
+public class SubjectKeyComparatorBenchmark {
+
+  private static final int VERSIONS_PER_SUBJECT = 10;
+  private static final int CONTEXTS = 10;
+
+  @State(Scope.Benchmark)
+  public static class StoreState {
+
+    ConcurrentNavigableMap<SchemaRegistryKey, SchemaRegistryValue> store;
+    String[] subjects;
+
+    @Param({"cached", "parsing"})
+    public String comparator;
+
+    @Param({"500000"})
+    public int entries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      Comparator<SchemaRegistryKey> cmp = "parsing".equals(comparator)
+          ? new ParsingComparator()
+          : new SubjectKeyComparator<>();
+      store = new ConcurrentSkipListMap<>(cmp);
+      subjects = new String[entries / VERSIONS_PER_SUBJECT];
+      for (int i = 0; i < subjects.length; i++) {
+        subjects[i] = i % CONTEXTS == 0
+            ? "subject-" + i
+            : ":.context-" + (i % CONTEXTS) + ":subject-" + i;
+        for (int version = 1; version <= VERSIONS_PER_SUBJECT; version++) {
+          store.put(new SchemaKey(subjects[i], version), schemaValue(subjects[i], version));
+        }
+      }
+    }
+
+    String randomSubject() {
+      return subjects[ThreadLocalRandom.current().nextInt(subjects.length)];
+    }
+  }
+
+  @SuppressWarnings("MethodMayBeStatic") // Tests can not be static
+  @Benchmark
+  public SchemaRegistryValue get(final StoreState state) {
+    int version = ThreadLocalRandom.current().nextInt(VERSIONS_PER_SUBJECT) + 1;
+    return state.store.get(new SchemaKey(state.randomSubject(), version));
+  }
+
+  @SuppressWarnings("MethodMayBeStatic") // Tests can not be static
+  @Benchmark
+  public SchemaRegistryValue put(final StoreState state) {
+    String subject = state.randomSubject();
+    int version = ThreadLocalRandom.current().nextInt(VERSIONS_PER_SUBJECT) + 1;
+    return state.store.put(new SchemaKey(subject, version), schemaValue(subject, version));
+  }
+
+  @SuppressWarnings("MethodMayBeStatic") // Tests can not be static
+  @Benchmark
+  public void subMap(final StoreState state, final Blackhole blackhole) {
+    // the range scanned when looking up all versions of a subject
+    String subject = state.randomSubject();
+    for (SchemaRegistryValue value : state.store.subMap(
+        new SchemaKey(subject, 1), new SchemaKey(subject, Integer.MAX_VALUE)).values()) {
+      blackhole.consume(value);
+    }
+  }
+
+  private static SchemaValue schemaValue(String subject, int version) {
+    return new SchemaValue(subject, version, version, "\"string\"", false);
+  }
+
+  /**
+   * Orders keys like {@link SubjectKeyComparator}, but parses the subjects on every comparison.
+   */
+  static class ParsingComparator implements Comparator<SchemaRegistryKey> {
+
+    @Override
+    public int compare(SchemaRegistryKey o1, SchemaRegistryKey o2) {
+      if (o1 instanceof SubjectKey && o2 instanceof SubjectKey) {
+        int cmp = o1.getKeyType().compareTo(o2.getKeyType());
+        if (cmp != 0) {
+          return cmp;
+        }
+        QualifiedSubject qs1 = QualifiedSubject.create(null, ((SubjectKey) o1).getSubject());
+        QualifiedSubject qs2 = QualifiedSubject.create(null, ((SubjectKey) o2).getSubject());
+        if (qs1 == null || qs2 == null) {
+          return qs1 == qs2 ? 0 : qs1 == null ? -1 : 1;
+        }
+        cmp = qs1.compareTo(qs2);
+        if (cmp != 0) {
+          return cmp;
+        }
+        if (o1 instanceof SchemaKey && o2 instanceof SchemaKey) {
+          return ((SchemaKey) o1).getVersion() - ((SchemaKey) o2).getVersion();
+        }
+        return 0;
+      }
+      return o1.compareTo(o2);
+    }
+  }
+
+  public static void main(final String[] args) throws Exception {
+
+    final Options opt = args.length != 0
+        ? new CommandLineOptions(args)
+        : new OptionsBuilder()
+            .include(SubjectKeyComparatorBenchmark.class.getSimpleName())
+            .shouldFailOnError(true)
+            .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.schemaregistry.benchmark;
+
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistry;
+import io.confluent.kafka.schemaregistry.storage.SubjectLocks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *  Measures the throughput of concurrent leader writes to distinct subjects.
+ *
+ *  <p>Each write holds the subject lock while it waits out a simulated produce ack and reader
+ *  catch-up. A single stripe reproduces the former global write lock.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 3, time = 30)
+@Threads(32)
+@Fork(1)
+public class SubjectLocksBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class LocksState {
+
+    SubjectLocks locks;
+
+    @Param({"1", "256"})
+    public int stripes;
+
+    @Param({"1000"})
+    public long writeLatencyMicros;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      locks = new SubjectLocks(stripes);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class SubjectState {
+
+    private static final AtomicInteger nextSubject = new AtomicInteger();
+
+    String subject;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      subject = "subject-" + nextSubject.getAndIncrement();
+    }
+  }
+
+  @SuppressWarnings("MethodMayBeStatic") // Tests can not be static
+  @Benchmark
+  public void write(final LocksState locksState, final SubjectState subjectState) {
+    Lock lock = locksState.locks.lockFor(SchemaRegistry.DEFAULT_TENANT, subjectState.subject);
+    lock.lock();
+    try {
+      LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(locksState.writeLatencyMicros));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public static void main(final String[] args) throws Exception {
+
+    final Options opt = args.length != 0
+        ? new CommandLineOptions(args)
+        : new OptionsBuilder()
+            .include(SubjectLocksBenchmark.class.getSimpleName())
+            .shouldFailOnError(true)
+            .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.client;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+
+/**
+ * Schema Registry Client with a non-blocking API, for callers such as reactive pipelines that
+ * must not block on a lookup.
+ *
+ * <p>The client shares the caches of a {@link CachedSchemaRegistryClient}, and a lookup that
+ * hits them returns a completed future on the calling thread. A miss is made by the cached
+ * client on the executor of this client, and concurrent misses of the same key share one
+ * request and its future, so that waiting for a lookup does not tie up a thread. The futures
+ * fail with the exceptions of the cached client, such as an {@link java.io.IOException} or a
+ * {@link io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException}.
+ */
+public class AsyncSchemaRegistryClient implements Closeable {
+
+  private static final String LATEST = "latest";
+
+  private final CachedSchemaRegistryClient client;
+  private final Executor executor;
+  // the executor created by this client, shut down when it is closed
+  private final ExecutorService ownedExecutor;
+
+  private final SingleFlight<Integer> registerFlights = new SingleFlight<>();
+  private final SingleFlight<ParsedSchema> schemaByIdFlights = new SingleFlight<>();
+  private final SingleFlight<Integer> versionFlights = new SingleFlight<>();
+  private final SingleFlight<Integer> idFlights = new SingleFlight<>();
+  private final SingleFlight<SchemaMetadata> metadataFlights = new SingleFlight<>();
+
+  /**
+   * Creates a client that makes at most the given number of requests at a time.
+   */
+  public AsyncSchemaRegistryClient(CachedSchemaRegistryClient client,
+                                   int maxConcurrentRequests) {
+    this(client, Executors.newFixedThreadPool(maxConcurrentRequests, new RequestThreadFactory()),
+        true);
+  }
+
+  /**
+   * Creates a client that makes its requests on the given executor, which it does not shut
+   * down.
+   */
+  public AsyncSchemaRegistryClient(CachedSchemaRegistryClient client, Executor executor) {
+    this(client, executor, false);
+  }
+
+  private AsyncSchemaRegistryClient(CachedSchemaRegistryClient client, Executor executor,
+                                    boolean ownsExecutor) {
+    this.client = Objects.requireNonNull(client, "client");
+    this.executor = Objects.requireNonNull(executor, "executor");
+    this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+  }
+
+  /**
+   * Returns the blocking client whose caches this client shares.
+   */
+  public CachedSchemaRegistryClient getClient() {
+    return client;
+  }
+
+  public CompletableFuture<Integer> register(String subject, ParsedSchema schema) {
+    return register(subject, schema, 0, -1);
+  }
+
+  public CompletableFuture<Integer> register(String subject, ParsedSchema schema,
+                                             int version, int id) {
+    Integer cachedId = client.getCachedId(subject, schema);
+    if (cachedId != null) {
+      try {
+        CachedSchemaRegistryClient.checkId(id, cachedId);
+      } catch (IllegalStateException e) {
+        return failed(e);
+      }
+      return CompletableFuture.completedFuture(cachedId);
+    }
+    return registerFlights.executeAsync(subject, schema, executor,
+        () -> client.register(subject, schema, version, id))
+        .thenApply(registeredId -> {
+          // a concurrent registration of the schema may have been given another id
+          CachedSchemaRegistryClient.checkId(id, registeredId);
+          return registeredId;
+        });
+  }
+
+  public CompletableFuture<ParsedSchema> getSchemaById(int id) {
+    return getSchemaBySubjectAndId(null, id);
+  }
+
+  public CompletableFuture<ParsedSchema> getSchemaBySubjectAndId(String subject, int id) {
+    ParsedSchema cachedSchema = client.getCachedSchemaBySubjectAndId(subject, id);
+    if (cachedSchema != null) {
+      return CompletableFuture.completedFuture(cachedSchema);
+    }
+    return schemaByIdFlights.executeAsync(subject, id, executor,
+        () -> client.getSchemaBySubjectAndId(subject, id));
+  }
+
+  public CompletableFuture<Integer> getId(String subject, ParsedSchema schema) {
+    Integer cachedId = client.getCachedId(subject, schema);
+    if (cachedId != null) {
+      return CompletableFuture.completedFuture(cachedId);
+    }
+    return idFlights.executeAsync(subject, schema, executor,
+        () -> client.getId(subject, schema));
+  }
+
+  public CompletableFuture<Integer> getVersion(String subject, ParsedSchema schema) {
+    Integer cachedVersion = client.getCachedVersion(subject, schema);
+    if (cachedVersion != null) {
+      return CompletableFuture.completedFuture(cachedVersion);
+    }
+    return versionFlights.executeAsync(subject, schema, executor,
+        () -> client.getVersion(subject, schema));
+  }
+
+  public CompletableFuture<SchemaMetadata> getLatestSchemaMetadata(String subject) {
+    SchemaMetadata cachedMetadata = client.getCachedLatestSchemaMetadata(subject);
+    if (cachedMetadata != null) {
+      return CompletableFuture.completedFuture(cachedMetadata);
+    }
+    return metadataFlights.executeAsync(subject, LATEST, executor,
+        () -> client.getLatestSchemaMetadata(subject));
+  }
+
+  public CompletableFuture<SchemaMetadata> getSchemaMetadata(String subject, int version) {
+    SchemaMetadata cachedMetadata = client.getCachedSchemaMetadata(subject, version);
+    if (cachedMetadata != null) {
+      return CompletableFuture.completedFuture(cachedMetadata);
+    }
+    return metadataFlights.executeAsync(subject, version, executor,
+        () -> client.getSchemaMetadata(subject, version));
+  }
+
+  public CompletableFuture<List<Integer>> getAllVersions(String subject) {
+    return supply(() -> client.getAllVersions(subject));
+  }
+
+  public CompletableFuture<Collection<String>> getAllSubjects() {
+    return supply(client::getAllSubjects);
+  }
+
+  public CompletableFuture<Boolean> testCompatibility(String subject, ParsedSchema schema) {
+    return supply(() -> client.testCompatibility(subject, schema));
+  }
+
+  public CompletableFuture<List<String>> testCompatibilityVerbose(String subject,
+                                                                  ParsedSchema schema) {
+    return supply(() -> client.testCompatibilityVerbose(subject, schema));
+  }
+
+  @Override
+  public void close() {
+    if (ownedExecutor != null) {
+      ownedExecutor.shutdown();
+    }
+  }
+
+  private <T> CompletableFuture<T> supply(SingleFlight.Loader<T> loader) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    try {
+      executor.execute(() -> {
+        try {
+          future.complete(loader.load());
+        } catch (Throwable t) {
+          future.completeExceptionally(t);
+        }
+      });
+    } catch (Throwable t) {
+      future.completeExceptionally(t);
+    }
+    return future;
+  }
+
+  private static <T> CompletableFuture<T> failed(Throwable t) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(t);
+    return future;
+  }
+
+  private static class RequestThreadFactory implements ThreadFactory {
+    private static final AtomicInteger clientNumber = new AtomicInteger();
+
+    private final String prefix =
+        "schema-registry-client-" + clientNumber.incrementAndGet() + "-request-";
+    private final AtomicInteger threadNumber = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, prefix + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -20,13 +20,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import io.confluent.kafka.schemaregistry.ParsedSchema;
@@ -39,6 +46,7 @@ import io.confluent.kafka.schemaregistry.client.rest.entities.Config;
 import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
 import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
 import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.client.rest.entities.ServerClusterId;
 import io.confluent.kafka.schemaregistry.client.rest.entities.SubjectVersion;
 import io.confluent.kafka.schemaregistry.client.rest.entities.requests.ConfigUpdateRequest;
 import io.confluent.kafka.schemaregistry.client.rest.entities.Mode;
@@ -46,6 +54,8 @@ import io.confluent.kafka.schemaregistry.client.rest.entities.requests.ModeUpdat
 import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
 import io.confluent.kafka.schemaregistry.client.security.SslFactory;
 import io.confluent.kafka.schemaregistry.utils.BoundedConcurrentHashMap;
+import io.confluent.kafka.schemaregistry.utils.QualifiedSubject;
+import io.confluent.kafka.schemaregistry.utils.RefreshAheadCache;
 
 
 /**
@@ -61,8 +71,30 @@ public class CachedSchemaRegistryClient implements SchemaRegistryClient {
   private final Map<String, Map<Integer, ParsedSchema>> idCache;
   private final Map<String, Map<ParsedSchema, Integer>> versionCache;
   private final Map<String, SchemaProvider> providers;
+  // null unless schemas are cached on disk; the cache is opened once the cluster id of the
+  // registry is known, so that a rebuilt registry does not serve the schemas of the old one
+  private final Path persistentCacheDir;
+  private final long persistentCacheMaxBytes;
+  private volatile PersistentSchemaCache persistentCache;
+  private volatile boolean persistentCacheDisabled;
+  // one caller at a time resolves the cluster id, while the others use the registry
+  private final AtomicBoolean resolvingClusterId = new AtomicBoolean();
+  private volatile long nextClusterIdAttemptNanos = System.nanoTime();
+  private long clusterIdBackoffNanos;
+  // null unless the latest versions and metadata of subjects are cached for a TTL
+  private final RefreshAheadCache<String, SchemaMetadata> latestVersionCache;
+  private final RefreshAheadCache<SubjectVersion, SchemaMetadata> metadataCache;
+  // one request per subject and schema or id on a cache miss, instead of one for the client
+  private final SingleFlight<Integer> registerFlights = new SingleFlight<>();
+  private final SingleFlight<ParsedSchema> schemaByIdFlights = new SingleFlight<>();
+  private final SingleFlight<Integer> versionFlights = new SingleFlight<>();
+  private final SingleFlight<Integer> idFlights = new SingleFlight<>();
 
   private static final String NO_SUBJECT = ":.:";
+  private static final long MIN_CLUSTER_ID_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final long MAX_CLUSTER_ID_BACKOFF_NANOS = TimeUnit.MINUTES.toNanos(1);
+  // keeps the urls of bulk lookups well under the request line limits of servers
+  private static final int PREFETCH_BATCH_SIZE = 200;
 
   public static final Map<String, String> DEFAULT_REQUEST_PROPERTIES;
 
@@ -185,6 +217,24 @@ public class CachedSchemaRegistryClient implements SchemaRegistryClient {
               Map.Entry::getValue,
               (existing, replacement) -> replacement));
       restService.configure(restConfigs);
+      Object persistentCacheDir =
+          restConfigs.get(SchemaRegistryClientConfig.PERSISTENT_CACHE_DIR_CONFIG);
+      this.persistentCacheDir =
+          persistentCacheDir != null && !persistentCacheDir.toString().trim().isEmpty()
+              ? Paths.get(persistentCacheDir.toString().trim())
+              : null;
+      this.persistentCacheMaxBytes = longConfig(restConfigs,
+          SchemaRegistryClientConfig.PERSISTENT_CACHE_MAX_BYTES_CONFIG,
+          SchemaRegistryClientConfig.PERSISTENT_CACHE_MAX_BYTES_DEFAULT);
+      long latestCacheTtl = longConfig(restConfigs,
+          SchemaRegistryClientConfig.LATEST_CACHE_TTL_CONFIG,
+          SchemaRegistryClientConfig.LATEST_CACHE_TTL_DEFAULT);
+      this.latestVersionCache = latestCacheTtl > 0
+          ? new RefreshAheadCache<>(cacheCapacity, latestCacheTtl, TimeUnit.SECONDS)
+          : null;
+      this.metadataCache = latestCacheTtl > 0
+          ? new RefreshAheadCache<>(cacheCapacity, latestCacheTtl, TimeUnit.SECONDS)
+          : null;
 
       Map<String, Object> sslConfigs = configs.entrySet().stream()
           .filter(e -> e.getKey().startsWith(SchemaRegistryClientConfig.CLIENT_NAMESPACE))
@@ -195,9 +245,78 @@ public class CachedSchemaRegistryClient implements SchemaRegistryClient {
       if (sslFactory.sslContext() != null) {
         restService.setSslSocketFactory(sslFactory.sslContext().getSocketFactory());
       }
+    } else {
+      this.persistentCacheDir = null;
+      this.persistentCacheMaxBytes = 0;
+      this.latestVersionCache = null;
+      this.metadataCache = null;
     }
   }
 
+  private static long longConfig(Map<String, Object> configs, String name, long defaultValue) {
+    Object value = configs.get(name);
+    return value != null ? Long.parseLong(value.toString().trim()) : defaultValue;
+  }
+
+  // returns the persistent cache, or null if there is none or the registry's cluster id is not
+  // known yet, in which case the schemas are fetched from the registry
+  private PersistentSchemaCache persistentCache() {
+    PersistentSchemaCache cache = persistentCache;
+    if (cache != null || persistentCacheDir == null || persistentCacheDisabled
+        || System.nanoTime() - nextClusterIdAttemptNanos < 0
+        || !resolvingClusterId.compareAndSet(false, true)) {
+      return cache;
+    }
+    try {
+      if (persistentCache == null && !persistentCacheDisabled) {
+        openPersistentCache();
+      }
+      return persistentCache;
+    } finally {
+      resolvingClusterId.set(false);
+    }
+  }
+
+  private void openPersistentCache() {
+    ServerClusterId clusterId;
+    try {
+      clusterId = restService.getClusterId();
+    } catch (RestClientException e) {
+      log.debug("Could not get the cluster id of the registry", e);
+      clusterId = null;
+    } catch (IOException e) {
+      // the registry is unreachable, so back off rather than add a request to every lookup
+      clusterIdBackoffNanos = Math.min(MAX_CLUSTER_ID_BACKOFF_NANOS,
+          Math.max(MIN_CLUSTER_ID_BACKOFF_NANOS, 2 * clusterIdBackoffNanos));
+      nextClusterIdAttemptNanos = System.nanoTime() + clusterIdBackoffNanos;
+      log.debug("Could not get the cluster id of the registry, not using the persistent "
+          + "schema cache for {} ms", TimeUnit.NANOSECONDS.toMillis(clusterIdBackoffNanos), e);
+      return;
+    }
+    if (clusterId == null) {
+      log.warn("The registry does not tell its cluster id, fetching schemas from the "
+          + "registry instead of the persistent schema cache");
+      persistentCacheDisabled = true;
+      return;
+    }
+    try {
+      persistentCache = new PersistentSchemaCache(persistentCacheDir, persistentCacheMaxBytes,
+          restService.getBaseUrls() + "\n" + clusterIdOf(clusterId));
+    } catch (IOException e) {
+      log.warn("Could not open the persistent schema cache in {}, fetching schemas from the "
+          + "registry instead", persistentCacheDir, e);
+      persistentCacheDisabled = true;
+    }
+  }
+
+  // the ids of the Kafka cluster and schema registry group, in a stable order
+  private static String clusterIdOf(ServerClusterId clusterId) {
+    Object clusters = clusterId.getScope().get("clusters");
+    return clusters instanceof Map
+        ? new TreeMap<Object, Object>((Map<?, ?>) clusters).toString()
+        : String.valueOf(clusterId.getScope());
+  }
+
   @Override
   public Optional<ParsedSchema> parseSchema(
       String schemaType,
@@ -232,9 +351,14 @@ public class CachedSchemaRegistryClient implements SchemaRegistryClient {
 
   protected ParsedSchema getSchemaByIdFromRegistry(int id, String subject)
       throws IOException, RestClientException {
-    SchemaString restSchema = restService.getId(id, subject);
+    PersistentSchemaCache diskCache = persistentCache();
+    SchemaString cachedSchema = diskCache != null ? diskCache.get(subject, id) : null;
+    SchemaString restSchema = cachedSchema != null ? cachedSchema : restService.getId(id, subject);
     Optional<ParsedSchema> schema = parseSchema(
         restSchema.getSchemaType(), restSchema.getSchemaString(), restSchema.getReferences());
+    if (schema.isPresent() && cachedSchema == null && diskCache != null) {
+      diskCache.put(subject, id, restSchema);
+    }
     return schema.orElseThrow(() -> new IOException("Invalid schema " + restSchema.getSchemaString()
             + " with refs " + restSchema.getReferences()
             + " of type " + restSchema.getSchemaType()));
@@ -274,23 +398,28 @@ public class CachedSchemaRegistryClient implements SchemaRegistryClient {
       return cachedId;
     }
 
-    synchronized (this) {
-      cachedId = schemaIdMap.get(schema);
-      if (cachedId != null) {
-        checkId(id, cachedId);
-        return cachedId;
+    final int retrievedId = registerFlights.execute(subject, schema, () -> {
+      Integer registeredId = schemaIdMap.get(schema);
+      if (registeredId != null) {
+        return registeredId;
       }
-
-      final int retrievedId = id >= 0
+      registeredId = id >= 0
           ? registerAndGetId(subject, schema, version, id)
           : registerAndGetId(subject, schema);
-      schemaIdMap.put(schema, retrievedId);
-      idCache.get(NO_SUBJECT).put(retrievedId, schema);
-      return retrievedId;
-    }
+      schemaIdMap.put(schema, registeredId);
+      idCache.get(NO_SUBJECT).put(registeredId, schema);
+      if (latestVersionCache != null) {
+        // the schema may be a new latest version
+        latestVersionCache.invalidate(subject);
+      }
+      return registeredId;
+    });
+    // a concurrent registration of the schema may have been given another id
+    checkId(id, retrievedId);
+    return retrievedId;
   }
 
-  private void checkId(int id, Integer cachedId) {
+  static void checkId(int id, Integer cachedId) {
     if (id >= 0 && id != cachedId) {
       throw new IllegalStateException("Schema already registered with id "
           + cachedId + " instead of input id " + id);
@@ -317,16 +446,137 @@ public class CachedSchemaRegistryClient implements SchemaRegistryClient {
       return cachedSchema;
     }
 
-    synchronized (this) {
-      cachedSchema = idSchemaMap.get(id);
-      if (cachedSchema != null) {
-        return cachedSchema;
+    final String idSubject = subject;
+    return schemaByIdFlights.execute(idSubject, id, () -> {
+      ParsedSchema retrievedSchema = idSchemaMap.get(id);
+      if (retrievedSchema != null) {
+        return retrievedSchema;
       }
-
-      final ParsedSchema retrievedSchema = getSchemaByIdFromRegistry(id, subject);
+      retrievedSchema = getSchemaByIdFromRegistry(id, idSubject);
       idSchemaMap.put(id, retrievedSchema);
       return retrievedSchema;
+    });
+  }
+
+  /**
+   * Returns the cached schema of the id, or null without asking the registry.
+   */
+  ParsedSchema getCachedSchemaBySubjectAndId(String subject, int id) {
+    Map<Integer, ParsedSchema> idSchemaMap = idCache.get(subject != null ? subject : NO_SUBJECT);
+    return idSchemaMap != null ? idSchemaMap.get(id) : null;
+  }
+
+  /**
+   * Returns the cached id of the schema, or null without asking the registry.
+   */
+  Integer getCachedId(String subject, ParsedSchema schema) {
+    Map<ParsedSchema, Integer> schemaIdMap = schemaCache.get(subject);
+    return schemaIdMap != null ? schemaIdMap.get(schema) : null;
+  }
+
+  /**
+   * Returns the cached version of the schema, or null without asking the registry.
+   */
+  Integer getCachedVersion(String subject, ParsedSchema schema) {
+    Map<ParsedSchema, Integer> schemaVersionMap = versionCache.get(subject);
+    return schemaVersionMap != null ? schemaVersionMap.get(schema) : null;
+  }
+
+  @Override
+  public int prefetchSchemasByIds(String subject, Collection<Integer> ids)
+      throws IOException, RestClientException {
+    String lookupSubject = subject != null ? subject : NO_SUBJECT;
+    final Map<Integer, ParsedSchema> idSchemaMap = idCache.computeIfAbsent(
+        lookupSubject, k -> new BoundedConcurrentHashMap<>(cacheCapacity));
+
+    PersistentSchemaCache diskCache = persistentCache();
+    List<Integer> missingIds = new ArrayList<>();
+    for (Integer id : new LinkedHashSet<>(ids)) {
+      if (id == null || idSchemaMap.containsKey(id)) {
+        continue;
+      }
+      SchemaString cachedSchema =
+          diskCache != null ? diskCache.get(lookupSubject, id) : null;
+      Optional<ParsedSchema> schema = cachedSchema != null
+          ? parseSchema(cachedSchema.getSchemaType(), cachedSchema.getSchemaString(),
+              cachedSchema.getReferences())
+          : Optional.empty();
+      if (schema.isPresent()) {
+        idSchemaMap.put(id, schema.get());
+      } else {
+        missingIds.add(id);
+      }
+    }
+
+    int fetched = 0;
+    for (int i = 0; i < missingIds.size(); i += PREFETCH_BATCH_SIZE) {
+      List<Integer> batch =
+          missingIds.subList(i, Math.min(i + PREFETCH_BATCH_SIZE, missingIds.size()));
+      for (Schema restSchema : restService.getSchemasByIds(batch, lookupSubject)) {
+        Optional<ParsedSchema> schema = parseSchema(
+            restSchema.getSchemaType(), restSchema.getSchema(), restSchema.getReferences());
+        if (schema.isPresent()) {
+          idSchemaMap.put(restSchema.getId(), schema.get());
+          if (diskCache != null) {
+            diskCache.put(lookupSubject, restSchema.getId(), toSchemaString(restSchema));
+          }
+          fetched++;
+        }
+      }
+    }
+    return fetched;
+  }
+
+  @Override
+  public int prefetchSchemasBySubjectPrefix(String subjectPrefix)
+      throws IOException, RestClientException {
+    List<Schema> restSchemas = restService.getSchemas(subjectPrefix, false, false);
+    // the versions of different subjects often share a schema
+    Map<Integer, ParsedSchema> schemasById = new HashMap<>();
+    PersistentSchemaCache diskCache = persistentCache();
+    int fetched = 0;
+    for (Schema restSchema : restSchemas) {
+      ParsedSchema schema = schemasById.get(restSchema.getId());
+      if (schema == null) {
+        Optional<ParsedSchema> parsedSchema = parseSchema(
+            restSchema.getSchemaType(), restSchema.getSchema(), restSchema.getReferences());
+        if (!parsedSchema.isPresent()) {
+          continue;
+        }
+        schema = parsedSchema.get();
+        schemasById.put(restSchema.getId(), schema);
+      }
+      String subject = restSchema.getSubject();
+      idCache.computeIfAbsent(subject, k -> new BoundedConcurrentHashMap<>(cacheCapacity))
+          .put(restSchema.getId(), schema);
+      idCache.computeIfAbsent(contextSubject(subject),
+          k -> new BoundedConcurrentHashMap<>(cacheCapacity))
+          .put(restSchema.getId(), schema);
+      schemaCache.computeIfAbsent(subject, k -> new BoundedConcurrentHashMap<>(cacheCapacity))
+          .put(schema, restSchema.getId());
+      versionCache.computeIfAbsent(subject, k -> new BoundedConcurrentHashMap<>(cacheCapacity))
+          .put(schema, restSchema.getVersion());
+      if (diskCache != null) {
+        diskCache.put(subject, restSchema.getId(), toSchemaString(restSchema));
+      }
+      fetched++;
     }
+    return fetched;
+  }
+
+  // the subject with which the ids of the context of the subject are looked up
+  private static String contextSubject(String subject) {
+    QualifiedSubject qs = QualifiedSubject.create(QualifiedSubject.DEFAULT_TENANT, subject);
+    return qs == null || QualifiedSubject.DEFAULT_CONTEXT.equals(qs.getContext())
+        ? NO_SUBJECT
+        : qs.toQualifiedContext();
+  }
+
+  private static SchemaString toSchemaString(Schema restSchema) {
+    SchemaString schemaString = new SchemaString(restSchema.getSchema());
+    schemaString.setSchemaType(restSchema.getSchemaType());
+    schemaString.setReferences(restSchema.getReferences());
+    return schemaString;
   }
 
   @Override
@@ -373,6 +623,15 @@ public class CachedSchemaRegistryClient implements SchemaRegistryClient {
   @Override
   public SchemaMetadata getSchemaMetadata(String subject, int version)
       throws IOException, RestClientException {
+    if (metadataCache != null) {
+      return metadataCache.get(new SubjectVersion(subject, version),
+          () -> getSchemaMetadataFromRegistry(subject, version));
+    }
+    return getSchemaMetadataFromRegistry(subject, version);
+  }
+
+  private SchemaMetadata getSchemaMetadataFromRegistry(String subject, int version)
+      throws IOException, RestClientException {
     io.confluent.kafka.schemaregistry.client.rest.entities.Schema response
         = restService.getVersion(subject, version);
     int id = response.getId();
@@ -385,6 +644,30 @@ public class CachedSchemaRegistryClient implements SchemaRegistryClient {
   @Override
   public SchemaMetadata getLatestSchemaMetadata(String subject)
       throws IOException, RestClientException {
+    if (latestVersionCache != null) {
+      return latestVersionCache.get(subject, () -> getLatestSchemaMetadataFromRegistry(subject));
+    }
+    return getLatestSchemaMetadataFromRegistry(subject);
+  }
+
+  // returns the cached latest version of the subject, or null if it must be fetched
+  SchemaMetadata getCachedLatestSchemaMetadata(String subject) {
+    return latestVersionCache != null
+        ? latestVersionCache.getIfPresent(
+            subject, () -> getLatestSchemaMetadataFromRegistry(subject))
+        : null;
+  }
+
+  // returns the cached version of the subject, or null if it must be fetched
+  SchemaMetadata getCachedSchemaMetadata(String subject, int version) {
+    return metadataCache != null
+        ? metadataCache.getIfPresent(new SubjectVersion(subject, version),
+            () -> getSchemaMetadataFromRegistry(subject, version))
+        : null;
+  }
+
+  private SchemaMetadata getLatestSchemaMetadataFromRegistry(String subject)
+      throws IOException, RestClientException {
     io.confluent.kafka.schemaregistry.client.rest.entities.Schema response
         = restService.getLatestVersion(subject);
     int id = response.getId();
@@ -406,16 +689,15 @@ public class CachedSchemaRegistryClient implements SchemaRegistryClient {
       return cachedVersion;
     }
 
-    synchronized (this) {
-      cachedVersion = schemaVersionMap.get(schema);
-      if (cachedVersion != null) {
-        return cachedVersion;
+    return versionFlights.execute(subject, schema, () -> {
+      Integer retrievedVersion = schemaVersionMap.get(schema);
+      if (retrievedVersion != null) {
+        return retrievedVersion;
       }
-
-      final int retrievedVersion = getVersionFromRegistry(subject, schema);
+      retrievedVersion = getVersionFromRegistry(subject, schema);
       schemaVersionMap.put(schema, retrievedVersion);
       return retrievedVersion;
-    }
+    });
   }
 
   @Override
@@ -435,17 +717,16 @@ public class CachedSchemaRegistryClient implements SchemaRegistryClient {
       return cachedId;
     }
 
-    synchronized (this) {
-      cachedId = schemaIdMap.get(schema);
-      if (cachedId != null) {
-        return cachedId;
+    return idFlights.execute(subject, schema, () -> {
+      Integer retrievedId = schemaIdMap.get(schema);
+      if (retrievedId != null) {
+        return retrievedId;
       }
-
-      final int retrievedId = getIdFromRegistry(subject, schema);
+      retrievedId = getIdFromRegistry(subject, schema);
       schemaIdMap.put(schema, retrievedId);
       idCache.get(NO_SUBJECT).put(retrievedId, schema);
       return retrievedId;
-    }
+    });
   }
 
   @Override
@@ -462,6 +743,7 @@ public class CachedSchemaRegistryClient implements SchemaRegistryClient {
     versionCache.remove(subject);
     idCache.remove(subject);
     schemaCache.remove(subject);
+    invalidateMetadata(subject);
     return restService.deleteSubject(requestProperties, subject, isPermanent);
   }
 
@@ -482,6 +764,7 @@ public class CachedSchemaRegistryClient implements SchemaRegistryClient {
         .getOrDefault(subject, Collections.emptyMap())
         .values()
         .remove(Integer.valueOf(version));
+    invalidateMetadata(subject);
     return restService.deleteSchemaVersion(requestProperties, subject, version, isPermanent);
   }
 
@@ -565,5 +848,17 @@ public class CachedSchemaRegistryClient implements SchemaRegistryClient {
     idCache.clear();
     versionCache.clear();
     idCache.put(NO_SUBJECT, new BoundedConcurrentHashMap<>(cacheCapacity));
+    if (latestVersionCache != null) {
+      latestVersionCache.invalidateAll();
+      metadataCache.invalidateAll();
+    }
+  }
+
+  // versions are deleted rarely, so all versions of all subjects are dropped
+  private void invalidateMetadata(String subject) {
+    if (latestVersionCache != null) {
+      latestVersionCache.invalidate(subject);
+      metadataCache.invalidateAll();
+    }
   }
 }
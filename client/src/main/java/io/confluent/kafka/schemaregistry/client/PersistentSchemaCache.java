@@ -0,0 +1,286 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.utils.QualifiedSubject;
+
+/**
+ * A cache of schemas by id in a local directory, so that a restarted client does not fetch the
+ * schemas it has seen before from the registry. Schema ids are never reassigned, so an entry
+ * stays valid as long as the id exists.
+ *
+ * <p>Each schema is a file named after a hash of the namespace, the context of the id and the
+ * id, and holds the JSON of the schema after a header with a checksum. A file that fails
+ * its checks is deleted and treated as a miss. Files are written to a temporary file and
+ * renamed into place, so that clients sharing the directory never read a partial file. When
+ * the files exceed the maximum size, the oldest are deleted.
+ *
+ * <p>The cache is best effort: an error reading or writing it is logged and the schema is
+ * fetched from the registry.
+ */
+public class PersistentSchemaCache {
+
+  private static final Logger log = LoggerFactory.getLogger(PersistentSchemaCache.class);
+
+  static final String SUFFIX = ".schema";
+  private static final String TMP_SUFFIX = ".tmp";
+  private static final long STALE_TMP_FILE_MS = 60 * 60 * 1000L;
+  private static final int MAGIC = 0x53524331; // "SRC1"
+  // magic, checksum and length of the JSON
+  private static final int HEADER_SIZE = 4 + 8 + 4;
+
+  private final Path dir;
+  private final long maxBytes;
+  private final String namespace;
+  private final AtomicLong sizeBytes = new AtomicLong();
+  private final Object evictionLock = new Object();
+
+  /**
+   * Creates a cache in the given directory, creating it if needed.
+   *
+   * @param namespace identifies the registry the ids belong to, such as its urls and cluster
+   *                  id, so that the ids of a rebuilt registry do not match the old entries
+   */
+  public PersistentSchemaCache(Path dir, long maxBytes, String namespace) throws IOException {
+    this.dir = Files.createDirectories(dir);
+    this.maxBytes = maxBytes;
+    this.namespace = namespace != null ? namespace : "";
+    long size = 0;
+    long staleMillis = System.currentTimeMillis() - STALE_TMP_FILE_MS;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        BasicFileAttributes attributes = readAttributes(file);
+        if (attributes == null) {
+          continue;
+        }
+        if (name.endsWith(SUFFIX)) {
+          size += attributes.size();
+        } else if (name.endsWith(TMP_SUFFIX)
+            && attributes.lastModifiedTime().toMillis() < staleMillis) {
+          // left behind by a client that stopped while writing
+          delete(file);
+        }
+      }
+    }
+    sizeBytes.set(size);
+  }
+
+  /**
+   * Returns the cached schema of the id, or null.
+   *
+   * @param subject the subject the id was looked up with, which determines its context
+   */
+  public SchemaString get(String subject, int id) {
+    Path file = fileFor(subject, id);
+    byte[] bytes;
+    try {
+      bytes = Files.readAllBytes(file);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      log.warn("Could not read cached schema {}", file, e);
+      return null;
+    }
+    String json = decode(bytes);
+    if (json != null) {
+      try {
+        return SchemaString.fromJson(json);
+      } catch (IOException e) {
+        // fall through to delete the entry
+      }
+    }
+    log.warn("Deleting corrupt cached schema {}", file);
+    delete(file);
+    return null;
+  }
+
+  /**
+   * Caches the schema of the id, unless it already is.
+   *
+   * @param subject the subject the id was looked up with, which determines its context
+   */
+  public void put(String subject, int id, SchemaString schema) {
+    Path file = fileFor(subject, id);
+    if (Files.exists(file)) {
+      return;
+    }
+    Path tmp = null;
+    try {
+      byte[] bytes = encode(schema.toJson());
+      if (bytes.length > maxBytes) {
+        return;
+      }
+      tmp = Files.createTempFile(dir, file.getFileName().toString(), TMP_SUFFIX);
+      Files.write(tmp, bytes);
+      try {
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      tmp = null;
+      if (sizeBytes.addAndGet(bytes.length) > maxBytes) {
+        evict();
+      }
+    } catch (IOException e) {
+      log.warn("Could not cache schema {}", file, e);
+    } finally {
+      if (tmp != null) {
+        delete(tmp);
+      }
+    }
+  }
+
+  long sizeBytes() {
+    return sizeBytes.get();
+  }
+
+  Path fileFor(String subject, int id) {
+    String context = QualifiedSubject.contextFor(QualifiedSubject.DEFAULT_TENANT, subject);
+    String key = namespace + '\n' + context + '\n' + id;
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256")
+          .digest(key.getBytes(StandardCharsets.UTF_8));
+      StringBuilder name = new StringBuilder(hash.length * 2 + SUFFIX.length());
+      for (byte b : hash) {
+        name.append(Character.forDigit((b >> 4) & 0xF, 16))
+            .append(Character.forDigit(b & 0xF, 16));
+      }
+      return dir.resolve(name.append(SUFFIX).toString());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported", e);
+    }
+  }
+
+  // deletes the oldest files until the cache is back under 90% of its maximum size
+  private void evict() throws IOException {
+    synchronized (evictionLock) {
+      if (sizeBytes.get() <= maxBytes) {
+        return;
+      }
+      List<CachedFile> files = new ArrayList<>();
+      long size = 0;
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+        for (Path file : stream) {
+          BasicFileAttributes attributes = readAttributes(file);
+          if (attributes != null) {
+            files.add(new CachedFile(file, attributes));
+            size += attributes.size();
+          }
+        }
+      }
+      files.sort(Comparator.comparing(file -> file.lastModified));
+      long target = maxBytes - maxBytes / 10;
+      for (CachedFile file : files) {
+        if (size <= target) {
+          break;
+        }
+        if (delete(file.path)) {
+          size -= file.size;
+        }
+      }
+      sizeBytes.set(size);
+    }
+  }
+
+  private static class CachedFile {
+    private final Path path;
+    private final long size;
+    private final FileTime lastModified;
+
+    CachedFile(Path path, BasicFileAttributes attributes) {
+      this.path = path;
+      this.size = attributes.size();
+      this.lastModified = attributes.lastModifiedTime();
+    }
+  }
+
+  private static BasicFileAttributes readAttributes(Path file) {
+    try {
+      return Files.readAttributes(file, BasicFileAttributes.class);
+    } catch (IOException e) {
+      // deleted by another client sharing the directory
+      return null;
+    }
+  }
+
+  private static boolean delete(Path file) {
+    try {
+      return Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("Could not delete cached schema {}", file, e);
+      return false;
+    }
+  }
+
+  static byte[] encode(String json) {
+    byte[] payload = json.getBytes(StandardCharsets.UTF_8);
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    return ByteBuffer.allocate(HEADER_SIZE + payload.length)
+        .putInt(MAGIC)
+        .putLong(crc.getValue())
+        .putInt(payload.length)
+        .put(payload)
+        .array();
+  }
+
+  // returns the JSON of the file, or null if it fails its checks
+  static String decode(byte[] bytes) {
+    if (bytes.length < HEADER_SIZE) {
+      return null;
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    if (buffer.getInt() != MAGIC) {
+      return null;
+    }
+    long checksum = buffer.getLong();
+    int length = buffer.getInt();
+    if (length != bytes.length - HEADER_SIZE) {
+      return null;
+    }
+    CRC32 crc = new CRC32();
+    crc.update(bytes, HEADER_SIZE, length);
+    if (crc.getValue() != checksum) {
+      return null;
+    }
+    return new String(bytes, HEADER_SIZE, length, StandardCharsets.UTF_8);
+  }
+}
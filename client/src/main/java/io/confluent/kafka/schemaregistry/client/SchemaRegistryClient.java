@@ -113,6 +113,30 @@ public interface SchemaRegistryClient extends SchemaVersionFetcher {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Fetches the schemas of the given ids that are not cached yet, so that later lookups of them
+   * by id with the given subject do not ask the registry. Ids that are not found are skipped.
+   * By default, nothing is fetched.
+   *
+   * @return the number of schemas fetched
+   */
+  default int prefetchSchemasByIds(String subject, Collection<Integer> ids)
+      throws IOException, RestClientException {
+    return 0;
+  }
+
+  /**
+   * Fetches the schemas of all versions of the subjects with the given prefix, so that later
+   * lookups of them by id, with their subject or with their context, and lookups of their ids
+   * and versions do not ask the registry. By default, nothing is fetched.
+   *
+   * @return the number of schemas fetched
+   */
+  default int prefetchSchemasBySubjectPrefix(String subjectPrefix)
+      throws IOException, RestClientException {
+    return 0;
+  }
+
   public Collection<String> getAllSubjectsById(int id) throws IOException, RestClientException;
 
   default Collection<SubjectVersion> getAllVersionsById(int id) throws IOException,
@@ -37,6 +37,13 @@ public class SchemaRegistryClientConfig {
   public static final String PROXY_HOST = "proxy.host";
   public static final String PROXY_PORT = "proxy.port";
 
+  public static final String PERSISTENT_CACHE_DIR_CONFIG = "persistent.cache.dir";
+  public static final String PERSISTENT_CACHE_MAX_BYTES_CONFIG = "persistent.cache.max.bytes";
+  public static final long PERSISTENT_CACHE_MAX_BYTES_DEFAULT = 64 * 1024 * 1024L;
+
+  public static final String LATEST_CACHE_TTL_CONFIG = "latest.cache.ttl.sec";
+  public static final long LATEST_CACHE_TTL_DEFAULT = -1;
+
   public static void withClientSslSupport(ConfigDef configDef, String namespace) {
     org.apache.kafka.common.config.ConfigDef sslConfigDef = new org.apache.kafka.common.config
         .ConfigDef();
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.client;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+/**
+ * Deduplicates concurrent loads of the same key, so that at most one request per key is in
+ * flight. The first caller for a key runs the load, and callers that arrive while it runs wait
+ * for its result, or its exception, instead of issuing the same request. Loads of different
+ * keys run in parallel. Asynchronous callers share the future of the load instead of waiting.
+ */
+final class SingleFlight<V> {
+
+  interface Loader<V> {
+    V load() throws IOException, RestClientException;
+  }
+
+  private final ConcurrentMap<Key, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the result of the load of the given key in flight, or runs the loader if there is
+   * none.
+   *
+   * @param subject the subject of the load
+   * @param key what is loaded for the subject, such as a schema or an id
+   */
+  V execute(String subject, Object key, Loader<V> loader)
+      throws IOException, RestClientException {
+    Key flightKey = new Key(subject, key);
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> running = inFlight.putIfAbsent(flightKey, future);
+    if (running != null) {
+      return await(running);
+    }
+    try {
+      V value = loader.load();
+      future.complete(value);
+      return value;
+    } catch (Throwable t) {
+      future.completeExceptionally(t);
+      throw t;
+    } finally {
+      inFlight.remove(flightKey, future);
+    }
+  }
+
+  /**
+   * Returns the future of the load of the given key in flight, or starts the loader on the
+   * executor if there is none. The future fails with the exception of the loader, such as an
+   * {@link IOException} or a {@link RestClientException}.
+   *
+   * @param subject the subject of the load
+   * @param key what is loaded for the subject, such as a schema or an id
+   */
+  CompletableFuture<V> executeAsync(String subject, Object key, Executor executor,
+                                    Loader<V> loader) {
+    Key flightKey = new Key(subject, key);
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> running = inFlight.putIfAbsent(flightKey, future);
+    if (running != null) {
+      return running;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          V value = loader.load();
+          inFlight.remove(flightKey, future);
+          future.complete(value);
+        } catch (Throwable t) {
+          inFlight.remove(flightKey, future);
+          future.completeExceptionally(t);
+        }
+      });
+    } catch (Throwable t) {
+      inFlight.remove(flightKey, future);
+      future.completeExceptionally(t);
+    }
+    return future;
+  }
+
+  int inFlight() {
+    return inFlight.size();
+  }
+
+  private static <V> V await(CompletableFuture<V> future)
+      throws IOException, RestClientException {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return future.get();
+        } catch (InterruptedException e) {
+          // the load is bounded by the timeouts of the rest service, like the caller's own
+          interrupted = true;
+        }
+      }
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RestClientException) {
+        throw (RestClientException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw new IOException(cause);
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private static final class Key {
+    private final String subject;
+    private final Object key;
+
+    Key(String subject, Object key) {
+      this.subject = subject;
+      this.key = key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key that = (Key) o;
+      return Objects.equals(subject, that.subject) && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Objects.hashCode(subject) + key.hashCode();
+    }
+  }
+}
@@ -50,6 +50,7 @@ import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
@@ -166,6 +167,10 @@ public class RestService implements Configurable {
   private BearerAuthCredentialProvider bearerAuthCredentialProvider;
   private Map<String, String> httpHeaders;
   private Proxy proxy;
+  // whether connections are left open for reuse by the keep-alive cache of HttpURLConnection
+  private boolean keepAlive;
+  private String responseHeaderName;
+  private Consumer<String> responseHeaderListener;
 
   public RestService(UrlList baseUrls) {
     this.baseUrls = baseUrls;
@@ -237,6 +242,24 @@ public class RestService implements Configurable {
     this.hostnameVerifier = hostnameVerifier;
   }
 
+  /**
+   * Keeps connections open after each request, so that later requests to the same server
+   * reuse them, along with their TLS sessions, instead of connecting again. The number of idle
+   * connections kept per server is set by the {@code http.maxConnections} system property.
+   */
+  public void setKeepAlive(boolean keepAlive) {
+    this.keepAlive = keepAlive;
+  }
+
+  /**
+   * Passes the value of the given header of each successful response that carries it to the
+   * listener, on the thread that sent the request.
+   */
+  public void setResponseHeaderListener(String headerName, Consumer<String> listener) {
+    this.responseHeaderName = headerName;
+    this.responseHeaderListener = listener;
+  }
+
   /**
    * @param requestUrl        HTTP connection will be established with this url.
    * @param method            HTTP method ("GET", "POST", "PUT", etc.)
@@ -275,6 +298,13 @@ public class RestService implements Configurable {
       }
 
       int responseCode = connection.getResponseCode();
+      if (responseHeaderListener != null && (responseCode == HttpURLConnection.HTTP_OK
+          || responseCode == HttpURLConnection.HTTP_NO_CONTENT)) {
+        String value = connection.getHeaderField(responseHeaderName);
+        if (value != null) {
+          responseHeaderListener.accept(value);
+        }
+      }
       if (responseCode == HttpURLConnection.HTTP_OK) {
         InputStream is = connection.getInputStream();
         T result = jsonDeserializer.readValue(is, responseFormat);
@@ -297,9 +327,17 @@ public class RestService implements Configurable {
                                       errorMessage.getErrorCode());
       }
 
-    } finally {
+    } catch (IOException e) {
+      // the connection may be broken, so never leave it for reuse
       if (connection != null) {
         connection.disconnect();
+        connection = null;
+      }
+      throw e;
+    } finally {
+      // closing the streams returns the connection to the keep-alive cache
+      if (connection != null && !keepAlive) {
+        connection.disconnect();
       }
     }
   }
@@ -762,6 +800,31 @@ public class RestService implements Configurable {
     return response;
   }
 
+  public List<Schema> getSchemasByIds(List<Integer> ids, String subject)
+      throws IOException, RestClientException {
+    return getSchemasByIds(DEFAULT_REQUEST_PROPERTIES, ids, subject);
+  }
+
+  /**
+   * Returns the schemas of the given ids in one request. Ids that are not found are left out.
+   */
+  public List<Schema> getSchemasByIds(Map<String, String> requestProperties,
+      List<Integer> ids, String subject)
+      throws IOException, RestClientException {
+    UriBuilder builder = UriBuilder.fromPath("/schemas/ids");
+    for (Integer id : ids) {
+      builder.queryParam("id", id);
+    }
+    if (subject != null) {
+      builder.queryParam("subject", subject);
+    }
+    String path = builder.build().toString();
+
+    List<Schema> response = httpRequest(path, "GET", null, requestProperties,
+        GET_SCHEMAS_RESPONSE_TYPE);
+    return response;
+  }
+
   public SchemaString getId(int id) throws IOException, RestClientException {
     return getId(DEFAULT_REQUEST_PROPERTIES, id, null, false);
   }
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+/**
+ * A cache of values that change over time, such as the latest version of a subject, that
+ * refreshes them in the background instead of blocking lookups.
+ *
+ * <p>A value is returned as is for the TTL after it was loaded. After that, it is still
+ * returned while a single background load refreshes it. A value older than twice the TTL,
+ * because it was not looked up or could not be refreshed, is loaded again by the lookup. A
+ * lookup thus sees a change within twice the TTL, and only blocks on a load when the key is
+ * new or has not been looked up for a while.
+ */
+public class RefreshAheadCache<K, V> {
+
+  private static final Logger log = LoggerFactory.getLogger(RefreshAheadCache.class);
+
+  private static final ExecutorService DEFAULT_EXECUTOR =
+      Executors.newCachedThreadPool(new RefreshThreadFactory());
+
+  public interface Loader<V> {
+    V load() throws IOException, RestClientException;
+  }
+
+  private final Map<K, Entry<V>> entries;
+  private final long ttlNanos;
+  private final Executor executor;
+  private final LongSupplier nanoClock;
+
+  /**
+   * Creates a cache that refreshes its values on shared daemon threads.
+   */
+  public RefreshAheadCache(int capacity, long ttl, TimeUnit unit) {
+    this(capacity, ttl, unit, System::nanoTime);
+  }
+
+  /**
+   * Creates a cache that refreshes its values on shared daemon threads, with the given clock.
+   */
+  public RefreshAheadCache(int capacity, long ttl, TimeUnit unit, LongSupplier nanoClock) {
+    this(capacity, ttl, unit, DEFAULT_EXECUTOR, nanoClock);
+  }
+
+  public RefreshAheadCache(int capacity, long ttl, TimeUnit unit, Executor executor,
+                           LongSupplier nanoClock) {
+    this.entries = new BoundedConcurrentHashMap<>(capacity);
+    this.ttlNanos = unit.toNanos(ttl);
+    this.executor = executor;
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Returns the value of the key, loading it on this thread if it is not cached or too old,
+   * and refreshing it in the background if it is due.
+   */
+  public V get(K key, Loader<V> loader) throws IOException, RestClientException {
+    Entry<V> entry = entries.get(key);
+    if (entry != null) {
+      long age = nanoClock.getAsLong() - entry.loadedNanos;
+      if (age < ttlNanos) {
+        return entry.value;
+      }
+      if (age < 2 * ttlNanos) {
+        refresh(key, entry, loader);
+        return entry.value;
+      }
+    }
+    V value = loader.load();
+    entries.put(key, new Entry<>(value, nanoClock.getAsLong()));
+    return value;
+  }
+
+  /**
+   * Returns the value of the key if it is cached and not too old, refreshing it in the
+   * background if it is due, or null, without loading it on this thread.
+   */
+  public V getIfPresent(K key, Loader<V> loader) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    long age = nanoClock.getAsLong() - entry.loadedNanos;
+    if (age < ttlNanos) {
+      return entry.value;
+    }
+    if (age < 2 * ttlNanos) {
+      refresh(key, entry, loader);
+      return entry.value;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the cached value of the key however old it is, or null, without loading or
+   * refreshing it. A loader can use this to reuse work done for the previous value.
+   */
+  public V peek(K key) {
+    Entry<V> entry = entries.get(key);
+    return entry != null ? entry.value : null;
+  }
+
+  public void invalidate(K key) {
+    entries.remove(key);
+  }
+
+  public void invalidateAll() {
+    entries.clear();
+  }
+
+  private void refresh(K key, Entry<V> entry, Loader<V> loader) {
+    long now = nanoClock.getAsLong();
+    long nextRefresh = entry.nextRefreshNanos.get();
+    // one refresh at a time, and none before the retry of a failed one is due
+    if (now - nextRefresh < 0
+        || !entry.nextRefreshNanos.compareAndSet(nextRefresh, now + ttlNanos)) {
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          V value = loader.load();
+          entries.replace(key, entry, new Entry<>(value, nanoClock.getAsLong()));
+        } catch (Exception e) {
+          log.warn("Could not refresh {}, retrying later", key, e);
+          entry.nextRefreshNanos.set(nanoClock.getAsLong() + ttlNanos / 10);
+        }
+      });
+    } catch (RuntimeException e) {
+      log.warn("Could not refresh {}, retrying later", key, e);
+      entry.nextRefreshNanos.set(now + ttlNanos / 10);
+    }
+  }
+
+  private static class Entry<V> {
+    private final V value;
+    private final long loadedNanos;
+    // the in-flight refresh pushes this past any lookup that could start another
+    private final AtomicLong nextRefreshNanos;
+
+    Entry(V value, long loadedNanos) {
+      this.value = value;
+      this.loadedNanos = loadedNanos;
+      this.nextRefreshNanos = new AtomicLong(loadedNanos);
+    }
+  }
+
+  private static class RefreshThreadFactory implements ThreadFactory {
+    private final AtomicInteger threadNumber = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "schema-registry-refresh-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
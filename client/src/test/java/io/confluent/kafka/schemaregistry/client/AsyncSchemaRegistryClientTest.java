@@ -0,0 +1,184 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.client;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.rest.RestService;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.anyString;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncSchemaRegistryClientTest {
+
+  private static final String SUBJECT = "foo";
+  private static final int ID = 25;
+  private static final String SCHEMA_STR = "{\"type\": \"record\", \"name\": \"Blah\", "
+      + "\"fields\": [{ \"name\": \"name\", \"type\": \"string\" }]}";
+  private static final AvroSchema AVRO_SCHEMA = new AvroSchema(SCHEMA_STR);
+
+  private RestService restService;
+  private CachedSchemaRegistryClient cachedClient;
+  // runs the requests of the client when the test says so
+  private final Queue<Runnable> requests = new ArrayDeque<>();
+  private AsyncSchemaRegistryClient client;
+
+  @Before
+  public void setUp() {
+    restService = createNiceMock(RestService.class);
+    cachedClient = new CachedSchemaRegistryClient(restService, 10, new HashMap<>());
+    client = new AsyncSchemaRegistryClient(cachedClient, requests::add);
+  }
+
+  @Test
+  public void testConcurrentMissesShareOneRequest() throws Exception {
+    expect(restService.getId(ID, SUBJECT))
+        .andReturn(new SchemaString(SCHEMA_STR))
+        .once();
+    replay(restService);
+
+    CompletableFuture<ParsedSchema> first = client.getSchemaBySubjectAndId(SUBJECT, ID);
+    CompletableFuture<ParsedSchema> second = client.getSchemaBySubjectAndId(SUBJECT, ID);
+    assertSame(first, second);
+    assertFalse(first.isDone());
+    assertEquals(1, requests.size());
+
+    runRequests();
+    assertEquals(AVRO_SCHEMA, first.get());
+
+    // hits the shared cache without a request
+    CompletableFuture<ParsedSchema> cached = client.getSchemaBySubjectAndId(SUBJECT, ID);
+    assertTrue(cached.isDone());
+    assertTrue(requests.isEmpty());
+    assertEquals(AVRO_SCHEMA, cached.get());
+
+    verify(restService);
+  }
+
+  @Test
+  public void testRegisterSharesCacheWithBlockingClient() throws Exception {
+    expect(restService.registerSchema(anyString(), anyString(), anyObject(List.class),
+        eq(SUBJECT)))
+        .andReturn(ID)
+        .once();
+    replay(restService);
+
+    CompletableFuture<Integer> registered = client.register(SUBJECT, AVRO_SCHEMA);
+    runRequests();
+    assertEquals(ID, (int) registered.get());
+
+    assertEquals(ID, cachedClient.register(SUBJECT, AVRO_SCHEMA));
+    CompletableFuture<Integer> id = client.getId(SUBJECT, AVRO_SCHEMA);
+    assertTrue(id.isDone());
+    assertEquals(ID, (int) id.get());
+
+    verify(restService);
+  }
+
+  @Test
+  public void testFailedRequestFailsFuture() throws Exception {
+    expect(restService.getId(ID, SUBJECT))
+        .andThrow(new RestClientException("Schema not found", 404, 40403))
+        .times(2);
+    replay(restService);
+
+    CompletableFuture<ParsedSchema> schema = client.getSchemaBySubjectAndId(SUBJECT, ID);
+    runRequests();
+    try {
+      schema.get();
+      fail("Expected the lookup to fail");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof RestClientException);
+      assertEquals(40403, ((RestClientException) e.getCause()).getErrorCode());
+    }
+
+    // a failure is not cached
+    CompletableFuture<ParsedSchema> retried = client.getSchemaBySubjectAndId(SUBJECT, ID);
+    assertEquals(1, requests.size());
+    runRequests();
+    assertTrue(retried.isCompletedExceptionally());
+
+    verify(restService);
+  }
+
+  @Test
+  public void testRejectedRequestFailsFuture() throws Exception {
+    replay(restService);
+    client = new AsyncSchemaRegistryClient(cachedClient, 1);
+    client.close();
+
+    CompletableFuture<List<Integer>> versions = client.getAllVersions(SUBJECT);
+    assertTrue(versions.isCompletedExceptionally());
+  }
+
+  @Test
+  public void testCachedLatestVersionDoesNotWaitForARequest() throws Exception {
+    expect(restService.getLatestVersion(SUBJECT))
+        .andReturn(new Schema(SUBJECT, 1, ID, AvroSchema.TYPE, Collections.emptyList(),
+            SCHEMA_STR))
+        .once();
+    replay(restService);
+    Map<String, Object> configs = new HashMap<>();
+    configs.put(SchemaRegistryClientConfig.LATEST_CACHE_TTL_CONFIG, "60");
+    cachedClient = new CachedSchemaRegistryClient(restService, 10, configs);
+    client = new AsyncSchemaRegistryClient(cachedClient, requests::add);
+
+    CompletableFuture<SchemaMetadata> latest = client.getLatestSchemaMetadata(SUBJECT);
+    assertEquals(1, requests.size());
+    runRequests();
+    assertEquals(ID, latest.get().getId());
+
+    CompletableFuture<SchemaMetadata> cached = client.getLatestSchemaMetadata(SUBJECT);
+    assertTrue(cached.isDone());
+    assertTrue(requests.isEmpty());
+    assertEquals(ID, cached.get().getId());
+
+    verify(restService);
+  }
+
+  private void runRequests() {
+    Runnable request;
+    while ((request = requests.poll()) != null) {
+      request.run();
+    }
+  }
+}
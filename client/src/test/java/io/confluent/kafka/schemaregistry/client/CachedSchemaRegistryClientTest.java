@@ -16,7 +16,9 @@
 package io.confluent.kafka.schemaregistry.client;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -24,6 +26,11 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -33,12 +40,14 @@ import io.confluent.kafka.schemaregistry.avro.AvroSchema;
 import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
 import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
 import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.client.rest.entities.ServerClusterId;
 import io.confluent.kafka.schemaregistry.client.rest.entities.Mode;
 import io.confluent.kafka.schemaregistry.client.rest.entities.requests.ModeUpdateRequest;
 import io.confluent.kafka.schemaregistry.client.rest.RestService;
 import io.confluent.kafka.schemaregistry.ParsedSchema;
 
 import static org.easymock.EasyMock.anyBoolean;
+import static org.easymock.EasyMock.anyInt;
 import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.anyString;
 import static org.easymock.EasyMock.createNiceMock;
@@ -49,6 +58,7 @@ import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.reset;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class CachedSchemaRegistryClientTest {
@@ -63,6 +73,9 @@ public class CachedSchemaRegistryClientTest {
       = new io.confluent.kafka.schemaregistry.client.rest.entities.Schema(
           SUBJECT_0, 7, ID_25, AvroSchema.TYPE, Collections.emptyList(), SCHEMA_STR_0);
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   private RestService restService;
   private CachedSchemaRegistryClient client;
 
@@ -480,6 +493,196 @@ public class CachedSchemaRegistryClientTest {
     assertEquals(0, parsedSchemas.size());
   }
 
+  @Test
+  public void testConcurrentMissesForSameIdShareOneRequest() throws Exception {
+    expect(restService.getId(ID_25, SUBJECT_0))
+        .andAnswer(() -> {
+          Thread.sleep(200);
+          return new SchemaString(SCHEMA_STR_0);
+        })
+        .once();
+
+    replay(restService);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<ParsedSchema>> results = IntStream.range(0, 8)
+          .mapToObj(i -> executor.submit(
+              () -> client.getSchemaBySubjectAndId(SUBJECT_0, ID_25)))
+          .collect(Collectors.toList());
+      for (Future<ParsedSchema> result : results) {
+        assertEquals(AVRO_SCHEMA_0, result.get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(restService);
+  }
+
+  @Test
+  public void testMissesForDifferentIdsRunInParallel() throws Exception {
+    // each request only returns once both are in flight; mocks serialize their calls
+    CountDownLatch bothInFlight = new CountDownLatch(2);
+    RestService parallelRestService = new RestService("http://localhost:8081") {
+      @Override
+      public SchemaString getId(int id, String subject) {
+        bothInFlight.countDown();
+        try {
+          assertTrue(bothInFlight.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        return new SchemaString(avroSchemaString(id));
+      }
+    };
+    client = new CachedSchemaRegistryClient(parallelRestService, CACHE_CAPACITY, new HashMap<>());
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<ParsedSchema> first =
+          executor.submit(() -> client.getSchemaBySubjectAndId(SUBJECT_0, 1));
+      Future<ParsedSchema> second =
+          executor.submit(() -> client.getSchemaBySubjectAndId(SUBJECT_0, 2));
+      assertEquals(avroSchema(1), first.get(20, TimeUnit.SECONDS));
+      assertEquals(avroSchema(2), second.get(20, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testPrefetchSchemasByIds() throws Exception {
+    expect(restService.getId(ID_25, SUBJECT_0))
+        .andReturn(new SchemaString(SCHEMA_STR_0))
+        .once();
+    // ids that are already cached are not fetched again
+    expect(restService.getSchemasByIds(Arrays.asList(26, 27), SUBJECT_0))
+        .andReturn(Arrays.asList(
+            new Schema(null, null, 26, AvroSchema.TYPE, Collections.emptyList(),
+                avroSchemaString(1)),
+            new Schema(null, null, 27, AvroSchema.TYPE, Collections.emptyList(),
+                avroSchemaString(2))))
+        .once();
+
+    replay(restService);
+
+    client.getSchemaBySubjectAndId(SUBJECT_0, ID_25);
+    assertEquals(2, client.prefetchSchemasByIds(SUBJECT_0, Arrays.asList(ID_25, 26, 27, 26)));
+    assertEquals(avroSchema(1), client.getSchemaBySubjectAndId(SUBJECT_0, 26));
+    assertEquals(avroSchema(2), client.getSchemaBySubjectAndId(SUBJECT_0, 27));
+
+    verify(restService);
+  }
+
+  @Test
+  public void testPrefetchSchemasBySubjectPrefix() throws Exception {
+    expect(restService.getSchemas(SUBJECT_0, false, false))
+        .andReturn(Arrays.asList(
+            new Schema(SUBJECT_0, 1, ID_25, AvroSchema.TYPE, Collections.emptyList(),
+                SCHEMA_STR_0),
+            new Schema(":.ctx:" + SUBJECT_0, 1, 3, AvroSchema.TYPE, Collections.emptyList(),
+                avroSchemaString(1))))
+        .once();
+
+    replay(restService);
+
+    // room for the caches of both subjects and contexts
+    client = new CachedSchemaRegistryClient(restService, 100, new HashMap<>());
+    assertEquals(2, client.prefetchSchemasBySubjectPrefix(SUBJECT_0));
+    // lookups by id, with the subject or its context, and of the id and version of the schema
+    assertEquals(AVRO_SCHEMA_0, client.getSchemaBySubjectAndId(SUBJECT_0, ID_25));
+    assertEquals(AVRO_SCHEMA_0, client.getSchemaById(ID_25));
+    assertEquals(avroSchema(1), client.getSchemaBySubjectAndId(":.ctx:", 3));
+    assertEquals(ID_25, client.register(SUBJECT_0, AVRO_SCHEMA_0));
+    assertEquals(1, client.getVersion(SUBJECT_0, AVRO_SCHEMA_0));
+
+    verify(restService);
+  }
+
+  @Test
+  public void testLatestSchemaMetadataCache() throws Exception {
+    expect(restService.getLatestVersion(SUBJECT_0))
+        .andReturn(new Schema(SUBJECT_0, VERSION_1, ID_25, AvroSchema.TYPE,
+            Collections.emptyList(), SCHEMA_STR_0))
+        .once();
+    expect(restService.registerSchema(anyString(), anyString(), anyObject(List.class),
+        eq(SUBJECT_0)))
+        .andReturn(26)
+        .once();
+    expect(restService.getLatestVersion(SUBJECT_0))
+        .andReturn(new Schema(SUBJECT_0, 2, 26, AvroSchema.TYPE,
+            Collections.emptyList(), avroSchemaString(1)))
+        .once();
+
+    replay(restService);
+
+    Map<String, Object> configs = new HashMap<>();
+    configs.put(SchemaRegistryClientConfig.LATEST_CACHE_TTL_CONFIG, "60");
+    client = new CachedSchemaRegistryClient(restService, CACHE_CAPACITY, configs);
+    assertEquals(ID_25, client.getLatestSchemaMetadata(SUBJECT_0).getId());
+    assertEquals(ID_25, client.getLatestSchemaMetadata(SUBJECT_0).getId()); // hit the cache
+    // registering a schema may change the latest version
+    client.register(SUBJECT_0, avroSchema(1));
+    assertEquals(26, client.getLatestSchemaMetadata(SUBJECT_0).getId());
+
+    verify(restService);
+  }
+
+  @Test
+  public void testPersistentCacheIsKeyedByClusterId() throws Exception {
+    assertEquals(1, fetchesWithPersistentCache("kafka-1"));
+    assertEquals(0, fetchesWithPersistentCache("kafka-1"));
+    // a rebuilt registry may reuse the id for another schema
+    assertEquals(1, fetchesWithPersistentCache("kafka-2"));
+  }
+
+  @Test
+  public void testUnreachableClusterIdIsRetriedAfterBackoff() throws Exception {
+    RestService restService = createNiceMock(RestService.class);
+    int[] clusterIdRequests = new int[1];
+    expect(restService.getClusterId()).andAnswer(() -> {
+      clusterIdRequests[0]++;
+      throw new IOException("unreachable");
+    }).anyTimes();
+    expect(restService.getId(anyInt(), eq(SUBJECT_0)))
+        .andReturn(new SchemaString(SCHEMA_STR_0)).anyTimes();
+    replay(restService);
+
+    Map<String, Object> configs = new HashMap<>();
+    configs.put(SchemaRegistryClientConfig.PERSISTENT_CACHE_DIR_CONFIG,
+        folder.getRoot().getPath());
+    CachedSchemaRegistryClient client =
+        new CachedSchemaRegistryClient(restService, CACHE_CAPACITY, configs);
+    for (int id = 1; id <= 10; id++) {
+      assertEquals(AVRO_SCHEMA_0.canonicalString(),
+          client.getSchemaBySubjectAndId(SUBJECT_0, id).canonicalString());
+    }
+    // the lookups within the backoff go to the registry without asking for the cluster id
+    assertEquals(1, clusterIdRequests[0]);
+  }
+
+  // returns how many times a new client fetches the schema of the id from the registry
+  private int fetchesWithPersistentCache(String kafkaClusterId) throws Exception {
+    RestService restService = createNiceMock(RestService.class);
+    expect(restService.getClusterId())
+        .andReturn(ServerClusterId.of(kafkaClusterId, "schema-registry"));
+    int[] fetches = new int[1];
+    expect(restService.getId(ID_25, SUBJECT_0)).andAnswer(() -> {
+      fetches[0]++;
+      return new SchemaString(SCHEMA_STR_0);
+    }).anyTimes();
+    replay(restService);
+
+    Map<String, Object> configs = new HashMap<>();
+    configs.put(SchemaRegistryClientConfig.PERSISTENT_CACHE_DIR_CONFIG,
+        folder.getRoot().getPath());
+    CachedSchemaRegistryClient client =
+        new CachedSchemaRegistryClient(restService, CACHE_CAPACITY, configs);
+    assertEquals(AVRO_SCHEMA_0.canonicalString(),
+        client.getSchemaBySubjectAndId(SUBJECT_0, ID_25).canonicalString());
+    return fetches[0];
+  }
 
   private static AvroSchema avroSchema(final int i) {
     return new AvroSchema(avroSchemaString(i));
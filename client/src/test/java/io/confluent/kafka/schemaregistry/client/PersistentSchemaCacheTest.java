@@ -0,0 +1,138 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.client;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.rest.RestService;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.client.rest.entities.ServerClusterId;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentSchemaCacheTest {
+
+  private static final String SUBJECT = "foo";
+  private static final int ID = 25;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testGetCachedSchema() throws Exception {
+    PersistentSchemaCache cache = newCache(1024 * 1024, "http://registry:8081");
+    assertNull(cache.get(SUBJECT, ID));
+
+    cache.put(SUBJECT, ID, new SchemaString(avroSchemaString(0)));
+
+    PersistentSchemaCache reopened = newCache(1024 * 1024, "http://registry:8081");
+    assertEquals(avroSchemaString(0), reopened.get(SUBJECT, ID).getSchemaString());
+    // ids are shared by the subjects of a context
+    assertEquals(avroSchemaString(0), reopened.get("bar", ID).getSchemaString());
+    assertEquals(cache.sizeBytes(), reopened.sizeBytes());
+  }
+
+  @Test
+  public void testIdsOfOtherContextsAndRegistriesAreMisses() throws Exception {
+    PersistentSchemaCache cache = newCache(1024 * 1024, "http://registry:8081");
+    cache.put(SUBJECT, ID, new SchemaString(avroSchemaString(0)));
+
+    assertNull(cache.get(":.other:" + SUBJECT, ID));
+    assertNull(newCache(1024 * 1024, "http://other:8081").get(SUBJECT, ID));
+  }
+
+  @Test
+  public void testCorruptEntryIsDeleted() throws Exception {
+    PersistentSchemaCache cache = newCache(1024 * 1024, "http://registry:8081");
+    cache.put(SUBJECT, ID, new SchemaString(avroSchemaString(0)));
+    Path file = cache.fileFor(SUBJECT, ID);
+    byte[] bytes = Files.readAllBytes(file);
+    bytes[bytes.length - 2] ^= 1;
+    Files.write(file, bytes);
+
+    assertNull(cache.get(SUBJECT, ID));
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  public void testOldestEntriesAreEvicted() throws Exception {
+    int entrySize = PersistentSchemaCache.encode(
+        new SchemaString(avroSchemaString(0)).toJson()).length;
+    PersistentSchemaCache cache = newCache(entrySize * 5, "http://registry:8081");
+    for (int id = 0; id < 20; id++) {
+      cache.put(SUBJECT, id, new SchemaString(avroSchemaString(id % 10)));
+      Files.setLastModifiedTime(cache.fileFor(SUBJECT, id),
+          FileTime.fromMillis(1000L * id));
+    }
+
+    assertTrue(cache.sizeBytes() <= entrySize * 5);
+    assertNull(cache.get(SUBJECT, 0));
+    assertEquals(avroSchemaString(9), cache.get(SUBJECT, 19).getSchemaString());
+  }
+
+  @Test
+  public void testRestartedClientDoesNotFetchCachedSchemas() throws Exception {
+    Map<String, Object> configs = new HashMap<>();
+    configs.put(SchemaRegistryClientConfig.CLIENT_NAMESPACE
+        + SchemaRegistryClientConfig.PERSISTENT_CACHE_DIR_CONFIG, folder.getRoot().toString());
+
+    RestService restService = createNiceMock(RestService.class);
+    expect(restService.getClusterId()).andReturn(ServerClusterId.of("kafka", "registry"));
+    expect(restService.getId(ID, SUBJECT))
+        .andReturn(new SchemaString(avroSchemaString(0)))
+        .once();
+    replay(restService);
+    CachedSchemaRegistryClient client = new CachedSchemaRegistryClient(restService, 10, configs);
+    assertEquals(new AvroSchema(avroSchemaString(0)), client.getSchemaBySubjectAndId(SUBJECT, ID));
+    verify(restService);
+
+    RestService restartedRestService = createNiceMock(RestService.class);
+    expect(restartedRestService.getClusterId())
+        .andReturn(ServerClusterId.of("kafka", "registry"));
+    replay(restartedRestService);
+    CachedSchemaRegistryClient restarted =
+        new CachedSchemaRegistryClient(restartedRestService, 10, configs);
+    assertEquals(new AvroSchema(avroSchemaString(0)),
+        restarted.getSchemaBySubjectAndId(SUBJECT, ID));
+    verify(restartedRestService);
+  }
+
+  private PersistentSchemaCache newCache(long maxBytes, String namespace) throws Exception {
+    return new PersistentSchemaCache(folder.getRoot().toPath(), maxBytes, namespace);
+  }
+
+  private static String avroSchemaString(final int i) {
+    return "{\"type\": \"record\", \"name\": \"Blah" + i + "\", "
+        + "\"fields\": [{ \"name\": \"name\", \"type\": \"string\" }]}";
+  }
+}
@@ -204,6 +204,35 @@ public class RestServiceTest {
     verify(httpURLConnection);
   }
 
+  @Test
+  public void testResponseHeaderListener() throws Exception {
+    RestService restService = new RestService("http://localhost:8081");
+    Map<String, String> headers = new HashMap<>();
+    restService.setResponseHeaderListener("X-Schema-Registry-Offset",
+        value -> headers.put("X-Schema-Registry-Offset", value));
+
+    HttpURLConnection httpURLConnection = createNiceMock(HttpURLConnection.class);
+    InputStream inputStream = createNiceMock(InputStream.class);
+
+    expectNew(URL.class, anyString()).andReturn(url);
+    expect(url.openConnection()).andReturn(httpURLConnection);
+    expect(httpURLConnection.getResponseCode()).andReturn(HttpURLConnection.HTTP_OK);
+    expect(httpURLConnection.getHeaderField("X-Schema-Registry-Offset")).andReturn("42");
+    expect(httpURLConnection.getInputStream()).andReturn(inputStream);
+
+    expect(inputStream.read(anyObject(), anyInt(), anyInt()))
+        .andDelegateTo(createInputStream("[\"abc\"]"))
+        .anyTimes();
+
+    replay(URL.class, url);
+    replay(HttpURLConnection.class, httpURLConnection);
+    replay(InputStream.class, inputStream);
+
+    restService.getAllSubjects();
+
+    assertEquals("42", headers.get("X-Schema-Registry-Offset"));
+  }
+
   @Test
   public void testErrorResponseWithNullErrorStreamFromConnection() throws Exception {
     RestService restService = new RestService("http://localhost:8081");
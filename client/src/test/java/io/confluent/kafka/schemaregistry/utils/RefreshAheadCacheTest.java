@@ -0,0 +1,155 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class RefreshAheadCacheTest {
+
+  private static final String KEY = "orders-value";
+
+  private final AtomicLong now = new AtomicLong();
+  private final Queue<Runnable> refreshes = new ArrayDeque<>();
+  private final AtomicInteger loads = new AtomicInteger();
+  private RefreshAheadCache<String, Integer> cache;
+
+  @Before
+  public void setUp() {
+    cache = new RefreshAheadCache<>(10, 10, TimeUnit.SECONDS, refreshes::add, now::get);
+  }
+
+  private Integer load() {
+    return loads.incrementAndGet();
+  }
+
+  private void advanceSeconds(long seconds) {
+    now.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+  }
+
+  @Test
+  public void testValueIsCachedForTheTtl() throws Exception {
+    assertEquals(1, (int) cache.get(KEY, this::load));
+    advanceSeconds(9);
+    assertEquals(1, (int) cache.get(KEY, this::load));
+    assertEquals(1, loads.get());
+    assertEquals(0, refreshes.size());
+  }
+
+  @Test
+  public void testStaleValueIsServedWhileOneRefreshRuns() throws Exception {
+    cache.get(KEY, this::load);
+    advanceSeconds(11);
+    assertEquals(1, (int) cache.get(KEY, this::load));
+    assertEquals(1, (int) cache.get(KEY, this::load));
+    assertEquals(1, refreshes.size());
+
+    refreshes.poll().run();
+    assertEquals(2, (int) cache.get(KEY, this::load));
+    assertEquals(2, loads.get());
+    assertEquals(0, refreshes.size());
+  }
+
+  @Test
+  public void testValueOlderThanTwiceTheTtlIsLoaded() throws Exception {
+    cache.get(KEY, this::load);
+    advanceSeconds(20);
+    assertEquals(2, (int) cache.get(KEY, this::load));
+    assertEquals(0, refreshes.size());
+  }
+
+  @Test
+  public void testFailedRefreshIsRetried() throws Exception {
+    cache.get(KEY, this::load);
+    advanceSeconds(11);
+    cache.get(KEY, () -> {
+      throw new IOException("unavailable");
+    });
+    refreshes.poll().run();
+
+    // the stale value is served, and the refresh is retried after a tenth of the TTL
+    assertEquals(1, (int) cache.get(KEY, this::load));
+    assertEquals(0, refreshes.size());
+    advanceSeconds(1);
+    assertEquals(1, (int) cache.get(KEY, this::load));
+    refreshes.poll().run();
+    assertEquals(2, (int) cache.get(KEY, this::load));
+  }
+
+  @Test
+  public void testGetIfPresentDoesNotLoad() throws Exception {
+    assertNull(cache.getIfPresent(KEY, this::load));
+    assertEquals(0, loads.get());
+
+    cache.get(KEY, this::load);
+    assertEquals(1, (int) cache.getIfPresent(KEY, this::load));
+    advanceSeconds(11);
+    // a stale value is returned while it is refreshed in the background
+    assertEquals(1, (int) cache.getIfPresent(KEY, this::load));
+    assertEquals(1, refreshes.size());
+    advanceSeconds(10);
+    assertNull(cache.getIfPresent(KEY, this::load));
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void testPeekReturnsOldValueWithoutRefreshing() throws Exception {
+    assertNull(cache.peek(KEY));
+    cache.get(KEY, this::load);
+    advanceSeconds(25);
+    assertEquals(1, (int) cache.peek(KEY));
+    assertEquals(0, refreshes.size());
+
+    // a loader can build on the value it replaces
+    assertEquals(11, (int) cache.get(KEY, () -> cache.peek(KEY) + 10));
+  }
+
+  @Test
+  public void testInvalidatedValueIsLoaded() throws Exception {
+    cache.get(KEY, this::load);
+    cache.invalidate(KEY);
+    assertEquals(2, (int) cache.get(KEY, this::load));
+    cache.invalidateAll();
+    assertEquals(3, (int) cache.get(KEY, this::load));
+  }
+
+  @Test
+  public void testLoadErrorIsThrownWhenNothingIsCached() throws Exception {
+    try {
+      cache.get(KEY, () -> {
+        throw new RestClientException("not found", 404, 40401);
+      });
+      fail("Expected the error of the load");
+    } catch (RestClientException e) {
+      assertEquals(40401, e.getErrorCode());
+    }
+    assertEquals(1, (int) cache.get(KEY, this::load));
+  }
+}
@@ -27,6 +27,7 @@ public interface IdGenerator {
 
   /**
    * Provides the id for the schema.
+   * This may be invoked concurrently for schemas registered under different subjects.
    *
    * @param schema the schema being registered; never {@code null}
    * @return the identifier for the schema; never {@code null}
@@ -34,8 +34,11 @@ import org.apache.kafka.common.metrics.MetricsReporter;
 import org.apache.kafka.common.utils.SystemTime;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 public class MetricsContainer {
@@ -71,6 +74,28 @@ public class MetricsContainer {
   private final SchemaRegistryMetric jsonSchemasDeleted;
   private final SchemaRegistryMetric protobufSchemasDeleted;
 
+  private final SchemaRegistryMetric parsedSchemaCacheHits;
+  private final SchemaRegistryMetric parsedSchemaCacheMisses;
+  private final SchemaRegistryMetric compatibilityCacheHits;
+  private final SchemaRegistryMetric compatibilityCacheMisses;
+  private final SchemaRegistryMetric parsedSchemaCacheEvictions;
+
+  private final SchemaRegistryMetric bootstrapRecords;
+  private final SchemaRegistryMetric bootstrapTimeMs;
+  private final SchemaRegistryMetric bootstrapRecordsPerSec;
+
+  private final SchemaRegistryHistogram writeLatencyMs;
+  private final SchemaRegistryHistogram writeBatchSize;
+
+  private final SchemaRegistryHistogram leaderForwardLatencyMs;
+  private final SchemaRegistryMetric leaderForwardsInFlight;
+  private final SchemaRegistryMetric leaderForwardsWaiting;
+
+  private final ConcurrentMap<String, RestEndpointMetrics> restEndpointMetrics =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, SchemaRegistryHistogram> writePhaseLatencyMs =
+      new ConcurrentHashMap<>();
+
   private final MetricsContext metricsContext;
 
   public MetricsContainer(SchemaRegistryConfig config, String kafkaClusterId) {
@@ -125,6 +150,47 @@ public class MetricsContainer {
 
     this.protobufSchemasDeleted = createMetric("protobuf-schemas-deleted",
             "Number of deleted Protobuf schemas");
+
+    this.parsedSchemaCacheHits = createMetric("parsed-schema-cache-hit-count",
+            "Number of stored schemas found in the parsed schema cache");
+
+    this.parsedSchemaCacheMisses = createMetric("parsed-schema-cache-miss-count",
+            "Number of stored schemas parsed on a parsed schema cache miss");
+
+    this.parsedSchemaCacheEvictions = createMetric("parsed-schema-cache-eviction-count",
+            "Number of entries evicted from the parsed schema cache");
+
+    this.compatibilityCacheHits = createMetric("compatibility-cache-hit-count",
+            "Number of compatibility checks answered from the compatibility cache");
+
+    this.compatibilityCacheMisses = createMetric("compatibility-cache-miss-count",
+            "Number of compatibility checks run on a compatibility cache miss");
+
+    this.bootstrapRecords = createMetric("kafkastore-bootstrap-records",
+            "Number of records read from the Kafka store at startup");
+
+    this.bootstrapTimeMs = createMetric("kafkastore-bootstrap-time-ms",
+            "Time spent reading the Kafka store at startup");
+
+    this.bootstrapRecordsPerSec = createMetric("kafkastore-bootstrap-records-per-sec",
+            "Rate at which records were read from the Kafka store at startup");
+
+    this.writeLatencyMs = createHistogram("kafkastore-write-latency-ms",
+            "the time in ms from queueing a write to the Kafka store until the local store "
+            + "has caught up to it", SchemaRegistryHistogram.MAX_LATENCY_MS);
+
+    this.writeBatchSize = createHistogram("kafkastore-write-batch-size",
+            "the number of writes sent to the Kafka store together", 1000);
+
+    this.leaderForwardLatencyMs = createHistogram("leader-forward-latency-ms",
+            "the time in ms to forward a request to the leader, excluding the time waiting "
+            + "to be sent", SchemaRegistryHistogram.MAX_LATENCY_MS);
+
+    this.leaderForwardsInFlight = createMetric("leader-forward-in-flight",
+            "Number of requests being forwarded to the leader");
+
+    this.leaderForwardsWaiting = createMetric("leader-forward-waiting",
+            "Number of requests waiting to be forwarded to the leader");
   }
 
   public Metrics getMetrics() {
@@ -149,6 +215,12 @@ public class MetricsContainer {
     return createMetric(name, name, name, metricDescription);
   }
 
+  private SchemaRegistryHistogram createHistogram(String name, String metricDescription,
+                                                  double maxValue) {
+    return new SchemaRegistryHistogram(
+        metrics, name, name, metricDescription, configuredTags, maxValue);
+  }
+
   private SchemaRegistryMetric createMetric(String sensorName, String metricName,
                                             String metricGroup, String metricDescription) {
     MetricName mn = new MetricName(metricName, metricGroup, metricDescription, configuredTags);
@@ -191,6 +263,79 @@ public class MetricsContainer {
     return getSchemaTypeMetric(type, false);
   }
 
+  public SchemaRegistryMetric getParsedSchemaCacheHits() {
+    return parsedSchemaCacheHits;
+  }
+
+  public SchemaRegistryMetric getParsedSchemaCacheMisses() {
+    return parsedSchemaCacheMisses;
+  }
+
+  public SchemaRegistryMetric getParsedSchemaCacheEvictions() {
+    return parsedSchemaCacheEvictions;
+  }
+
+  public SchemaRegistryMetric getCompatibilityCacheHits() {
+    return compatibilityCacheHits;
+  }
+
+  public SchemaRegistryMetric getCompatibilityCacheMisses() {
+    return compatibilityCacheMisses;
+  }
+
+  public SchemaRegistryMetric getBootstrapRecords() {
+    return bootstrapRecords;
+  }
+
+  public SchemaRegistryMetric getBootstrapTimeMs() {
+    return bootstrapTimeMs;
+  }
+
+  public SchemaRegistryMetric getBootstrapRecordsPerSec() {
+    return bootstrapRecordsPerSec;
+  }
+
+  public SchemaRegistryHistogram getWriteLatencyMs() {
+    return writeLatencyMs;
+  }
+
+  public SchemaRegistryHistogram getWriteBatchSize() {
+    return writeBatchSize;
+  }
+
+  public SchemaRegistryHistogram getLeaderForwardLatencyMs() {
+    return leaderForwardLatencyMs;
+  }
+
+  public SchemaRegistryMetric getLeaderForwardsInFlight() {
+    return leaderForwardsInFlight;
+  }
+
+  public SchemaRegistryMetric getLeaderForwardsWaiting() {
+    return leaderForwardsWaiting;
+  }
+
+  public RestEndpointMetrics getRestEndpointMetrics(String endpoint) {
+    return restEndpointMetrics.computeIfAbsent(endpoint,
+        e -> new RestEndpointMetrics(metrics, configuredTags, e));
+  }
+
+  /**
+   * Returns the histogram of the time spent in a phase of a write operation, such as
+   * registering a schema, tagged with the operation and the phase.
+   */
+  public SchemaRegistryHistogram getWritePhaseLatencyMs(String operation, String phase) {
+    return writePhaseLatencyMs.computeIfAbsent(operation + ":" + phase, key -> {
+      Map<String, String> tags = new HashMap<>(configuredTags);
+      tags.put("operation", operation);
+      tags.put("phase", phase);
+      return new SchemaRegistryHistogram(metrics, "write-phase-latency-ms:" + key,
+          "write-phase-latency-ms", "write-phase-latency-ms",
+          "the time in ms spent in a phase of a write", tags,
+          SchemaRegistryHistogram.MAX_LATENCY_MS);
+    });
+  }
+
   private SchemaRegistryMetric getSchemaTypeMetric(String type, boolean isRegister) {
     switch (type) {
       case AvroSchema.TYPE:
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.metrics;
+
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The metrics of a REST endpoint, which are tagged with the name of the endpoint so that each
+ * endpoint has its own JMX bean.
+ */
+public class RestEndpointMetrics {
+
+  public static final String ENDPOINT_TAG = "endpoint";
+
+  // bodies larger than this are all counted in the last bucket of the percentiles
+  private static final long MAX_SIZE_BYTES = 64 * 1024;
+
+  private final SchemaRegistryHistogram latencyMs;
+  private final SchemaRegistryHistogram requestSize;
+  private final SchemaRegistryHistogram responseSize;
+  private final SchemaRegistryMetric inFlight;
+  private final AtomicLong inFlightCount = new AtomicLong();
+
+  RestEndpointMetrics(Metrics metrics, Map<String, String> configuredTags, String endpoint) {
+    Map<String, String> tags = new HashMap<>(configuredTags);
+    tags.put(ENDPOINT_TAG, endpoint);
+    latencyMs = new SchemaRegistryHistogram(metrics, "request-latency-ms:" + endpoint,
+        "request-latency-ms", "request-latency-ms",
+        "the time in ms to handle a request to the endpoint", tags,
+        SchemaRegistryHistogram.MAX_LATENCY_MS);
+    requestSize = new SchemaRegistryHistogram(metrics, "request-size-bytes:" + endpoint,
+        "request-size-bytes", "request-size-bytes",
+        "the size in bytes of request bodies sent to the endpoint", tags, MAX_SIZE_BYTES);
+    responseSize = new SchemaRegistryHistogram(metrics, "response-size-bytes:" + endpoint,
+        "response-size-bytes", "response-size-bytes",
+        "the size in bytes of response bodies returned by the endpoint", tags, MAX_SIZE_BYTES);
+    inFlight = new SchemaRegistryMetric(metrics, "request-in-flight:" + endpoint,
+        new MetricName("request-in-flight", "request-in-flight",
+            "Number of requests to the endpoint being handled", tags));
+  }
+
+  public void requestStarted(long requestSizeBytes) {
+    inFlight.set(inFlightCount.incrementAndGet());
+    if (requestSizeBytes >= 0) {
+      requestSize.record(requestSizeBytes);
+    }
+  }
+
+  public void requestCompleted(long latencyMs) {
+    inFlight.set(inFlightCount.decrementAndGet());
+    this.latencyMs.record(latencyMs);
+  }
+
+  public void responseWritten(long responseSizeBytes) {
+    responseSize.record(responseSizeBytes);
+  }
+}
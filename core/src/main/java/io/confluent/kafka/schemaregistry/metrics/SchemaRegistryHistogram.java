@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.metrics;
+
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.stats.Avg;
+import org.apache.kafka.common.metrics.stats.Max;
+import org.apache.kafka.common.metrics.stats.Percentile;
+import org.apache.kafka.common.metrics.stats.Percentiles;
+import org.apache.kafka.common.metrics.stats.Percentiles.BucketSizing;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A distribution of recorded values, reported as the average, maximum and the 50th, 95th, 99th
+ * and 99.9th percentiles over the sample window of the metrics.
+ */
+public class SchemaRegistryHistogram {
+  /**
+   * The maximum value of latency histograms. The percentiles use linear buckets, so the range
+   * must be small enough for the buckets to resolve typical latencies; slower operations are
+   * counted in the last bucket, and are still reported by the maximum.
+   */
+  public static final double MAX_LATENCY_MS = TimeUnit.SECONDS.toMillis(2);
+
+  // the memory used by the buckets of each percentile sample, 4 bytes per bucket
+  private static final int PERCENTILES_SIZE_BYTES = 4 * 2000;
+
+  private final Sensor sensor;
+
+  public SchemaRegistryHistogram(Metrics metrics, String name, String metricGroup,
+                                 String metricDescription, Map<String, String> tags,
+                                 double maxValue) {
+    this(metrics, name, name, metricGroup, metricDescription, tags, maxValue);
+  }
+
+  public SchemaRegistryHistogram(Metrics metrics, String sensorName, String name,
+                                 String metricGroup, String metricDescription,
+                                 Map<String, String> tags, double maxValue) {
+    sensor = metrics.sensor(sensorName);
+    sensor.add(new MetricName(name + "-avg", metricGroup,
+        "The average of " + metricDescription, tags), new Avg());
+    sensor.add(new MetricName(name + "-max", metricGroup,
+        "The maximum of " + metricDescription, tags), new Max());
+    sensor.add(new Percentiles(PERCENTILES_SIZE_BYTES, maxValue, BucketSizing.LINEAR,
+        percentile(name, metricGroup, metricDescription, tags, "50", "50", 50),
+        percentile(name, metricGroup, metricDescription, tags, "95", "95", 95),
+        percentile(name, metricGroup, metricDescription, tags, "99", "99", 99),
+        percentile(name, metricGroup, metricDescription, tags, "999", "99.9", 99.9)));
+  }
+
+  public void record(double value) {
+    sensor.record(value);
+  }
+
+  private static Percentile percentile(String name, String metricGroup,
+                                       String metricDescription, Map<String, String> tags,
+                                       String suffix, String label, double percentile) {
+    return new Percentile(new MetricName(name + "-p" + suffix, metricGroup,
+        "The " + label + "th percentile of " + metricDescription, tags), percentile);
+  }
+}
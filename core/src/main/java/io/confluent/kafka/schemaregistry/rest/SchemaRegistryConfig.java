@@ -97,10 +97,46 @@ public class SchemaRegistryConfig extends RestConfig {
    * <code>kafkastore.checkpoint.version</code>
    */
   public static final String KAFKASTORE_CHECKPOINT_VERSION_CONFIG = "kafkastore.checkpoint.version";
+  /**
+   * <code>kafkastore.snapshot.enable</code>
+   */
+  public static final String KAFKASTORE_SNAPSHOT_ENABLE_CONFIG = "kafkastore.snapshot.enable";
+  public static final boolean KAFKASTORE_SNAPSHOT_ENABLE_DEFAULT = false;
+  /**
+   * <code>kafkastore.snapshot.interval.ms</code>
+   */
+  public static final String KAFKASTORE_SNAPSHOT_INTERVAL_MS_CONFIG =
+      "kafkastore.snapshot.interval.ms";
+  public static final long KAFKASTORE_SNAPSHOT_INTERVAL_MS_DEFAULT = 60000L;
   /**
    * <code>kafkastore.init.timeout.ms</code>
    */
   public static final String KAFKASTORE_INIT_TIMEOUT_CONFIG = "kafkastore.init.timeout.ms";
+  /**
+   * <code>kafkastore.bootstrap.decode.threads</code>
+   */
+  public static final String KAFKASTORE_BOOTSTRAP_DECODE_THREADS_CONFIG =
+      "kafkastore.bootstrap.decode.threads";
+  public static final int KAFKASTORE_BOOTSTRAP_DECODE_THREADS_DEFAULT = 4;
+  /**
+   * <code>kafkastore.write.batch.max.size</code>
+   */
+  public static final String KAFKASTORE_WRITE_BATCH_MAX_SIZE_CONFIG =
+      "kafkastore.write.batch.max.size";
+  public static final int KAFKASTORE_WRITE_BATCH_MAX_SIZE_DEFAULT = 1;
+  /**
+   * <code>kafkastore.write.batch.window.ms</code>
+   */
+  public static final String KAFKASTORE_WRITE_BATCH_WINDOW_MS_CONFIG =
+      "kafkastore.write.batch.window.ms";
+  public static final int KAFKASTORE_WRITE_BATCH_WINDOW_MS_DEFAULT = 0;
+  /**
+   * <code>kafkastore.value.encoding</code>
+   */
+  public static final String KAFKASTORE_VALUE_ENCODING_CONFIG = "kafkastore.value.encoding";
+  public static final String KAFKASTORE_VALUE_ENCODING_JSON = "json";
+  public static final String KAFKASTORE_VALUE_ENCODING_BINARY = "binary";
+  public static final String KAFKASTORE_VALUE_ENCODING_DEFAULT = KAFKASTORE_VALUE_ENCODING_JSON;
   /**
    * <code>kafkastore.update.handler</code>
    */
@@ -142,6 +178,71 @@ public class SchemaRegistryConfig extends RestConfig {
    */
   public static final String SCHEMA_CACHE_EXPIRY_SECS_CONFIG = "schema.cache.expiry.secs";
   public static final int SCHEMA_CACHE_EXPIRY_SECS_DEFAULT = 300;
+  /**
+   * <code>parsed.schema.cache.max.bytes</code>
+   */
+  public static final String PARSED_SCHEMA_CACHE_MAX_BYTES_CONFIG =
+      "parsed.schema.cache.max.bytes";
+  public static final long PARSED_SCHEMA_CACHE_MAX_BYTES_DEFAULT = 64 * 1024 * 1024L;
+  /**
+   * <code>parsed.schema.cache.warmup.count</code>
+   */
+  public static final String PARSED_SCHEMA_CACHE_WARMUP_COUNT_CONFIG =
+      "parsed.schema.cache.warmup.count";
+  public static final int PARSED_SCHEMA_CACHE_WARMUP_COUNT_DEFAULT = 1000;
+  /**
+   * <code>schema.response.cache.max.bytes</code>
+   */
+  public static final String SCHEMA_RESPONSE_CACHE_MAX_BYTES_CONFIG =
+      "schema.response.cache.max.bytes";
+  public static final long SCHEMA_RESPONSE_CACHE_MAX_BYTES_DEFAULT = 32 * 1024 * 1024L;
+  /**
+   * <code>compatibility.cache.max.entries</code>
+   */
+  public static final String COMPATIBILITY_CACHE_MAX_ENTRIES_CONFIG =
+      "compatibility.cache.max.entries";
+  public static final long COMPATIBILITY_CACHE_MAX_ENTRIES_DEFAULT = 10000;
+  /**
+   * <code>schema.ids.request.max.ids</code>
+   */
+  public static final String SCHEMA_IDS_REQUEST_MAX_IDS_CONFIG = "schema.ids.request.max.ids";
+  public static final int SCHEMA_IDS_REQUEST_MAX_IDS_DEFAULT = 1000;
+  /**
+   * <code>lookup.cache.type</code>
+   */
+  public static final String LOOKUP_CACHE_TYPE_CONFIG = "lookup.cache.type";
+  public static final String LOOKUP_CACHE_TYPE_MEMORY = "memory";
+  public static final String LOOKUP_CACHE_TYPE_COMPACT = "compact";
+  public static final String LOOKUP_CACHE_TYPE_DEFAULT = LOOKUP_CACHE_TYPE_MEMORY;
+  /**
+   * <code>write.request.threads</code>
+   */
+  public static final String WRITE_REQUEST_THREADS_CONFIG = "write.request.threads";
+  public static final int WRITE_REQUEST_THREADS_DEFAULT = 0;
+  /**
+   * <code>write.request.queue.size</code>
+   */
+  public static final String WRITE_REQUEST_QUEUE_SIZE_CONFIG = "write.request.queue.size";
+  public static final int WRITE_REQUEST_QUEUE_SIZE_DEFAULT = 1000;
+
+  /**
+   * <code>leader.forward.max.concurrent.requests</code>
+   */
+  public static final String LEADER_FORWARD_MAX_CONCURRENT_REQUESTS_CONFIG =
+      "leader.forward.max.concurrent.requests";
+  public static final int LEADER_FORWARD_MAX_CONCURRENT_REQUESTS_DEFAULT = 64;
+
+  /**
+   * <code>slow.write.log.threshold.ms</code>
+   */
+  public static final String SLOW_WRITE_LOG_THRESHOLD_MS_CONFIG = "slow.write.log.threshold.ms";
+  public static final long SLOW_WRITE_LOG_THRESHOLD_MS_DEFAULT = 0;
+
+  /**
+   * <code>subject.lock.stripes</code>
+   */
+  public static final String SUBJECT_LOCK_STRIPES_CONFIG = "subject.lock.stripes";
+  public static final int SUBJECT_LOCK_STRIPES_DEFAULT = 256;
 
   public static final String KAFKASTORE_SECURITY_PROTOCOL_CONFIG =
       "kafkastore.security.protocol";
@@ -235,10 +336,32 @@ public class SchemaRegistryConfig extends RestConfig {
   protected static final String KAFKASTORE_INIT_TIMEOUT_DOC =
       "The timeout for initialization of the Kafka store, including creation of the Kafka topic "
       + "that stores schema data.";
+  protected static final String KAFKASTORE_BOOTSTRAP_DECODE_THREADS_DOC =
+      "The number of threads used to deserialize records while the Kafka store is read at "
+      + "startup. Records are still applied in offset order. Set to 1 to deserialize on the "
+      + "reader thread.";
+  protected static final String KAFKASTORE_WRITE_BATCH_MAX_SIZE_DOC =
+      "The maximum number of concurrent writes that the leader sends to the Kafka store "
+      + "together, waiting once for the local store to catch up to all of them. Set to 1 to "
+      + "send each write on its own request thread.";
+  protected static final String KAFKASTORE_WRITE_BATCH_WINDOW_MS_DOC =
+      "How long the leader waits for more writes to group with the first one, when "
+      + "``kafkastore.write.batch.max.size`` is greater than 1. With 0, only writes that "
+      + "queue up while the previous group is in flight are grouped.";
+  protected static final String KAFKASTORE_VALUE_ENCODING_DOC =
+      "The encoding of new schemas written to the Kafka store, either ``json`` or ``binary``. "
+      + "Schemas in either encoding are always readable, but only nodes that support the "
+      + "binary encoding can read it, so enable it once every node has been upgraded.";
   protected static final String KAFKASTORE_CHECKPOINT_DIR_DOC =
       "For persistent stores, the directory in which to store offset checkpoints.";
   protected static final String KAFKASTORE_CHECKPOINT_VERSION_DOC =
       "For persistent stores, the version of the checkpoint offset file.";
+  protected static final String KAFKASTORE_SNAPSHOT_ENABLE_DOC =
+      "If true and the local store is not persistent, periodically save the local store to a "
+      + "snapshot file in the checkpoint directory, so that a restart only reads the topic from "
+      + "the checkpointed offset onwards.";
+  protected static final String KAFKASTORE_SNAPSHOT_INTERVAL_MS_DOC =
+      "The minimum interval between snapshots of the local store, if enabled.";
   protected static final String KAFKASTORE_TIMEOUT_DOC =
       "The timeout for an operation on the Kafka store";
   protected static final String KAFKASTORE_UPDATE_HANDLERS_DOC =
@@ -264,6 +387,51 @@ public class SchemaRegistryConfig extends RestConfig {
       "The maximum size of the schema cache.";
   protected static final String SCHEMA_CACHE_EXPIRY_SECS_DOC =
       "The expiration in seconds for entries accessed in the cache.";
+  protected static final String PARSED_SCHEMA_CACHE_MAX_BYTES_DOC =
+      "The approximate maximum number of bytes retained by the cache of parsed stored schemas, "
+      + "which is keyed by schema id.";
+  protected static final String PARSED_SCHEMA_CACHE_WARMUP_COUNT_DOC =
+      "The number of schemas to parse into the parsed schema cache once the store has been "
+      + "read at startup, taken from the latest versions of subjects with the most recently "
+      + "registered first. Set to 0 to disable warm-up.";
+  protected static final String SCHEMA_RESPONSE_CACHE_MAX_BYTES_DOC =
+      "The maximum number of bytes of encoded responses to schema lookups by id to keep in "
+      + "memory. Set to 0 to disable the cache.";
+  protected static final String COMPATIBILITY_CACHE_MAX_ENTRIES_DOC =
+      "The maximum number of results of compatibility checks to keep in memory, so that "
+      + "checking the same schema against the same versions of a subject again is answered "
+      + "without parsing the schemas. Set to 0 to disable the cache.";
+  protected static final String SCHEMA_IDS_REQUEST_MAX_IDS_DOC =
+      "The maximum number of ids in a request for the schemas of several ids, "
+      + "``GET /schemas/ids``. Requests with more ids are rejected with HTTP 422.";
+  protected static final String LOOKUP_CACHE_TYPE_DOC =
+      "The in-memory store of schemas, either ``memory`` or ``compact``. The compact store "
+      + "keeps the text of each distinct schema once and deflates large schemas, which "
+      + "reduces the heap used by registries with many schema versions at the cost of "
+      + "decoding schemas on every read from the store.";
+  protected static final String WRITE_REQUEST_THREADS_DOC =
+      "The number of threads that process requests to register or delete schemas. With a "
+      + "positive value, the HTTP thread is released as soon as the request is handed off, "
+      + "while the write waits for the Kafka store; with ``0``, writes run on the HTTP thread.";
+  protected static final String WRITE_REQUEST_QUEUE_SIZE_DOC =
+      "The maximum number of write requests that wait for one of the "
+      + "``write.request.threads``. Further write requests are rejected with HTTP 503 until "
+      + "the queue drains.";
+  protected static final String LEADER_FORWARD_MAX_CONCURRENT_REQUESTS_DOC =
+      "The maximum number of requests a follower forwards to the leader at the same time. "
+      + "Connections to the leader are kept alive and reused between requests; further "
+      + "forwarded requests wait for one of these to complete. The JVM keeps at most "
+      + "``http.maxConnections`` idle connections per server, 5 unless that system property is "
+      + "set, so set it to at least this value for every concurrent request to reuse a "
+      + "connection.";
+  protected static final String SLOW_WRITE_LOG_THRESHOLD_MS_DOC =
+      "Writes, such as registering a schema or updating a config, that take longer than this "
+      + "many milliseconds are logged at WARN level with the time spent in each phase, such as "
+      + "the compatibility check and the write to the Kafka store. ``0`` disables the log.";
+  protected static final String SUBJECT_LOCK_STRIPES_DOC =
+      "The number of lock stripes used to serialize writes on the leader. Writes to subjects "
+      + "that map to different stripes can proceed concurrently; set to 1 to serialize all "
+      + "subject writes.";
   protected static final String LEADER_ELIGIBILITY_DOC =
       "If true, this node can participate in leader election. In a multi-colo setup, turn this off "
       + "for clusters in the follower data center.";
@@ -394,6 +562,23 @@ public class SchemaRegistryConfig extends RestConfig {
     .define(KAFKASTORE_INIT_TIMEOUT_CONFIG, ConfigDef.Type.INT, 60000, atLeast(0),
         ConfigDef.Importance.MEDIUM, KAFKASTORE_INIT_TIMEOUT_DOC
     )
+    .define(KAFKASTORE_BOOTSTRAP_DECODE_THREADS_CONFIG, ConfigDef.Type.INT,
+        KAFKASTORE_BOOTSTRAP_DECODE_THREADS_DEFAULT, atLeast(1),
+        ConfigDef.Importance.LOW, KAFKASTORE_BOOTSTRAP_DECODE_THREADS_DOC
+    )
+    .define(KAFKASTORE_WRITE_BATCH_MAX_SIZE_CONFIG, ConfigDef.Type.INT,
+        KAFKASTORE_WRITE_BATCH_MAX_SIZE_DEFAULT, atLeast(1),
+        ConfigDef.Importance.LOW, KAFKASTORE_WRITE_BATCH_MAX_SIZE_DOC
+    )
+    .define(KAFKASTORE_WRITE_BATCH_WINDOW_MS_CONFIG, ConfigDef.Type.INT,
+        KAFKASTORE_WRITE_BATCH_WINDOW_MS_DEFAULT, atLeast(0),
+        ConfigDef.Importance.LOW, KAFKASTORE_WRITE_BATCH_WINDOW_MS_DOC
+    )
+    .define(KAFKASTORE_VALUE_ENCODING_CONFIG, ConfigDef.Type.STRING,
+        KAFKASTORE_VALUE_ENCODING_DEFAULT,
+        ConfigDef.ValidString.in(KAFKASTORE_VALUE_ENCODING_JSON, KAFKASTORE_VALUE_ENCODING_BINARY),
+        ConfigDef.Importance.LOW, KAFKASTORE_VALUE_ENCODING_DOC
+    )
     .define(KAFKASTORE_TIMEOUT_CONFIG, ConfigDef.Type.INT, 500, atLeast(0),
         ConfigDef.Importance.MEDIUM, KAFKASTORE_TIMEOUT_DOC
     )
@@ -403,6 +588,14 @@ public class SchemaRegistryConfig extends RestConfig {
     .define(KAFKASTORE_CHECKPOINT_VERSION_CONFIG, ConfigDef.Type.INT, 0,
         ConfigDef.Importance.MEDIUM, KAFKASTORE_CHECKPOINT_VERSION_DOC
     )
+    .define(KAFKASTORE_SNAPSHOT_ENABLE_CONFIG, ConfigDef.Type.BOOLEAN,
+        KAFKASTORE_SNAPSHOT_ENABLE_DEFAULT,
+        ConfigDef.Importance.LOW, KAFKASTORE_SNAPSHOT_ENABLE_DOC
+    )
+    .define(KAFKASTORE_SNAPSHOT_INTERVAL_MS_CONFIG, ConfigDef.Type.LONG,
+        KAFKASTORE_SNAPSHOT_INTERVAL_MS_DEFAULT, atLeast(0),
+        ConfigDef.Importance.LOW, KAFKASTORE_SNAPSHOT_INTERVAL_MS_DOC
+    )
     .define(KAFKASTORE_UPDATE_HANDLERS_CONFIG, ConfigDef.Type.LIST, "",
         ConfigDef.Importance.LOW, KAFKASTORE_UPDATE_HANDLERS_DOC
     )
@@ -424,6 +617,47 @@ public class SchemaRegistryConfig extends RestConfig {
     .define(SCHEMA_CACHE_EXPIRY_SECS_CONFIG, ConfigDef.Type.INT, SCHEMA_CACHE_EXPIRY_SECS_DEFAULT,
         ConfigDef.Importance.LOW, SCHEMA_CACHE_EXPIRY_SECS_DOC
     )
+    .define(PARSED_SCHEMA_CACHE_MAX_BYTES_CONFIG, ConfigDef.Type.LONG,
+        PARSED_SCHEMA_CACHE_MAX_BYTES_DEFAULT, atLeast(0),
+        ConfigDef.Importance.LOW, PARSED_SCHEMA_CACHE_MAX_BYTES_DOC
+    )
+    .define(PARSED_SCHEMA_CACHE_WARMUP_COUNT_CONFIG, ConfigDef.Type.INT,
+        PARSED_SCHEMA_CACHE_WARMUP_COUNT_DEFAULT, atLeast(0),
+        ConfigDef.Importance.LOW, PARSED_SCHEMA_CACHE_WARMUP_COUNT_DOC
+    )
+    .define(SCHEMA_RESPONSE_CACHE_MAX_BYTES_CONFIG, ConfigDef.Type.LONG,
+        SCHEMA_RESPONSE_CACHE_MAX_BYTES_DEFAULT, atLeast(0),
+        ConfigDef.Importance.LOW, SCHEMA_RESPONSE_CACHE_MAX_BYTES_DOC
+    )
+    .define(COMPATIBILITY_CACHE_MAX_ENTRIES_CONFIG, ConfigDef.Type.LONG,
+        COMPATIBILITY_CACHE_MAX_ENTRIES_DEFAULT, atLeast(0),
+        ConfigDef.Importance.LOW, COMPATIBILITY_CACHE_MAX_ENTRIES_DOC
+    )
+    .define(SCHEMA_IDS_REQUEST_MAX_IDS_CONFIG, ConfigDef.Type.INT,
+        SCHEMA_IDS_REQUEST_MAX_IDS_DEFAULT, atLeast(1), ConfigDef.Importance.LOW,
+        SCHEMA_IDS_REQUEST_MAX_IDS_DOC
+    )
+    .define(LOOKUP_CACHE_TYPE_CONFIG, ConfigDef.Type.STRING, LOOKUP_CACHE_TYPE_DEFAULT,
+        ConfigDef.ValidString.in(LOOKUP_CACHE_TYPE_MEMORY, LOOKUP_CACHE_TYPE_COMPACT),
+        ConfigDef.Importance.LOW, LOOKUP_CACHE_TYPE_DOC
+    )
+    .define(WRITE_REQUEST_THREADS_CONFIG, ConfigDef.Type.INT, WRITE_REQUEST_THREADS_DEFAULT,
+        atLeast(0), ConfigDef.Importance.LOW, WRITE_REQUEST_THREADS_DOC
+    )
+    .define(WRITE_REQUEST_QUEUE_SIZE_CONFIG, ConfigDef.Type.INT, WRITE_REQUEST_QUEUE_SIZE_DEFAULT,
+        atLeast(1), ConfigDef.Importance.LOW, WRITE_REQUEST_QUEUE_SIZE_DOC
+    )
+    .define(LEADER_FORWARD_MAX_CONCURRENT_REQUESTS_CONFIG, ConfigDef.Type.INT,
+        LEADER_FORWARD_MAX_CONCURRENT_REQUESTS_DEFAULT, atLeast(1), ConfigDef.Importance.LOW,
+        LEADER_FORWARD_MAX_CONCURRENT_REQUESTS_DOC
+    )
+    .define(SLOW_WRITE_LOG_THRESHOLD_MS_CONFIG, ConfigDef.Type.LONG,
+        SLOW_WRITE_LOG_THRESHOLD_MS_DEFAULT, atLeast(0), ConfigDef.Importance.LOW,
+        SLOW_WRITE_LOG_THRESHOLD_MS_DOC
+    )
+    .define(SUBJECT_LOCK_STRIPES_CONFIG, ConfigDef.Type.INT, SUBJECT_LOCK_STRIPES_DEFAULT,
+        atLeast(1), ConfigDef.Importance.LOW, SUBJECT_LOCK_STRIPES_DOC
+    )
     .define(MASTER_ELIGIBILITY, ConfigDef.Type.BOOLEAN, null,
         ConfigDef.Importance.MEDIUM, LEADER_ELIGIBILITY_DOC
     )
@@ -18,6 +18,8 @@ package io.confluent.kafka.schemaregistry.rest;
 import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
 import io.confluent.kafka.schemaregistry.rest.extensions.SchemaRegistryResourceExtension;
 import io.confluent.kafka.schemaregistry.rest.filters.ContextFilter;
+import io.confluent.kafka.schemaregistry.rest.filters.EncodedResponseFilter;
+import io.confluent.kafka.schemaregistry.rest.filters.OffsetTokenFilter;
 import io.confluent.kafka.schemaregistry.rest.filters.RestCallMetricFilter;
 import io.confluent.kafka.schemaregistry.rest.resources.CompatibilityResource;
 import io.confluent.kafka.schemaregistry.rest.resources.ConfigResource;
@@ -107,9 +109,12 @@ public class SchemaRegistryRestApplication extends Application<SchemaRegistryCon
     config.register(new ModeResource(schemaRegistry));
     config.register(new ServerMetadataResource(schemaRegistry));
     config.register(new ContextFilter());
+    config.register(new OffsetTokenFilter(schemaRegistry));
+    config.register(new EncodedResponseFilter());
     config.register(new RestCallMetricFilter(
             schemaRegistry.getMetricsContainer().getApiCallsSuccess(),
-            schemaRegistry.getMetricsContainer().getApiCallsFailure()));
+            schemaRegistry.getMetricsContainer().getApiCallsFailure(),
+            schemaRegistry.getMetricsContainer()));
 
     if (schemaRegistryResourceExtensions != null) {
       try {
@@ -62,6 +62,7 @@ public class Errors {
   public static final int OPERATION_NOT_PERMITTED_ERROR_CODE = 42205;
   public static final int REFERENCE_EXISTS_ERROR_CODE = 42206;
   public static final int ID_DOES_NOT_MATCH_ERROR_CODE = 42207;
+  public static final int TOO_MANY_IDS_ERROR_CODE = 42208;
 
   // HTTP 500
   public static final int STORE_ERROR_CODE = 50001;
@@ -70,6 +71,9 @@ public class Errors {
   public static final int UNKNOWN_LEADER_ERROR_CODE = 50004;
   // 50005 is used by the RestService to indicate a JSON Parse Error
 
+  // HTTP 503
+  public static final int WRITE_REQUEST_REJECTED_ERROR_CODE = 50301;
+
   public static RestException subjectNotFoundException(String subject) {
     return new RestNotFoundException(
         String.format(SUBJECT_NOT_FOUND_MESSAGE_FORMAT, subject), SUBJECT_NOT_FOUND_ERROR_CODE);
@@ -145,6 +149,10 @@ public class Errors {
     return new RestInvalidVersionException(version);
   }
 
+  public static RestTooManyIdsException tooManyIdsException(int count, int maxIds) {
+    return new RestTooManyIdsException(count, maxIds);
+  }
+
   public static RestException schemaRegistryException(String message, Throwable cause) {
     return new RestSchemaRegistryException(message, cause);
   }
@@ -172,4 +180,8 @@ public class Errors {
   public static RestException unknownLeaderException(String message, Throwable cause) {
     return new RestUnknownLeaderException(message, cause);
   }
+
+  public static RestException writeRequestRejectedException(String message) {
+    return new RestWriteRequestRejectedException(message);
+  }
 }
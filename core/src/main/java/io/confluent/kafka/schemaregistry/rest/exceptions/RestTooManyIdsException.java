@@ -0,0 +1,32 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.rest.exceptions;
+
+import io.confluent.rest.exceptions.RestConstraintViolationException;
+
+/**
+ * Indicates that a request asked for more ids at once than is allowed.
+ */
+public class RestTooManyIdsException extends RestConstraintViolationException {
+
+  public static final int ERROR_CODE = Errors.TOO_MANY_IDS_ERROR_CODE;
+  public static final String TOO_MANY_IDS_MESSAGE_FORMAT =
+      "The request has %d ids, more than the maximum of %d";
+
+  public RestTooManyIdsException(int count, int maxIds) {
+    super(String.format(TOO_MANY_IDS_MESSAGE_FORMAT, count, maxIds), ERROR_CODE);
+  }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.rest.exceptions;
+
+import javax.ws.rs.core.Response;
+
+import io.confluent.rest.exceptions.RestException;
+
+/**
+ * Indicates that a write request was not run, because too many writes are queued or the
+ * registry is shutting down. The request can be retried.
+ */
+public class RestWriteRequestRejectedException extends RestException {
+
+  private static final int ERROR_CODE = Errors.WRITE_REQUEST_REJECTED_ERROR_CODE;
+
+  public RestWriteRequestRejectedException(String message) {
+    super(message, Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), ERROR_CODE);
+  }
+}
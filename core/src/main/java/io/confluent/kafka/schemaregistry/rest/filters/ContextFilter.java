@@ -23,6 +23,7 @@ import javax.ws.rs.container.ContainerRequestFilter;
 import javax.ws.rs.container.PreMatching;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.UriInfo;
 import java.io.IOException;
 
 import static io.confluent.kafka.schemaregistry.utils.QualifiedSubject.CONTEXT_PREFIX;
@@ -36,30 +37,47 @@ public class ContextFilter implements ContainerRequestFilter {
 
   private static final ObjectMapper MAPPER = new ObjectMapper();
 
+  private static final String CONTEXTS_PATH = "contexts/";
+
   public ContextFilter() {
   }
 
   @Override
   public void filter(ContainerRequestContext requestContext) throws IOException {
-
-    String path = requestContext.getUriInfo().getPath(false);
-    if (path.startsWith("contexts/")) {
-      try {
-        UriBuilder builder = requestContext.getUriInfo().getRequestUriBuilder();
-        MultivaluedMap<String, String> queryParams =
-            requestContext.getUriInfo().getQueryParameters(false);
-        URI uri = modifyUri(builder, path, queryParams);
-        requestContext.setRequestUri(uri);
-      } catch (IllegalArgumentException e) {
-        requestContext.abortWith(
-            Response.status(Status.BAD_REQUEST).entity(getErrorResponse(
-                Status.BAD_REQUEST, e.getMessage()))
-                .build()
-        );
-      }
+    UriInfo uriInfo = requestContext.getUriInfo();
+    // most requests have no context, which is checked on the raw request path, as the path
+    // relative to the base URI is copied on every call
+    if (!isContextPath(uriInfo.getRequestUri().getRawPath(),
+        uriInfo.getBaseUri().getRawPath().length())) {
+      return;
+    }
+    String path = uriInfo.getPath(false);
+    try {
+      UriBuilder builder = uriInfo.getRequestUriBuilder();
+      MultivaluedMap<String, String> queryParams = uriInfo.getQueryParameters(false);
+      URI uri = modifyUri(builder, path, queryParams);
+      requestContext.setRequestUri(uri);
+    } catch (IllegalArgumentException e) {
+      requestContext.abortWith(
+          Response.status(Status.BAD_REQUEST).entity(getErrorResponse(
+              Status.BAD_REQUEST, e.getMessage()))
+              .build()
+      );
     }
   }
 
+  /**
+   * Returns whether the request path addresses a context, that is, whether its part after the
+   * base path starts with {@code contexts/}.
+   *
+   * @param requestPath the raw path of the request URI
+   * @param basePathLength the length of the raw path of the base URI
+   */
+  @VisibleForTesting
+  static boolean isContextPath(String requestPath, int basePathLength) {
+    return requestPath != null && requestPath.startsWith(CONTEXTS_PATH, basePathLength);
+  }
+
   @VisibleForTesting
   URI modifyUri(UriBuilder builder, String path, MultivaluedMap<String, String> queryParams) {
     ContextAndPath contextAndPath = modifyUriPath(path);
@@ -72,6 +90,9 @@ public class ContextFilter implements ContainerRequestFilter {
    * This method looks for subject in the path param and prefixes the context to the subject in the
    * URI. The subject params are identified as anything after /subjects or /config or /mode based on
    * current Schema Registry resource definition.
+   *
+   * <p>The path is scanned once, segment by segment as {@code String.split("/")} would split it,
+   * without copying the segments.
    * @param path The original request URI
    * @return The modified request URI
    */
@@ -79,48 +100,71 @@ public class ContextFilter implements ContainerRequestFilter {
   ContextAndPath modifyUriPath(String path) {
     boolean contextPathFound = false;
     String context = DEFAULT_CONTEXT;
+    String normalizedContext = null;
     boolean configOrModeFound = false;
     boolean subjectPathFound = false;
-    StringBuilder modifiedPath = new StringBuilder();
+    StringBuilder modifiedPath = new StringBuilder(path.length() + 16);
     boolean isFirst = true;
-    for (String uriPathStr : path.split("/")) {
 
-      String modifiedUriPathStr = uriPathStr;
+    // like split, drop trailing empty segments, but keep the only segment of an empty path
+    int end = path.length();
+    while (end > 0 && path.charAt(end - 1) == '/') {
+      end--;
+    }
+    boolean hasNext = path.isEmpty() || end > 0;
+    int start = 0;
+    while (hasNext) {
+      int segmentEnd = path.indexOf('/', start);
+      if (segmentEnd < 0 || segmentEnd > end) {
+        segmentEnd = end;
+      }
+      hasNext = segmentEnd < end;
+      int segmentStart = start;
+      start = segmentEnd + 1;
 
       if (contextPathFound) {
-        context = uriPathStr;
+        context = path.substring(segmentStart, segmentEnd);
+        normalizedContext = null;
         contextPathFound = false;
         continue;
       }
 
-      if (uriPathStr.equals("contexts")) {
+      if (isSegment(path, segmentStart, segmentEnd, "contexts")) {
         contextPathFound = true;
         continue;
       }
 
       if (subjectPathFound) {
-        if (!uriPathStr.startsWith(CONTEXT_PREFIX) && !uriPathStr.startsWith(CONTEXT_WILDCARD)) {
-          modifiedUriPathStr = QualifiedSubject.normalizeContext(context) + uriPathStr;
+        if (!startsSegment(path, segmentStart, segmentEnd, CONTEXT_PREFIX)
+            && !startsSegment(path, segmentStart, segmentEnd, CONTEXT_WILDCARD)) {
+          if (normalizedContext == null) {
+            normalizedContext = QualifiedSubject.normalizeContext(context);
+          }
+          modifiedPath.append(normalizedContext);
         }
 
         subjectPathFound = false;
       }
 
-      boolean isRootConfigOrMode = isRootConfigOrMode(isFirst, uriPathStr);
-      if (uriPathStr.equals("subjects") || isRootConfigOrMode) {
+      boolean isRootConfigOrMode = isFirst
+          && (isSegment(path, segmentStart, segmentEnd, "config")
+              || isSegment(path, segmentStart, segmentEnd, "mode"));
+      if (isSegment(path, segmentStart, segmentEnd, "subjects") || isRootConfigOrMode) {
         subjectPathFound = true;
         if (isRootConfigOrMode) {
           configOrModeFound = true;
         }
       }
 
-      modifiedPath.append(modifiedUriPathStr).append("/");
-      if (isFirst && !uriPathStr.isEmpty()) {
+      modifiedPath.append(path, segmentStart, segmentEnd).append('/');
+      if (isFirst && segmentEnd > segmentStart) {
         isFirst = false;
       }
     }
     if (configOrModeFound && subjectPathFound) {
-      String normalizedContext = QualifiedSubject.normalizeContext(context);
+      if (normalizedContext == null) {
+        normalizedContext = QualifiedSubject.normalizeContext(context);
+      }
       if (!normalizedContext.isEmpty()) {
         modifiedPath.append(normalizedContext).append("/");
       }
@@ -132,8 +176,12 @@ public class ContextFilter implements ContainerRequestFilter {
     return new ContextAndPath(context, modifiedPath.toString());
   }
 
-  private boolean isRootConfigOrMode(boolean isFirst, String uriPathStr) {
-    return isFirst && (uriPathStr.equals("config") || uriPathStr.equals("mode"));
+  private static boolean isSegment(String path, int start, int end, String segment) {
+    return end - start == segment.length() && path.startsWith(segment, start);
+  }
+
+  private static boolean startsSegment(String path, int start, int end, String prefix) {
+    return end - start >= prefix.length() && path.startsWith(prefix, start);
   }
 
   private void replaceQueryParams(
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.rest.filters;
+
+import io.confluent.kafka.schemaregistry.rest.resources.EncodedSchemaString;
+import io.confluent.kafka.schemaregistry.storage.SchemaResponseCache.EncodedResponse;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response.Status;
+
+/**
+ * Writes the cached encoding of schema lookups by id instead of serializing them again, tags
+ * them with an ETag, and answers requests whose If-None-Match header matches it with a
+ * 304 Not Modified.
+ */
+public class EncodedResponseFilter implements ContainerResponseFilter {
+
+  @Override
+  public void filter(ContainerRequestContext requestContext,
+                     ContainerResponseContext responseContext) {
+    Object entity = responseContext.getEntity();
+    if (!(entity instanceof EncodedSchemaString)) {
+      return;
+    }
+    EncodedResponse encoded = ((EncodedSchemaString) entity).encodedResponse();
+    responseContext.getHeaders().putSingle(HttpHeaders.ETAG, new EntityTag(encoded.etag()));
+    if (encoded.matches(requestContext.getHeaderString(HttpHeaders.IF_NONE_MATCH))) {
+      responseContext.setStatusInfo(Status.NOT_MODIFIED);
+      responseContext.setEntity(null);
+    } else {
+      responseContext.setEntity(encoded.body(), responseContext.getEntityAnnotations(),
+          responseContext.getMediaType());
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.rest.filters;
+
+import io.confluent.kafka.schemaregistry.rest.exceptions.Errors;
+import io.confluent.kafka.schemaregistry.storage.KafkaSchemaRegistry;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreTimeoutException;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Lets clients read their writes from any node.
+ *
+ * <p>Successful writes return the offset of the Kafka store that reflects them in the
+ * {@value #OFFSET_HEADER} header. A request that carries that offset in the
+ * {@value #MIN_OFFSET_HEADER} header waits until the local store has applied it, or fails with
+ * a timeout if the node does not catch up within the timeout of the Kafka store, so that the
+ * client can retry elsewhere.
+ *
+ * <p>A follower returns the offset that the leader returned for the writes it forwarded, so
+ * tokens never require a round trip to Kafka.
+ */
+public class OffsetTokenFilter implements ContainerRequestFilter, ContainerResponseFilter {
+  public static final String OFFSET_HEADER = "X-Schema-Registry-Offset";
+  public static final String MIN_OFFSET_HEADER = "X-Schema-Registry-Min-Offset";
+
+  private final KafkaSchemaRegistry schemaRegistry;
+
+  public OffsetTokenFilter(KafkaSchemaRegistry schemaRegistry) {
+    this.schemaRegistry = schemaRegistry;
+  }
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) throws IOException {
+    String minOffsetHeader = requestContext.getHeaderString(MIN_OFFSET_HEADER);
+    if (minOffsetHeader == null || minOffsetHeader.isEmpty()) {
+      return;
+    }
+    long minOffset;
+    try {
+      minOffset = Long.parseLong(minOffsetHeader.trim());
+    } catch (NumberFormatException e) {
+      requestContext.abortWith(
+          Response.status(Status.BAD_REQUEST).entity(ContextFilter.getErrorResponse(
+              Status.BAD_REQUEST, "Invalid " + MIN_OFFSET_HEADER + " header " + minOffsetHeader))
+              .build()
+      );
+      return;
+    }
+    if (minOffset < 0) {
+      return;
+    }
+    // the future is already complete when the node has caught up, which is the common case;
+    // otherwise the timeout of the Kafka store bounds the wait
+    CompletableFuture<Long> reached = schemaRegistry.offsetReached(minOffset);
+    try {
+      reached.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof StoreTimeoutException) {
+        throw Errors.operationTimeoutException(
+            "Timed out waiting for offset " + minOffset + " of the Kafka store", e.getCause());
+      }
+      throw Errors.storeException(
+          "Error while waiting for offset " + minOffset + " of the Kafka store", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw Errors.storeException(
+          "Interrupted while waiting for offset " + minOffset + " of the Kafka store", e);
+    }
+  }
+
+  @Override
+  public void filter(ContainerRequestContext requestContext,
+                     ContainerResponseContext responseContext) throws IOException {
+    if (responseContext.getStatusInfo().getFamily() != Status.Family.SUCCESSFUL
+        || !isWrite(requestContext.getMethod(), requestContext.getUriInfo().getPath(false))) {
+      return;
+    }
+    long offset = schemaRegistry.writeOffset();
+    if (offset >= 0) {
+      responseContext.getHeaders().putSingle(OFFSET_HEADER, String.valueOf(offset));
+    }
+  }
+
+  // POST is also used for lookups and compatibility checks; among POSTs, only registering a
+  // schema writes. Paths rewritten by the ContextFilter end with a slash.
+  static boolean isWrite(String method, String path) {
+    if (HttpMethod.PUT.equals(method) || HttpMethod.DELETE.equals(method)) {
+      return true;
+    }
+    if (path.startsWith("/")) {
+      path = path.substring(1);
+    }
+    if (path.endsWith("/")) {
+      path = path.substring(0, path.length() - 1);
+    }
+    return HttpMethod.POST.equals(method)
+        && path.startsWith("subjects/") && path.endsWith("/versions");
+  }
+}
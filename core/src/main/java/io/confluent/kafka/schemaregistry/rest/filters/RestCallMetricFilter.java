@@ -15,21 +15,76 @@
 
 package io.confluent.kafka.schemaregistry.rest.filters;
 
+import io.confluent.kafka.schemaregistry.metrics.MetricsContainer;
+import io.confluent.kafka.schemaregistry.metrics.RestEndpointMetrics;
 import io.confluent.kafka.schemaregistry.metrics.SchemaRegistryMetric;
 
 import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts successful and failed requests and, given the metrics container, records the latency,
+ * request and response sizes and requests in flight of each resource method.
+ *
+ * <p>A request is complete once its response entity has been written, so that the latency
+ * includes serializing the response.
+ */
+public class RestCallMetricFilter
+    implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+  private static final String REQUEST_PROPERTY =
+      RestCallMetricFilter.class.getName() + ".request";
 
-public class RestCallMetricFilter implements ContainerResponseFilter {
   private final SchemaRegistryMetric metricSucceeded;
   private final SchemaRegistryMetric metricFailed;
+  private final MetricsContainer metricsContainer;
+  // resolved once per resource method, so that requests do not build metric names
+  private final ConcurrentMap<Method, RestEndpointMetrics> endpointMetrics =
+      new ConcurrentHashMap<>();
+
+  @Context
+  private ResourceInfo resourceInfo;
 
   public RestCallMetricFilter(SchemaRegistryMetric metricSucceeded,
                               SchemaRegistryMetric metricFailed) {
+    this(metricSucceeded, metricFailed, null);
+  }
+
+  public RestCallMetricFilter(SchemaRegistryMetric metricSucceeded,
+                              SchemaRegistryMetric metricFailed,
+                              MetricsContainer metricsContainer) {
     this.metricSucceeded = metricSucceeded;
     this.metricFailed = metricFailed;
+    this.metricsContainer = metricsContainer;
+  }
+
+  @Override
+  public void filter(ContainerRequestContext containerRequestContext) throws IOException {
+    if (metricsContainer == null || resourceInfo == null) {
+      return;
+    }
+    Method method = resourceInfo.getResourceMethod();
+    if (method == null) {
+      return;
+    }
+    RestEndpointMetrics metrics = endpointMetrics.computeIfAbsent(method,
+        m -> metricsContainer.getRestEndpointMetrics(endpointName(m)));
+    metrics.requestStarted(containerRequestContext.getLength());
+    containerRequestContext.setProperty(REQUEST_PROPERTY,
+        new RequestMetrics(metrics, System.nanoTime()));
   }
 
   @Override
@@ -46,5 +101,70 @@ public class RestCallMetricFilter implements ContainerResponseFilter {
       default:
         break;
     }
+    if (!containerResponseContext.hasEntity()) {
+      Object request = containerRequestContext.getProperty(REQUEST_PROPERTY);
+      if (request != null) {
+        containerRequestContext.removeProperty(REQUEST_PROPERTY);
+        ((RequestMetrics) request).complete();
+      }
+    }
+  }
+
+  @Override
+  public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+    Object request = context.getProperty(REQUEST_PROPERTY);
+    if (request == null || context.getEntity() == null) {
+      context.proceed();
+      return;
+    }
+    context.removeProperty(REQUEST_PROPERTY);
+    RequestMetrics requestMetrics = (RequestMetrics) request;
+    CountingOutputStream out = new CountingOutputStream(context.getOutputStream());
+    context.setOutputStream(out);
+    try {
+      context.proceed();
+    } finally {
+      requestMetrics.metrics.responseWritten(out.count);
+      requestMetrics.complete();
+    }
+  }
+
+  static String endpointName(Method method) {
+    return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+  }
+
+  // the endpoint and start time of a request, kept together so that the time is not boxed
+  private static final class RequestMetrics {
+    private final RestEndpointMetrics metrics;
+    private final long startNanos;
+
+    RequestMetrics(RestEndpointMetrics metrics, long startNanos) {
+      this.metrics = metrics;
+      this.startNanos = startNanos;
+    }
+
+    void complete() {
+      metrics.requestCompleted(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+  }
+
+  private static class CountingOutputStream extends FilterOutputStream {
+    private long count;
+
+    CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
   }
 }
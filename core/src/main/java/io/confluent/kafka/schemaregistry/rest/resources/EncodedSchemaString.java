@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.rest.resources;
+
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.storage.SchemaResponseCache.EncodedResponse;
+
+/**
+ * A schema string that carries its cached JSON encoding.
+ *
+ * <p>{@link io.confluent.kafka.schemaregistry.rest.filters.EncodedResponseFilter} writes the
+ * cached bytes and answers conditional requests. Without the filter, the schema string is
+ * serialized as usual.
+ */
+public class EncodedSchemaString extends SchemaString {
+
+  private final EncodedResponse encodedResponse;
+
+  public EncodedSchemaString(EncodedResponse encodedResponse) {
+    SchemaString schemaString = encodedResponse.schemaString();
+    setSchemaType(schemaString.getSchemaType());
+    setSchemaString(schemaString.getSchemaString());
+    setReferences(schemaString.getReferences());
+    setMaxId(schemaString.getMaxId());
+    this.encodedResponse = encodedResponse;
+  }
+
+  public EncodedResponse encodedResponse() {
+    return encodedResponse;
+  }
+}
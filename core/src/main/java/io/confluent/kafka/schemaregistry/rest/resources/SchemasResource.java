@@ -21,11 +21,14 @@ import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
 import io.confluent.kafka.schemaregistry.client.rest.entities.SubjectVersion;
 import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
 import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryStoreException;
+import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
 import io.confluent.kafka.schemaregistry.rest.exceptions.Errors;
 import io.confluent.kafka.schemaregistry.storage.KafkaSchemaRegistry;
+import io.confluent.kafka.schemaregistry.storage.SchemaResponseCache.EncodedResponse;
 import io.confluent.rest.annotations.PerformanceMetric;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,12 +36,18 @@ import org.slf4j.LoggerFactory;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -52,10 +61,14 @@ import java.util.Set;
 public class SchemasResource {
 
   private static final Logger log = LoggerFactory.getLogger(SchemasResource.class);
+  private static final MediaType TEXT_PLAIN_UTF8 = MediaType.TEXT_PLAIN_TYPE.withCharset("UTF-8");
   private final KafkaSchemaRegistry schemaRegistry;
+  private final int maxIdsPerRequest;
 
   public SchemasResource(KafkaSchemaRegistry schemaRegistry) {
     this.schemaRegistry = schemaRegistry;
+    this.maxIdsPerRequest = schemaRegistry.config().getInt(
+        SchemaRegistryConfig.SCHEMA_IDS_REQUEST_MAX_IDS_CONFIG);
   }
 
   @GET
@@ -94,9 +107,55 @@ public class SchemasResource {
     return filteredSchemas;
   }
 
+  @GET
+  @Path("/ids")
+  @Operation(summary = "Get the schemas identified by the input IDs.", responses = {
+      @ApiResponse(responseCode = "422", description = "Error code 42208 -- More ids than "
+          + "schema.ids.request.max.ids"),
+      @ApiResponse(responseCode = "500", description = "Error code 50001 -- Error in the backend "
+          + "data store\n")
+  })
+  @PerformanceMetric("schemas.ids.get-schemas")
+  public List<Schema> getSchemasByIds(
+      @Parameter(description = "Globally unique identifiers of the schemas")
+      @QueryParam("id") List<Integer> ids,
+      @QueryParam("subject") String subject,
+      @DefaultValue("") @QueryParam("format") String format) {
+    if (ids.size() > maxIdsPerRequest) {
+      throw Errors.tooManyIdsException(ids.size(), maxIdsPerRequest);
+    }
+    // ids that are not found are left out, so that one unknown id does not fail the others
+    List<Schema> schemas = new ArrayList<>(ids.size());
+    for (Integer id : new LinkedHashSet<>(ids)) {
+      if (id == null) {
+        continue;
+      }
+      String errorMessage = "Error while retrieving schema with id " + id + " from the schema "
+                            + "registry";
+      SchemaString schema;
+      try {
+        schema = schemaRegistry.get(id, subject, format, false);
+      } catch (SchemaRegistryStoreException e) {
+        log.debug(errorMessage, e);
+        throw Errors.storeException(errorMessage, e);
+      } catch (SchemaRegistryException e) {
+        throw Errors.schemaRegistryException(errorMessage, e);
+      }
+      if (schema != null) {
+        schemas.add(new Schema(null, null, id, schema.getSchemaType(), schema.getReferences(),
+            schema.getSchemaString()));
+      }
+    }
+    return schemas;
+  }
+
   @GET
   @Path("/ids/{id}")
   @Operation(summary = "Get the schema string identified by the input ID.", responses = {
+      @ApiResponse(content = @Content(
+          schema = @io.swagger.v3.oas.annotations.media.Schema(
+              implementation = SchemaString.class))),
+      @ApiResponse(responseCode = "304", description = "The schema matches the given ETag"),
       @ApiResponse(responseCode = "404", description = "Error code 40403 -- Schema not found\n"),
       @ApiResponse(responseCode = "500",
           description = "Error code 50001 -- Error in the backend data store\n")
@@ -108,9 +167,13 @@ public class SchemasResource {
       @QueryParam("subject") String subject,
       @DefaultValue("") @QueryParam("format") String format,
       @DefaultValue("false") @QueryParam("fetchMaxId") boolean fetchMaxId) {
-    SchemaString schema;
     String errorMessage = "Error while retrieving schema with id " + id + " from the schema "
                           + "registry";
+    if (!fetchMaxId) {
+      // the max id changes with every new schema, so only the other responses are cached
+      return new EncodedSchemaString(encodedResponse(id, subject, format, false, errorMessage));
+    }
+    SchemaString schema;
     try {
       schema = schemaRegistry.get(id, subject, format, fetchMaxId);
     } catch (SchemaRegistryStoreException e) {
@@ -125,6 +188,55 @@ public class SchemasResource {
     return schema;
   }
 
+  @GET
+  @Path("/ids/{id}/schema")
+  // errors are still returned as JSON
+  @Produces({MediaType.TEXT_PLAIN,
+             Versions.SCHEMA_REGISTRY_V1_JSON_WEIGHTED,
+             Versions.SCHEMA_REGISTRY_DEFAULT_JSON_WEIGHTED,
+             Versions.JSON_WEIGHTED})
+  @Operation(summary = "Get only the schema identified by the input ID.", responses = {
+      @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN,
+          schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = String.class))),
+      @ApiResponse(responseCode = "304", description = "The schema matches the given ETag"),
+      @ApiResponse(responseCode = "404", description = "Error code 40403 -- Schema not found\n"),
+      @ApiResponse(responseCode = "500",
+          description = "Error code 50001 -- Error in the backend data store\n")
+  })
+  @PerformanceMetric("schemas.ids.get-schema-only")
+  public Response getSchemaOnly(
+      @Parameter(description = "Globally unique identifier of the schema", required = true)
+      @PathParam("id") Integer id,
+      @QueryParam("subject") String subject,
+      @DefaultValue("") @QueryParam("format") String format,
+      @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+    String errorMessage = "Error while retrieving schema with id " + id + " from the schema "
+                          + "registry";
+    EncodedResponse response = encodedResponse(id, subject, format, true, errorMessage);
+    EntityTag etag = new EntityTag(response.etag());
+    if (response.matches(ifNoneMatch)) {
+      return Response.notModified(etag).build();
+    }
+    return Response.ok(response.body(), TEXT_PLAIN_UTF8).tag(etag).build();
+  }
+
+  private EncodedResponse encodedResponse(Integer id, String subject, String format,
+                                          boolean raw, String errorMessage) {
+    EncodedResponse response;
+    try {
+      response = schemaRegistry.getEncoded(id, subject, format, raw);
+    } catch (SchemaRegistryStoreException e) {
+      log.debug(errorMessage, e);
+      throw Errors.storeException(errorMessage, e);
+    } catch (SchemaRegistryException e) {
+      throw Errors.schemaRegistryException(errorMessage, e);
+    }
+    if (response == null) {
+      throw Errors.schemaNotFoundException(id);
+    }
+    return response;
+  }
+
   @GET
   @Path("/ids/{id}/subjects")
   @Operation(summary = "Get all the subjects associated with the input ID.", responses = {
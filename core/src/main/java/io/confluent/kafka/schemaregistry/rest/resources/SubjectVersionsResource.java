@@ -76,6 +76,7 @@ public class SubjectVersionsResource {
   private final KafkaSchemaRegistry schemaRegistry;
 
   private final RequestHeaderBuilder requestHeaderBuilder = new RequestHeaderBuilder();
+  private final WriteRequestRunner writeRequestRunner = new WriteRequestRunner();
 
   private static final String VERSION_PARAM_DESC = "Version of the schema to be returned. "
       + "Valid values for versionId are between [1,2^31-1] or the string \"latest\". \"latest\" "
@@ -290,6 +291,13 @@ public class SubjectVersionsResource {
         request.getReferences(),
         request.getSchema()
     );
+    String subject = subjectName;
+    writeRequestRunner.run(schemaRegistry.writeExecutor(), asyncResponse,
+        () -> register(asyncResponse, subject, schema, headerProperties));
+  }
+
+  private void register(AsyncResponse asyncResponse, String subjectName, Schema schema,
+                        Map<String, String> headerProperties) {
     int id;
     try {
       id = schemaRegistry.registerOrForward(subjectName, schema, headerProperties);
@@ -381,9 +389,18 @@ public class SubjectVersionsResource {
       throw Errors.schemaRegistryException(errorMessage, e);
     }
 
+    Map<String, String> headerProperties = requestHeaderBuilder.buildRequestHeaders(
+            headers, schemaRegistry.config().whitelistHeaders());
+    String normalizedSubject = subject;
+    writeRequestRunner.run(schemaRegistry.writeExecutor(), asyncResponse,
+        () -> deleteSchemaVersion(asyncResponse, headerProperties, normalizedSubject, schema,
+            permanentDelete));
+  }
+
+  private void deleteSchemaVersion(AsyncResponse asyncResponse,
+                                   Map<String, String> headerProperties, String subject,
+                                   Schema schema, boolean permanentDelete) {
     try {
-      Map<String, String> headerProperties = requestHeaderBuilder.buildRequestHeaders(
-              headers, schemaRegistry.config().whitelistHeaders());
       schemaRegistry.deleteSchemaVersionOrForward(headerProperties, subject,
               schema, permanentDelete);
     } catch (SchemaVersionNotSoftDeletedException e) {
@@ -66,6 +66,7 @@ public class SubjectsResource {
   private static final Logger log = LoggerFactory.getLogger(SubjectsResource.class);
   private final KafkaSchemaRegistry schemaRegistry;
   private final RequestHeaderBuilder requestHeaderBuilder = new RequestHeaderBuilder();
+  private final WriteRequestRunner writeRequestRunner = new WriteRequestRunner();
 
   public SubjectsResource(KafkaSchemaRegistry schemaRegistry) {
     this.schemaRegistry = schemaRegistry;
@@ -164,6 +165,15 @@ public class SubjectsResource {
 
     subject = QualifiedSubject.normalize(schemaRegistry.tenant(), subject);
 
+    Map<String, String> headerProperties = requestHeaderBuilder.buildRequestHeaders(
+        headers, schemaRegistry.config().whitelistHeaders());
+    String normalizedSubject = subject;
+    writeRequestRunner.run(schemaRegistry.writeExecutor(), asyncResponse,
+        () -> deleteSubject(asyncResponse, headerProperties, normalizedSubject, permanentDelete));
+  }
+
+  private void deleteSubject(AsyncResponse asyncResponse, Map<String, String> headerProperties,
+                             String subject, boolean permanentDelete) {
     List<Integer> deletedVersions;
     try {
       if (!schemaRegistry.hasSubjects(subject, true)) {
@@ -172,8 +182,6 @@ public class SubjectsResource {
       if (!permanentDelete && !schemaRegistry.hasSubjects(subject, false)) {
         throw Errors.subjectSoftDeletedException(subject);
       }
-      Map<String, String> headerProperties = requestHeaderBuilder.buildRequestHeaders(
-          headers, schemaRegistry.config().whitelistHeaders());
       deletedVersions = schemaRegistry.deleteSubjectOrForward(headerProperties,
               subject,
               permanentDelete);
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.rest.resources;
+
+import javax.ws.rs.container.AsyncResponse;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import io.confluent.kafka.schemaregistry.rest.exceptions.Errors;
+
+/**
+ * Runs write requests on the write executor of the registry, if there is one, so that the HTTP
+ * thread is released while the write waits for the Kafka store.
+ *
+ * <p>The request must resume the response itself; a failure is resumed on its behalf, and is
+ * then mapped to an error response as if it had been thrown on the HTTP thread. Request-scoped
+ * objects such as the HTTP headers must be read before the request is handed off. A request
+ * that the executor rejects, or that is dropped from its queue on shutdown, is resumed with a
+ * 503.
+ */
+public class WriteRequestRunner {
+
+  public void run(Executor executor, AsyncResponse asyncResponse, Runnable request) {
+    if (executor == null) {
+      request.run();
+      return;
+    }
+    try {
+      executor.execute(new WriteTask(asyncResponse, request));
+    } catch (RejectedExecutionException e) {
+      asyncResponse.resume(
+          Errors.writeRequestRejectedException("Too many write requests are queued"));
+    }
+  }
+
+  /**
+   * Resumes the write requests among {@code tasks}, as returned by
+   * {@link java.util.concurrent.ExecutorService#shutdownNow()}, with {@code error}.
+   */
+  public static void reject(List<Runnable> tasks, Throwable error) {
+    for (Runnable task : tasks) {
+      if (task instanceof WriteTask) {
+        ((WriteTask) task).asyncResponse.resume(error);
+      }
+    }
+  }
+
+  private static class WriteTask implements Runnable {
+
+    private final AsyncResponse asyncResponse;
+    private final Runnable request;
+
+    private WriteTask(AsyncResponse asyncResponse, Runnable request) {
+      this.asyncResponse = asyncResponse;
+      this.request = request;
+    }
+
+    @Override
+    public void run() {
+      try {
+        request.run();
+      } catch (Throwable t) {
+        asyncResponse.resume(t);
+      }
+    }
+  }
+}
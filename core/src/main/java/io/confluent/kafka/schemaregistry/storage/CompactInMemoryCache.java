@@ -0,0 +1,238 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage;
+
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
+import io.confluent.kafka.schemaregistry.storage.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * In-memory store that keeps schemas in a compact form, for registries with a very large
+ * number of schema versions.
+ *
+ * <p>The text of each distinct schema is kept once, however many subjects, versions and
+ * contexts it is registered under, and large schemas are deflated. The text is held in byte
+ * arrays, which the garbage collector does not need to trace, rather than in strings that are
+ * referenced from every version. The subject of a stored value shares the string of its key.
+ *
+ * <p>Values are expanded to plain {@link SchemaValue}s on every read, so reads allocate and
+ * may inflate the schema text. Reads of schemas by id are mostly served by the parsed schema
+ * and response caches in front of this store.
+ */
+public class CompactInMemoryCache<K, V> extends InMemoryCache<K, V> {
+
+  // smaller schemas do not deflate enough to be worth inflating on every read
+  static final int MIN_DEFLATE_BYTES = 256;
+
+  private final Map<MD5, SchemaText> texts = new ConcurrentHashMap<>();
+
+  public CompactInMemoryCache(Serializer<K, V> serializer) {
+    super(serializer);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected V compact(K key, V value) {
+    // a compact value is compacted again too, as its schema may have been replaced, and the
+    // stored value that it replaces releases its reference to the text
+    if (!(value instanceof SchemaValue)) {
+      return value;
+    }
+    SchemaValue schemaValue = (SchemaValue) value;
+    String subject = schemaValue.getSubject();
+    if (key instanceof SchemaKey && subject != null
+        && subject.equals(((SchemaKey) key).getSubject())) {
+      subject = ((SchemaKey) key).getSubject();
+    }
+    CompactSchemaValue compacted = new CompactSchemaValue(
+        subject, schemaValue, acquire(schemaValue.getSchema()));
+    compacted.setOffset(schemaValue.getOffset());
+    compacted.setTimestamp(schemaValue.getTimestamp());
+    return (V) compacted;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected V expand(V stored) {
+    if (!(stored instanceof CompactSchemaValue)) {
+      return stored;
+    }
+    CompactSchemaValue compacted = (CompactSchemaValue) stored;
+    SchemaValue value = new SchemaValue(compacted.getSubject(), compacted.getVersion(),
+        compacted.getId(), compacted.getSchemaType(), compacted.getReferences(),
+        compacted.getSchema(), compacted.isDeleted());
+    value.setOffset(compacted.getOffset());
+    value.setTimestamp(compacted.getTimestamp());
+    return (V) value;
+  }
+
+  @Override
+  protected void discard(V stored) {
+    if (stored instanceof CompactSchemaValue) {
+      release(((CompactSchemaValue) stored).text);
+    }
+  }
+
+  @Override
+  public void close() throws StoreException {
+    super.close();
+    texts.clear();
+  }
+
+  /**
+   * Returns the number of distinct schema texts that are stored.
+   */
+  public int schemaTextCount() {
+    return texts.size();
+  }
+
+  /**
+   * Returns the number of bytes used to store the distinct schema texts.
+   */
+  public long schemaTextBytes() {
+    return texts.values().stream().mapToLong(text -> text.data.length).sum();
+  }
+
+  private SchemaText acquire(String schema) {
+    if (schema == null) {
+      return null;
+    }
+    MD5 md5 = MD5.ofString(schema, null);
+    return texts.compute(md5, (k, text) -> {
+      if (text == null) {
+        text = SchemaText.encode(md5, schema);
+      }
+      text.refs++;
+      return text;
+    });
+  }
+
+  private void release(SchemaText text) {
+    if (text == null) {
+      return;
+    }
+    texts.computeIfPresent(text.md5, (k, current) -> {
+      if (current != text) {
+        return current;
+      }
+      return --current.refs > 0 ? current : null;
+    });
+  }
+
+  /**
+   * The UTF-8 bytes of a schema, deflated if that makes them smaller.
+   */
+  static class SchemaText {
+    private final MD5 md5;
+    private final byte[] data;
+    // the number of UTF-8 bytes if the data is deflated, otherwise -1
+    private final int inflatedLength;
+    // only updated while holding the lock of the entry in the map of texts
+    private int refs;
+
+    private SchemaText(MD5 md5, byte[] data, int inflatedLength) {
+      this.md5 = md5;
+      this.data = data;
+      this.inflatedLength = inflatedLength;
+    }
+
+    static SchemaText encode(MD5 md5, String schema) {
+      byte[] bytes = schema.getBytes(StandardCharsets.UTF_8);
+      if (bytes.length >= MIN_DEFLATE_BYTES) {
+        byte[] deflated = deflate(bytes);
+        if (deflated.length < bytes.length) {
+          return new SchemaText(md5, deflated, bytes.length);
+        }
+      }
+      return new SchemaText(md5, bytes, -1);
+    }
+
+    String decode() {
+      if (inflatedLength < 0) {
+        return new String(data, StandardCharsets.UTF_8);
+      }
+      Inflater inflater = new Inflater();
+      try {
+        inflater.setInput(data);
+        byte[] bytes = new byte[inflatedLength];
+        int length = 0;
+        while (length < bytes.length && !inflater.finished()) {
+          length += inflater.inflate(bytes, length, bytes.length - length);
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+      } catch (DataFormatException e) {
+        throw new IllegalStateException("Corrupt schema text", e);
+      } finally {
+        inflater.end();
+      }
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+      Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try {
+        deflater.setInput(bytes);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        byte[] buffer = new byte[4096];
+        while (!deflater.finished()) {
+          out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        return out.toByteArray();
+      } finally {
+        deflater.end();
+      }
+    }
+  }
+
+  /**
+   * A stored schema, whose text is shared with the other versions of the same schema.
+   * The store returns plain {@link SchemaValue}s, but this is a mutable {@link SchemaValue} too:
+   * setting its schema replaces the text of this value only, and putting it back in the store
+   * compacts it again.
+   */
+  static class CompactSchemaValue extends SchemaValue {
+    private final SchemaText text;
+    // whether the schema has been set, in which case it is held by the superclass
+    private volatile boolean schemaReplaced;
+
+    CompactSchemaValue(String subject, SchemaValue value, SchemaText text) {
+      super(subject, value.getVersion(), value.getId(), value.getSchemaType(),
+          value.getReferences(), null, value.isDeleted());
+      this.text = text;
+    }
+
+    @Override
+    public String getSchema() {
+      if (schemaReplaced) {
+        return super.getSchema();
+      }
+      return text != null ? text.decode() : null;
+    }
+
+    @Override
+    public void setSchema(String schema) {
+      super.setSchema(schema);
+      schemaReplaced = true;
+    }
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.confluent.kafka.schemaregistry.CompatibilityLevel;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
+import io.confluent.kafka.schemaregistry.metrics.SchemaRegistryMetric;
+import io.confluent.kafka.schemaregistry.utils.QualifiedSubject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of the results of compatibility checks, so that checking the same schema against the
+ * same versions of a subject again does not parse and compare the schemas.
+ *
+ * <p>A result is keyed by the MD5 of the new schema and its references, its type, the
+ * compatibility level, the context of the subject and the ids of the previous schemas it was
+ * checked against. Registering or deleting a version of the subject, or changing its
+ * compatibility level, changes the key of later checks, so their stale results are never
+ * looked up again and age out of the cache. The text of an id only changes when the id is
+ * reused after a permanent delete, which drops every result.
+ */
+public class CompatibilityCache {
+
+  private final Cache<Key, List<String>> cache;
+  private final SchemaRegistryMetric hits;
+  private final SchemaRegistryMetric misses;
+  // bumped by every invalidation, so that a check that raced with one is not cached
+  private final AtomicLong generation = new AtomicLong();
+
+  public CompatibilityCache(long maxEntries,
+                            SchemaRegistryMetric hits,
+                            SchemaRegistryMetric misses) {
+    this.hits = hits;
+    this.misses = misses;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxEntries)
+        .build();
+  }
+
+  public interface Checker {
+    List<String> check() throws SchemaRegistryException;
+  }
+
+  /**
+   * Returns the result of checking a new schema against previous schemas, calling the checker
+   * on a miss. Checks against previous schemas without an id, or of new schemas with
+   * references to unspecified versions, are not cached.
+   *
+   * @param tenant the tenant of the request
+   * @param subject the subject of the check
+   * @param newSchema the schema to check
+   * @param compatibility the compatibility level of the subject
+   * @param previousSchemas the schemas of the subject to check against
+   * @param checker runs the check on a miss
+   * @return the incompatibilities found, if any
+   */
+  public List<String> get(String tenant, String subject, Schema newSchema,
+                          CompatibilityLevel compatibility, List<Schema> previousSchemas,
+                          Checker checker) throws SchemaRegistryException {
+    Key key = key(tenant, subject, newSchema, compatibility, previousSchemas);
+    if (key == null) {
+      return checker.check();
+    }
+    List<String> result = cache.getIfPresent(key);
+    if (result != null) {
+      hits.increment();
+      return result;
+    }
+    misses.increment();
+    long checkGeneration = generation.get();
+    try {
+      // concurrent misses for the same key wait for a single check
+      result = cache.get(key,
+          () -> Collections.unmodifiableList(new ArrayList<>(checker.check())));
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof SchemaRegistryException) {
+        throw (SchemaRegistryException) cause;
+      } else {
+        throw new RuntimeException(e);
+      }
+    } catch (UncheckedExecutionException e) {
+      Throwable cause = e.getCause();
+      throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+    }
+    if (generation.get() != checkGeneration) {
+      cache.invalidate(key);
+    }
+    return result;
+  }
+
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  private static Key key(String tenant, String subject, Schema newSchema,
+                         CompatibilityLevel compatibility, List<Schema> previousSchemas) {
+    if (newSchema.getSchema() == null) {
+      return null;
+    }
+    List<io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference> refs =
+        newSchema.getReferences() != null ? newSchema.getReferences() : Collections.emptyList();
+    List<SchemaReference> references = new ArrayList<>(refs.size());
+    for (io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference ref : refs) {
+      if (ref.getVersion() == null || ref.getVersion() < 0) {
+        return null;
+      }
+      references.add(new SchemaReference(ref.getName(), ref.getSubject(), ref.getVersion()));
+    }
+    int[] previousIds = new int[previousSchemas.size()];
+    for (int i = 0; i < previousIds.length; i++) {
+      Integer id = previousSchemas.get(i).getId();
+      if (id == null || id < 0) {
+        return null;
+      }
+      previousIds[i] = id;
+    }
+    QualifiedSubject qs = QualifiedSubject.create(tenant, subject);
+    return new Key(
+        MD5.ofString(newSchema.getSchema(), references),
+        newSchema.getSchemaType() != null ? newSchema.getSchemaType() : AvroSchema.TYPE,
+        compatibility,
+        qs != null ? qs.toQualifiedContext() : "",
+        previousIds);
+  }
+
+  private static class Key {
+    private final MD5 md5;
+    private final String schemaType;
+    private final CompatibilityLevel compatibility;
+    private final String qualifiedContext;
+    private final int[] previousIds;
+
+    Key(MD5 md5, String schemaType, CompatibilityLevel compatibility, String qualifiedContext,
+        int[] previousIds) {
+      this.md5 = md5;
+      this.schemaType = schemaType;
+      this.compatibility = compatibility;
+      this.qualifiedContext = qualifiedContext;
+      this.previousIds = previousIds;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key that = (Key) o;
+      return md5.equals(that.md5)
+          && schemaType.equals(that.schemaType)
+          && compatibility == that.compatibility
+          && qualifiedContext.equals(that.qualifiedContext)
+          && Arrays.equals(previousIds, that.previousIds);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(md5, schemaType, compatibility, qualifiedContext)
+          * 31 + Arrays.hashCode(previousIds);
+    }
+  }
+}
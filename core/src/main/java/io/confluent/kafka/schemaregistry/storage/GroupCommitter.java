@@ -0,0 +1,285 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage;
+
+import io.confluent.kafka.schemaregistry.metrics.SchemaRegistryHistogram;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreTimeoutException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends writes to the Kafka store in groups, so that concurrent writers share the round trip
+ * to the broker and the wait for the local store to catch up.
+ *
+ * <p>A background thread takes the first queued write, collects further writes that arrive
+ * within the window, up to the maximum group size, and sends them all before waiting for their
+ * acks. It then watches for the local store to reach the highest acked offset, which releases
+ * every writer of the group, and moves on to the next group without waiting for the local
+ * store. Writes queued while a group is in flight form the next group, even with an empty
+ * window.
+ *
+ * <p>A write can hold several records, such as the records of a registration, which are sent
+ * together and in order. Groups are bounded by their number of records, and a write is never
+ * split, so the last write of a group can take it over the maximum.
+ *
+ * <p>A write whose writer gave up waiting, see {@link #await}, is failed rather than left
+ * queued, and is not sent if the committer has not reached it yet.
+ */
+class GroupCommitter<K> {
+
+  private static final Logger log = LoggerFactory.getLogger(GroupCommitter.class);
+
+  interface OffsetWaiter {
+    CompletableFuture<Long> offsetReached(long offset, int timeoutMs);
+  }
+
+  interface AckListener<K> {
+    void acked(K key, long offset);
+  }
+
+  private final Producer<byte[], byte[]> producer;
+  private final int maxGroupSize;
+  private final long windowMs;
+  private final int timeoutMs;
+  private final OffsetWaiter offsetWaiter;
+  private final AckListener<K> ackListener;
+  private final SchemaRegistryHistogram groupSize;
+  private final BlockingQueue<PendingWrite<K>> queue = new LinkedBlockingQueue<>();
+  private final Thread thread;
+  // guards running, so that no write is queued after close drains the queue
+  private final Object submitLock = new Object();
+  private volatile boolean running = true;
+
+  GroupCommitter(Producer<byte[], byte[]> producer,
+                 int maxGroupSize,
+                 long windowMs,
+                 int timeoutMs,
+                 OffsetWaiter offsetWaiter,
+                 AckListener<K> ackListener,
+                 SchemaRegistryHistogram groupSize) {
+    this.producer = producer;
+    this.maxGroupSize = maxGroupSize;
+    this.windowMs = windowMs;
+    this.timeoutMs = timeoutMs;
+    this.offsetWaiter = offsetWaiter;
+    this.ackListener = ackListener;
+    this.groupSize = groupSize;
+    this.thread = new Thread(this::run, "kafka-store-group-commit");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Queues a write.
+   *
+   * @return a future of the offset of the write, which completes once the local store has
+   *     caught up to it
+   */
+  CompletableFuture<Long> submit(K key, ProducerRecord<byte[], byte[]> record)
+      throws StoreException {
+    return submitAll(Collections.singletonList(key), Collections.singletonList(record));
+  }
+
+  /**
+   * Queues a write of several records, which are sent in order within the same group.
+   *
+   * @param keys the keys of the records, in the same order
+   * @return a future of the offset of the last record, which completes once the local store
+   *     has caught up to it
+   */
+  CompletableFuture<Long> submitAll(List<K> keys, List<ProducerRecord<byte[], byte[]>> records)
+      throws StoreException {
+    PendingWrite<K> write = new PendingWrite<>(keys, records);
+    synchronized (submitLock) {
+      if (!running) {
+        throw new StoreException("Kafka store is closing");
+      }
+      queue.add(write);
+    }
+    return write.result;
+  }
+
+  /**
+   * Waits for a queued write. If the wait times out, the write is failed with a
+   * {@link StoreTimeoutException}, so that it is not sent once the writer has given up on it,
+   * unless it completed in the meantime.
+   *
+   * @return the offset of the write
+   */
+  static long await(CompletableFuture<Long> result, long timeoutMs)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    try {
+      return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      if (result.completeExceptionally(new StoreTimeoutException(
+          "Put operation timed out while waiting for the group commit", e))) {
+        throw e;
+      }
+      return result.get();
+    }
+  }
+
+  void close() {
+    synchronized (submitLock) {
+      running = false;
+    }
+    thread.interrupt();
+    try {
+      thread.join(timeoutMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    List<PendingWrite<K>> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    for (PendingWrite<K> write : remaining) {
+      write.result.completeExceptionally(new StoreException("Kafka store is closing"));
+    }
+  }
+
+  private void run() {
+    while (running) {
+      // a group is completed asynchronously once the local store catches up, so it is not reused
+      List<PendingWrite<K>> group = new ArrayList<>();
+      int records = 0;
+      try {
+        PendingWrite<K> first = queue.take();
+        group.add(first);
+        records += first.records.size();
+        long deadline = System.currentTimeMillis() + windowMs;
+        while (records < maxGroupSize) {
+          long remaining = deadline - System.currentTimeMillis();
+          PendingWrite<K> write = remaining > 0
+              ? queue.poll(remaining, TimeUnit.MILLISECONDS)
+              : queue.poll();
+          if (write == null) {
+            break;
+          }
+          group.add(write);
+          records += write.records.size();
+        }
+      } catch (InterruptedException e) {
+        // closing, or a spurious interrupt; either way fall through with the group so far
+      }
+      if (!group.isEmpty()) {
+        commit(group, records);
+      }
+    }
+  }
+
+  private void commit(List<PendingWrite<K>> group, int records) {
+    if (groupSize != null) {
+      groupSize.record(records);
+    }
+    log.trace("Sending {} records to KafkaStore topic", records);
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    List<PendingWrite<K>> sent = new ArrayList<>(group.size());
+    for (PendingWrite<K> write : group) {
+      // the writer timed out while the write was queued, so it must not reach Kafka
+      if (write.result.isDone()) {
+        continue;
+      }
+      if (write.timer != null) {
+        write.timer.markPhaseEnd(WriteTimer.Phase.QUEUE);
+      }
+      try {
+        for (ProducerRecord<byte[], byte[]> record : write.records) {
+          write.acks.add(producer.send(record));
+        }
+        sent.add(write);
+      } catch (KafkaException ke) {
+        write.result.completeExceptionally(
+            new StoreException("Put operation to Kafka failed", ke));
+      }
+    }
+
+    // acks are tracked even for writes whose writer has given up, as their records are sent
+    long lastOffset = -1L;
+    for (PendingWrite<K> write : sent) {
+      try {
+        for (int i = 0; i < write.acks.size(); i++) {
+          long remaining = Math.max(0L, deadline - System.currentTimeMillis());
+          RecordMetadata recordMetadata = write.acks.get(i).get(remaining, TimeUnit.MILLISECONDS);
+          ackListener.acked(write.keys.get(i), recordMetadata.offset());
+          write.offset = Math.max(write.offset, recordMetadata.offset());
+        }
+        if (write.timer != null) {
+          write.timer.markPhaseEnd(WriteTimer.Phase.PRODUCE);
+        }
+        lastOffset = Math.max(lastOffset, write.offset);
+      } catch (InterruptedException e) {
+        write.result.completeExceptionally(new StoreException(
+            "Put operation interrupted while waiting for an ack from Kafka", e));
+      } catch (ExecutionException e) {
+        write.result.completeExceptionally(new StoreException(
+            "Put operation failed while waiting for an ack from Kafka", e));
+      } catch (TimeoutException e) {
+        write.result.completeExceptionally(new StoreTimeoutException(
+            "Put operation timed out while waiting for an ack from Kafka", e));
+      }
+    }
+    if (lastOffset < 0) {
+      return;
+    }
+
+    log.trace("Waiting for the local store to catch up to offset {}", lastOffset);
+    int remaining = (int) Math.max(0L, deadline - System.currentTimeMillis());
+    offsetWaiter.offsetReached(lastOffset, remaining).whenComplete((offset, failure) -> {
+      for (PendingWrite<K> write : sent) {
+        if (write.result.isDone()) {
+          continue;
+        }
+        if (failure != null) {
+          write.result.completeExceptionally(failure);
+        } else {
+          write.result.complete(write.offset);
+        }
+      }
+    });
+  }
+
+  private static class PendingWrite<K> {
+    private final List<K> keys;
+    private final List<ProducerRecord<byte[], byte[]>> records;
+    private final List<Future<RecordMetadata>> acks;
+    private final CompletableFuture<Long> result = new CompletableFuture<>();
+    // the timer of the writing thread, which is waiting for the result
+    private final WriteTimer timer = WriteTimer.current();
+    private long offset = -1L;
+
+    PendingWrite(List<K> keys, List<ProducerRecord<byte[], byte[]>> records) {
+      this.keys = keys;
+      this.records = records;
+      this.acks = new ArrayList<>(records.size());
+    }
+  }
+}
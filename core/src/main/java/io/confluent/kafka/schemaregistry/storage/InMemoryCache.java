@@ -15,6 +15,7 @@
 
 package io.confluent.kafka.schemaregistry.storage;
 
+import com.google.common.collect.Iterators;
 import io.confluent.kafka.schemaregistry.CompatibilityLevel;
 import io.confluent.kafka.schemaregistry.avro.AvroSchema;
 import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
@@ -29,14 +30,17 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static io.confluent.kafka.schemaregistry.utils.QualifiedSubject.DEFAULT_CONTEXT;
 
@@ -49,12 +53,20 @@ public class InMemoryCache<K, V> implements LookupCache<K, V> {
   private final Map<String, Map<String, Map<Integer, Map<String, Integer>>>> guidToSubjectVersions;
   private final Map<String, Map<String, Map<MD5, Integer>>> hashToGuid;
   private final Map<String, Map<String, Map<SchemaKey, Set<Integer>>>> referencedBy;
+  // The contexts that have a schema with a given id, by tenant and id
+  private final Map<String, Map<Integer, NavigableSet<String>>> contextsById;
+  // Subjects in the same order as the store, so the subjects of a context are contiguous.
+  // Only updated by the schema callbacks, which are invoked from the single reader thread.
+  private final ConcurrentNavigableMap<String, SubjectVersions> subjectVersions;
 
   public InMemoryCache(Serializer<K, V> serializer) {
-    this.store = new ConcurrentSkipListMap<>(new SubjectKeyComparator<>(this));
+    SubjectKeyComparator<K> comparator = new SubjectKeyComparator<>(this);
+    this.store = new ConcurrentSkipListMap<>(comparator);
     this.guidToSubjectVersions = new ConcurrentHashMap<>();
     this.hashToGuid = new ConcurrentHashMap<>();
     this.referencedBy = new ConcurrentHashMap<>();
+    this.contextsById = new ConcurrentHashMap<>();
+    this.subjectVersions = new ConcurrentSkipListMap<>(comparator::compareSubjects);
   }
 
   @Override
@@ -64,12 +76,12 @@ public class InMemoryCache<K, V> implements LookupCache<K, V> {
 
   @Override
   public V get(K key) throws StoreException {
-    return store.get(key);
+    return expand(store.get(key));
   }
 
   @Override
   public V put(K key, V value) throws StoreException {
-    return store.put(key, value);
+    return evicted(store.put(key, compact(key, value)));
   }
 
   @Override
@@ -77,17 +89,56 @@ public class InMemoryCache<K, V> implements LookupCache<K, V> {
     ConcurrentNavigableMap<K, V> subMap = (key1 == null && key2 == null)
                                           ? store
                                           : store.subMap(key1, key2);
-    return new DelegatingIterator<>(subMap.values().iterator());
+    return new DelegatingIterator<>(Iterators.transform(subMap.values().iterator(), this::expand));
   }
 
   @Override
   public void putAll(Map<K, V> entries) throws StoreException {
-    store.putAll(entries);
+    for (Map.Entry<K, V> entry : entries.entrySet()) {
+      discard(store.put(entry.getKey(), compact(entry.getKey(), entry.getValue())));
+    }
   }
 
   @Override
   public V delete(K key) throws StoreException {
-    return store.remove(key);
+    return evicted(store.remove(key));
+  }
+
+  /**
+   * Converts a value to the form that is kept in the store. Subclasses can use this to keep
+   * a more compact representation, which must still be a {@link SchemaValue} for schemas, as
+   * the indexes read the subject, version and deleted flag from stored values.
+   *
+   * @param key the key of the value
+   * @param value the value being put; never {@code null}
+   * @return the value to store
+   */
+  protected V compact(K key, V value) {
+    return value;
+  }
+
+  /**
+   * Converts a stored value back to the value returned to callers.
+   *
+   * @param stored the stored value, or null
+   * @return the value, or null if the stored value is null
+   */
+  protected V expand(V stored) {
+    return stored;
+  }
+
+  /**
+   * Invoked when a stored value has been replaced or removed from the store.
+   *
+   * @param stored the stored value, or null
+   */
+  protected void discard(V stored) {
+  }
+
+  private V evicted(V stored) {
+    V value = expand(stored);
+    discard(stored);
+    return value;
   }
 
   @Override
@@ -102,6 +153,7 @@ public class InMemoryCache<K, V> implements LookupCache<K, V> {
   @Override
   public void close() throws StoreException {
     store.clear();
+    subjectVersions.clear();
   }
 
   @Override
@@ -157,6 +209,29 @@ public class InMemoryCache<K, V> implements LookupCache<K, V> {
     return new SchemaKey(entry.getKey(), entry.getValue());
   }
 
+  @Override
+  public SchemaKey schemaKeyByIdInAnyContext(Integer id) throws StoreException {
+    Map<Integer, NavigableSet<String>> ids =
+        contextsById.getOrDefault(tenant(), Collections.emptyMap());
+    Set<String> contexts = ids.get(id);
+    if (contexts == null) {
+      return null;
+    }
+    Map<String, Map<Integer, Map<String, Integer>>> ctxGuids =
+        guidToSubjectVersions.getOrDefault(tenant(), Collections.emptyMap());
+    // usually a single context, unless schemas were imported into several contexts
+    for (String ctx : contexts) {
+      Map<Integer, Map<String, Integer>> guids =
+          ctxGuids.getOrDefault(ctx, Collections.emptyMap());
+      Map<String, Integer> subjectVersions = guids.get(id);
+      if (subjectVersions != null && !subjectVersions.isEmpty()) {
+        Map.Entry<String, Integer> entry = subjectVersions.entrySet().iterator().next();
+        return new SchemaKey(entry.getKey(), entry.getValue());
+      }
+    }
+    return null;
+  }
+
   @Override
   public void schemaDeleted(
       SchemaKey schemaKey, SchemaValue schemaValue, SchemaValue oldSchemaValue) {
@@ -168,6 +243,8 @@ public class InMemoryCache<K, V> implements LookupCache<K, V> {
     Map<String, Integer> subjectVersions =
         guids.computeIfAbsent(schemaValue.getId(), k -> new ConcurrentHashMap<>());
     subjectVersions.put(schemaKey.getSubject(), schemaKey.getVersion());
+    addToContextsById(ctx, schemaValue.getId());
+    addToSubjectVersions(schemaKey, true);
     // We ensure the schema is registered by its hash; this is necessary in case of a
     // compaction when the previous non-deleted schemaValue will not get registered
     addToSchemaHashToGuid(schemaKey, schemaValue);
@@ -190,6 +267,7 @@ public class InMemoryCache<K, V> implements LookupCache<K, V> {
 
   @Override
   public void schemaTombstoned(SchemaKey schemaKey, SchemaValue schemaValue) {
+    removeFromSubjectVersions(schemaKey);
     if (schemaValue == null) {
       return;
     }
@@ -205,6 +283,7 @@ public class InMemoryCache<K, V> implements LookupCache<K, V> {
         (k, v) -> schemaKey.getVersion() == v ? null : v);
     if (subjectVersions.isEmpty()) {
       guids.remove(schemaValue.getId());
+      removeFromContextsById(ctx, schemaValue.getId());
     }
   }
 
@@ -219,6 +298,8 @@ public class InMemoryCache<K, V> implements LookupCache<K, V> {
     Map<String, Integer> subjectVersions =
         guids.computeIfAbsent(schemaValue.getId(), k -> new ConcurrentHashMap<>());
     subjectVersions.put(schemaKey.getSubject(), schemaKey.getVersion());
+    addToContextsById(ctx, schemaValue.getId());
+    addToSubjectVersions(schemaKey, false);
     addToSchemaHashToGuid(schemaKey, schemaValue);
     for (SchemaReference ref : schemaValue.getReferences()) {
       SchemaKey refKey = new SchemaKey(ref.getSubject(), ref.getVersion());
@@ -232,6 +313,37 @@ public class InMemoryCache<K, V> implements LookupCache<K, V> {
     }
   }
 
+  private void addToContextsById(String ctx, int id) {
+    contextsById.computeIfAbsent(tenant(), k -> new ConcurrentHashMap<>())
+        .computeIfAbsent(id, k -> new ConcurrentSkipListSet<>())
+        .add(ctx);
+  }
+
+  private void removeFromContextsById(String ctx, int id) {
+    Map<Integer, NavigableSet<String>> ids = contextsById.get(tenant());
+    if (ids != null) {
+      ids.computeIfPresent(id, (k, contexts) -> {
+        contexts.remove(ctx);
+        return contexts.isEmpty() ? null : contexts;
+      });
+    }
+  }
+
+  private void addToSubjectVersions(SchemaKey schemaKey, boolean deleted) {
+    subjectVersions.computeIfAbsent(schemaKey.getSubject(), SubjectVersions::new)
+        .put(schemaKey.getVersion(), deleted);
+  }
+
+  private void removeFromSubjectVersions(SchemaKey schemaKey) {
+    SubjectVersions versions = subjectVersions.get(schemaKey.getSubject());
+    if (versions != null) {
+      versions.remove(schemaKey.getVersion());
+      if (versions.isEmpty()) {
+        subjectVersions.remove(schemaKey.getSubject(), versions);
+      }
+    }
+  }
+
   private void addToSchemaHashToGuid(SchemaKey schemaKey, SchemaValue schemaValue) {
     String ctx = QualifiedSubject.contextFor(tenant(), schemaKey.getSubject());
     MD5 md5 = MD5.ofString(schemaValue.getSchema(), schemaValue.getReferences());
@@ -295,45 +407,49 @@ public class InMemoryCache<K, V> implements LookupCache<K, V> {
 
   @Override
   public Set<String> subjects(String subject, boolean lookupDeletedSubjects) throws StoreException {
-    return subjects(matchingSubjectPredicate(subject), lookupDeletedSubjects);
-  }
-
-  private Set<String> subjects(Predicate<String> match, boolean lookupDeletedSubjects) {
-    return store.entrySet().stream()
-        .flatMap(e -> {
-          K k = e.getKey();
-          V v = e.getValue();
-          if (k instanceof SchemaKey) {
-            SchemaKey key = (SchemaKey) k;
-            SchemaValue value = (SchemaValue) v;
-            if (value != null && (!value.isDeleted() || lookupDeletedSubjects)) {
-              return match.test(key.getSubject()) ? Stream.of(key.getSubject()) : Stream.empty();
-            }
-          }
-          return Stream.empty();
-        })
+    Predicate<String> match = matchingSubjectPredicate(subject);
+    if (subject != null && exactSubjectMatch()) {
+      SubjectVersions versions = subjectVersions.get(subject);
+      return versions != null
+          && versions.hasVersions(lookupDeletedSubjects)
+          && match.test(versions.getSubject())
+          ? Collections.singleton(versions.getSubject())
+          : Collections.emptySet();
+    }
+    return subjectVersions.values().stream()
+        .filter(v -> v.hasVersions(lookupDeletedSubjects) && match.test(v.getSubject()))
+        .map(SubjectVersions::getSubject)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
+  @Override
+  public Set<String> subjectsInRange(String fromSubject, String toSubject,
+                                     boolean lookupDeletedSubjects) throws StoreException {
+    if (subjectVersions.comparator().compare(fromSubject, toSubject) > 0) {
+      return Collections.emptySet();
+    }
+    Predicate<String> match = matchingSubjectPredicate(null);
+    return subjectVersions.subMap(fromSubject, true, toSubject, true).values().stream()
+        .filter(v -> v.hasVersions(lookupDeletedSubjects) && match.test(v.getSubject()))
+        .map(SubjectVersions::getSubject)
         .collect(Collectors.toCollection(LinkedHashSet::new));
   }
 
   @Override
   public boolean hasSubjects(String subject, boolean lookupDeletedSubjects) throws StoreException {
-    return hasSubjects(matchingSubjectPredicate(subject), lookupDeletedSubjects);
-  }
-
-  private boolean hasSubjects(Predicate<String> match, boolean lookupDeletedSubjects) {
-    return store.entrySet().stream()
-        .anyMatch(e -> {
-          K k = e.getKey();
-          V v = e.getValue();
-          if (k instanceof SchemaKey) {
-            SchemaKey key = (SchemaKey) k;
-            SchemaValue value = (SchemaValue) v;
-            if (value != null && (!value.isDeleted() || lookupDeletedSubjects)) {
-              return match.test(key.getSubject());
-            }
-          }
-          return false;
-        });
+    if (subject != null && exactSubjectMatch()) {
+      return !subjects(subject, lookupDeletedSubjects).isEmpty();
+    }
+    Predicate<String> match = matchingSubjectPredicate(subject);
+    return subjectVersions.values().stream()
+        .anyMatch(v -> v.hasVersions(lookupDeletedSubjects) && match.test(v.getSubject()));
+  }
+
+  @Override
+  public Integer latestVersion(String subject, boolean lookupDeletedSchemas)
+      throws StoreException {
+    SubjectVersions versions = subjectVersions.get(subject);
+    return versions != null ? versions.latestVersion(lookupDeletedSchemas) : null;
   }
 
   @Override
@@ -350,10 +466,12 @@ public class InMemoryCache<K, V> implements LookupCache<K, V> {
     Map<Integer, Map<String, Integer>> guids = ctxGuids.getOrDefault(ctx, Collections.emptyMap());
     Iterator<Map.Entry<Integer, Map<String, Integer>>> it = guids.entrySet().iterator();
     while (it.hasNext()) {
-      Map<String, Integer> subjectVersions = it.next().getValue();
+      Map.Entry<Integer, Map<String, Integer>> guid = it.next();
+      Map<String, Integer> subjectVersions = guid.getValue();
       subjectVersions.entrySet().removeIf(e -> matchDeleted.test(e.getKey(), e.getValue()));
       if (subjectVersions.isEmpty()) {
         it.remove();
+        removeFromContextsById(ctx, guid.getKey());
       }
     }
 
@@ -365,6 +483,8 @@ public class InMemoryCache<K, V> implements LookupCache<K, V> {
         SchemaValue value = (SchemaValue) e.getValue();
         boolean isMatch = match.test(key.getSubject()) && value.isDeleted();
         if (isMatch) {
+          removeFromSubjectVersions(key);
+          discard(e.getValue());
           String schemaType = value.getSchemaType();
           if (schemaType == null) {
             schemaType = AvroSchema.TYPE;
@@ -378,10 +498,24 @@ public class InMemoryCache<K, V> implements LookupCache<K, V> {
     return counts;
   }
 
+  /**
+   * Returns a predicate for the subjects that the given subject matches, or for all subjects
+   * if it is null. A subclass that overrides it so that a subject matches other subjects than
+   * itself must also override {@link #exactSubjectMatch()}.
+   */
   protected Predicate<String> matchingSubjectPredicate(String subject) {
     return s -> subject == null || subject.equals(s);
   }
 
+  /**
+   * Returns whether a non-null subject matches at most itself, in which case it is looked up
+   * in the subject index, rather than by testing {@link #matchingSubjectPredicate} against
+   * every subject.
+   */
+  protected boolean exactSubjectMatch() {
+    return true;
+  }
+
   private BiPredicate<String, Integer> matchDeleted(Predicate<String> match) {
     return (subject, version) -> {
       if (match.test(subject)) {
@@ -394,6 +528,73 @@ public class InMemoryCache<K, V> implements LookupCache<K, V> {
     };
   }
 
+  /**
+   * The versions of a subject, and whether each of them is soft-deleted.
+   */
+  static class SubjectVersions {
+
+    private final String subject;
+    private final NavigableMap<Integer, Boolean> deletedByVersion = new TreeMap<>();
+    private int liveVersions;
+
+    SubjectVersions(String subject) {
+      this.subject = subject;
+    }
+
+    public String getSubject() {
+      return subject;
+    }
+
+    public synchronized void put(int version, boolean deleted) {
+      Boolean wasDeleted = deletedByVersion.put(version, deleted);
+      if (wasDeleted != null && !wasDeleted) {
+        liveVersions--;
+      }
+      if (!deleted) {
+        liveVersions++;
+      }
+    }
+
+    public synchronized void remove(int version) {
+      Boolean wasDeleted = deletedByVersion.remove(version);
+      if (wasDeleted != null && !wasDeleted) {
+        liveVersions--;
+      }
+    }
+
+    public synchronized boolean isEmpty() {
+      return deletedByVersion.isEmpty();
+    }
+
+    public synchronized int liveVersionCount() {
+      return liveVersions;
+    }
+
+    public synchronized int deletedVersionCount() {
+      return deletedByVersion.size() - liveVersions;
+    }
+
+    public synchronized boolean hasVersions(boolean includeDeleted) {
+      return includeDeleted ? !deletedByVersion.isEmpty() : liveVersions > 0;
+    }
+
+    public synchronized Integer latestVersion(boolean includeDeleted) {
+      if (includeDeleted) {
+        return deletedByVersion.isEmpty() ? null : deletedByVersion.lastKey();
+      }
+      if (liveVersions == 0) {
+        return null;
+      }
+      // soft-deleted versions are usually the oldest ones, so this rarely goes past the last
+      for (Map.Entry<Integer, Boolean> entry : deletedByVersion.descendingMap().entrySet()) {
+        if (!entry.getValue()) {
+          return entry.getKey();
+        }
+      }
+      return null;
+    }
+  }
+
   static class DelegatingIterator<T> implements CloseableIterator<T> {
 
     private final Iterator<T> iterator;
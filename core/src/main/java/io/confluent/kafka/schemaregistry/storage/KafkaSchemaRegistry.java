@@ -56,6 +56,8 @@ import io.confluent.kafka.schemaregistry.protobuf.ProtobufSchemaProvider;
 import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
 import io.confluent.kafka.schemaregistry.rest.VersionId;
 import io.confluent.kafka.schemaregistry.rest.exceptions.Errors;
+import io.confluent.kafka.schemaregistry.rest.filters.OffsetTokenFilter;
+import io.confluent.kafka.schemaregistry.rest.resources.WriteRequestRunner;
 import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
 import io.confluent.kafka.schemaregistry.storage.exceptions.StoreInitializationException;
 import io.confluent.kafka.schemaregistry.storage.exceptions.StoreTimeoutException;
@@ -64,8 +66,11 @@ import io.confluent.kafka.schemaregistry.utils.QualifiedSubject;
 import io.confluent.rest.Application;
 import io.confluent.rest.RestConfig;
 import io.confluent.rest.exceptions.RestException;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 import org.apache.avro.reflect.Nullable;
@@ -77,6 +82,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.net.ssl.HostnameVerifier;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -88,8 +94,14 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 import static io.confluent.kafka.schemaregistry.utils.QualifiedSubject.CONTEXT_DELIMITER;
@@ -109,6 +121,10 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
   private final SchemaRegistryConfig config;
   private final Map<String, Object> props;
   private final LoadingCache<RawSchema, ParsedSchema> schemaCache;
+  private final ParsedSchemaCache parsedSchemaCache;
+  private final int parsedSchemaCacheWarmupCount;
+  private final SchemaResponseCache schemaResponseCache;
+  private final CompatibilityCache compatibilityCache;
   private final LookupCache<SchemaRegistryKey, SchemaRegistryValue> lookupCache;
   // visible for testing
   final KafkaStore<SchemaRegistryKey, SchemaRegistryValue> kafkaStore;
@@ -130,6 +146,14 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
   private final Map<String, SchemaProvider> providers;
   private final String kafkaClusterId;
   private final String groupId;
+  // runs write requests off the HTTP threads; null to run them on the calling thread
+  private final ExecutorService writeExecutor;
+  private final Semaphore forwardPermits;
+  private final AtomicInteger forwardsWaiting = new AtomicInteger();
+  private final AtomicInteger forwardsInFlight = new AtomicInteger();
+  // the offset that the leader returned for the writes forwarded by the current request
+  private final ThreadLocal<Long> forwardedWriteOffset = new ThreadLocal<>();
+  private final long slowWriteThresholdMs;
 
   public KafkaSchemaRegistry(SchemaRegistryConfig config,
                              Serializer<SchemaRegistryKey, SchemaRegistryValue> serializer)
@@ -161,6 +185,7 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     this.kafkaStoreMaxRetries =
         config.getInt(SchemaRegistryConfig.KAFKASTORE_WRITE_MAX_RETRIES_CONFIG);
     this.serializer = serializer;
+    this.serializer.configure(config.values());
     this.defaultCompatibilityLevel = config.compatibilityType();
     this.defaultMode = Mode.READWRITE;
     this.kafkaClusterId = kafkaClusterId(config);
@@ -177,9 +202,59 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
             return loadSchema(s.getSchemaType(), s.getSchema(), s.getReferences(), s.isNew());
           }
         });
+    this.parsedSchemaCache = new ParsedSchemaCache(
+        config.getLong(SchemaRegistryConfig.PARSED_SCHEMA_CACHE_MAX_BYTES_CONFIG),
+        metricsContainer.getParsedSchemaCacheHits(),
+        metricsContainer.getParsedSchemaCacheMisses(),
+        metricsContainer.getParsedSchemaCacheEvictions());
+    this.parsedSchemaCacheWarmupCount =
+        config.getInt(SchemaRegistryConfig.PARSED_SCHEMA_CACHE_WARMUP_COUNT_CONFIG);
+    this.schemaResponseCache = new SchemaResponseCache(
+        config.getLong(SchemaRegistryConfig.SCHEMA_RESPONSE_CACHE_MAX_BYTES_CONFIG));
+    this.compatibilityCache = new CompatibilityCache(
+        config.getLong(SchemaRegistryConfig.COMPATIBILITY_CACHE_MAX_ENTRIES_CONFIG),
+        metricsContainer.getCompatibilityCacheHits(),
+        metricsContainer.getCompatibilityCacheMisses());
     this.lookupCache = lookupCache();
     this.idGenerator = identityGenerator(config);
     this.kafkaStore = kafkaStore(config);
+    this.writeExecutor = writeExecutor(
+        config.getInt(SchemaRegistryConfig.WRITE_REQUEST_THREADS_CONFIG),
+        config.getInt(SchemaRegistryConfig.WRITE_REQUEST_QUEUE_SIZE_CONFIG));
+    int maxForwards =
+        config.getInt(SchemaRegistryConfig.LEADER_FORWARD_MAX_CONCURRENT_REQUESTS_CONFIG);
+    this.forwardPermits = new Semaphore(maxForwards);
+    int maxIdleConnections = Integer.getInteger("http.maxConnections", 5);
+    if (maxIdleConnections < maxForwards) {
+      log.info("Only {} idle connections to the leader are kept for reuse, while up to {} "
+          + "requests are forwarded at the same time; set the http.maxConnections system "
+          + "property to {} to reuse a connection for each", maxIdleConnections, maxForwards,
+          maxForwards);
+    }
+    this.slowWriteThresholdMs =
+        config.getLong(SchemaRegistryConfig.SLOW_WRITE_LOG_THRESHOLD_MS_CONFIG);
+  }
+
+  private static ExecutorService writeExecutor(int threads, int queueSize) {
+    if (threads <= 0) {
+      return null;
+    }
+    AtomicInteger threadCount = new AtomicInteger();
+    // a full queue rejects further writes, which are answered with a 503
+    return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueSize), r -> {
+          Thread thread = new Thread(r, "schema-registry-write-" + threadCount.getAndIncrement());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * Returns the executor that write requests are handed off to, or null if they should run on
+   * the request thread.
+   */
+  public Executor writeExecutor() {
+    return writeExecutor;
   }
 
   private Map<String, SchemaProvider> initProviders(SchemaRegistryConfig config) {
@@ -222,7 +297,7 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     return new KafkaStore<SchemaRegistryKey, SchemaRegistryValue>(
         config,
         getSchemaUpdateHandler(config),
-        this.serializer, lookupCache, new NoopKey());
+        this.serializer, lookupCache, new NoopKey(), metricsContainer);
   }
 
   protected SchemaUpdateHandler getSchemaUpdateHandler(SchemaRegistryConfig config) {
@@ -245,6 +320,10 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
   }
 
   protected LookupCache<SchemaRegistryKey, SchemaRegistryValue> lookupCache() {
+    if (SchemaRegistryConfig.LOOKUP_CACHE_TYPE_COMPACT.equals(
+        config.getString(SchemaRegistryConfig.LOOKUP_CACHE_TYPE_CONFIG))) {
+      return new CompactInMemoryCache<SchemaRegistryKey, SchemaRegistryValue>(serializer);
+    }
     return new InMemoryCache<SchemaRegistryKey, SchemaRegistryValue>(serializer);
   }
 
@@ -267,6 +346,18 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     return idGenerator;
   }
 
+  public ParsedSchemaCache getParsedSchemaCache() {
+    return parsedSchemaCache;
+  }
+
+  public SchemaResponseCache getSchemaResponseCache() {
+    return schemaResponseCache;
+  }
+
+  public CompatibilityCache getCompatibilityCache() {
+    return compatibilityCache;
+  }
+
   public MetricsContainer getMetricsContainer() {
     return metricsContainer;
   }
@@ -312,6 +403,7 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
       throw new SchemaRegistryInitializationException(
           "Error initializing kafka store while initializing schema registry", e);
     }
+    warmUpParsedSchemaCache();
 
     try {
       config.checkBootstrapServers();
@@ -326,6 +418,47 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     }
   }
 
+  /**
+   * Parses the latest versions of subjects into the parsed schema cache, most recently
+   * registered first, so that the first lookups after startup do not all miss.
+   */
+  private void warmUpParsedSchemaCache() {
+    if (parsedSchemaCacheWarmupCount <= 0) {
+      return;
+    }
+    List<SchemaValue> latestValues = new ArrayList<>();
+    try {
+      for (String subject : lookupCache.subjects(null, false)) {
+        Integer version = lookupCache.latestVersion(subject, false);
+        if (version == null) {
+          continue;
+        }
+        SchemaValue schemaValue = (SchemaValue) lookupCache.get(new SchemaKey(subject, version));
+        if (schemaValue != null) {
+          latestValues.add(schemaValue);
+        }
+      }
+    } catch (StoreException e) {
+      log.warn("Failed to collect schemas to warm up the parsed schema cache", e);
+      return;
+    }
+    latestValues.sort((v1, v2) -> Integer.compare(v2.getId(), v1.getId()));
+    int parsed = 0;
+    for (SchemaValue schemaValue : latestValues) {
+      if (parsed >= parsedSchemaCacheWarmupCount) {
+        break;
+      }
+      try {
+        parseStoredSchema(getSchemaEntityFromSchemaValue(schemaValue));
+        parsed++;
+      } catch (InvalidSchemaException | RuntimeException e) {
+        log.debug("Skipping schema with id {} that could not be parsed",
+            schemaValue.getId(), e);
+      }
+    }
+    log.info("Warmed up the parsed schema cache with {} schemas", parsed);
+  }
+
   public void waitForInit() throws InterruptedException {
     kafkaStore.waitForInit();
   }
@@ -347,6 +480,44 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     }
   }
 
+  /**
+   * Returns an offset of the Kafka store that a node has applied once it reflects the writes
+   * that completed on this node, including those forwarded to the leader.
+   */
+  public long writeOffset() {
+    // local writes return once the local store has applied them
+    long offset = kafkaStore.appliedOffset();
+    if (!isLeader()) {
+      // a forwarded write is covered by the offset that the leader returned for it
+      Long forwarded = forwardedWriteOffset.get();
+      forwardedWriteOffset.remove();
+      if (forwarded != null) {
+        offset = Math.max(offset, forwarded);
+      }
+    }
+    return offset;
+  }
+
+  private void recordForwardedWriteOffset(String header) {
+    try {
+      long offset = Long.parseLong(header.trim());
+      Long previous = forwardedWriteOffset.get();
+      forwardedWriteOffset.set(previous != null ? Math.max(previous, offset) : offset);
+    } catch (NumberFormatException e) {
+      log.warn("Ignoring the invalid offset {} returned by the leader", header);
+    }
+  }
+
+  /**
+   * Returns a future that completes once the local store has applied the given offset, so that
+   * reads reflect the writes up to that offset on any node, or fails with a
+   * {@link StoreTimeoutException} after the timeout of the Kafka store. No thread is blocked
+   * while waiting.
+   */
+  public CompletableFuture<Long> offsetReached(long offset) {
+    return kafkaStore.whenKafkaReaderReachesOffset(offset, kafkaStoreTimeoutMs);
+  }
+
   /**
    * 'Inform' this SchemaRegistry instance which SchemaRegistry is the current leader.
    * If this instance is set as the new leader, ensure it is up-to-date with data in
@@ -374,6 +545,9 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
         leaderRestService = null;
       } else {
         leaderRestService = new RestService(leaderIdentity.getUrl());
+        leaderRestService.setKeepAlive(true);
+        leaderRestService.setResponseHeaderListener(
+            OffsetTokenFilter.OFFSET_HEADER, this::recordForwardedWriteOffset);
         if (sslFactory != null && sslFactory.sslContext() != null) {
           leaderRestService.setSslSocketFactory(sslFactory.sslContext().getSocketFactory());
           leaderRestService.setHostnameVerifier(getHostnameVerifier());
@@ -437,115 +611,153 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
 
       // Ensure cache is up-to-date before any potential writes
       kafkaStore.waitUntilKafkaReaderReachesLastOffset(subject, kafkaStoreTimeoutMs);
+      WriteTimer.endCurrentPhase(WriteTimer.Phase.CATCH_UP);
 
       int schemaId = schema.getId();
       ParsedSchema parsedSchema = canonicalizeSchema(schema, schemaId < 0);
+      WriteTimer.endCurrentPhase(WriteTimer.Phase.PARSE);
+
+      // Registrations of the same schema under other subjects of the context must not race to
+      // assign it different IDs; when importing, the requested ID is the contended resource
+      Lock schemaLock = kafkaStore.lockForSchema(
+          QualifiedSubject.contextFor(tenant(), subject),
+          schemaId >= 0 ? Integer.valueOf(schemaId) : schema.getSchema());
+      schemaLock.lock();
+      try {
+        WriteTimer.endCurrentPhase(WriteTimer.Phase.LOCK);
+        return register(subject, schema, parsedSchema);
+      } finally {
+        schemaLock.unlock();
+      }
+    } catch (StoreTimeoutException te) {
+      throw new SchemaRegistryTimeoutException("Write to the Kafka store timed out while", te);
+    } catch (StoreException e) {
+      throw new SchemaRegistryStoreException("Error while registering the schema in the"
+                                             + " backend Kafka store", e);
+    }
+  }
 
-      // see if the schema to be registered already exists
-      SchemaIdAndSubjects schemaIdAndSubjects = this.lookupCache.schemaIdAndSubjects(schema);
-      if (schemaIdAndSubjects != null) {
-        if (schemaId >= 0 && schemaId != schemaIdAndSubjects.getSchemaId()) {
-          throw new IdDoesNotMatchException(schemaIdAndSubjects.getSchemaId(), schema.getId());
-        }
-        if (schemaIdAndSubjects.hasSubject(subject)
-            && !isSubjectVersionDeleted(subject, schemaIdAndSubjects.getVersion(subject))) {
-          // return only if the schema was previously registered under the input subject
-          return schemaIdAndSubjects.getSchemaId();
-        } else {
-          // need to register schema under the input subject
-          schemaId = schemaIdAndSubjects.getSchemaId();
-        }
+  private int register(String subject, Schema schema, ParsedSchema parsedSchema)
+      throws SchemaRegistryException, StoreException {
+    int schemaId = schema.getId();
+    // see if the schema to be registered already exists
+    SchemaIdAndSubjects schemaIdAndSubjects = this.lookupCache.schemaIdAndSubjects(schema);
+    if (schemaIdAndSubjects != null) {
+      if (schemaId >= 0 && schemaId != schemaIdAndSubjects.getSchemaId()) {
+        throw new IdDoesNotMatchException(schemaIdAndSubjects.getSchemaId(), schema.getId());
+      }
+      if (schemaIdAndSubjects.hasSubject(subject)
+          && !isSubjectVersionDeleted(subject, schemaIdAndSubjects.getVersion(subject))) {
+        // return only if the schema was previously registered under the input subject
+        return schemaIdAndSubjects.getSchemaId();
+      } else {
+        // need to register schema under the input subject
+        schemaId = schemaIdAndSubjects.getSchemaId();
       }
+    }
 
-      // determine the latest version of the schema in the subject
-      List<SchemaValue> allVersions = getAllSchemaValues(subject);
-      Collections.reverse(allVersions);
+    // determine the latest version of the schema in the subject
+    List<SchemaValue> allVersions = getAllSchemaValues(subject);
 
-      List<SchemaValue> deletedVersions = new ArrayList<>();
-      List<ParsedSchema> undeletedVersions = new ArrayList<>();
-      int newVersion = MIN_VERSION;
-      for (SchemaValue schemaValue : allVersions) {
-        newVersion = Math.max(newVersion, schemaValue.getVersion() + 1);
-        if (schemaValue.isDeleted()) {
-          deletedVersions.add(schemaValue);
-        } else {
-          ParsedSchema undeletedSchema = parseSchema(getSchemaEntityFromSchemaValue(schemaValue));
-          if (parsedSchema.references().isEmpty()
-              && !undeletedSchema.references().isEmpty()
-              && parsedSchema.deepEquals(undeletedSchema)) {
-            // This handles the case where a schema is sent with all references resolved
-            return schemaValue.getId();
-          }
-          undeletedVersions.add(undeletedSchema);
-        }
+    List<SchemaValue> deletedVersions = new ArrayList<>();
+    List<SchemaValue> undeletedValues = new ArrayList<>();
+    int newVersion = MIN_VERSION;
+    for (SchemaValue schemaValue : allVersions) {
+      newVersion = Math.max(newVersion, schemaValue.getVersion() + 1);
+      if (schemaValue.isDeleted()) {
+        deletedVersions.add(schemaValue);
+      } else {
+        undeletedValues.add(schemaValue);
       }
-      Collections.reverse(undeletedVersions);
-
-      boolean isCompatible =
-              isCompatibleWithPrevious(subject, parsedSchema, undeletedVersions).isEmpty();
-      // Allow schema providers to modify the schema during compatibility checks
-      schema.setSchema(parsedSchema.canonicalString());
-      schema.setReferences(parsedSchema.references());
-
-      if (isCompatible) {
-        // save the context key
-        QualifiedSubject qs = QualifiedSubject.create(tenant(), subject);
-        if (qs != null && !DEFAULT_CONTEXT.equals(qs.getContext())) {
-          ContextKey contextKey = new ContextKey(qs.getTenant(), qs.getContext());
-          if (kafkaStore.get(contextKey) == null) {
-            ContextValue contextValue = new ContextValue(qs.getTenant(), qs.getContext());
-            kafkaStore.put(contextKey, contextValue);
-          }
-        }
+    }
+
+    // only parse the previous versions that the compatibility check or the match below needs
+    CompatibilityLevel compatibility = getCompatibilityLevelInScope(subject);
+    List<ParsedSchema> undeletedVersions = new ArrayList<>();
+    for (int i = undeletedValues.size() - 1; i >= 0; i--) {
+      SchemaValue schemaValue = undeletedValues.get(i);
+      boolean isNeeded = isNeededForCompatibility(compatibility, parsedSchema.schemaType(),
+          schemaValue.getSchemaType(), i == undeletedValues.size() - 1);
+      boolean mayResolveReferences = parsedSchema.references().isEmpty()
+          && !schemaValue.getReferences().isEmpty();
+      if (!isNeeded && !mayResolveReferences) {
+        continue;
+      }
+      ParsedSchema undeletedSchema =
+          parseStoredSchema(getSchemaEntityFromSchemaValue(schemaValue));
+      if (mayResolveReferences && parsedSchema.deepEquals(undeletedSchema)) {
+        // This handles the case where a schema is sent with all references resolved
+        return schemaValue.getId();
+      }
+      if (isNeeded) {
+        undeletedVersions.add(undeletedSchema);
+      }
+    }
+    Collections.reverse(undeletedVersions);
+
+    boolean isCompatible = parsedSchema.isCompatible(compatibility, undeletedVersions).isEmpty();
+    WriteTimer.endCurrentPhase(WriteTimer.Phase.COMPATIBILITY);
+    // Allow schema providers to modify the schema during compatibility checks
+    schema.setSchema(parsedSchema.canonicalString());
+    schema.setReferences(parsedSchema.references());
 
-        // assign a guid and put the schema in the kafka store
-        if (schema.getVersion() <= 0) {
-          schema.setVersion(newVersion);
+    if (isCompatible) {
+      // the context key, schema and tombstones are written to the Kafka store as one batch
+      Map<SchemaRegistryKey, SchemaRegistryValue> records = new LinkedHashMap<>();
+
+      // save the context key
+      QualifiedSubject qs = QualifiedSubject.create(tenant(), subject);
+      if (qs != null && !DEFAULT_CONTEXT.equals(qs.getContext())) {
+        ContextKey contextKey = new ContextKey(qs.getTenant(), qs.getContext());
+        if (kafkaStore.get(contextKey) == null) {
+          ContextValue contextValue = new ContextValue(qs.getTenant(), qs.getContext());
+          records.put(contextKey, contextValue);
         }
+      }
 
-        SchemaKey schemaKey = new SchemaKey(subject, schema.getVersion());
-        if (schemaId >= 0) {
-          checkIfSchemaWithIdExist(schemaId, schema);
-          schema.setId(schemaId);
-          kafkaStore.put(schemaKey, new SchemaValue(schema));
-        } else {
-          int retries = 0;
-          while (retries++ < kafkaStoreMaxRetries) {
-            int newId = idGenerator.id(new SchemaValue(schema));
-            // Verify id is not already in use
-            if (lookupCache.schemaKeyById(newId, subject) == null) {
-              schema.setId(newId);
-              if (retries > 1) {
-                log.warn(String.format("Retrying to register the schema with ID %s", newId));
-              }
-              kafkaStore.put(schemaKey, new SchemaValue(schema));
-              break;
+      // assign a guid and put the schema in the kafka store
+      if (schema.getVersion() <= 0) {
+        schema.setVersion(newVersion);
+      }
+
+      SchemaKey schemaKey = new SchemaKey(subject, schema.getVersion());
+      if (schemaId >= 0) {
+        checkIfSchemaWithIdExist(schemaId, schema);
+        schema.setId(schemaId);
+        records.put(schemaKey, new SchemaValue(schema));
+      } else {
+        int retries = 0;
+        while (retries++ < kafkaStoreMaxRetries) {
+          int newId = idGenerator.id(new SchemaValue(schema));
+          // Verify id is not already in use
+          if (lookupCache.schemaKeyById(newId, subject) == null) {
+            schema.setId(newId);
+            if (retries > 1) {
+              log.warn(String.format("Retrying to register the schema with ID %s", newId));
             }
-          }
-          if (retries >= kafkaStoreMaxRetries) {
-            throw new SchemaRegistryStoreException("Error while registering the schema due "
-                + "to generating an ID that is already in use.");
+            records.put(schemaKey, new SchemaValue(schema));
+            break;
           }
         }
-        for (SchemaValue deleted : deletedVersions) {
-          if (deleted.getId().equals(schema.getId())
-                  && deleted.getVersion().compareTo(schema.getVersion()) < 0) {
-            // Tombstone previous version with the same ID
-            SchemaKey key = new SchemaKey(deleted.getSubject(), deleted.getVersion());
-            kafkaStore.put(key, null);
-          }
+        if (retries >= kafkaStoreMaxRetries) {
+          throw new SchemaRegistryStoreException("Error while registering the schema due "
+              + "to generating an ID that is already in use.");
         }
-
-        return schema.getId();
-      } else {
-        throw new IncompatibleSchemaException(
-            "New schema is incompatible with an earlier schema.");
       }
-    } catch (StoreTimeoutException te) {
-      throw new SchemaRegistryTimeoutException("Write to the Kafka store timed out while", te);
-    } catch (StoreException e) {
-      throw new SchemaRegistryStoreException("Error while registering the schema in the"
-                                             + " backend Kafka store", e);
+      for (SchemaValue deleted : deletedVersions) {
+        if (deleted.getId().equals(schema.getId())
+                && deleted.getVersion().compareTo(schema.getVersion()) < 0) {
+          // Tombstone previous version with the same ID
+          SchemaKey key = new SchemaKey(deleted.getSubject(), deleted.getVersion());
+          records.put(key, null);
+        }
+      }
+      kafkaStore.putAll(records);
+
+      return schema.getId();
+    } else {
+      throw new IncompatibleSchemaException(
+          "New schema is incompatible with an earlier schema.");
     }
   }
 
@@ -589,8 +801,12 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
       return existingSchema.getId();
     }
 
-    kafkaStore.lockFor(subject).lock();
+    WriteTimer timer = startWriteTimer("register", subject);
+    // the referenced versions must not be deleted while the registration is checked
+    Lock lock = kafkaStore.lockFor(tenant(), subject, referencedSubjects(schema));
+    lock.lock();
     try {
+      timer.endPhase(WriteTimer.Phase.LOCK);
       if (isLeader()) {
         return register(subject, schema);
       } else {
@@ -603,10 +819,25 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
         }
       }
     } finally {
-      kafkaStore.lockFor(subject).unlock();
+      lock.unlock();
+      timer.finish();
     }
   }
 
+  private static Set<String> referencedSubjects(Schema schema) {
+    if (schema.getReferences() == null || schema.getReferences().isEmpty()) {
+      return Collections.emptySet();
+    }
+    Set<String> subjects = new LinkedHashSet<>();
+    for (io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference ref
+        : schema.getReferences()) {
+      if (ref.getSubject() != null) {
+        subjects.add(ref.getSubject());
+      }
+    }
+    return subjects;
+  }
+
   @Override
   public void deleteSchemaVersion(String subject,
                                   Schema schema,
@@ -626,6 +857,7 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
       }
       // Ensure cache is up-to-date before any potential writes
       kafkaStore.waitUntilKafkaReaderReachesLastOffset(subject, kafkaStoreTimeoutMs);
+      WriteTimer.endCurrentPhase(WriteTimer.Phase.CATCH_UP);
       if (!permanentDelete) {
         schemaValue = new SchemaValue(schema);
         schemaValue.setDeleted(true);
@@ -654,8 +886,10 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
       Map<String, String> headerProperties, String subject,
       Schema schema, boolean permanentDelete) throws SchemaRegistryException {
 
-    kafkaStore.lockFor(subject).lock();
+    WriteTimer timer = startWriteTimer("delete-schema-version", subject);
+    kafkaStore.lockFor(tenant(), subject).lock();
     try {
+      timer.endPhase(WriteTimer.Phase.LOCK);
       if (isLeader()) {
         deleteSchemaVersion(subject, schema, permanentDelete);
       } else {
@@ -669,7 +903,8 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
         }
       }
     } finally {
-      kafkaStore.lockFor(subject).unlock();
+      kafkaStore.lockFor(tenant(), subject).unlock();
+      timer.finish();
     }
   }
 
@@ -682,6 +917,7 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
         throw new OperationNotPermittedException("Subject " + subject + " is in read-only mode");
       }
       kafkaStore.waitUntilKafkaReaderReachesLastOffset(subject, kafkaStoreTimeoutMs);
+      WriteTimer.endCurrentPhase(WriteTimer.Phase.CATCH_UP);
       List<Integer> deletedVersions = new ArrayList<>();
       int deleteWatermarkVersion = 0;
       Iterator<Schema> schemasToBeDeleted = getAllVersions(subject, permanentDelete);
@@ -701,19 +937,23 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
       }
 
       if (!permanentDelete) {
+        Map<SchemaRegistryKey, SchemaRegistryValue> records = new LinkedHashMap<>();
         DeleteSubjectKey key = new DeleteSubjectKey(subject);
         DeleteSubjectValue value = new DeleteSubjectValue(subject, deleteWatermarkVersion);
-        kafkaStore.put(key, value);
+        records.put(key, value);
         if (getMode(subject) != null) {
-          deleteMode(subject);
+          records.put(new ModeKey(subject), null);
         }
         if (getCompatibilityLevel(subject) != null) {
-          deleteSubjectCompatibility(subject);
+          records.put(new ConfigKey(subject), null);
         }
+        kafkaStore.putAll(records);
       } else {
+        Map<SchemaRegistryKey, SchemaRegistryValue> tombstones = new LinkedHashMap<>();
         for (Integer version : deletedVersions) {
-          kafkaStore.put(new SchemaKey(subject, version), null);
+          tombstones.put(new SchemaKey(subject, version), null);
         }
+        kafkaStore.putAll(tombstones);
       }
       return deletedVersions;
 
@@ -729,8 +969,10 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
       Map<String, String> requestProperties,
       String subject,
       boolean permanentDelete) throws SchemaRegistryException {
-    kafkaStore.lockFor(subject).lock();
+    WriteTimer timer = startWriteTimer("delete-subject", subject);
+    kafkaStore.lockFor(tenant(), subject).lock();
     try {
+      timer.endPhase(WriteTimer.Phase.LOCK);
       if (isLeader()) {
         return deleteSubject(subject, permanentDelete);
       } else {
@@ -745,7 +987,8 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
         }
       }
     } finally {
-      kafkaStore.lockFor(subject).unlock();
+      kafkaStore.lockFor(tenant(), subject).unlock();
+      timer.finish();
     }
   }
 
@@ -781,7 +1024,7 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
             && parsedSchema.references().isEmpty()
             && !schemaValue.getReferences().isEmpty()) {
           Schema undeleted = getSchemaEntityFromSchemaValue(schemaValue);
-          ParsedSchema undeletedSchema = parseSchema(undeleted);
+          ParsedSchema undeletedSchema = parseStoredSchema(undeleted);
           if (parsedSchema.deepEquals(undeletedSchema)) {
             // This handles the case where a schema is sent with all references resolved
             return undeleted;
@@ -811,6 +1054,42 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     }
   }
 
+  private WriteTimer startWriteTimer(String operation, String subject) {
+    return WriteTimer.start(operation, subject, metricsContainer, slowWriteThresholdMs);
+  }
+
+  private interface LeaderRequest<T> {
+    T send() throws IOException, RestClientException;
+  }
+
+  /**
+   * Sends a request to the leader, waiting while the maximum number of forwarded requests are
+   * in flight.
+   */
+  private <T> T forwardToLeader(LeaderRequest<T> request)
+      throws IOException, RestClientException {
+    metricsContainer.getLeaderForwardsWaiting().set(forwardsWaiting.incrementAndGet());
+    try {
+      forwardPermits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to forward to the leader");
+    } finally {
+      metricsContainer.getLeaderForwardsWaiting().set(forwardsWaiting.decrementAndGet());
+    }
+    metricsContainer.getLeaderForwardsInFlight().set(forwardsInFlight.incrementAndGet());
+    long start = System.nanoTime();
+    try {
+      return request.send();
+    } finally {
+      metricsContainer.getLeaderForwardLatencyMs().record(
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      metricsContainer.getLeaderForwardsInFlight().set(forwardsInFlight.decrementAndGet());
+      forwardPermits.release();
+      WriteTimer.endCurrentPhase(WriteTimer.Phase.FORWARD);
+    }
+  }
+
   private int forwardRegisterRequestToLeader(String subject, Schema schema,
                                              Map<String, String> headerProperties)
       throws SchemaRegistryRequestForwardingException {
@@ -825,8 +1104,8 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     log.debug(String.format("Forwarding registering schema request %s to %s",
                             registerSchemaRequest, baseUrl));
     try {
-      int id = leaderRestService.registerSchema(headerProperties, registerSchemaRequest, subject);
-      return id;
+      return forwardToLeader(() ->
+          leaderRestService.registerSchema(headerProperties, registerSchemaRequest, subject));
     } catch (IOException e) {
       throw new SchemaRegistryRequestForwardingException(
           String.format("Unexpected error while forwarding the registering schema request %s to %s",
@@ -848,7 +1127,8 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     log.debug(String.format("Forwarding update config request %s to %s",
                             configUpdateRequest, baseUrl));
     try {
-      leaderRestService.updateConfig(headerProperties, configUpdateRequest, subject);
+      forwardToLeader(() ->
+          leaderRestService.updateConfig(headerProperties, configUpdateRequest, subject));
     } catch (IOException e) {
       throw new SchemaRegistryRequestForwardingException(
           String.format("Unexpected error while forwarding the update config request %s to %s",
@@ -869,8 +1149,8 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     log.debug(String.format("Forwarding deleteSchemaVersion schema version request %s-%s to %s",
                             subject, version, baseUrl));
     try {
-      leaderRestService.deleteSchemaVersion(headerProperties, subject,
-              String.valueOf(version), permanentDelete);
+      forwardToLeader(() -> leaderRestService.deleteSchemaVersion(headerProperties, subject,
+              String.valueOf(version), permanentDelete));
     } catch (IOException e) {
       throw new SchemaRegistryRequestForwardingException(
           String.format(
@@ -890,7 +1170,8 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     log.debug(String.format("Forwarding delete subject request for  %s to %s",
                             subject, baseUrl));
     try {
-      return leaderRestService.deleteSubject(requestProperties, subject, permanentDelete);
+      return forwardToLeader(() ->
+          leaderRestService.deleteSubject(requestProperties, subject, permanentDelete));
     } catch (IOException e) {
       throw new SchemaRegistryRequestForwardingException(
           String.format(
@@ -910,7 +1191,7 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     log.debug(String.format("Forwarding delete subject compatibility config request %s to %s",
         subject, baseUrl));
     try {
-      leaderRestService.deleteSubjectConfig(requestProperties, subject);
+      forwardToLeader(() -> leaderRestService.deleteSubjectConfig(requestProperties, subject));
     } catch (IOException e) {
       throw new SchemaRegistryRequestForwardingException(
           String.format(
@@ -932,7 +1213,8 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     log.debug(String.format("Forwarding update mode request %s to %s",
         modeUpdateRequest, baseUrl));
     try {
-      leaderRestService.setMode(headerProperties, modeUpdateRequest, subject, force);
+      forwardToLeader(() ->
+          leaderRestService.setMode(headerProperties, modeUpdateRequest, subject, force));
     } catch (IOException e) {
       throw new SchemaRegistryRequestForwardingException(
           String.format("Unexpected error while forwarding the update mode request %s to %s",
@@ -952,7 +1234,7 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     log.debug(String.format("Forwarding delete subject mode request %s to %s",
         subject, baseUrl));
     try {
-      leaderRestService.deleteSubjectMode(headerProperties, subject);
+      forwardToLeader(() -> leaderRestService.deleteSubjectMode(headerProperties, subject));
     } catch (IOException e) {
       throw new SchemaRegistryRequestForwardingException(
           String.format(
@@ -992,6 +1274,20 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     return parseSchema(schema.getSchemaType(), schema.getSchema(), schema.getReferences(), isNew);
   }
 
+  /**
+   * Parses a schema that was read from the store, using the parsed schema cache when the
+   * schema carries its id.
+   */
+  private ParsedSchema parseStoredSchema(Schema schema) throws InvalidSchemaException {
+    if (schema.getId() == null || schema.getSubject() == null) {
+      return parseSchema(schema);
+    }
+    return parsedSchemaCache.get(tenant(), schema.getSubject(), schema.getId(),
+        schema.getSchemaType(), schema.getSchema(), schema.getReferences(),
+        () -> loadSchema(
+            schema.getSchemaType(), schema.getSchema(), schema.getReferences(), false));
+  }
+
   public ParsedSchema parseSchema(
           String schemaType,
           String schema,
@@ -1125,8 +1421,10 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
         : null;
     schemaString.setReferences(refs);
     if (format != null && !format.trim().isEmpty()) {
-      ParsedSchema parsedSchema =
-              parseSchema(schema.getSchemaType(), schema.getSchema(), refs, false);
+      SchemaValue schemaValue = schema;
+      ParsedSchema parsedSchema = parsedSchemaCache.get(tenant(), schemaValue.getSubject(), id,
+          schemaValue.getSchemaType(), schemaValue.getSchema(), refs,
+          () -> loadSchema(schemaValue.getSchemaType(), schemaValue.getSchema(), refs, false));
       schemaString.setSchemaString(parsedSchema.formattedString(format));
     } else {
       schemaString.setSchemaString(schema.getSchema());
@@ -1137,6 +1435,23 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     return schemaString;
   }
 
+  /**
+   * Returns the encoded response for a lookup by id, from the response cache if possible.
+   *
+   * @param raw whether to return the schema text only, rather than a {@link SchemaString}
+   * @return the encoded response, or null if there is no schema with the id
+   */
+  public SchemaResponseCache.EncodedResponse getEncoded(
+      int id,
+      String subject,
+      String format,
+      boolean raw
+  ) throws SchemaRegistryException {
+    String normalizedFormat = format != null && !format.trim().isEmpty() ? format : null;
+    return schemaResponseCache.get(tenant(), id, subject, normalizedFormat, raw,
+        () -> get(id, subject, normalizedFormat, false));
+  }
+
   private SchemaKey getSchemaKeyUsingContexts(int id, String subject)
           throws StoreException, SchemaRegistryException {
     SchemaKey subjectVersionKey = lookupCache.schemaKeyById(id, subject);
@@ -1151,18 +1466,8 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     if (isQualifiedSubject) {
       return null;
     }
-    // Try qualifying the subject with each known context
-    try (CloseableIterator<SchemaRegistryValue> iter = allContexts()) {
-      while (iter.hasNext()) {
-        ContextValue v = (ContextValue) iter.next();
-        QualifiedSubject qualSub = new QualifiedSubject(v.getTenant(), v.getContext(), subject);
-        SchemaKey key = lookupCache.schemaKeyById(id, qualSub.toQualifiedSubject());
-        if (key != null) {
-          return key;
-        }
-      }
-    }
-    return null;
+    // Try the other contexts
+    return lookupCache.schemaKeyByIdInAnyContext(id);
   }
 
   private CloseableIterator<SchemaRegistryValue> allContexts() throws SchemaRegistryException {
@@ -1208,22 +1513,20 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
   @Override
   public Set<String> listSubjects(boolean returnDeletedSubjects)
           throws SchemaRegistryException {
-    try (CloseableIterator<SchemaRegistryKey> allKeys = kafkaStore.getAllKeys()) {
-      return extractUniqueSubjects(allKeys, returnDeletedSubjects);
-    } catch (StoreException e) {
-      throw new SchemaRegistryStoreException(
-          "Error from the backend Kafka store", e);
-    }
+    return subjects(null, returnDeletedSubjects);
   }
 
   public Set<String> listSubjectsWithPrefix(String prefix, boolean returnDeletedSubjects)
       throws SchemaRegistryException {
-    Set<String> subjects = new LinkedHashSet<>();
-    Iterator<Schema> iter = getVersionsWithSubjectPrefix(prefix, returnDeletedSubjects, false);
-    while (iter.hasNext()) {
-      subjects.add(iter.next().getSubject());
+    String[] range = subjectRange(prefix, true);
+    try {
+      return lookupCache.subjectsInRange(range[0], range[1], returnDeletedSubjects).stream()
+          .sorted()
+          .collect(Collectors.toCollection(LinkedHashSet::new));
+    } catch (StoreException e) {
+      throw new SchemaRegistryStoreException(
+          "Error from the backend Kafka store", e);
     }
-    return subjects;
   }
 
   public Set<String> listSubjectsForId(int id, String subject) throws SchemaRegistryException {
@@ -1291,24 +1594,6 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     }
   }
 
-  private Set<String> extractUniqueSubjects(Iterator<SchemaRegistryKey> allKeys,
-                                            boolean returnDeletedSubjects)
-      throws StoreException {
-    Set<String> subjects = new LinkedHashSet<>();
-    while (allKeys.hasNext()) {
-      SchemaRegistryKey k = allKeys.next();
-      if (k instanceof SchemaKey) {
-        SchemaKey key = (SchemaKey) k;
-        SchemaValue value = (SchemaValue) kafkaStore.get(key);
-        if (value != null
-                && (!value.isDeleted() || returnDeletedSubjects)) {
-          subjects.add(key.getSubject());
-        }
-      }
-    }
-    return subjects;
-  }
-
   public Set<String> subjects(String subject,
                               boolean lookupDeletedSubjects)
       throws SchemaRegistryStoreException {
@@ -1350,15 +1635,37 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     }
   }
 
+  /**
+   * Returns all versions of the subject in ascending order, which is the order of the store.
+   */
   private List<SchemaValue> getAllSchemaValues(String subject)
       throws SchemaRegistryException {
     try (CloseableIterator<SchemaRegistryValue> allVersions = allVersions(subject, false)) {
-      return sortSchemaValuesByVersion(allVersions);
+      List<SchemaValue> schemaValues = new ArrayList<>();
+      while (allVersions.hasNext()) {
+        schemaValues.add((SchemaValue) allVersions.next());
+      }
+      return schemaValues;
     }
   }
 
   @Override
   public Schema getLatestVersion(String subject) throws SchemaRegistryException {
+    try {
+      Integer latestVersion = lookupCache.latestVersion(subject, false);
+      if (latestVersion == null) {
+        return null;
+      }
+      SchemaValue schemaValue =
+          (SchemaValue) kafkaStore.get(new SchemaKey(subject, latestVersion));
+      if (schemaValue != null && !schemaValue.isDeleted()) {
+        return getSchemaEntityFromSchemaValue(schemaValue);
+      }
+      // the version was deleted after it was looked up, so fall back to a scan
+    } catch (StoreException e) {
+      throw new SchemaRegistryStoreException(
+          "Error from the backend Kafka store", e);
+    }
     try (CloseableIterator<SchemaRegistryValue> allVersions = allVersions(subject, false)) {
       List<Schema> sortedVersions = sortSchemasByVersion(allVersions, false);
       return sortedVersions.size() > 0 ? sortedVersions.get(sortedVersions.size() - 1) : null;
@@ -1368,20 +1675,9 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
   private CloseableIterator<SchemaRegistryValue> allVersions(
           String subjectOrPrefix, boolean isPrefix) throws SchemaRegistryException {
     try {
-      String start;
-      String end;
-      int idx = subjectOrPrefix.indexOf(CONTEXT_WILDCARD);
-      if (idx >= 0) {
-        // Context wildcard match
-        String prefix = subjectOrPrefix.substring(0, idx);
-        start = prefix + CONTEXT_PREFIX + CONTEXT_DELIMITER;
-        end = prefix + CONTEXT_PREFIX + Character.MAX_VALUE + CONTEXT_DELIMITER;
-      } else {
-        start = subjectOrPrefix;
-        end = isPrefix ? subjectOrPrefix + Character.MAX_VALUE : subjectOrPrefix;
-      }
-      SchemaKey key1 = new SchemaKey(start, MIN_VERSION);
-      SchemaKey key2 = new SchemaKey(end, MAX_VERSION);
+      String[] range = subjectRange(subjectOrPrefix, isPrefix);
+      SchemaKey key1 = new SchemaKey(range[0], MIN_VERSION);
+      SchemaKey key2 = new SchemaKey(range[1], MAX_VERSION);
       return kafkaStore.getAll(key1, key2);
     } catch (StoreException e) {
       throw new SchemaRegistryStoreException(
@@ -1389,9 +1685,34 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     }
   }
 
+  /**
+   * Returns the first and last subjects, inclusive, that match the given subject or prefix.
+   */
+  private static String[] subjectRange(String subjectOrPrefix, boolean isPrefix) {
+    int idx = subjectOrPrefix.indexOf(CONTEXT_WILDCARD);
+    if (idx >= 0) {
+      // Context wildcard match
+      String prefix = subjectOrPrefix.substring(0, idx);
+      return new String[] {
+          prefix + CONTEXT_PREFIX + CONTEXT_DELIMITER,
+          prefix + CONTEXT_PREFIX + Character.MAX_VALUE + CONTEXT_DELIMITER
+      };
+    } else {
+      return new String[] {
+          subjectOrPrefix,
+          isPrefix ? subjectOrPrefix + Character.MAX_VALUE : subjectOrPrefix
+      };
+    }
+  }
+
   @Override
   public void close() {
     log.info("Shutting down schema registry");
+    if (writeExecutor != null) {
+      // queued writes have suspended their responses, so answer them instead of dropping them
+      WriteRequestRunner.reject(writeExecutor.shutdownNow(),
+          Errors.writeRequestRejectedException("Schema registry is shutting down"));
+    }
     kafkaStore.close();
     if (leaderElector != null) {
       leaderElector.close();
@@ -1406,6 +1727,7 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     ConfigKey configKey = new ConfigKey(subject);
     try {
       kafkaStore.waitUntilKafkaReaderReachesLastOffset(subject, kafkaStoreTimeoutMs);
+      WriteTimer.endCurrentPhase(WriteTimer.Phase.CATCH_UP);
       kafkaStore.put(configKey, new ConfigValue(subject, newCompatibilityLevel));
       log.debug("Wrote new compatibility level: " + newCompatibilityLevel.name + " to the"
                 + " Kafka data store with key " + configKey.toString());
@@ -1419,8 +1741,10 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
                                     Map<String, String> headerProperties)
       throws SchemaRegistryStoreException, SchemaRegistryRequestForwardingException,
       UnknownLeaderException, OperationNotPermittedException {
-    kafkaStore.lockFor(subject).lock();
+    WriteTimer timer = startWriteTimer("update-config", subject);
+    kafkaStore.lockFor(tenant(), subject).lock();
     try {
+      timer.endPhase(WriteTimer.Phase.LOCK);
       if (isLeader()) {
         updateCompatibilityLevel(subject, newCompatibilityLevel);
       } else {
@@ -1434,7 +1758,8 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
         }
       }
     } finally {
-      kafkaStore.lockFor(subject).unlock();
+      kafkaStore.lockFor(tenant(), subject).unlock();
+      timer.finish();
     }
   }
 
@@ -1445,6 +1770,7 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     }
     try {
       kafkaStore.waitUntilKafkaReaderReachesLastOffset(subject, kafkaStoreTimeoutMs);
+      WriteTimer.endCurrentPhase(WriteTimer.Phase.CATCH_UP);
       deleteSubjectCompatibility(subject);
     } catch (StoreException e) {
       throw new SchemaRegistryStoreException("Failed to delete subject config value from store",
@@ -1456,8 +1782,10 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
                                                         Map<String, String> headerProperties)
       throws SchemaRegistryStoreException, SchemaRegistryRequestForwardingException,
       OperationNotPermittedException, UnknownLeaderException {
-    kafkaStore.lockFor(subject).lock();
+    WriteTimer timer = startWriteTimer("delete-config", subject);
+    kafkaStore.lockFor(tenant(), subject).lock();
     try {
+      timer.endPhase(WriteTimer.Phase.LOCK);
       if (isLeader()) {
         deleteSubjectCompatibilityConfig(subject);
       } else {
@@ -1470,7 +1798,8 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
         }
       }
     } finally {
-      kafkaStore.lockFor(subject).unlock();
+      kafkaStore.lockFor(tenant(), subject).unlock();
+      timer.finish();
     }
   }
 
@@ -1541,23 +1870,50 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
       throw new InvalidSchemaException("Previous schema not provided");
     }
 
-    List<ParsedSchema> prevParsedSchemas = new ArrayList<>(previousSchemas.size());
-    for (Schema previousSchema : previousSchemas) {
-      ParsedSchema prevParsedSchema = parseSchema(previousSchema);
-      prevParsedSchemas.add(prevParsedSchema);
-    }
+    CompatibilityLevel compatibility = getCompatibilityLevelInScope(subject);
+    return compatibilityCache.get(tenant(), subject, newSchema, compatibility, previousSchemas,
+        () -> {
+          ParsedSchema parsedSchema = canonicalizeSchema(newSchema, true);
+
+          List<ParsedSchema> prevParsedSchemas = new ArrayList<>(previousSchemas.size());
+          for (int i = 0; i < previousSchemas.size(); i++) {
+            Schema previousSchema = previousSchemas.get(i);
+            if (isNeededForCompatibility(compatibility, parsedSchema.schemaType(),
+                previousSchema.getSchemaType(), i == previousSchemas.size() - 1)) {
+              ParsedSchema prevParsedSchema = parseStoredSchema(previousSchema);
+              prevParsedSchemas.add(prevParsedSchema);
+            }
+          }
 
-    ParsedSchema parsedSchema = canonicalizeSchema(newSchema, true);
-    return isCompatibleWithPrevious(subject, parsedSchema, prevParsedSchemas);
+          return parsedSchema.isCompatible(compatibility, prevParsedSchemas);
+        });
   }
 
-  private List<String> isCompatibleWithPrevious(String subject,
-                                                ParsedSchema parsedSchema,
-                                                List<ParsedSchema> previousSchemas)
-      throws SchemaRegistryException {
-
-    CompatibilityLevel compatibility = getCompatibilityLevelInScope(subject);
-    return parsedSchema.isCompatible(compatibility, previousSchemas);
+  /**
+   * Returns whether a previous schema takes part in a compatibility check against a new schema.
+   * Non-transitive levels only validate against the latest schema, but every previous schema
+   * of a different type still fails the check.
+   *
+   * @param compatibility the compatibility level
+   * @param schemaType the type of the new schema
+   * @param previousSchemaType the type of the previous schema, or null for Avro
+   * @param isLatest whether the previous schema is the latest one
+   */
+  private static boolean isNeededForCompatibility(CompatibilityLevel compatibility,
+                                                  String schemaType,
+                                                  String previousSchemaType,
+                                                  boolean isLatest) {
+    switch (compatibility) {
+      case NONE:
+        return false;
+      case BACKWARD_TRANSITIVE:
+      case FORWARD_TRANSITIVE:
+      case FULL_TRANSITIVE:
+        return true;
+      default:
+        String type = previousSchemaType != null ? previousSchemaType : AvroSchema.TYPE;
+        return isLatest || !type.equals(schemaType);
+    }
   }
 
   private void deleteMode(String subject) throws StoreException {
@@ -1605,6 +1961,7 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     ModeKey modeKey = new ModeKey(subject);
     try {
       kafkaStore.waitUntilKafkaReaderReachesLastOffset(subject, kafkaStoreTimeoutMs);
+      WriteTimer.endCurrentPhase(WriteTimer.Phase.CATCH_UP);
       if (mode == Mode.IMPORT && getMode(subject) != Mode.IMPORT && !force) {
         // Changing to import mode requires that no schemas exist with matching subjects.
         if (hasSubjects(subject, false)) {
@@ -1626,8 +1983,10 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
       Map<String, String> headerProperties)
       throws SchemaRegistryStoreException, SchemaRegistryRequestForwardingException,
       OperationNotPermittedException, UnknownLeaderException {
-    kafkaStore.lockFor(subject).lock();
+    WriteTimer timer = startWriteTimer("set-mode", subject);
+    kafkaStore.lockFor(tenant(), subject).lock();
     try {
+      timer.endPhase(WriteTimer.Phase.LOCK);
       if (isLeader()) {
         setMode(subject, mode, force);
       } else {
@@ -1640,7 +1999,8 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
         }
       }
     } finally {
-      kafkaStore.lockFor(subject).unlock();
+      kafkaStore.lockFor(tenant(), subject).unlock();
+      timer.finish();
     }
   }
 
@@ -1651,6 +2011,7 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     }
     try {
       kafkaStore.waitUntilKafkaReaderReachesLastOffset(subject, kafkaStoreTimeoutMs);
+      WriteTimer.endCurrentPhase(WriteTimer.Phase.CATCH_UP);
       deleteMode(subject);
     } catch (StoreException e) {
       throw new SchemaRegistryStoreException("Failed to delete subject config value from store",
@@ -1661,8 +2022,10 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
   public void deleteSubjectModeOrForward(String subject, Map<String, String> headerProperties)
       throws SchemaRegistryStoreException, SchemaRegistryRequestForwardingException,
       OperationNotPermittedException, UnknownLeaderException {
-    kafkaStore.lockFor(subject).lock();
+    WriteTimer timer = startWriteTimer("delete-mode", subject);
+    kafkaStore.lockFor(tenant(), subject).lock();
     try {
+      timer.endPhase(WriteTimer.Phase.LOCK);
       if (isLeader()) {
         deleteSubjectMode(subject);
       } else {
@@ -1675,7 +2038,8 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
         }
       }
     } finally {
-      kafkaStore.lockFor(subject).unlock();
+      kafkaStore.lockFor(tenant(), subject).unlock();
+      timer.finish();
     }
   }
 
@@ -1719,17 +2083,6 @@ public class KafkaSchemaRegistry implements SchemaRegistry, LeaderAwareSchemaReg
     return schemaList;
   }
 
-  private List<SchemaValue> sortSchemaValuesByVersion(
-          CloseableIterator<SchemaRegistryValue> schemas) {
-    List<SchemaValue> schemaList = new ArrayList<>();
-    while (schemas.hasNext()) {
-      SchemaValue schemaValue = (SchemaValue) schemas.next();
-      schemaList.add(schemaValue);
-    }
-    Collections.sort(schemaList);
-    return schemaList;
-  }
-
   private Schema getSchemaEntityFromSchemaValue(SchemaValue schemaValue) {
     if (schemaValue == null) {
       return null;
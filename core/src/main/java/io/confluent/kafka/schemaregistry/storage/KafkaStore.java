@@ -31,11 +31,15 @@ import org.apache.kafka.common.errors.TopicExistsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -46,6 +50,7 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
+import io.confluent.kafka.schemaregistry.metrics.MetricsContainer;
 import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
 import io.confluent.kafka.schemaregistry.storage.exceptions.SerializationException;
 import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
@@ -78,13 +83,26 @@ public class KafkaStore<K, V> implements Store<K, V> {
   private volatile long lastWrittenOffset = -1L;
   private final SchemaRegistryConfig config;
   private final Lock leaderLock = new ReentrantLock();
-  private final Lock lock = new ReentrantLock();
+  private final SubjectLocks subjectLocks;
+  private final MetricsContainer metricsContainer;
+  private final int writeBatchMaxSize;
+  private final int writeBatchWindowMs;
+  private GroupCommitter<K> groupCommitter;
 
   public KafkaStore(SchemaRegistryConfig config,
                     StoreUpdateHandler<K, V> storeUpdateHandler,
                     Serializer<K, V> serializer,
                     Store<K, V> localStore,
                     K noopKey) throws SchemaRegistryException {
+    this(config, storeUpdateHandler, serializer, localStore, noopKey, null);
+  }
+
+  public KafkaStore(SchemaRegistryConfig config,
+                    StoreUpdateHandler<K, V> storeUpdateHandler,
+                    Serializer<K, V> serializer,
+                    Store<K, V> localStore,
+                    K noopKey,
+                    MetricsContainer metricsContainer) throws SchemaRegistryException {
     this.topic = config.getString(SchemaRegistryConfig.KAFKASTORE_TOPIC_CONFIG);
     this.desiredReplicationFactor =
         config.getInt(SchemaRegistryConfig.KAFKASTORE_TOPIC_REPLICATION_FACTOR_CONFIG);
@@ -107,6 +125,13 @@ public class KafkaStore<K, V> implements Store<K, V> {
     this.bootstrapBrokers = config.bootstrapBrokers();
     this.skipSchemaTopicValidation =
         config.getBoolean(SchemaRegistryConfig.KAFKASTORE_TOPIC_SKIP_VALIDATION_CONFIG);
+    this.subjectLocks =
+        new SubjectLocks(config.getInt(SchemaRegistryConfig.SUBJECT_LOCK_STRIPES_CONFIG));
+    this.metricsContainer = metricsContainer;
+    this.writeBatchMaxSize =
+        config.getInt(SchemaRegistryConfig.KAFKASTORE_WRITE_BATCH_MAX_SIZE_CONFIG);
+    this.writeBatchWindowMs =
+        config.getInt(SchemaRegistryConfig.KAFKASTORE_WRITE_BATCH_WINDOW_MS_CONFIG);
 
     log.info("Initializing KafkaStore with broker endpoints: " + this.bootstrapBrokers);
   }
@@ -142,6 +167,13 @@ public class KafkaStore<K, V> implements Store<K, V> {
                                      this.producer, this.noopKey, this.initialized, this.config);
     this.kafkaTopicReader.start();
 
+    if (writeBatchMaxSize > 1) {
+      this.groupCommitter = new GroupCommitter<>(producer, writeBatchMaxSize, writeBatchWindowMs,
+          timeout, this::whenKafkaReaderReachesOffset,
+          this::updateLastOffset,
+          metricsContainer != null ? metricsContainer.getWriteBatchSize() : null);
+    }
+
     try {
       waitUntilKafkaReaderReachesLastOffset(initTimeout);
     } catch (StoreException e) {
@@ -309,13 +341,21 @@ public class KafkaStore<K, V> implements Store<K, V> {
   /**
    * Wait until the KafkaStore catches up to the given offset in the Kafka topic.
    */
-  private void waitUntilKafkaReaderReachesOffset(long offset, int timeoutMs) throws StoreException {
-    log.info("Wait to catch up until the offset at {}", offset);
+  public void waitUntilKafkaReaderReachesOffset(long offset, int timeoutMs) throws StoreException {
+    log.trace("Wait to catch up until the offset at {}", offset);
     kafkaTopicReader.waitUntilOffset(offset, timeoutMs, TimeUnit.MILLISECONDS);
-    log.info("Reached offset at {}", offset);
+    log.trace("Reached offset at {}", offset);
+  }
+
+  /**
+   * Returns a future that completes once the KafkaStore catches up to the given offset in the
+   * Kafka topic, without blocking the calling thread.
+   */
+  CompletableFuture<Long> whenKafkaReaderReachesOffset(long offset, int timeoutMs) {
+    return kafkaTopicReader.offsetReached(offset, timeoutMs, TimeUnit.MILLISECONDS);
   }
 
-  public void markLastWrittenOffsetInvalid() {
+  public synchronized void markLastWrittenOffsetInvalid() {
     lastWrittenOffset = -1L;
   }
 
@@ -334,30 +374,27 @@ public class KafkaStore<K, V> implements Store<K, V> {
     V oldValue = get(key);
 
     // write to the Kafka topic
-    ProducerRecord<byte[], byte[]> producerRecord = null;
-    try {
-      producerRecord =
-          new ProducerRecord<byte[], byte[]>(topic, 0, this.serializer.serializeKey(key),
-                                             value == null ? null : this.serializer.serializeValue(
-                                                 value));
-    } catch (SerializationException e) {
-      throw new StoreException("Error serializing schema while creating the Kafka produce "
-                               + "record", e);
-    }
+    ProducerRecord<byte[], byte[]> producerRecord = createProducerRecord(key, value);
+    WriteTimer.endCurrentPhase(WriteTimer.Phase.PREPARE);
 
+    long startMs = System.currentTimeMillis();
     boolean knownSuccessfulWrite = false;
     try {
-      log.trace("Sending record to KafkaStore topic: " + producerRecord);
-      Future<RecordMetadata> ack = producer.send(producerRecord);
-      RecordMetadata recordMetadata = ack.get(timeout, TimeUnit.MILLISECONDS);
-
-      log.trace("Waiting for the local store to catch up to offset " + recordMetadata.offset());
-      this.lastWrittenOffset = recordMetadata.offset();
-      if (key instanceof SubjectKey) {
-        setLastOffset(((SubjectKey) key).getSubject(), recordMetadata.offset());
+      if (groupCommitter != null) {
+        awaitGroupCommit(groupCommitter.submit(key, producerRecord));
+      } else {
+        log.trace("Sending record to KafkaStore topic: " + producerRecord);
+        Future<RecordMetadata> ack = producer.send(producerRecord);
+        RecordMetadata recordMetadata = ack.get(timeout, TimeUnit.MILLISECONDS);
+        WriteTimer.endCurrentPhase(WriteTimer.Phase.PRODUCE);
+
+        log.trace("Waiting for the local store to catch up to offset " + recordMetadata.offset());
+        updateLastOffset(key, recordMetadata.offset());
+        waitUntilKafkaReaderReachesOffset(recordMetadata.offset(), timeout);
+        WriteTimer.endCurrentPhase(WriteTimer.Phase.APPLY);
       }
-      waitUntilKafkaReaderReachesOffset(recordMetadata.offset(), timeout);
       knownSuccessfulWrite = true;
+      recordWriteLatency(startMs);
     } catch (InterruptedException e) {
       throw new StoreException("Put operation interrupted while waiting for an ack from Kafka", e);
     } catch (ExecutionException e) {
@@ -381,12 +418,110 @@ public class KafkaStore<K, V> implements Store<K, V> {
     return localStore.getAll(key1, key2);
   }
 
+  /**
+   * Writes the entries to the Kafka topic as a batch, in iteration order. A null value deletes
+   * the key. All records are sent before waiting for their acks, and the local store is waited
+   * upon once, for the offset of the last record. When writes are grouped, the records are
+   * sent together within a group of concurrent writes.
+   */
   @Override
-  public void putAll(Map<K, V> entries) throws StoreException {
+  public void putAll(Map<K, V> entries) throws StoreTimeoutException, StoreException {
     assertInitialized();
-    // TODO: write to the Kafka topic as a batch
+    if (entries.isEmpty()) {
+      return;
+    }
+    List<K> keys = new ArrayList<>(entries.size());
+    List<ProducerRecord<byte[], byte[]>> producerRecords = new ArrayList<>(entries.size());
     for (Map.Entry<K, V> entry : entries.entrySet()) {
-      put(entry.getKey(), entry.getValue());
+      if (entry.getKey() == null) {
+        throw new StoreException("Key should not be null");
+      }
+      keys.add(entry.getKey());
+      producerRecords.add(createProducerRecord(entry.getKey(), entry.getValue()));
+    }
+    WriteTimer.endCurrentPhase(WriteTimer.Phase.PREPARE);
+
+    long startMs = System.currentTimeMillis();
+    boolean knownSuccessfulWrite = false;
+    try {
+      if (groupCommitter != null) {
+        awaitGroupCommit(groupCommitter.submitAll(keys, producerRecords));
+        knownSuccessfulWrite = true;
+        recordWriteLatency(startMs);
+        return;
+      }
+      log.trace("Sending {} records to KafkaStore topic", producerRecords.size());
+      List<Future<RecordMetadata>> acks = new ArrayList<>(producerRecords.size());
+      for (ProducerRecord<byte[], byte[]> producerRecord : producerRecords) {
+        acks.add(producer.send(producerRecord));
+      }
+
+      long deadline = System.currentTimeMillis() + timeout;
+      long lastOffset = -1L;
+      for (int i = 0; i < acks.size(); i++) {
+        long remaining = Math.max(0L, deadline - System.currentTimeMillis());
+        RecordMetadata recordMetadata = acks.get(i).get(remaining, TimeUnit.MILLISECONDS);
+        updateLastOffset(keys.get(i), recordMetadata.offset());
+        lastOffset = Math.max(lastOffset, recordMetadata.offset());
+      }
+      WriteTimer.endCurrentPhase(WriteTimer.Phase.PRODUCE);
+
+      log.trace("Waiting for the local store to catch up to offset " + lastOffset);
+      waitUntilKafkaReaderReachesOffset(lastOffset, timeout);
+      WriteTimer.endCurrentPhase(WriteTimer.Phase.APPLY);
+      knownSuccessfulWrite = true;
+      recordWriteLatency(startMs);
+    } catch (InterruptedException e) {
+      throw new StoreException("Put operation interrupted while waiting for an ack from Kafka", e);
+    } catch (ExecutionException e) {
+      throw new StoreException("Put operation failed while waiting for an ack from Kafka", e);
+    } catch (TimeoutException e) {
+      throw new StoreTimeoutException(
+          "Put operation timed out while waiting for an ack from Kafka", e);
+    } catch (KafkaException ke) {
+      throw new StoreException("Put operation to Kafka failed", ke);
+    } finally {
+      if (!knownSuccessfulWrite) {
+        markLastWrittenOffsetInvalid();
+      }
+    }
+  }
+
+  private void awaitGroupCommit(CompletableFuture<Long> result)
+      throws StoreException, InterruptedException, ExecutionException, TimeoutException {
+    try {
+      GroupCommitter.await(result, timeout + writeBatchWindowMs);
+      WriteTimer.endCurrentPhase(WriteTimer.Phase.APPLY);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof StoreException) {
+        throw (StoreException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private void recordWriteLatency(long startMs) {
+    if (metricsContainer != null) {
+      metricsContainer.getWriteLatencyMs().record(System.currentTimeMillis() - startMs);
+    }
+  }
+
+  private void updateLastOffset(K key, long offset) {
+    if (key instanceof SubjectKey) {
+      setLastOffset(((SubjectKey) key).getSubject(), offset);
+    } else {
+      updateLastWrittenOffset(offset);
+    }
+  }
+
+  private ProducerRecord<byte[], byte[]> createProducerRecord(K key, V value)
+      throws StoreException {
+    try {
+      return new ProducerRecord<byte[], byte[]>(topic, 0, this.serializer.serializeKey(key),
+          value == null ? null : this.serializer.serializeValue(value));
+    } catch (SerializationException e) {
+      throw new StoreException("Error serializing schema while creating the Kafka produce "
+                               + "record", e);
     }
   }
 
@@ -411,6 +546,9 @@ public class KafkaStore<K, V> implements Store<K, V> {
   @Override
   public void close() {
     try {
+      if (groupCommitter != null) {
+        groupCommitter.close();
+      }
       if (kafkaTopicReader != null) {
         kafkaTopicReader.shutdown();
       }
@@ -462,11 +600,18 @@ public class KafkaStore<K, V> implements Store<K, V> {
    * latest offset.
    */
   private long getLatestOffset(int timeoutMs) throws StoreException {
-    ProducerRecord<byte[], byte[]> producerRecord = null;
-
     if (this.lastWrittenOffset >= 0) {
       return this.lastWrittenOffset;
     }
+    return latestOffset(timeoutMs);
+  }
+
+  /**
+   * Return the latest offset of the store topic, by writing a "Noop key" to Kafka even if a
+   * write of this node has succeeded, as other nodes may have written since.
+   */
+  public long latestOffset(int timeoutMs) throws StoreException {
+    ProducerRecord<byte[], byte[]> producerRecord = null;
 
     try {
       producerRecord =
@@ -479,20 +624,37 @@ public class KafkaStore<K, V> implements Store<K, V> {
       log.trace("Sending Noop record to KafkaStore to find last offset.");
       Future<RecordMetadata> ack = producer.send(producerRecord);
       RecordMetadata metadata = ack.get(timeoutMs, TimeUnit.MILLISECONDS);
-      this.lastWrittenOffset = metadata.offset();
-      log.trace("Noop record's offset is " + this.lastWrittenOffset);
-      return this.lastWrittenOffset;
+      updateLastWrittenOffset(metadata.offset());
+      log.trace("Noop record's offset is " + metadata.offset());
+      return metadata.offset();
     } catch (Exception e) {
       throw new StoreException("Failed to write Noop record to kafka store.", e);
     }
   }
 
+  /**
+   * Return the offset of the last record that the local store has applied, or -1 if none.
+   */
+  public long appliedOffset() {
+    return kafkaTopicReader.appliedOffset();
+  }
+
   public long lastOffset(String subject) {
     return lastWrittenOffset;
   }
 
   public void setLastOffset(String subject, long lastOffset) {
-    this.lastWrittenOffset = lastOffset;
+    updateLastWrittenOffset(lastOffset);
+  }
+
+  /**
+   * Concurrent writers to different subjects may receive their acks out of order, so only
+   * ever move the last written offset forward.
+   */
+  private synchronized void updateLastWrittenOffset(long offset) {
+    if (offset > this.lastWrittenOffset) {
+      this.lastWrittenOffset = offset;
+    }
   }
 
   public Lock leaderLock() {
@@ -500,6 +662,36 @@ public class KafkaStore<K, V> implements Store<K, V> {
   }
 
   public Lock lockFor(String subject) {
-    return lock;
+    return lockFor(SchemaRegistry.DEFAULT_TENANT, subject);
+  }
+
+  /**
+   * Returns the lock that serializes writes to the given subject, context or global scope.
+   *
+   * @param tenant the tenant
+   * @param subject the qualified subject, a qualified context, or null for the global scope
+   */
+  public Lock lockFor(String tenant, String subject) {
+    return subjectLocks.lockFor(tenant, subject);
+  }
+
+  /**
+   * Returns the lock that serializes writes to the given subject and to the subjects it
+   * depends on, such as the subjects referenced by a schema being registered.
+   *
+   * @param tenant the tenant
+   * @param subject the qualified subject
+   * @param otherSubjects the qualified subjects the write depends on
+   */
+  public Lock lockFor(String tenant, String subject, Collection<String> otherSubjects) {
+    return subjectLocks.lockFor(tenant, subject, otherSubjects);
+  }
+
+  /**
+   * Returns the lock that serializes the registration of the same schema under different
+   * subjects of a context, so that it is assigned a single ID.
+   */
+  public Lock lockForSchema(String context, Object schemaKey) {
+    return subjectLocks.lockForSchema(context, schemaKey);
   }
 }
@@ -22,6 +22,7 @@ import io.confluent.kafka.schemaregistry.metrics.MetricsContainer;
 import io.confluent.kafka.schemaregistry.metrics.SchemaRegistryMetric;
 import io.confluent.kafka.schemaregistry.protobuf.ProtobufSchema;
 import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
+import java.util.Map;
 import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,9 +30,15 @@ import org.slf4j.LoggerFactory;
 public class KafkaStoreMessageHandler implements SchemaUpdateHandler {
 
   private static final Logger log = LoggerFactory.getLogger(KafkaStoreMessageHandler.class);
+  private static final long BOOTSTRAP_PROGRESS_LOG_INTERVAL_MS = 10000L;
   private final KafkaSchemaRegistry schemaRegistry;
   private final LookupCache<SchemaRegistryKey, SchemaRegistryValue> lookupCache;
   private IdGenerator idGenerator;
+  // bootstrap progress, only accessed from the reader thread
+  private boolean bootstrapping = true;
+  private long bootstrapStartMs = -1L;
+  private long bootstrapRecords;
+  private long lastProgressLogMs;
 
   public KafkaStoreMessageHandler(KafkaSchemaRegistry schemaRegistry,
                                   LookupCache<SchemaRegistryKey, SchemaRegistryValue> lookupCache,
@@ -41,6 +48,50 @@ public class KafkaStoreMessageHandler implements SchemaUpdateHandler {
     this.idGenerator = idGenerator;
   }
 
+  @Override
+  public void startBatch(int count) {
+    if (bootstrapping && bootstrapStartMs < 0) {
+      bootstrapStartMs = System.currentTimeMillis();
+      lastProgressLogMs = bootstrapStartMs;
+    }
+  }
+
+  @Override
+  public void endBatch(int count) {
+    if (!bootstrapping) {
+      return;
+    }
+    bootstrapRecords += count;
+    long now = System.currentTimeMillis();
+    updateBootstrapMetrics(now);
+    if (now - lastProgressLogMs >= BOOTSTRAP_PROGRESS_LOG_INTERVAL_MS) {
+      lastProgressLogMs = now;
+      log.info("Read {} records from the Kafka store in {} ms",
+          bootstrapRecords, now - bootstrapStartMs);
+    }
+  }
+
+  @Override
+  public void cacheInitialized(Map<TopicPartition, Long> checkpoints) {
+    bootstrapping = false;
+    long now = System.currentTimeMillis();
+    if (bootstrapStartMs < 0) {
+      bootstrapStartMs = now;
+    }
+    updateBootstrapMetrics(now);
+    log.info("Finished reading {} records from the Kafka store in {} ms",
+        bootstrapRecords, now - bootstrapStartMs);
+  }
+
+  private void updateBootstrapMetrics(long now) {
+    MetricsContainer metricsContainer = schemaRegistry.getMetricsContainer();
+    long elapsedMs = now - bootstrapStartMs;
+    metricsContainer.getBootstrapRecords().set(bootstrapRecords);
+    metricsContainer.getBootstrapTimeMs().set(elapsedMs);
+    metricsContainer.getBootstrapRecordsPerSec().set(
+        elapsedMs > 0 ? bootstrapRecords * 1000 / elapsedMs : bootstrapRecords);
+  }
+
   /**
    * Invoked before every new K,V pair written to the store
    *
@@ -138,6 +189,7 @@ public class KafkaStoreMessageHandler implements SchemaUpdateHandler {
           schemaValue.setDeleted(true);
           lookupCache.put(schemaKey, schemaValue);
           lookupCache.schemaDeleted(schemaKey, schemaValue, schemaValue);
+          schemaRegistry.getSchemaResponseCache().invalidate(schemaValue.getId());
         }
       } catch (StoreException e) {
         log.error("Failed to delete subject {} in the local cache", subject, e);
@@ -148,7 +200,14 @@ public class KafkaStoreMessageHandler implements SchemaUpdateHandler {
   private void handleClearSubject(ClearSubjectValue clearSubjectValue) {
     String subject = clearSubjectValue.getSubject();
     try {
-      lookupCache.clearSubjects(subject);
+      Map<String, Integer> cleared = lookupCache.clearSubjects(subject);
+      if (cleared == null || !cleared.isEmpty()) {
+        // clearing is a rare operation that can match a whole context, so rather than track
+        // the ids it removed, drop every cached response and parsed schema, as tombstones do
+        schemaRegistry.getSchemaResponseCache().invalidateAll();
+        schemaRegistry.getParsedSchemaCache().invalidateAll();
+        schemaRegistry.getCompatibilityCache().invalidateAll();
+      }
     } catch (StoreException e) {
       log.error("Failed to clear subject {} in the local cache", subject, e);
     }
@@ -158,6 +217,12 @@ public class KafkaStoreMessageHandler implements SchemaUpdateHandler {
                                   SchemaValue schemaValue,
                                   SchemaValue oldSchemaValue) {
     final MetricsContainer metricsContainer = schemaRegistry.getMetricsContainer();
+    // a new subject-version for an id can change which context a lookup by id resolves to,
+    // so drop the cached responses for the id on any change, not just on tombstones
+    SchemaValue changed = schemaValue != null ? schemaValue : oldSchemaValue;
+    if (changed != null) {
+      schemaRegistry.getSchemaResponseCache().invalidate(changed.getId());
+    }
     if (schemaValue != null) {
       // Update the maximum id seen so far
       idGenerator.schemaRegistered(schemaKey, schemaValue);
@@ -173,6 +238,11 @@ public class KafkaStoreMessageHandler implements SchemaUpdateHandler {
       }
     } else {
       lookupCache.schemaTombstoned(schemaKey, oldSchemaValue);
+      if (oldSchemaValue != null) {
+        schemaRegistry.getParsedSchemaCache().invalidate(schemaRegistry.tenant(), oldSchemaValue);
+        // the id may be reused for a different schema, which cached results were checked against
+        schemaRegistry.getCompatibilityCache().invalidateAll();
+      }
     }
   }
 
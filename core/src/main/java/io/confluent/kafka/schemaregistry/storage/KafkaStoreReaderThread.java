@@ -19,10 +19,17 @@ import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
 
 import io.confluent.kafka.schemaregistry.storage.StoreUpdateHandler.ValidationStatus;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
@@ -35,6 +42,8 @@ import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.errors.RecordTooLargeException;
 import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,6 +73,11 @@ public class KafkaStoreReaderThread<K, V> extends ShutdownableThread {
 
   private static final Logger log = LoggerFactory.getLogger(KafkaStoreReaderThread.class);
 
+  // smaller batches are not worth handing off to the decode threads
+  private static final int MIN_PARALLEL_DECODE_RECORDS = 64;
+  // how long shutdown waits for a snapshot that is being written
+  private static final long SNAPSHOT_SHUTDOWN_TIMEOUT_MS = 10000L;
+
   private final String topic;
   private final TopicPartition topicPartition;
   private final String groupId;
@@ -72,15 +86,29 @@ public class KafkaStoreReaderThread<K, V> extends ShutdownableThread {
   private final Store<K, V> localStore;
   private final ReentrantLock offsetUpdateLock;
   private final Condition offsetReachedThreshold;
+  private final OffsetWatches offsetWatches;
   private Consumer<byte[], byte[]> consumer;
   private final Producer<byte[], byte[]> producer;
   private long offsetInSchemasTopic = -1L;
   private OffsetCheckpoint checkpointFile;
-  private Map<TopicPartition, Long> checkpointFileCache = new HashMap<>();
+  private Map<TopicPartition, Long> checkpointFileCache = new ConcurrentHashMap<>();
+  private StoreSnapshot snapshot;
+  private ExecutorService snapshotExecutor;
+  private SnapshotWriter<K, V> snapshotWriter;
+  private long snapshotIntervalMs;
+  // records restored from the snapshot, applied before reading the topic
+  private List<ConsumerRecord<byte[], byte[]>> snapshotRecords;
+  // whether records have been applied since the last snapshot
+  private boolean snapshotPending;
+  private long lastSnapshotMs;
   // Noop key is only used to help reliably determine last offset; reader thread ignores
   // messages with this key
   private final K noopKey;
   private final AtomicBoolean initialized;
+  private final int decodeThreads;
+  private final RecordDecoder<K, V> decoder;
+  // only accessed from this thread
+  private ExecutorService decodeExecutor;
 
   private Properties consumerProps = new Properties();
 
@@ -97,6 +125,7 @@ public class KafkaStoreReaderThread<K, V> extends ShutdownableThread {
     super("kafka-store-reader-thread-" + topic, false);  // this thread is not interruptible
     offsetUpdateLock = new ReentrantLock();
     offsetReachedThreshold = offsetUpdateLock.newCondition();
+    offsetWatches = new OffsetWatches("kafka-store-offset-watch-" + topic);
     this.topic = topic;
     this.groupId = groupId;
     this.storeUpdateHandler = storeUpdateHandler;
@@ -105,11 +134,16 @@ public class KafkaStoreReaderThread<K, V> extends ShutdownableThread {
     this.producer = producer;
     this.noopKey = noopKey;
     this.initialized = initialized;
-
-    if (localStore.isPersistent()) {
+    this.decodeThreads =
+        config.getInt(SchemaRegistryConfig.KAFKASTORE_BOOTSTRAP_DECODE_THREADS_CONFIG);
+    this.decoder = new RecordDecoder<>(serializer, noopKey, MIN_PARALLEL_DECODE_RECORDS);
+
+    boolean snapshotEnabled = !localStore.isPersistent()
+        && config.getBoolean(SchemaRegistryConfig.KAFKASTORE_SNAPSHOT_ENABLE_CONFIG);
+    if (localStore.isPersistent() || snapshotEnabled) {
+      String checkpointDir =
+          config.getString(SchemaRegistryConfig.KAFKASTORE_CHECKPOINT_DIR_CONFIG);
       try {
-        String checkpointDir =
-            config.getString(SchemaRegistryConfig.KAFKASTORE_CHECKPOINT_DIR_CONFIG);
         int checkpointVersion =
             config.getInt(SchemaRegistryConfig.KAFKASTORE_CHECKPOINT_VERSION_CONFIG);
         checkpointFile = new OffsetCheckpoint(checkpointDir, checkpointVersion, topic);
@@ -118,6 +152,26 @@ public class KafkaStoreReaderThread<K, V> extends ShutdownableThread {
         throw new IllegalStateException("Failed to read checkpoints", e);
       }
       log.info("Successfully read checkpoints");
+      if (snapshotEnabled) {
+        snapshot = new StoreSnapshot(checkpointDir, topic);
+        snapshotIntervalMs =
+            config.getLong(SchemaRegistryConfig.KAFKASTORE_SNAPSHOT_INTERVAL_MS_CONFIG);
+        snapshotExecutor = Executors.newSingleThreadExecutor(r -> {
+          Thread thread = new Thread(r, "kafka-store-snapshot-" + topic);
+          thread.setDaemon(true);
+          return thread;
+        });
+        snapshotWriter = new SnapshotWriter<>(snapshot, serializer, snapshotExecutor);
+        List<StoreSnapshot.Entry> entries =
+            checkpointFileCache.isEmpty() ? null : snapshot.read();
+        if (entries == null) {
+          // the checkpoint only describes the local store together with the snapshot
+          checkpointFileCache.clear();
+        } else {
+          snapshotRecords = toRecords(entries);
+          log.info("Read {} records from snapshot {}", entries.size(), snapshot);
+        }
+      }
     }
 
     KafkaStore.addSchemaRegistryConfigsToClientProperties(config, consumerProps);
@@ -166,7 +220,7 @@ public class KafkaStoreReaderThread<K, V> extends ShutdownableThread {
     List<TopicPartition> topicPartitions = Arrays.asList(this.topicPartition);
     this.consumer.assign(topicPartitions);
 
-    if (localStore.isPersistent()) {
+    if (checkpointFile != null) {
       for (final TopicPartition topicPartition : topicPartitions) {
         final Long checkpoint = checkpointFileCache.get(topicPartition);
         if (checkpoint != null) {
@@ -194,101 +248,29 @@ public class KafkaStoreReaderThread<K, V> extends ShutdownableThread {
   @Override
   public void doWork() {
     try {
-      ConsumerRecords<byte[], byte[]> records = consumer.poll(Long.MAX_VALUE);
+      if (snapshotRecords != null) {
+        restoreSnapshot();
+      }
+      ConsumerRecords<byte[], byte[]> records = snapshotPending && initialized.get()
+          ? consumer.poll(Duration.ofMillis(snapshotDelayMs()))
+          : consumer.poll(Long.MAX_VALUE);
       storeUpdateHandler.startBatch(records.count());
-      for (ConsumerRecord<byte[], byte[]> record : records) {
-        K messageKey = null;
-        try {
-          messageKey = this.serializer.deserializeKey(record.key());
-        } catch (SerializationException e) {
-          log.error("Failed to deserialize the schema or config key at offset "
-                  + record.offset(), e);
-          continue;
-        }
-
-        if (messageKey.equals(noopKey)) {
-          // If it's a noop, update local offset counter and do nothing else
-          try {
-            offsetUpdateLock.lock();
-            offsetInSchemasTopic = record.offset();
-            offsetReachedThreshold.signalAll();
-          } finally {
-            offsetUpdateLock.unlock();
-          }
-        } else {
-          V message = null;
-          try {
-            message =
-                record.value() == null ? null
-                                       : serializer.deserializeValue(messageKey, record.value());
-          } catch (SerializationException e) {
-            log.error("Failed to deserialize a schema or config update at offset "
-                    + record.offset(), e);
-            continue;
-          }
-          try {
-            log.trace("Applying update ("
-                      + messageKey
-                      + ","
-                      + message
-                      + ") to the local store");
-            TopicPartition tp = new TopicPartition(record.topic(), record.partition());
-            long offset = record.offset();
-            long timestamp = record.timestamp();
-            ValidationStatus status = this.storeUpdateHandler.validateUpdate(
-                    messageKey, message, tp, offset, timestamp);
-            V oldMessage;
-            switch (status) {
-              case SUCCESS:
-                if (message == null) {
-                  oldMessage = localStore.delete(messageKey);
-                } else {
-                  oldMessage = localStore.put(messageKey, message);
-                }
-                this.storeUpdateHandler.handleUpdate(
-                        messageKey, message, oldMessage, tp, offset, timestamp);
-                break;
-              case ROLLBACK_FAILURE:
-                oldMessage = localStore.get(messageKey);
-                try {
-                  ProducerRecord<byte[], byte[]> producerRecord = new ProducerRecord<>(
-                      topic,
-                      record.key(),
-                      oldMessage == null ? null : serializer.serializeValue(oldMessage)
-                  );
-                  producer.send(producerRecord);
-                  log.warn("Rollback invalid update to key {}", messageKey);
-                } catch (KafkaException | SerializationException ke) {
-                  log.error("Failed to recover from invalid update to key {}", messageKey, ke);
-                }
-                break;
-              case IGNORE_FAILURE:
-              default:
-                log.warn("Ignore invalid update to key {}", messageKey);
-                break;
-            }
-            try {
-              offsetUpdateLock.lock();
-              offsetInSchemasTopic = record.offset();
-              offsetReachedThreshold.signalAll();
-            } finally {
-              offsetUpdateLock.unlock();
-            }
-          } catch (Exception se) {
-            log.error("Failed to add record from the Kafka topic"
-                      + topic
-                      + " the local store", se);
-          }
-        }
+      List<ConsumerRecord<byte[], byte[]>> recordList = new ArrayList<>(records.count());
+      records.forEach(recordList::add);
+      apply(decoder.decode(recordList, decodeExecutor(), decodeThreads));
+      if (records.count() > 0 || (snapshotWriter != null && snapshotWriter.failed())) {
+        snapshotPending = snapshotWriter != null;
       }
       if (localStore.isPersistent() && initialized.get()) {
         try {
           localStore.flush();
           Map<TopicPartition, Long> offsets = storeUpdateHandler.checkpoint(records.count());
-          checkpointOffsets(offsets);
+          checkpointOffsets(offsetsToCheckpoint(offsets));
         } catch (StoreException se) {
           log.warn("Failed to flush", se);
         }
+      } else if (snapshotPending && initialized.get() && snapshotDelayMs() == 0) {
+        writeSnapshot(records.count());
       }
       storeUpdateHandler.endBatch(records.count());
     } catch (WakeupException we) {
@@ -303,11 +285,150 @@ public class KafkaStoreReaderThread<K, V> extends ShutdownableThread {
     }
   }
 
-  private void checkpointOffsets(Map<TopicPartition, Long> offsets) {
-    Map<TopicPartition, Long> newOffsets = offsets != null
+  /**
+   * Applies deserialized records to the local store, in order.
+   */
+  private void apply(List<RecordDecoder.DecodedRecord<K, V>> decodedRecords) {
+    for (RecordDecoder.DecodedRecord<K, V> decoded : decodedRecords) {
+      ConsumerRecord<byte[], byte[]> record = decoded.record();
+      if (decoded.keyException() != null) {
+        log.error("Failed to deserialize the schema or config key at offset "
+                + record.offset(), decoded.keyException());
+        continue;
+      }
+      K messageKey = decoded.key();
+
+      if (messageKey.equals(noopKey)) {
+        // If it's a noop, update local offset counter and do nothing else
+        updateOffset(record.offset());
+      } else {
+        if (decoded.valueException() != null) {
+          log.error("Failed to deserialize a schema or config update at offset "
+                  + record.offset(), decoded.valueException());
+          continue;
+        }
+        V message = decoded.value();
+        try {
+          log.trace("Applying update ({},{}) to the local store", messageKey, message);
+          TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+          long offset = record.offset();
+          long timestamp = record.timestamp();
+          ValidationStatus status = this.storeUpdateHandler.validateUpdate(
+                  messageKey, message, tp, offset, timestamp);
+          V oldMessage;
+          switch (status) {
+            case SUCCESS:
+              if (message == null) {
+                oldMessage = localStore.delete(messageKey);
+              } else {
+                oldMessage = localStore.put(messageKey, message);
+              }
+              this.storeUpdateHandler.handleUpdate(
+                      messageKey, message, oldMessage, tp, offset, timestamp);
+              break;
+            case ROLLBACK_FAILURE:
+              oldMessage = localStore.get(messageKey);
+              try {
+                ProducerRecord<byte[], byte[]> producerRecord = new ProducerRecord<>(
+                    topic,
+                    record.key(),
+                    oldMessage == null ? null : serializer.serializeValue(oldMessage)
+                );
+                producer.send(producerRecord);
+                log.warn("Rollback invalid update to key {}", messageKey);
+              } catch (KafkaException | SerializationException ke) {
+                log.error("Failed to recover from invalid update to key {}", messageKey, ke);
+              }
+              break;
+            case IGNORE_FAILURE:
+            default:
+              log.warn("Ignore invalid update to key {}", messageKey);
+              break;
+          }
+          updateOffset(record.offset());
+        } catch (Exception se) {
+          log.error("Failed to add record from the Kafka topic"
+                    + topic
+                    + " the local store", se);
+        }
+      }
+    }
+  }
+
+  /**
+   * Applies the records restored from the snapshot, as if they had been read from the topic.
+   */
+  private void restoreSnapshot() {
+    List<ConsumerRecord<byte[], byte[]>> records = snapshotRecords;
+    snapshotRecords = null;
+    storeUpdateHandler.startBatch(records.size());
+    apply(decoder.decode(records, decodeExecutor(), decodeThreads));
+    storeUpdateHandler.endBatch(records.size());
+    log.info("Restored {} records from snapshot {}", records.size(), snapshot);
+  }
+
+  private List<ConsumerRecord<byte[], byte[]>> toRecords(List<StoreSnapshot.Entry> entries) {
+    List<ConsumerRecord<byte[], byte[]>> records = new ArrayList<>(entries.size());
+    for (StoreSnapshot.Entry entry : entries) {
+      records.add(new ConsumerRecord<>(topic, 0, entry.offset(), entry.timestamp(),
+          TimestampType.CREATE_TIME, entry.key().length, entry.value().length,
+          entry.key(), entry.value(), new RecordHeaders(), Optional.empty()));
+    }
+    return records;
+  }
+
+  private long snapshotDelayMs() {
+    return Math.max(0L, lastSnapshotMs + snapshotIntervalMs - System.currentTimeMillis());
+  }
+
+  /**
+   * Saves the local store to the snapshot file in the background, and then checkpoints the
+   * offset it covers. The store is copied and the offset is resolved on this thread, so that
+   * they are consistent with each other.
+   */
+  private void writeSnapshot(int count) {
+    lastSnapshotMs = System.currentTimeMillis();
+    Map<TopicPartition, Long> offsets = offsetsToCheckpoint(storeUpdateHandler.checkpoint(count));
+    if (snapshotWriter.write(localStore, () -> checkpointOffsets(offsets))) {
+      snapshotPending = false;
+    }
+  }
+
+  /**
+   * Returns the executor for parallel deserialization while the store is being bootstrapped,
+   * or null once it has been initialized, at which point the executor is shut down.
+   */
+  private ExecutorService decodeExecutor() {
+    if (decodeThreads <= 1) {
+      return null;
+    }
+    if (initialized.get()) {
+      if (decodeExecutor != null) {
+        decodeExecutor.shutdown();
+        decodeExecutor = null;
+      }
+      return null;
+    }
+    if (decodeExecutor == null) {
+      AtomicInteger threadCount = new AtomicInteger();
+      decodeExecutor = Executors.newFixedThreadPool(decodeThreads, r -> {
+        Thread thread = new Thread(r, "kafka-store-decoder-" + topic + "-"
+            + threadCount.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return decodeExecutor;
+  }
+
+  private Map<TopicPartition, Long> offsetsToCheckpoint(Map<TopicPartition, Long> offsets) {
+    return offsets != null
         ? offsets
         : Collections.singletonMap(new TopicPartition(topic, 0), offsetInSchemasTopic + 1);
-    checkpointFileCache.putAll(newOffsets);
+  }
+
+  private void checkpointOffsets(Map<TopicPartition, Long> offsets) {
+    checkpointFileCache.putAll(offsets);
     try {
       checkpointFile.write(checkpointFileCache);
     } catch (final IOException e) {
@@ -327,10 +448,19 @@ public class KafkaStoreReaderThread<K, V> extends ShutdownableThread {
       if (localStore != null) {
         localStore.close();
       }
+      if (snapshotExecutor != null) {
+        // let a snapshot that is being written finish before the checkpoint file is closed
+        snapshotExecutor.shutdown();
+        snapshotExecutor.awaitTermination(SNAPSHOT_SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      }
       if (checkpointFile != null) {
         checkpointFile.close();
       }
       super.awaitShutdown();
+      offsetWatches.close();
+      if (decodeExecutor != null) {
+        decodeExecutor.shutdownNow();
+      }
       if (consumer != null) {
         consumer.close();
       }
@@ -340,6 +470,45 @@ public class KafkaStoreReaderThread<K, V> extends ShutdownableThread {
     }
   }
 
+  private void updateOffset(long offset) {
+    try {
+      offsetUpdateLock.lock();
+      offsetInSchemasTopic = offset;
+      offsetReachedThreshold.signalAll();
+    } finally {
+      offsetUpdateLock.unlock();
+    }
+    offsetWatches.advance(offset);
+  }
+
+  /**
+   * Returns a future that completes once this thread has read the given offset, or fails with a
+   * {@link StoreTimeoutException} after the timeout. Unlike {@link #waitUntilOffset}, no thread
+   * is blocked while waiting; the future is completed by this thread, so dependent stages must
+   * not block.
+   */
+  public CompletableFuture<Long> offsetReached(long offset, long timeout, TimeUnit timeUnit) {
+    if (offset < 0) {
+      CompletableFuture<Long> future = new CompletableFuture<>();
+      future.completeExceptionally(
+          new StoreException("KafkaStoreReaderThread can't wait for a negative offset."));
+      return future;
+    }
+    return offsetWatches.watch(offset, timeout, timeUnit);
+  }
+
+  /**
+   * Returns the offset of the last record read from the topic, or -1 if none has been read.
+   */
+  public long appliedOffset() {
+    try {
+      offsetUpdateLock.lock();
+      return offsetInSchemasTopic;
+    } finally {
+      offsetUpdateLock.unlock();
+    }
+  }
+
   public void waitUntilOffset(long offset, long timeout, TimeUnit timeUnit) throws StoreException {
     if (offset < 0) {
       throw new StoreException("KafkaStoreReaderThread can't wait for a negative offset.");
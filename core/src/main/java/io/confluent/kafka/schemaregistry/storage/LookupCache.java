@@ -17,12 +17,14 @@ package io.confluent.kafka.schemaregistry.storage;
 
 import static io.confluent.kafka.schemaregistry.storage.SchemaRegistry.DEFAULT_TENANT;
 
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
 import io.confluent.kafka.schemaregistry.CompatibilityLevel;
 import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
 import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
+import io.confluent.kafka.schemaregistry.utils.QualifiedSubject;
 
 /**
  * Internal interface that provides various indexed methods that help lookup the underlying schemas.
@@ -69,6 +71,30 @@ public interface LookupCache<K,V> extends Store<K,V> {
    */
   SchemaKey schemaKeyById(Integer id, String subject) throws StoreException;
 
+  /**
+   * Provides the {@link SchemaKey} for the provided schema id in the first context of the
+   * tenant, in context order, that has a schema with the id.
+   *
+   * @param id the schema id; never {@code null}
+   * @return the {@link SchemaKey} if found, otherwise null.
+   */
+  @SuppressWarnings("unchecked")
+  default SchemaKey schemaKeyByIdInAnyContext(Integer id) throws StoreException {
+    try (CloseableIterator<V> iter = getAll(
+        (K) new ContextKey(tenant(), String.valueOf(Character.MIN_VALUE)),
+        (K) new ContextKey(tenant(), String.valueOf(Character.MAX_VALUE)))) {
+      while (iter.hasNext()) {
+        ContextValue v = (ContextValue) iter.next();
+        QualifiedSubject qs = new QualifiedSubject(v.getTenant(), v.getContext(), "");
+        SchemaKey key = schemaKeyById(id, qs.toQualifiedSubject());
+        if (key != null) {
+          return key;
+        }
+      }
+    }
+    return null;
+  }
+
   /**
    * Callback that is invoked when a schema is registered.
    * This can be used to update any internal data structure.
@@ -139,6 +165,54 @@ public interface LookupCache<K,V> extends Store<K,V> {
    */
   boolean hasSubjects(String subject, boolean lookupDeletedSubjects) throws StoreException;
 
+  /**
+   * Returns subjects that have schemas (that are not deleted) in the given range of subjects,
+   * in the order of the store.
+   *
+   * @param fromSubject the first subject of the range, inclusive
+   * @param toSubject the last subject of the range, inclusive
+   * @return the subjects with matching schemas
+   */
+  @SuppressWarnings("unchecked")
+  default Set<String> subjectsInRange(String fromSubject, String toSubject,
+                                      boolean lookupDeletedSubjects) throws StoreException {
+    Set<String> subjects = new LinkedHashSet<>();
+    try (CloseableIterator<V> iter = getAll(
+        (K) new SchemaKey(fromSubject, KafkaSchemaRegistry.MIN_VERSION),
+        (K) new SchemaKey(toSubject, KafkaSchemaRegistry.MAX_VERSION))) {
+      while (iter.hasNext()) {
+        SchemaValue value = (SchemaValue) iter.next();
+        if (value != null && (!value.isDeleted() || lookupDeletedSubjects)) {
+          subjects.add(value.getSubject());
+        }
+      }
+    }
+    return subjects;
+  }
+
+  /**
+   * Returns the latest version of the given subject.
+   *
+   * @param subject the subject
+   * @return the latest version, or null if the subject has no matching schemas
+   */
+  @SuppressWarnings("unchecked")
+  default Integer latestVersion(String subject, boolean lookupDeletedSchemas)
+      throws StoreException {
+    Integer latest = null;
+    try (CloseableIterator<V> iter = getAll(
+        (K) new SchemaKey(subject, KafkaSchemaRegistry.MIN_VERSION),
+        (K) new SchemaKey(subject, KafkaSchemaRegistry.MAX_VERSION))) {
+      while (iter.hasNext()) {
+        SchemaValue value = (SchemaValue) iter.next();
+        if (value != null && (!value.isDeleted() || lookupDeletedSchemas)) {
+          latest = value.getVersion();
+        }
+      }
+    }
+    return latest;
+  }
+
   /**
    * Clears the cache of deleted schemas that match the given subject.
    *
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage;
+
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreTimeoutException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Futures that complete once the reader of the Kafka store has applied a given offset, so that
+ * a writer can wait for the local store to catch up without blocking a thread.
+ *
+ * <p>Pending watches are kept in a priority queue by offset, so that advancing the applied
+ * offset only looks at the watches that it completes. Watches are completed outside the lock,
+ * on the thread that advances the offset, so dependent stages should not block.
+ */
+class OffsetWatches {
+
+  private final PriorityQueue<Watch> watches =
+      new PriorityQueue<>(Comparator.comparingLong(watch -> watch.offset));
+  private final ScheduledThreadPoolExecutor timer;
+  private long appliedOffset = -1L;
+  private boolean closed;
+
+  OffsetWatches(String name) {
+    timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    });
+    timer.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * Returns a future of the applied offset that completes once the given offset has been
+   * applied, or fails with a {@link StoreTimeoutException} after the timeout.
+   */
+  CompletableFuture<Long> watch(long offset, long timeout, TimeUnit timeUnit) {
+    Watch watch;
+    synchronized (this) {
+      if (closed) {
+        return failed(new StoreException("KafkaStoreReaderThread is shutting down"));
+      }
+      if (appliedOffset >= offset) {
+        return CompletableFuture.completedFuture(appliedOffset);
+      }
+      watch = new Watch(offset);
+      watches.add(watch);
+    }
+    watch.timeout = timer.schedule(() -> expire(watch, timeUnit.toMillis(timeout)),
+        timeout, timeUnit);
+    return watch.future;
+  }
+
+  /**
+   * Records that the given offset has been applied, completing the watches it satisfies.
+   */
+  void advance(long offset) {
+    List<Watch> reached = null;
+    synchronized (this) {
+      appliedOffset = offset;
+      while (!watches.isEmpty() && watches.peek().offset <= offset) {
+        if (reached == null) {
+          reached = new ArrayList<>();
+        }
+        reached.add(watches.poll());
+      }
+    }
+    if (reached != null) {
+      for (Watch watch : reached) {
+        watch.complete(offset);
+      }
+    }
+  }
+
+  synchronized int size() {
+    return watches.size();
+  }
+
+  void close() {
+    List<Watch> pending;
+    synchronized (this) {
+      closed = true;
+      pending = new ArrayList<>(watches);
+      watches.clear();
+    }
+    for (Watch watch : pending) {
+      watch.future.completeExceptionally(
+          new StoreException("KafkaStoreReaderThread is shutting down"));
+    }
+    timer.shutdownNow();
+  }
+
+  private void expire(Watch watch, long timeoutMs) {
+    long reached;
+    synchronized (this) {
+      if (!watches.remove(watch)) {
+        return;
+      }
+      reached = appliedOffset;
+    }
+    watch.future.completeExceptionally(new StoreTimeoutException(
+        "KafkaStoreReaderThread failed to reach target offset within the timeout interval. "
+        + "targetOffset: " + watch.offset + ", offsetReached: " + reached
+        + ", timeout(ms): " + timeoutMs));
+  }
+
+  private static <T> CompletableFuture<T> failed(Throwable t) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(t);
+    return future;
+  }
+
+  private static class Watch {
+    private final long offset;
+    private final CompletableFuture<Long> future = new CompletableFuture<>();
+    private volatile ScheduledFuture<?> timeout;
+
+    Watch(long offset) {
+      this.offset = offset;
+    }
+
+    void complete(long appliedOffset) {
+      ScheduledFuture<?> timeout = this.timeout;
+      if (timeout != null) {
+        timeout.cancel(false);
+      }
+      future.complete(appliedOffset);
+    }
+  }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.Weigher;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.exceptions.InvalidSchemaException;
+import io.confluent.kafka.schemaregistry.metrics.SchemaRegistryMetric;
+import io.confluent.kafka.schemaregistry.utils.QualifiedSubject;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * A cache of the parsed form of schemas that are stored in the registry.
+ *
+ * <p>Entries are keyed by the schema type and the context-qualified schema id, so that a lookup
+ * does not need to hash the whole schema text, and by the schema type and the MD5 of the schema
+ * and its references, so that the same schema registered under several contexts is only parsed
+ * once. As ids can be reused after a hard delete, an entry found by id is only used if its
+ * schema text and references are equal to the ones looked up.
+ *
+ * <p>Eviction is bounded by the approximate number of bytes retained by the cached schemas. A
+ * schema that is cached under both keys is counted twice, which keeps the bound conservative.
+ */
+public class ParsedSchemaCache {
+
+  // a parsed schema typically retains several times the memory of its text
+  static final int BYTES_PER_SCHEMA_CHAR = 8;
+  static final int ENTRY_OVERHEAD_BYTES = 256;
+
+  private final Cache<Object, Entry> cache;
+  private final SchemaRegistryMetric hits;
+  private final SchemaRegistryMetric misses;
+  private final SchemaRegistryMetric evictions;
+
+  public ParsedSchemaCache(long maxWeightBytes,
+                           SchemaRegistryMetric hits,
+                           SchemaRegistryMetric misses,
+                           SchemaRegistryMetric evictions) {
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxWeightBytes)
+        .weigher((Weigher<Object, Entry>) (key, entry) -> entry.weight())
+        .removalListener((RemovalListener<Object, Entry>) notification -> {
+          if (notification.wasEvicted()) {
+            evictions.increment();
+          }
+        })
+        .build();
+  }
+
+  /**
+   * Returns the parsed form of a stored schema, calling the loader to parse it on a miss.
+   *
+   * @param tenant the tenant of the request
+   * @param subject a subject the schema is registered under, which determines its context
+   * @param id the id of the schema in its context
+   * @param schemaType the type of the schema, or null for Avro
+   * @param schema the schema text
+   * @param references the references of the schema
+   * @param loader parses the schema on a miss
+   * @return the parsed schema
+   */
+  public ParsedSchema get(
+      String tenant,
+      String subject,
+      int id,
+      String schemaType,
+      String schema,
+      List<io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference> references,
+      Callable<ParsedSchema> loader) throws InvalidSchemaException {
+    String type = schemaType(schemaType);
+    SchemaIdKey idKey = new SchemaIdKey(type, qualifiedContext(tenant, subject), id);
+    Entry entry = cache.getIfPresent(idKey);
+    // ids can be reused after a hard delete, so check that the entry is for the same schema
+    if (entry != null && entry.matches(type, schema, references)) {
+      hits.increment();
+      return entry.parsedSchema;
+    }
+    SchemaHashKey hashKey = new SchemaHashKey(type, md5(schema, references));
+    entry = cache.getIfPresent(hashKey);
+    if (entry != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+      try {
+        entry = cache.get(hashKey, () -> new Entry(type, schema, references, loader.call()));
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof InvalidSchemaException) {
+          throw (InvalidSchemaException) cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else {
+          throw new RuntimeException(e);
+        }
+      }
+    }
+    cache.put(idKey, entry);
+    return entry.parsedSchema;
+  }
+
+  /**
+   * Removes the entries for a schema, e.g. after it has been permanently deleted.
+   */
+  public void invalidate(String tenant, SchemaValue schemaValue) {
+    String type = schemaType(schemaValue.getSchemaType());
+    cache.invalidate(new SchemaIdKey(
+        type, qualifiedContext(tenant, schemaValue.getSubject()), schemaValue.getId()));
+    cache.invalidate(new SchemaHashKey(
+        type, MD5.ofString(schemaValue.getSchema(), schemaValue.getReferences())));
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  private static String schemaType(String schemaType) {
+    return schemaType != null ? schemaType : AvroSchema.TYPE;
+  }
+
+  private static String qualifiedContext(String tenant, String subject) {
+    QualifiedSubject qs = QualifiedSubject.create(tenant, subject);
+    return qs != null ? qs.toQualifiedContext() : "";
+  }
+
+  private static MD5 md5(
+      String schema,
+      List<io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference> references) {
+    return MD5.ofString(schema, references == null ? null : references.stream()
+        .map(ref -> new SchemaReference(ref.getName(), ref.getSubject(), ref.getVersion()))
+        .collect(Collectors.toList()));
+  }
+
+  private static class Entry {
+    private final String schemaType;
+    private final String schema;
+    private final List<io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference>
+        references;
+    private final ParsedSchema parsedSchema;
+
+    Entry(String schemaType,
+          String schema,
+          List<io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference> references,
+          ParsedSchema parsedSchema) {
+      this.schemaType = schemaType;
+      this.schema = schema;
+      this.references = references;
+      this.parsedSchema = parsedSchema;
+    }
+
+    boolean matches(
+        String schemaType,
+        String schema,
+        List<io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference> references) {
+      // the text is compared by value; when the caller passes the stored string itself,
+      // String.equals returns on the identity check without comparing characters
+      return this.schemaType.equals(schemaType)
+          && this.schema.equals(schema)
+          && Objects.equals(this.references, references);
+    }
+
+    int weight() {
+      long weight = ENTRY_OVERHEAD_BYTES + (long) BYTES_PER_SCHEMA_CHAR * schema.length();
+      return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+  }
+
+  private static class SchemaIdKey {
+    private final String schemaType;
+    private final String qualifiedContext;
+    private final int id;
+
+    SchemaIdKey(String schemaType, String qualifiedContext, int id) {
+      this.schemaType = schemaType;
+      this.qualifiedContext = qualifiedContext;
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      SchemaIdKey that = (SchemaIdKey) o;
+      return id == that.id
+          && schemaType.equals(that.schemaType)
+          && qualifiedContext.equals(that.qualifiedContext);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(schemaType, qualifiedContext, id);
+    }
+  }
+
+  private static class SchemaHashKey {
+    private final String schemaType;
+    private final MD5 md5;
+
+    SchemaHashKey(String schemaType, MD5 md5) {
+      this.schemaType = schemaType;
+      this.md5 = md5;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      SchemaHashKey that = (SchemaHashKey) o;
+      return schemaType.equals(that.schemaType) && md5.equals(that.md5);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * schemaType.hashCode() + md5.hashCode();
+    }
+  }
+}
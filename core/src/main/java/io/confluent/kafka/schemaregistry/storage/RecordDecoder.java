@@ -0,0 +1,169 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage;
+
+import io.confluent.kafka.schemaregistry.storage.serialization.Serializer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deserializes the keys and values of batches of records for the reader thread, in offset order.
+ *
+ * <p>Large batches can be split into chunks that are deserialized in parallel. The records are
+ * still applied one at a time, in offset order, by the caller, so updates to the same key are
+ * applied in the order they were written. A record that fails to deserialize does not fail the
+ * batch; its exception is kept with the record, so that the caller can log and skip it.
+ */
+class RecordDecoder<K, V> {
+  private static final Logger log = LoggerFactory.getLogger(RecordDecoder.class);
+
+  private final Serializer<K, V> serializer;
+  private final K noopKey;
+  // smaller batches are decoded on the calling thread
+  private final int minParallelRecords;
+
+  RecordDecoder(Serializer<K, V> serializer, K noopKey, int minParallelRecords) {
+    this.serializer = serializer;
+    this.noopKey = noopKey;
+    this.minParallelRecords = minParallelRecords;
+  }
+
+  /**
+   * Deserializes the given records, in parallel on the executor if it is not null and there are
+   * enough records.
+   *
+   * @param records the records, in offset order
+   * @param executor the executor to deserialize chunks of records on, or null
+   * @param threads the number of chunks to split the records into
+   * @return the deserialized records, in the same order
+   */
+  List<DecodedRecord<K, V>> decode(List<ConsumerRecord<byte[], byte[]>> records,
+                                   ExecutorService executor,
+                                   int threads) {
+    if (executor == null || threads <= 1 || records.size() < minParallelRecords) {
+      return decodeAll(records);
+    }
+    int chunkSize = (records.size() + threads - 1) / threads;
+    List<List<ConsumerRecord<byte[], byte[]>>> chunks = new ArrayList<>(threads);
+    List<Future<List<DecodedRecord<K, V>>>> futures = new ArrayList<>(threads);
+    for (int from = 0; from < records.size(); from += chunkSize) {
+      List<ConsumerRecord<byte[], byte[]>> chunk =
+          records.subList(from, Math.min(from + chunkSize, records.size()));
+      chunks.add(chunk);
+      try {
+        futures.add(executor.submit(() -> decodeAll(chunk)));
+      } catch (RejectedExecutionException e) {
+        // the executor is shutting down, decode the chunk on this thread instead
+        futures.add(null);
+      }
+    }
+    List<DecodedRecord<K, V>> decoded = new ArrayList<>(records.size());
+    for (int i = 0; i < chunks.size(); i++) {
+      decoded.addAll(get(futures.get(i), chunks.get(i)));
+    }
+    return decoded;
+  }
+
+  /**
+   * Returns the result of a chunk, or decodes the chunk on this thread if it was not decoded.
+   */
+  private List<DecodedRecord<K, V>> get(Future<List<DecodedRecord<K, V>>> future,
+                                        List<ConsumerRecord<byte[], byte[]>> chunk) {
+    if (future != null) {
+      try {
+        return future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        future.cancel(true);
+      } catch (ExecutionException e) {
+        log.warn("Failed to deserialize records in parallel, retrying on the reader thread",
+            e.getCause());
+      }
+    }
+    return decodeAll(chunk);
+  }
+
+  private List<DecodedRecord<K, V>> decodeAll(List<ConsumerRecord<byte[], byte[]>> records) {
+    List<DecodedRecord<K, V>> decoded = new ArrayList<>(records.size());
+    for (ConsumerRecord<byte[], byte[]> record : records) {
+      decoded.add(decode(record));
+    }
+    return decoded;
+  }
+
+  DecodedRecord<K, V> decode(ConsumerRecord<byte[], byte[]> record) {
+    DecodedRecord<K, V> decoded = new DecodedRecord<>(record);
+    try {
+      decoded.key = serializer.deserializeKey(record.key());
+    } catch (Exception e) {
+      decoded.keyException = e;
+      return decoded;
+    }
+    if (!decoded.key.equals(noopKey) && record.value() != null) {
+      try {
+        decoded.value = serializer.deserializeValue(decoded.key, record.value());
+      } catch (Exception e) {
+        decoded.valueException = e;
+      }
+    }
+    return decoded;
+  }
+
+  static class DecodedRecord<K, V> {
+    private final ConsumerRecord<byte[], byte[]> record;
+    private K key;
+    private V value;
+    private Exception keyException;
+    private Exception valueException;
+
+    DecodedRecord(ConsumerRecord<byte[], byte[]> record) {
+      this.record = record;
+    }
+
+    ConsumerRecord<byte[], byte[]> record() {
+      return record;
+    }
+
+    K key() {
+      return key;
+    }
+
+    V value() {
+      return value;
+    }
+
+    /**
+     * The exception thrown while deserializing the key, or null.
+     */
+    Exception keyException() {
+      return keyException;
+    }
+
+    /**
+     * The exception thrown while deserializing the value, or null.
+     */
+    Exception valueException() {
+      return valueException;
+    }
+  }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.Weigher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
+import io.confluent.kafka.schemaregistry.utils.JacksonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of encoded responses for schema lookups by id.
+ *
+ * <p>The schema text of an id never changes while the id is in use, so a response body can be
+ * encoded once and served from memory until the store update handler sees a change to a schema
+ * with that id. Eviction is bounded by the total size of the cached bodies. The cached keys
+ * are indexed by id, so that invalidating an id does not scan the cache.
+ */
+public class SchemaResponseCache {
+
+  private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+  private final Cache<ResponseKey, EncodedResponse> cache;
+  // the keys of the cached responses of each id, in every context and format
+  private final ConcurrentMap<Integer, Set<ResponseKey>> keysById = new ConcurrentHashMap<>();
+  // bumped by every invalidation, so that a lookup that raced with one is not cached
+  private final AtomicLong generation = new AtomicLong();
+
+  public SchemaResponseCache(long maxWeightBytes) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxWeightBytes)
+        .weigher((Weigher<ResponseKey, EncodedResponse>)
+            (key, response) -> ENTRY_OVERHEAD_BYTES + response.body().length)
+        .removalListener((RemovalListener<ResponseKey, EncodedResponse>)
+            notification -> unindex(notification.getKey()))
+        .build();
+  }
+
+  public interface Loader {
+    SchemaString load() throws SchemaRegistryException;
+  }
+
+  /**
+   * Returns the encoded response for a lookup by id, calling the loader on a miss.
+   *
+   * @param tenant the tenant of the request
+   * @param id the schema id
+   * @param subject the subject query parameter, which selects the context, or null
+   * @param format the format query parameter, or null
+   * @param raw whether the response is the schema text only, rather than a
+   *     {@link SchemaString} as JSON
+   * @param loader looks up the schema on a miss
+   * @return the encoded response, or null if the loader did not find the schema
+   */
+  public EncodedResponse get(String tenant, int id, String subject, String format, boolean raw,
+                             Loader loader) throws SchemaRegistryException {
+    ResponseKey key = new ResponseKey(tenant, id, subject, format, raw);
+    EncodedResponse response = cache.getIfPresent(key);
+    if (response != null) {
+      return response;
+    }
+    long loadGeneration = generation.get();
+    try {
+      // concurrent misses for the same key wait for a single lookup
+      response = cache.get(key, () -> {
+        SchemaString schemaString = loader.load();
+        if (schemaString == null) {
+          throw new SchemaNotFoundException();
+        }
+        return encode(schemaString, raw);
+      });
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof SchemaNotFoundException) {
+        return null;
+      } else if (cause instanceof SchemaRegistryException) {
+        throw (SchemaRegistryException) cause;
+      } else {
+        throw new RuntimeException(e);
+      }
+    } catch (UncheckedExecutionException e) {
+      Throwable cause = e.getCause();
+      throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+    }
+    // indexed before the generation is checked, so that an invalidation either sees the key
+    // or bumps the generation
+    keysById.computeIfAbsent(id, i -> ConcurrentHashMap.newKeySet()).add(key);
+    if (generation.get() != loadGeneration) {
+      cache.invalidate(key);
+    }
+    return response;
+  }
+
+  /**
+   * Removes all responses for the given id. Ids are only unique within a context, so this
+   * drops the responses for the id in every context.
+   */
+  public void invalidate(int id) {
+    generation.incrementAndGet();
+    Set<ResponseKey> keys = keysById.remove(id);
+    if (keys != null) {
+      cache.invalidateAll(keys);
+    }
+  }
+
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  int indexedKeys() {
+    return keysById.values().stream().mapToInt(Set::size).sum();
+  }
+
+  // a removal can be notified after the same key was loaded again, so keep it if it is cached
+  private void unindex(ResponseKey key) {
+    keysById.computeIfPresent(key.id, (id, keys) -> {
+      if (!cache.asMap().containsKey(key)) {
+        keys.remove(key);
+      }
+      return keys.isEmpty() ? null : keys;
+    });
+  }
+
+  private static EncodedResponse encode(SchemaString schemaString, boolean raw)
+      throws SchemaRegistryException {
+    byte[] body;
+    if (raw) {
+      body = schemaString.getSchemaString().getBytes(StandardCharsets.UTF_8);
+    } else {
+      try {
+        body = JacksonMapper.INSTANCE.writeValueAsBytes(schemaString);
+      } catch (IOException e) {
+        throw new SchemaRegistryException("Failed to encode schema response", e);
+      }
+    }
+    return new EncodedResponse(
+        body, Hashing.murmur3_128().hashBytes(body).toString(), schemaString);
+  }
+
+  private static class SchemaNotFoundException extends Exception {
+    SchemaNotFoundException() {
+      super(null, null, false, false);
+    }
+  }
+
+  public static class EncodedResponse {
+    private final byte[] body;
+    private final String etag;
+    private final SchemaString schemaString;
+
+    EncodedResponse(byte[] body, String etag, SchemaString schemaString) {
+      this.body = body;
+      this.etag = etag;
+      this.schemaString = schemaString;
+    }
+
+    /**
+     * The encoded body, which must not be modified.
+     */
+    public byte[] body() {
+      return body;
+    }
+
+    /**
+     * An entity tag for the body, without quotes.
+     */
+    public String etag() {
+      return etag;
+    }
+
+    /**
+     * The response that was encoded, which must not be modified.
+     */
+    public SchemaString schemaString() {
+      return schemaString;
+    }
+
+    /**
+     * Returns whether an If-None-Match header matches the entity tag of the body.
+     */
+    public boolean matches(String ifNoneMatch) {
+      if (ifNoneMatch == null) {
+        return false;
+      }
+      for (String candidate : ifNoneMatch.split(",")) {
+        candidate = candidate.trim();
+        if (candidate.equals("*")) {
+          return true;
+        }
+        if (candidate.startsWith("W/")) {
+          candidate = candidate.substring(2);
+        }
+        if (candidate.length() >= 2 && candidate.startsWith("\"") && candidate.endsWith("\"")) {
+          candidate = candidate.substring(1, candidate.length() - 1);
+        }
+        if (candidate.equals(etag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static class ResponseKey {
+    private final String tenant;
+    private final int id;
+    private final String subject;
+    private final String format;
+    private final boolean raw;
+
+    ResponseKey(String tenant, int id, String subject, String format, boolean raw) {
+      this.tenant = tenant;
+      this.id = id;
+      this.subject = subject;
+      this.format = format;
+      this.raw = raw;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      ResponseKey that = (ResponseKey) o;
+      return id == that.id
+          && raw == that.raw
+          && Objects.equals(tenant, that.tenant)
+          && Objects.equals(subject, that.subject)
+          && Objects.equals(format, that.format);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(tenant, id, subject, format, raw);
+    }
+  }
+}
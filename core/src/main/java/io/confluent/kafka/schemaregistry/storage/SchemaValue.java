@@ -177,7 +177,7 @@ public class SchemaValue extends SubjectValue implements Comparable<SchemaValue>
     if (!this.references.equals(that.getReferences())) {
       return false;
     }
-    if (!this.schema.equals(that.schema)) {
+    if (!this.getSchema().equals(that.getSchema())) {
       return false;
     }
     if (deleted != that.deleted) {
@@ -193,7 +193,7 @@ public class SchemaValue extends SubjectValue implements Comparable<SchemaValue>
     result = 31 * result + version;
     result = 31 * result + id.intValue();
     result = 31 * result + (schemaType != null ? schemaType.hashCode() : 0);
-    result = 31 * result + schema.hashCode();
+    result = 31 * result + getSchema().hashCode();
     result = 31 * result + references.hashCode();
     result = 31 * result + (deleted ? 1 : 0);
     return result;
@@ -207,7 +207,7 @@ public class SchemaValue extends SubjectValue implements Comparable<SchemaValue>
     sb.append("id=" + this.id + ",");
     sb.append("schemaType=" + this.schemaType + ",");
     sb.append("references=" + this.references + ",");
-    sb.append("schema=" + this.schema + ",");
+    sb.append("schema=" + this.getSchema() + ",");
     sb.append("deleted=" + this.deleted + "}");
     return sb.toString();
   }
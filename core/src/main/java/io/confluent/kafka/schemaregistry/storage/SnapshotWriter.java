@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage;
+
+import io.confluent.kafka.schemaregistry.storage.exceptions.SerializationException;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
+import io.confluent.kafka.schemaregistry.storage.serialization.Serializer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.kafka.common.record.RecordBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes snapshots of a local store in the background, for the reader thread.
+ *
+ * <p>The reader thread copies the entries of the store, which only copies references, and the
+ * copy is serialized and written to the snapshot on the given executor, so that the reader
+ * thread can keep applying records meanwhile. Values that are changed in place after the copy
+ * is taken, such as versions that are marked deleted, are only written as they were if the
+ * change is made by a record after the checkpointed offset, which is replayed on restore.
+ *
+ * <p>Every value must be a {@link SchemaRegistryValue} that knows its offset, as the snapshot
+ * is restored in offset order. A store with a value whose offset is unknown is not written.
+ */
+class SnapshotWriter<K, V> {
+  private static final Logger log = LoggerFactory.getLogger(SnapshotWriter.class);
+
+  private final StoreSnapshot snapshot;
+  private final Serializer<K, V> serializer;
+  private final Executor executor;
+  private final AtomicBoolean failed = new AtomicBoolean();
+  // only accessed from the reader thread
+  private CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+
+  SnapshotWriter(StoreSnapshot snapshot, Serializer<K, V> serializer, Executor executor) {
+    this.snapshot = snapshot;
+    this.serializer = serializer;
+    this.executor = executor;
+  }
+
+  /**
+   * Copies the store, and writes the copy to the snapshot in the background, after which
+   * {@code onWritten} is run on the background thread.
+   *
+   * @return whether the snapshot was started; false if the previous snapshot is still being
+   *     written, or if the store could not be copied
+   */
+  boolean write(Store<K, V> store, Runnable onWritten) {
+    if (!pending.isDone()) {
+      log.debug("Not writing snapshot {}, as the previous one is still being written", snapshot);
+      return false;
+    }
+    List<Record<K, V>> records = copy(store);
+    if (records == null) {
+      return false;
+    }
+    try {
+      pending = CompletableFuture.runAsync(() -> save(records, onWritten), executor);
+    } catch (RejectedExecutionException e) {
+      // the reader thread is shutting down
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether a snapshot failed to be written since the last call, in which case the
+   * store should be written again.
+   */
+  boolean failed() {
+    return failed.getAndSet(false);
+  }
+
+  private List<Record<K, V>> copy(Store<K, V> store) {
+    List<Record<K, V>> records = new ArrayList<>();
+    try (CloseableIterator<K> keys = store.getAllKeys()) {
+      while (keys.hasNext()) {
+        K key = keys.next();
+        V value = store.get(key);
+        if (value == null) {
+          continue;
+        }
+        Long offset = value instanceof SchemaRegistryValue
+            ? ((SchemaRegistryValue) value).getOffset()
+            : null;
+        if (offset == null) {
+          log.warn("Not writing snapshot {}, as the offset of {} is unknown", snapshot, key);
+          return null;
+        }
+        Long timestamp = ((SchemaRegistryValue) value).getTimestamp();
+        records.add(new Record<>(key, value, offset,
+            timestamp != null ? timestamp : RecordBatch.NO_TIMESTAMP));
+      }
+    } catch (StoreException e) {
+      log.warn("Failed to copy the store for snapshot {}", snapshot, e);
+      return null;
+    }
+    return records;
+  }
+
+  private void save(List<Record<K, V>> records, Runnable onWritten) {
+    // restore the records in the order they were written, like a compacted topic
+    records.sort(Comparator.comparingLong(record -> record.offset));
+    List<StoreSnapshot.Entry> entries = new ArrayList<>(records.size());
+    try {
+      for (Record<K, V> record : records) {
+        entries.add(new StoreSnapshot.Entry(record.offset, record.timestamp,
+            serializer.serializeKey(record.key), serializer.serializeValue(record.value)));
+      }
+      snapshot.write(entries);
+    } catch (SerializationException | IOException | RuntimeException e) {
+      log.warn("Failed to write snapshot file to {}", snapshot, e);
+      failed.set(true);
+      return;
+    }
+    onWritten.run();
+    log.debug("Wrote {} records to snapshot {}", entries.size(), snapshot);
+  }
+
+  private static class Record<K, V> {
+    private final K key;
+    private final V value;
+    private final long offset;
+    private final long timestamp;
+
+    Record(K key, V value, long offset, long timestamp) {
+      this.key = key;
+      this.value = value;
+      this.offset = offset;
+      this.timestamp = timestamp;
+    }
+  }
+}
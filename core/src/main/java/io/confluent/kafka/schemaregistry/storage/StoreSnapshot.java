@@ -0,0 +1,223 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class saves the records of a local store to a file next to the offset checkpoint, so
+ * that a restarting node can restore the store from the file and only read the topic from the
+ * checkpointed offset onwards.
+ *
+ * <p>The file holds the latest record for each key, in offset order, like a compacted topic.
+ * The format is binary:
+ * <pre>
+ *   &lt;magic&gt; &lt;version&gt; &lt;n&gt;
+ *   &lt;offset_1&gt; &lt;timestamp_1&gt; &lt;key_size_1&gt; &lt;key_1&gt; &lt;value_size_1&gt; &lt;value_1&gt;
+ *   .
+ *   .
+ *   .
+ *   &lt;offset_n&gt; &lt;timestamp_n&gt; &lt;key_size_n&gt; &lt;key_n&gt; &lt;value_size_n&gt; &lt;value_n&gt;
+ *   &lt;crc&gt;
+ * </pre>
+ * where the magic, version, count and sizes are ints, the offsets, timestamps and CRC32 of all
+ * preceding bytes are longs, and keys and values are in the serialized form of the store.
+ */
+public class StoreSnapshot {
+  private static final Logger log = LoggerFactory.getLogger(StoreSnapshot.class);
+
+  public static final String SNAPSHOT_FILE_NAME = ".snapshot";
+
+  private static final int MAGIC = 0x53525353;
+  private static final int VERSION = 0;
+  // magic, version and count
+  private static final int HEADER_SIZE = 4 + 4 + 4;
+  // offset, timestamp, key size and value size
+  private static final int MIN_ENTRY_SIZE = 8 + 8 + 4 + 4;
+  private static final int CRC_SIZE = 8;
+
+  private final File file;
+
+  public StoreSnapshot(String checkpointDir, String topic) {
+    this.file = new File(new File(checkpointDir, topic), SNAPSHOT_FILE_NAME);
+  }
+
+  public static class Entry {
+    private final long offset;
+    private final long timestamp;
+    private final byte[] key;
+    private final byte[] value;
+
+    public Entry(long offset, long timestamp, byte[] key, byte[] value) {
+      this.offset = offset;
+      this.timestamp = timestamp;
+      this.key = key;
+      this.value = value;
+    }
+
+    public long offset() {
+      return offset;
+    }
+
+    public long timestamp() {
+      return timestamp;
+    }
+
+    public byte[] key() {
+      return key;
+    }
+
+    public byte[] value() {
+      return value;
+    }
+  }
+
+  /**
+   * Writes the given entries, which should be in offset order, replacing any previous snapshot.
+   *
+   * @throws IOException if any file operation fails with an IO exception
+   */
+  public void write(List<Entry> entries) throws IOException {
+    final File temp = new File(file.getAbsolutePath() + ".tmp");
+    log.trace("Writing tmp snapshot file {}", temp.getAbsolutePath());
+
+    final FileOutputStream fileOutputStream = new FileOutputStream(temp);
+    final CRC32 crc = new CRC32();
+    try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+        new BufferedOutputStream(fileOutputStream), crc))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(entries.size());
+      for (Entry entry : entries) {
+        out.writeLong(entry.offset);
+        out.writeLong(entry.timestamp);
+        out.writeInt(entry.key.length);
+        out.write(entry.key);
+        out.writeInt(entry.value.length);
+        out.write(entry.value);
+      }
+      out.writeLong(crc.getValue());
+      out.flush();
+      fileOutputStream.getFD().sync();
+    }
+
+    log.trace("Swapping tmp snapshot file {} {}", temp.toPath(), file.toPath());
+    Utils.atomicMoveWithFallback(temp.toPath(), file.toPath());
+  }
+
+  /**
+   * Reads the entries of the snapshot, mapping the file into memory.
+   *
+   * @return the entries in offset order, or null if there is no readable snapshot
+   */
+  public List<Entry> read() {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return read(buffer);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | RuntimeException e) {
+      log.warn("Ignoring unreadable snapshot file {}", file, e);
+      return null;
+    }
+  }
+
+  private List<Entry> read(ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < HEADER_SIZE + CRC_SIZE) {
+      throw new IOException("Snapshot file ended prematurely");
+    }
+    // check the whole file before trusting any of the sizes in it
+    int end = buffer.limit() - CRC_SIZE;
+    long expectedCrc = buffer.getLong(end);
+    CRC32 crc = new CRC32();
+    ByteBuffer content = buffer.duplicate();
+    content.limit(end);
+    crc.update(content);
+    if (crc.getValue() != expectedCrc) {
+      throw new IOException("Snapshot checksum mismatch");
+    }
+    buffer.limit(end);
+    try {
+      if (buffer.getInt() != MAGIC) {
+        throw new IOException("Not a snapshot file");
+      }
+      int version = buffer.getInt();
+      if (version != VERSION) {
+        log.warn("Ignoring snapshot file {} with unknown version {}", file, version);
+        return null;
+      }
+      int count = buffer.getInt();
+      if (count < 0 || count > buffer.remaining() / MIN_ENTRY_SIZE) {
+        throw new IOException("Invalid snapshot entry count " + count);
+      }
+      List<Entry> entries = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        long offset = buffer.getLong();
+        long timestamp = buffer.getLong();
+        byte[] key = readBytes(buffer);
+        byte[] value = readBytes(buffer);
+        entries.add(new Entry(offset, timestamp, key, value));
+      }
+      if (buffer.hasRemaining()) {
+        throw new IOException("Unexpected bytes after the snapshot entries");
+      }
+      return Collections.unmodifiableList(entries);
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Snapshot file ended prematurely", e);
+    }
+  }
+
+  private static byte[] readBytes(ByteBuffer buffer) throws IOException {
+    int size = buffer.getInt();
+    if (size < 0 || size > buffer.remaining()) {
+      throw new IOException("Invalid snapshot entry size " + size);
+    }
+    byte[] bytes = new byte[size];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * @throws IOException if there is any IO exception during delete
+   */
+  public void delete() throws IOException {
+    Files.deleteIfExists(file.toPath());
+  }
+
+  @Override
+  public String toString() {
+    return file.getAbsolutePath();
+  }
+}
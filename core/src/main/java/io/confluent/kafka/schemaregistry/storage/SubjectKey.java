@@ -18,13 +18,23 @@ package io.confluent.kafka.schemaregistry.storage;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import io.confluent.kafka.schemaregistry.utils.QualifiedSubject;
 import java.util.Objects;
 
+import static io.confluent.kafka.schemaregistry.utils.QualifiedSubject.DEFAULT_TENANT;
+
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 @JsonIgnoreProperties(ignoreUnknown = true)
 public abstract class SubjectKey extends SchemaRegistryKey {
 
+  private static final char DEFAULT_TENANT_MODE = 'd';
+  private static final char OTHER_TENANT_MODE = 'n';
+  // sorts before any other character, so that a name sorts before its extensions
+  private static final char SORT_KEY_SEPARATOR = '\u0000';
+
   private String subject;
+  // like String.hash, this is safe to compute racily since Strings are immutable
+  private transient String cachedSortKey;
 
   public SubjectKey(@JsonProperty("keytype") SchemaRegistryKeyType keyType,
                     @JsonProperty("subject") String subject) {
@@ -40,6 +50,45 @@ public abstract class SubjectKey extends SchemaRegistryKey {
   @JsonProperty("subject")
   public void setSubject(String subject) {
     this.subject = subject;
+    this.cachedSortKey = null;
+  }
+
+  /**
+   * Returns a string whose natural ordering is the ordering of the qualified subjects, by
+   * tenant, context and then subject name. It is computed once per key and then cached, so
+   * that comparisons in the store neither parse nor allocate.
+   *
+   * <p>Parsing only depends on whether the tenant is the default tenant, since otherwise the
+   * tenant is taken from the subject itself, so that is recorded in the first character.
+   *
+   * @param tenant the tenant of the lookup cache, or null to derive it from the subject
+   * @return the sort key
+   */
+  String sortKey(String tenant) {
+    char mode = DEFAULT_TENANT.equals(tenant) ? DEFAULT_TENANT_MODE : OTHER_TENANT_MODE;
+    String key = cachedSortKey;
+    if (key == null || key.charAt(0) != mode) {
+      key = sortKey(mode, QualifiedSubject.create(tenant, subject));
+      cachedSortKey = key;
+    }
+    return key;
+  }
+
+  /**
+   * Returns the sort key of the given subject; see {@link #sortKey(String)}.
+   */
+  static String sortKey(String tenant, String subject) {
+    char mode = DEFAULT_TENANT.equals(tenant) ? DEFAULT_TENANT_MODE : OTHER_TENANT_MODE;
+    return sortKey(mode, QualifiedSubject.create(tenant, subject));
+  }
+
+  private static String sortKey(char mode, QualifiedSubject qs) {
+    if (qs == null) {
+      // the global scope sorts before any subject
+      return String.valueOf(mode);
+    }
+    return mode + qs.getTenant() + SORT_KEY_SEPARATOR + qs.getContext() + SORT_KEY_SEPARATOR
+        + qs.getSubject();
   }
 
   @Override
@@ -15,8 +15,6 @@
 
 package io.confluent.kafka.schemaregistry.storage;
 
-import io.confluent.kafka.schemaregistry.utils.QualifiedSubject;
-
 import java.util.Comparator;
 
 public class SubjectKeyComparator<K> implements Comparator<K> {
@@ -43,29 +41,28 @@ public class SubjectKeyComparator<K> implements Comparator<K> {
       }
       // If the lookup cache is null, the tenant will be derived from the subject
       String tenant = lookupCache != null ? lookupCache.tenant() : null;
-      QualifiedSubject qs1 = QualifiedSubject.create(tenant, s1.getSubject());
-      QualifiedSubject qs2 = QualifiedSubject.create(tenant, s2.getSubject());
-      if (qs1 == null && qs2 == null) {
-        return 0;
-      } else if (qs1 == null) {
-        return -1;
-      } else if (qs2 == null) {
-        return 1;
+      cmp = s1.sortKey(tenant).compareTo(s2.sortKey(tenant));
+      if (cmp != 0) {
+        return cmp;
+      }
+      if (s1 instanceof SchemaKey && s2 instanceof SchemaKey) {
+        SchemaKey sk1 = (SchemaKey) o1;
+        SchemaKey sk2 = (SchemaKey) o2;
+        return sk1.getVersion() - sk2.getVersion();
       } else {
-        cmp = qs1.compareTo(qs2);
-        if (cmp != 0) {
-          return cmp;
-        }
-        if (s1 instanceof SchemaKey && s2 instanceof SchemaKey) {
-          SchemaKey sk1 = (SchemaKey) o1;
-          SchemaKey sk2 = (SchemaKey) o2;
-          return sk1.getVersion() - sk2.getVersion();
-        } else {
-          return 0;
-        }
+        return 0;
       }
     } else {
       return ((Comparable) o1).compareTo(o2);
     }
   }
+
+  /**
+   * Compares two subjects by their qualified form, ordering null (the global scope) first.
+   */
+  public int compareSubjects(String subject1, String subject2) {
+    // If the lookup cache is null, the tenant will be derived from the subject
+    String tenant = lookupCache != null ? lookupCache.tenant() : null;
+    return SubjectKey.sortKey(tenant, subject1).compareTo(SubjectKey.sortKey(tenant, subject2));
+  }
 }
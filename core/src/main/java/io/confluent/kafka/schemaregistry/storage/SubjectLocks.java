@@ -0,0 +1,271 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage;
+
+import com.google.common.util.concurrent.Striped;
+import io.confluent.kafka.schemaregistry.utils.QualifiedSubject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hands out the locks that serialize writes on the leader.
+ *
+ * <p>Writes to different subjects may proceed concurrently. The locks form a hierarchy:
+ * <ul>
+ *   <li>a write to the global scope (a {@code null} subject) holds the global lock exclusively;
+ *   <li>a write to a context (a qualified context with an empty subject name, such as a
+ *   context-level config or mode) holds the global lock shared and its context lock
+ *   exclusively;
+ *   <li>a write to a subject holds the global and context locks shared, and the lock stripe
+ *   for the subject.
+ * </ul>
+ * A write that depends on other subjects, such as a registration with references, also holds
+ * the stripes of those subjects and their context locks shared, so that it cannot race with
+ * their deletion. Several locks of the same level are acquired in stripe order.
+ * Schema locks are taken last, while a subject lock is held, to serialize the lookup and ID
+ * assignment of the same schema under different subjects. Locks are always acquired in the
+ * order global, context, subject, schema, which rules out deadlocks.
+ */
+public class SubjectLocks {
+
+  private final ReadWriteLock globalLock = new ReentrantReadWriteLock();
+  private final Striped<ReadWriteLock> contextLocks;
+  private final Striped<Lock> subjectLocks;
+  private final Striped<Lock> schemaLocks;
+
+  public SubjectLocks(int stripes) {
+    if (stripes < 1) {
+      throw new IllegalArgumentException("Number of lock stripes must be positive");
+    }
+    this.contextLocks = Striped.readWriteLock(stripes);
+    this.subjectLocks = Striped.lock(stripes);
+    this.schemaLocks = Striped.lock(stripes);
+  }
+
+  /**
+   * Returns the lock guarding writes to the given subject or scope.
+   *
+   * @param tenant the tenant
+   * @param subject the qualified subject, a qualified context, or null for the global scope
+   * @return the lock; the same locks are acquired by every call with equal arguments
+   */
+  public Lock lockFor(String tenant, String subject) {
+    QualifiedSubject qs = QualifiedSubject.create(tenant, subject);
+    if (qs == null) {
+      return globalLock.writeLock();
+    }
+    ReadWriteLock contextLock = contextLocks.get(new ContextId(qs.getTenant(), qs.getContext()));
+    if (qs.getSubject().isEmpty()) {
+      return new HierarchicalLock(globalLock.readLock(), contextLock.writeLock());
+    }
+    return new HierarchicalLock(globalLock.readLock(), contextLock.readLock(),
+        subjectLocks.get(qs));
+  }
+
+  /**
+   * Returns the lock guarding a write to the given subject that depends on other subjects,
+   * such as a registration whose references must not be deleted concurrently.
+   *
+   * @param tenant the tenant
+   * @param subject the qualified subject
+   * @param otherSubjects the qualified subjects the write depends on
+   * @return the lock; it excludes writes to any of the subjects
+   */
+  public Lock lockFor(String tenant, String subject, Collection<String> otherSubjects) {
+    QualifiedSubject qs = QualifiedSubject.create(tenant, subject);
+    if (otherSubjects.isEmpty() || qs == null || qs.getSubject().isEmpty()) {
+      return lockFor(tenant, subject);
+    }
+    List<ContextId> contexts = new ArrayList<>();
+    List<QualifiedSubject> subjects = new ArrayList<>();
+    contexts.add(new ContextId(qs.getTenant(), qs.getContext()));
+    subjects.add(qs);
+    for (String otherSubject : otherSubjects) {
+      QualifiedSubject other = QualifiedSubject.create(tenant, otherSubject);
+      if (other != null && !other.getSubject().isEmpty()) {
+        contexts.add(new ContextId(other.getTenant(), other.getContext()));
+        subjects.add(other);
+      }
+    }
+    // bulkGet orders the stripes by index; subjects sharing a stripe share a lock
+    Set<Lock> locks = new LinkedHashSet<>();
+    locks.add(globalLock.readLock());
+    for (ReadWriteLock contextLock : contextLocks.bulkGet(contexts)) {
+      locks.add(contextLock.readLock());
+    }
+    for (Lock subjectLock : subjectLocks.bulkGet(subjects)) {
+      locks.add(subjectLock);
+    }
+    return new HierarchicalLock(locks.toArray(new Lock[0]));
+  }
+
+  /**
+   * Returns the lock guarding the lookup and ID assignment of a schema within a context.
+   *
+   * @param context the context of the subject the schema is registered under
+   * @param schemaKey the canonical schema string, or the requested ID when importing
+   * @return the lock
+   */
+  public Lock lockForSchema(String context, Object schemaKey) {
+    return schemaLocks.get(new SchemaId(context, schemaKey));
+  }
+
+  private static class ContextId {
+    private final String tenant;
+    private final String context;
+
+    ContextId(String tenant, String context) {
+      this.tenant = tenant;
+      this.context = context;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      ContextId that = (ContextId) o;
+      return Objects.equals(tenant, that.tenant) && Objects.equals(context, that.context);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(tenant, context);
+    }
+  }
+
+  private static class SchemaId {
+    private final String context;
+    private final Object schemaKey;
+
+    SchemaId(String context, Object schemaKey) {
+      this.context = context;
+      this.schemaKey = schemaKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      SchemaId that = (SchemaId) o;
+      return Objects.equals(context, that.context) && Objects.equals(schemaKey, that.schemaKey);
+    }
+
+    @Override
+    public int hashCode() {
+      // String caches its hash code, so this stays cheap for large schemas
+      return Objects.hash(context, schemaKey);
+    }
+  }
+
+  /**
+   * Acquires the given locks in order and releases them in reverse order.
+   */
+  static class HierarchicalLock implements Lock {
+    private final Lock[] locks;
+
+    HierarchicalLock(Lock... locks) {
+      this.locks = locks;
+    }
+
+    @Override
+    public void lock() {
+      for (Lock lock : locks) {
+        lock.lock();
+      }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+      int acquired = 0;
+      try {
+        for (Lock lock : locks) {
+          lock.lockInterruptibly();
+          acquired++;
+        }
+      } finally {
+        if (acquired < locks.length) {
+          unlock(acquired);
+        }
+      }
+    }
+
+    @Override
+    public boolean tryLock() {
+      int acquired = 0;
+      for (Lock lock : locks) {
+        if (!lock.tryLock()) {
+          unlock(acquired);
+          return false;
+        }
+        acquired++;
+      }
+      return true;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+      long deadline = System.nanoTime() + unit.toNanos(time);
+      int acquired = 0;
+      try {
+        for (Lock lock : locks) {
+          if (!lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            return false;
+          }
+          acquired++;
+        }
+        return true;
+      } finally {
+        if (acquired < locks.length) {
+          unlock(acquired);
+        }
+      }
+    }
+
+    @Override
+    public void unlock() {
+      unlock(locks.length);
+    }
+
+    private void unlock(int count) {
+      for (int i = count - 1; i >= 0; i--) {
+        locks[i].unlock();
+      }
+    }
+
+    @Override
+    public Condition newCondition() {
+      throw new UnsupportedOperationException("Conditions are not supported");
+    }
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage;
+
+import io.confluent.kafka.schemaregistry.metrics.MetricsContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Times the phases of a write to the registry, such as registering a schema.
+ *
+ * <p>The timer of a write is bound to the thread that started it, so that the Kafka store can
+ * mark the phases of the store write without it being passed along. Each phase lasts from the
+ * end of the previous one; a phase that occurs more than once, such as the store writes of a
+ * delete, adds up. Starting a timer while one is running joins the running one, so that a write
+ * is timed once from its outermost call.
+ *
+ * <p>A timer is only updated by its writing thread. The group committer, which sends the
+ * write while the writing thread waits for it, marks the end of its phases with
+ * {@link #markPhaseEnd}, and the writing thread merges those marks with its next phase.
+ *
+ * <p>When the write finishes, the time of each phase that occurred and the total are recorded
+ * in the {@code write-phase-latency-ms} histograms of the operation, and a write slower than
+ * the threshold is logged with its breakdown.
+ */
+class WriteTimer {
+
+  private static final Logger log = LoggerFactory.getLogger(WriteTimer.class);
+
+  private static final ThreadLocal<WriteTimer> CURRENT = new ThreadLocal<>();
+
+  static final String TOTAL = "total";
+
+  enum Phase {
+    // waiting for the subject or schema lock
+    LOCK("lock"),
+    // waiting for the local store to catch up before reading it
+    CATCH_UP("catch-up"),
+    PARSE("parse"),
+    COMPATIBILITY("compatibility"),
+    // preparing the records of a store write
+    PREPARE("prepare"),
+    // waiting for the group commit of the store write to start
+    QUEUE("queue"),
+    // waiting for Kafka to ack the store write
+    PRODUCE("produce"),
+    // waiting for the local store to apply the store write
+    APPLY("apply"),
+    // a follower forwarding the write to the leader
+    FORWARD("forward");
+
+    private final String label;
+
+    Phase(String label) {
+      this.label = label;
+    }
+  }
+
+  private final String operation;
+  private final String subject;
+  private final MetricsContainer metricsContainer;
+  private final long slowThresholdMs;
+  private final long startNanos;
+  // only accessed from the writing thread
+  private final long[] phaseNanos = new long[Phase.values().length];
+  private long lastMarkNanos;
+  private int marked;
+  private int depth = 1;
+  // the end of phases marked by other threads, until the writing thread merges them
+  private final AtomicLongArray pendingEndNanos = new AtomicLongArray(Phase.values().length);
+  private final AtomicInteger pending = new AtomicInteger();
+
+  private WriteTimer(String operation, String subject, MetricsContainer metricsContainer,
+                     long slowThresholdMs) {
+    this.operation = operation;
+    this.subject = subject;
+    this.metricsContainer = metricsContainer;
+    this.slowThresholdMs = slowThresholdMs;
+    this.startNanos = System.nanoTime();
+    this.lastMarkNanos = startNanos;
+  }
+
+  /**
+   * Starts timing a write on this thread, or joins the write already being timed.
+   *
+   * @param slowThresholdMs the time in ms above which the write is logged, or 0 for never
+   */
+  static WriteTimer start(String operation, String subject, MetricsContainer metricsContainer,
+                          long slowThresholdMs) {
+    WriteTimer timer = CURRENT.get();
+    if (timer != null) {
+      timer.depth++;
+      return timer;
+    }
+    timer = new WriteTimer(operation, subject, metricsContainer, slowThresholdMs);
+    CURRENT.set(timer);
+    return timer;
+  }
+
+  /**
+   * Returns the timer of the write on this thread, or null if none is being timed.
+   */
+  static WriteTimer current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Ends the phase of the write being timed on this thread, if any.
+   */
+  static void endCurrentPhase(Phase phase) {
+    WriteTimer timer = CURRENT.get();
+    if (timer != null) {
+      timer.endPhase(phase);
+    }
+  }
+
+  void endPhase(Phase phase) {
+    mergePendingPhases();
+    addPhase(phase, System.nanoTime());
+  }
+
+  /**
+   * Marks the end of a phase from another thread than the writing one. The phase is added to
+   * the timer by the writing thread when it ends its next phase or finishes the write.
+   */
+  void markPhaseEnd(Phase phase) {
+    pendingEndNanos.set(phase.ordinal(), System.nanoTime());
+    pending.getAndUpdate(bits -> bits | 1 << phase.ordinal());
+  }
+
+  private void mergePendingPhases() {
+    int bits = pending.getAndSet(0);
+    // phases are marked in the order they occur
+    for (Phase phase : Phase.values()) {
+      if ((bits & (1 << phase.ordinal())) != 0) {
+        addPhase(phase, pendingEndNanos.get(phase.ordinal()));
+      }
+    }
+  }
+
+  private void addPhase(Phase phase, long endNanos) {
+    phaseNanos[phase.ordinal()] += Math.max(0L, endNanos - lastMarkNanos);
+    marked |= 1 << phase.ordinal();
+    lastMarkNanos = Math.max(lastMarkNanos, endNanos);
+  }
+
+  /**
+   * Finishes the write, unless this call joined a write started further up the stack.
+   */
+  void finish() {
+    if (--depth > 0) {
+      return;
+    }
+    CURRENT.remove();
+    mergePendingPhases();
+    long totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    int phases = marked;
+    for (Phase phase : Phase.values()) {
+      if ((phases & (1 << phase.ordinal())) != 0) {
+        metricsContainer.getWritePhaseLatencyMs(operation, phase.label).record(
+            TimeUnit.NANOSECONDS.toMillis(phaseNanos[phase.ordinal()]));
+      }
+    }
+    metricsContainer.getWritePhaseLatencyMs(operation, TOTAL).record(totalMs);
+    if (slowThresholdMs > 0 && totalMs > slowThresholdMs) {
+      log.warn("Slow {} of subject {} took {} ms: {}", operation, subject, totalMs, breakdown());
+    }
+  }
+
+  String breakdown() {
+    StringBuilder sb = new StringBuilder();
+    int phases = marked;
+    for (Phase phase : Phase.values()) {
+      if ((phases & (1 << phase.ordinal())) != 0) {
+        if (sb.length() > 0) {
+          sb.append(", ");
+        }
+        sb.append(phase.label).append('=')
+            .append(TimeUnit.NANOSECONDS.toMillis(phaseNanos[phase.ordinal()])).append(" ms");
+      }
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage.serialization;
+
+import io.confluent.kafka.schemaregistry.storage.SchemaReference;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import io.confluent.kafka.schemaregistry.storage.exceptions.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A binary encoding of schema values in the Kafka store, which avoids parsing JSON and
+ * unescaping the schema text when the store is read.
+ *
+ * <p>An encoded value starts with a magic byte that can not start a JSON document, followed by
+ * the version of the format, so that values in either encoding can be read from the same topic.
+ * Version 1 is:
+ * <pre>
+ *   &lt;magic&gt; &lt;version&gt; &lt;flags&gt; &lt;subject&gt; [&lt;version&gt;] [&lt;id&gt;]
+ *   &lt;schema_type&gt; &lt;n&gt; &lt;reference_1&gt; ... &lt;reference_n&gt; &lt;schema&gt;
+ *   [&lt;offset&gt;] [&lt;timestamp&gt;]
+ * </pre>
+ * where the flags are a byte that records whether the optional fields are present and whether
+ * the schema is deleted, the version, id and count are ints, the offset and timestamp are
+ * longs, strings are an int length followed by UTF-8 bytes, with -1 for null, and a reference
+ * is its name, subject and a nullable int version.
+ */
+final class BinarySchemaValueFormat {
+
+  static final byte MAGIC = 0;
+  static final byte VERSION = 1;
+
+  private static final int HAS_VERSION = 1;
+  private static final int HAS_ID = 1 << 1;
+  private static final int DELETED = 1 << 2;
+  private static final int HAS_OFFSET = 1 << 3;
+  private static final int HAS_TIMESTAMP = 1 << 4;
+
+  private BinarySchemaValueFormat() {
+  }
+
+  static boolean isBinary(byte[] value) {
+    return value.length > 0 && value[0] == MAGIC;
+  }
+
+  static byte[] encode(SchemaValue value) throws SerializationException {
+    String schema = value.getSchema();
+    ByteArrayOutputStream bytes =
+        new ByteArrayOutputStream(64 + (schema != null ? schema.length() : 0));
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(MAGIC);
+      out.writeByte(VERSION);
+      int flags = (value.getVersion() != null ? HAS_VERSION : 0)
+          | (value.getId() != null ? HAS_ID : 0)
+          | (value.isDeleted() ? DELETED : 0)
+          | (value.getOffset() != null ? HAS_OFFSET : 0)
+          | (value.getTimestamp() != null ? HAS_TIMESTAMP : 0);
+      out.writeByte(flags);
+      writeString(out, value.getSubject());
+      if (value.getVersion() != null) {
+        out.writeInt(value.getVersion());
+      }
+      if (value.getId() != null) {
+        out.writeInt(value.getId());
+      }
+      writeString(out, value.getSchemaType());
+      List<SchemaReference> references = value.getReferences();
+      if (references == null) {
+        references = Collections.emptyList();
+      }
+      out.writeInt(references.size());
+      for (SchemaReference reference : references) {
+        writeString(out, reference.getName());
+        writeString(out, reference.getSubject());
+        out.writeInt(reference.getVersion() != null ? reference.getVersion() : -1);
+      }
+      writeString(out, schema);
+      if (value.getOffset() != null) {
+        out.writeLong(value.getOffset());
+      }
+      if (value.getTimestamp() != null) {
+        out.writeLong(value.getTimestamp());
+      }
+    } catch (IOException e) {
+      throw new SerializationException("Error while serializing schema value " + value, e);
+    }
+    return bytes.toByteArray();
+  }
+
+  static SchemaValue decode(byte[] value) throws SerializationException {
+    try {
+      ByteBuffer in = ByteBuffer.wrap(value);
+      if (in.get() != MAGIC) {
+        throw new SerializationException("Not a binary schema value");
+      }
+      byte version = in.get();
+      if (version != VERSION) {
+        throw new SerializationException("Unsupported binary schema value version " + version);
+      }
+      int flags = in.get();
+      String subject = readString(in);
+      Integer schemaVersion = (flags & HAS_VERSION) != 0 ? in.getInt() : null;
+      Integer id = (flags & HAS_ID) != 0 ? in.getInt() : null;
+      String schemaType = readString(in);
+      int count = in.getInt();
+      List<SchemaReference> references = count == 0
+          ? Collections.emptyList()
+          : new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        String name = readString(in);
+        String referenceSubject = readString(in);
+        int referenceVersion = in.getInt();
+        references.add(new SchemaReference(name, referenceSubject,
+            referenceVersion >= 0 ? referenceVersion : null));
+      }
+      String schema = readString(in);
+      SchemaValue schemaValue = new SchemaValue(subject, schemaVersion, id, schemaType,
+          references, schema, (flags & DELETED) != 0);
+      if ((flags & HAS_OFFSET) != 0) {
+        schemaValue.setOffset(in.getLong());
+      }
+      if ((flags & HAS_TIMESTAMP) != 0) {
+        schemaValue.setTimestamp(in.getLong());
+      }
+      return schemaValue;
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      throw new SerializationException("Error while deserializing binary schema value", e);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    if (s == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0) {
+      return null;
+    }
+    if (length > in.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    String s = new String(in.array(), in.arrayOffset() + in.position(), length,
+        StandardCharsets.UTF_8);
+    in.position(in.position() + length);
+    return s;
+  }
+}
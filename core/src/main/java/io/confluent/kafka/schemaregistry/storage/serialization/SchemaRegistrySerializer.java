@@ -16,8 +16,9 @@
 package io.confluent.kafka.schemaregistry.storage.serialization;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 
+import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
 import io.confluent.kafka.schemaregistry.storage.ContextKey;
 import io.confluent.kafka.schemaregistry.storage.ContextValue;
 import java.io.IOException;
@@ -45,6 +46,9 @@ public class SchemaRegistrySerializer
 
   private static final long serialVersionUID = -2564877824075394626L;
 
+  // whether schema values are written in the binary encoding; both encodings are always read
+  private boolean binarySchemaValues;
+
   public SchemaRegistrySerializer() {
   }
 
@@ -68,6 +72,9 @@ public class SchemaRegistrySerializer
    */
   @Override
   public byte[] serializeValue(SchemaRegistryValue value) throws SerializationException {
+    if (binarySchemaValues && value instanceof SchemaValue) {
+      return BinarySchemaValueFormat.encode((SchemaValue) value);
+    }
     try {
       return JacksonMapper.INSTANCE.writeValueAsBytes(value);
     } catch (IOException e) {
@@ -83,24 +90,28 @@ public class SchemaRegistrySerializer
     SchemaRegistryKeyType keyType = null;
     try {
       try {
-        Map<Object, Object> keyObj = null;
-        keyObj = JacksonMapper.INSTANCE.readValue(
-            key, new TypeReference<Map<Object, Object>>() {});
-        keyType = SchemaRegistryKeyType.forName((String) keyObj.get("keytype"));
+        // parse once, then bind the tree to the key class of its type
+        JsonNode keyObj = JacksonMapper.INSTANCE.readTree(key);
+        if (keyObj == null || !keyObj.isObject()) {
+          throw new SerializationException("Failed to deserialize unknown key");
+        }
+        JsonNode keyTypeNode = keyObj.get("keytype");
+        keyType = SchemaRegistryKeyType.forName(
+            keyTypeNode != null && !keyTypeNode.isNull() ? keyTypeNode.asText() : null);
         if (keyType == SchemaRegistryKeyType.CONFIG) {
-          schemaKey = JacksonMapper.INSTANCE.readValue(key, ConfigKey.class);
+          schemaKey = JacksonMapper.INSTANCE.treeToValue(keyObj, ConfigKey.class);
         } else if (keyType == SchemaRegistryKeyType.MODE) {
-          schemaKey = JacksonMapper.INSTANCE.readValue(key, ModeKey.class);
+          schemaKey = JacksonMapper.INSTANCE.treeToValue(keyObj, ModeKey.class);
         } else if (keyType == SchemaRegistryKeyType.NOOP) {
-          schemaKey = JacksonMapper.INSTANCE.readValue(key, NoopKey.class);
+          schemaKey = JacksonMapper.INSTANCE.treeToValue(keyObj, NoopKey.class);
         } else if (keyType == SchemaRegistryKeyType.CONTEXT) {
-          schemaKey = JacksonMapper.INSTANCE.readValue(key, ContextKey.class);
+          schemaKey = JacksonMapper.INSTANCE.treeToValue(keyObj, ContextKey.class);
         } else if (keyType == SchemaRegistryKeyType.DELETE_SUBJECT) {
-          schemaKey = JacksonMapper.INSTANCE.readValue(key, DeleteSubjectKey.class);
+          schemaKey = JacksonMapper.INSTANCE.treeToValue(keyObj, DeleteSubjectKey.class);
         } else if (keyType == SchemaRegistryKeyType.CLEAR_SUBJECT) {
-          schemaKey = JacksonMapper.INSTANCE.readValue(key, ClearSubjectKey.class);
+          schemaKey = JacksonMapper.INSTANCE.treeToValue(keyObj, ClearSubjectKey.class);
         } else if (keyType == SchemaRegistryKeyType.SCHEMA) {
-          schemaKey = JacksonMapper.INSTANCE.readValue(key, SchemaKey.class);
+          schemaKey = JacksonMapper.INSTANCE.treeToValue(keyObj, SchemaKey.class);
           validateMagicByte((SchemaKey) schemaKey);
         }
       } catch (JsonProcessingException e) {
@@ -148,7 +159,11 @@ public class SchemaRegistrySerializer
     } else if (key.getKeyType().equals(SchemaRegistryKeyType.SCHEMA)) {
       try {
         validateMagicByte((SchemaKey) key);
-        schemaRegistryValue = JacksonMapper.INSTANCE.readValue(value, SchemaValue.class);
+        if (BinarySchemaValueFormat.isBinary(value)) {
+          schemaRegistryValue = BinarySchemaValueFormat.decode(value);
+        } else {
+          schemaRegistryValue = JacksonMapper.INSTANCE.readValue(value, SchemaValue.class);
+        }
       } catch (IOException e) {
         throw new SerializationException("Error while deserializing schema", e);
       }
@@ -183,7 +198,9 @@ public class SchemaRegistrySerializer
 
   @Override
   public void configure(Map<String, ?> stringMap) {
-
+    Object encoding = stringMap.get(SchemaRegistryConfig.KAFKASTORE_VALUE_ENCODING_CONFIG);
+    binarySchemaValues = encoding != null
+        && SchemaRegistryConfig.KAFKASTORE_VALUE_ENCODING_BINARY.equals(encoding.toString());
   }
 
   private void validateMagicByte(SchemaKey schemaKey) throws SerializationException {
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.tools;
+
+import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKeyType;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.exceptions.SerializationException;
+import io.confluent.kafka.schemaregistry.storage.serialization.SchemaRegistrySerializer;
+import io.confluent.kafka.schemaregistry.storage.serialization.Serializer;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+
+/**
+ * Copies the schemas topic to a new topic, keeping only the latest record of each key and
+ * re-encoding schema values in the given encoding, as a compacted topic would.
+ *
+ * <p>The registry must not write to the source topic while the copy runs, for example by
+ * stopping it or setting its mode to {@code READONLY}. It can then be restarted with
+ * {@code kafkastore.topic} set to the target topic and {@code kafkastore.value.encoding} set to
+ * the chosen encoding. Migrating back to {@code json} allows a downgrade.
+ */
+public class SchemasTopicMigration {
+
+  private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+  private final Properties clientProps;
+  private final String sourceTopic;
+  private final String targetTopic;
+  private final Serializer<SchemaRegistryKey, SchemaRegistryValue> serializer;
+
+  public static void main(String[] args) throws Exception {
+
+    if (args.length < 4) {
+      System.out.println(
+          "Usage: java " + SchemasTopicMigration.class.getName() + " bootstrap_servers"
+          + " source_topic target_topic json|binary [client_properties_file]"
+      );
+      System.exit(1);
+    }
+
+    Properties clientProps = new Properties();
+    if (args.length > 4) {
+      try (InputStream in = new FileInputStream(args[4])) {
+        clientProps.load(in);
+      }
+    }
+    clientProps.put(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, args[0]);
+
+    SchemasTopicMigration migration =
+        new SchemasTopicMigration(clientProps, args[1], args[2], args[3]);
+    migration.run();
+  }
+
+  public SchemasTopicMigration(Properties clientProps, String sourceTopic, String targetTopic,
+                               String encoding) {
+    if (!SchemaRegistryConfig.KAFKASTORE_VALUE_ENCODING_JSON.equals(encoding)
+        && !SchemaRegistryConfig.KAFKASTORE_VALUE_ENCODING_BINARY.equals(encoding)) {
+      throw new IllegalArgumentException("Unsupported encoding " + encoding);
+    }
+    this.clientProps = clientProps;
+    this.sourceTopic = sourceTopic;
+    this.targetTopic = targetTopic;
+    this.serializer = new SchemaRegistrySerializer();
+    this.serializer.configure(Collections.singletonMap(
+        SchemaRegistryConfig.KAFKASTORE_VALUE_ENCODING_CONFIG, encoding));
+  }
+
+  public void run() throws IOException, ExecutionException, InterruptedException,
+      SerializationException {
+    createTargetTopic();
+    Map<ByteBuffer, ConsumerRecord<byte[], byte[]>> latest = readSourceTopic();
+
+    long bytesWritten = 0;
+    Properties producerProps = new Properties();
+    producerProps.putAll(clientProps);
+    producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+    producerProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+    try (Producer<byte[], byte[]> producer = new KafkaProducer<>(
+        producerProps, new ByteArraySerializer(), new ByteArraySerializer())) {
+      for (ConsumerRecord<byte[], byte[]> record : latest.values()) {
+        SchemaRegistryKey key = serializer.deserializeKey(record.key());
+        byte[] value = serializer.serializeValue(
+            serializer.deserializeValue(key, record.value()));
+        bytesWritten += record.key().length + value.length;
+        // keys are copied as is, so that later writes to the target topic compact them
+        producer.send(new ProducerRecord<>(targetTopic, 0, record.key(), value));
+      }
+      producer.flush();
+    }
+    System.out.println("Copied " + latest.size() + " records (" + bytesWritten + " bytes) from "
+        + sourceTopic + " to " + targetTopic);
+  }
+
+  private void createTargetTopic() throws ExecutionException, InterruptedException {
+    try (AdminClient admin = AdminClient.create(clientProps)) {
+      TopicDescription source = admin.describeTopics(Collections.singleton(sourceTopic))
+          .all().get().get(sourceTopic);
+      short replicationFactor = (short) source.partitions().get(0).replicas().size();
+      NewTopic target = new NewTopic(targetTopic, 1, replicationFactor);
+      target.configs(Collections.singletonMap(
+          TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT));
+      try {
+        admin.createTopics(Collections.singleton(target)).all().get();
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof TopicExistsException) {
+          throw new IllegalStateException("Target topic " + targetTopic + " already exists");
+        }
+        throw e;
+      }
+    }
+  }
+
+  private Map<ByteBuffer, ConsumerRecord<byte[], byte[]>> readSourceTopic()
+      throws SerializationException {
+    Properties consumerProps = new Properties();
+    consumerProps.putAll(clientProps);
+    consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    // records in offset order, with each key at the position of its latest write
+    Map<ByteBuffer, ConsumerRecord<byte[], byte[]>> latest = new LinkedHashMap<>();
+    long recordsRead = 0;
+    try (Consumer<byte[], byte[]> consumer = new KafkaConsumer<>(
+        consumerProps, new ByteArrayDeserializer(), new ByteArrayDeserializer())) {
+      TopicPartition partition = new TopicPartition(sourceTopic, 0);
+      consumer.assign(Collections.singleton(partition));
+      consumer.seekToBeginning(Collections.singleton(partition));
+      long endOffset = consumer.endOffsets(Collections.singleton(partition)).get(partition);
+      while (consumer.position(partition) < endOffset) {
+        for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+          recordsRead++;
+          ByteBuffer key = ByteBuffer.wrap(record.key());
+          latest.remove(key);
+          if (record.value() != null) {
+            latest.put(key, record);
+          }
+        }
+      }
+    }
+    // noop records only mark offsets for the readers of the source topic
+    for (Iterator<ConsumerRecord<byte[], byte[]>> iter = latest.values().iterator();
+        iter.hasNext(); ) {
+      SchemaRegistryKey key = serializer.deserializeKey(iter.next().key());
+      if (key.getKeyType() == SchemaRegistryKeyType.NOOP) {
+        iter.remove();
+      }
+    }
+    System.out.println("Read " + recordsRead + " records from " + sourceTopic);
+    return latest;
+  }
+}
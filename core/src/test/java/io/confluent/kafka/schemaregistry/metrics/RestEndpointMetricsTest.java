@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.metrics;
+
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Metrics;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class RestEndpointMetricsTest {
+
+  private final Metrics metrics = new Metrics();
+
+  @After
+  public void tearDown() {
+    metrics.close();
+  }
+
+  @Test
+  public void testEndpointsAreTaggedSeparately() {
+    RestEndpointMetrics register = new RestEndpointMetrics(
+        metrics, Collections.emptyMap(), "SubjectVersionsResource.register");
+    RestEndpointMetrics getSchema = new RestEndpointMetrics(
+        metrics, Collections.emptyMap(), "SchemasResource.getSchema");
+
+    register.requestStarted(100);
+    register.requestStarted(300);
+    getSchema.requestStarted(-1);
+    register.requestCompleted(10);
+    getSchema.responseWritten(50);
+    getSchema.requestCompleted(2);
+
+    assertEquals(1.0, value("request-in-flight", "SubjectVersionsResource.register"), 0);
+    assertEquals(0.0, value("request-in-flight", "SchemasResource.getSchema"), 0);
+    assertEquals(200.0, value("request-size-bytes-avg", "SubjectVersionsResource.register"), 0);
+    assertEquals(10.0, value("request-latency-ms-max", "SubjectVersionsResource.register"), 0);
+    assertEquals(2.0, value("request-latency-ms-max", "SchemasResource.getSchema"), 0);
+    assertEquals(50.0, value("response-size-bytes-max", "SchemasResource.getSchema"), 0);
+  }
+
+  @Test
+  public void testLatencyPercentilesResolveMilliseconds() {
+    RestEndpointMetrics getSchema = new RestEndpointMetrics(
+        metrics, Collections.emptyMap(), "SchemasResource.getSchema");
+    for (int i = 0; i < 100; i++) {
+      getSchema.requestStarted(-1);
+      getSchema.requestCompleted(i < 99 ? 5 : 20);
+    }
+
+    assertEquals(5.0, percentile("request-latency-ms-p50", "SchemasResource.getSchema"), 1.5);
+    assertEquals(20.0, value("request-latency-ms-max", "SchemasResource.getSchema"), 0);
+  }
+
+  private double percentile(String name, String endpoint) {
+    Map<String, String> tags = new HashMap<>();
+    tags.put(RestEndpointMetrics.ENDPOINT_TAG, endpoint);
+    return (Double) metrics.metric(new MetricName(name, "request-latency-ms", "", tags))
+        .metricValue();
+  }
+
+  private double value(String name, String endpoint) {
+    // the metrics of a histogram share its name as their group
+    String group = name.replaceAll("-(avg|max)$", "");
+    Map<String, String> tags = new HashMap<>();
+    tags.put(RestEndpointMetrics.ENDPOINT_TAG, endpoint);
+    return (Double) metrics.metric(new MetricName(name, group, "", tags)).metricValue();
+  }
+}
@@ -516,6 +516,44 @@ public class RestApiTest extends ClusterTestHarness {
     assertEquals(Integer.valueOf(latestId), restApp.restClient.getId(1, null, true).getMaxId());
   }
 
+  @Test
+  public void testGetSchemasByIds() throws Exception {
+    List<String> schemas = TestUtils.getRandomCanonicalAvroString(3);
+    List<Integer> ids = new ArrayList<>();
+    for (String schema : schemas) {
+      ids.add(restApp.restClient.registerSchema(schema, "subject"));
+    }
+
+    // unknown ids are left out, and duplicates are returned once
+    List<Schema> fetched = restApp.restClient.getSchemasByIds(
+        Arrays.asList(ids.get(2), 100, ids.get(0), ids.get(2)), null);
+    assertEquals(2, fetched.size());
+    assertEquals(ids.get(2), fetched.get(0).getId());
+    assertEquals(schemas.get(2), fetched.get(0).getSchema());
+    assertEquals(ids.get(0), fetched.get(1).getId());
+    assertEquals(schemas.get(0), fetched.get(1).getSchema());
+
+    assertEquals(Collections.emptyList(),
+        restApp.restClient.getSchemasByIds(Collections.emptyList(), null));
+  }
+
+  @Test
+  public void testGetSchemasByTooManyIds() throws Exception {
+    int id = restApp.restClient.registerSchema(
+        TestUtils.getRandomCanonicalAvroString(1).get(0), "subject");
+    // the limit counts ids as requested, before duplicates are removed
+    assertEquals(1, restApp.restClient.getSchemasByIds(
+        Collections.nCopies(5, id), null).size());
+    try {
+      restApp.restClient.getSchemasByIds(Collections.nCopies(6, id), null);
+      fail("Getting the schemas of more ids than the maximum should fail with "
+          + Errors.TOO_MANY_IDS_ERROR_CODE);
+    } catch (RestClientException rce) {
+      assertEquals(422, rce.getStatus());
+      assertEquals(Errors.TOO_MANY_IDS_ERROR_CODE, rce.getErrorCode());
+    }
+  }
+
   @Test
   public void testGetSchemaTypes() throws Exception {
     assertEquals(new HashSet<>(Arrays.asList("AVRO", "JSON", "PROTOBUF")),
@@ -1661,6 +1699,7 @@ public class RestApiTest extends ClusterTestHarness {
     schemaRegistryProps.put("response.http.headers.config",
             "add X-XSS-Protection: 1; mode=block, \"add Cache-Control: no-cache, no-store, must-revalidate\"");
     schemaRegistryProps.put("schema.providers.avro.validate.defaults", "true");
+    schemaRegistryProps.put(SchemaRegistryConfig.SCHEMA_IDS_REQUEST_MAX_IDS_CONFIG, "5");
     return schemaRegistryProps;
   }
 
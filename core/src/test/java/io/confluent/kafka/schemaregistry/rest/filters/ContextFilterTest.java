@@ -202,4 +202,29 @@ public class ContextFilterTest {
     );
   }
 
+  @Test
+  public void testIsContextPath() {
+    Assert.assertTrue(ContextFilter.isContextPath("/contexts/.ctx/subjects", 1));
+    Assert.assertTrue(ContextFilter.isContextPath("/api/contexts/.ctx/subjects", 5));
+    Assert.assertFalse(ContextFilter.isContextPath("/contexts", 1));
+    Assert.assertFalse(ContextFilter.isContextPath("/subjects/contexts/versions", 1));
+    Assert.assertFalse(ContextFilter.isContextPath("/api/contexts/.ctx/subjects", 1));
+    Assert.assertFalse(ContextFilter.isContextPath("/", 2));
+  }
+
+  @Test
+  public void testPathSegments() {
+    Assert.assertEquals(
+        "An empty subject must be prefixed",
+        "/subjects/:.ctx:/versions/",
+        contextFilter.modifyUriPath("/contexts/.ctx/subjects//versions").getPath()
+    );
+    Assert.assertEquals(
+        "Trailing slashes must be dropped",
+        "/subjects/:.ctx:test/",
+        contextFilter.modifyUriPath("/contexts/.ctx/subjects/test///").getPath()
+    );
+    Assert.assertEquals("", contextFilter.modifyUriPath("/").getPath());
+    Assert.assertEquals("/", contextFilter.modifyUriPath("").getPath());
+  }
 }
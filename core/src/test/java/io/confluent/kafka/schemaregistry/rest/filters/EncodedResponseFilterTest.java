@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.rest.filters;
+
+import static io.confluent.kafka.schemaregistry.storage.SchemaRegistry.DEFAULT_TENANT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.rest.resources.EncodedSchemaString;
+import io.confluent.kafka.schemaregistry.storage.SchemaResponseCache;
+import io.confluent.kafka.schemaregistry.storage.SchemaResponseCache.EncodedResponse;
+import java.lang.annotation.Annotation;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class EncodedResponseFilterTest {
+
+  private static final String SCHEMA = "{\"type\":\"string\"}";
+
+  private final EncodedResponseFilter filter = new EncodedResponseFilter();
+
+  @Test
+  public void testCachedBodyIsWritten() throws Exception {
+    EncodedResponse encoded = encode();
+    MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+    ContainerResponseContext response = response(new EncodedSchemaString(encoded), headers);
+    response.setEntity(EasyMock.same(encoded.body()), EasyMock.anyObject(),
+        EasyMock.anyObject());
+    EasyMock.replay(response);
+
+    filter.filter(request(null), response);
+    EasyMock.verify(response);
+    assertEquals(new EntityTag(encoded.etag()), headers.getFirst(HttpHeaders.ETAG));
+  }
+
+  @Test
+  public void testMatchingEtagIsNotModified() throws Exception {
+    EncodedResponse encoded = encode();
+    MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+    ContainerResponseContext response = response(new EncodedSchemaString(encoded), headers);
+    response.setStatusInfo(Response.Status.NOT_MODIFIED);
+    response.setEntity(null);
+    EasyMock.replay(response);
+
+    filter.filter(request("W/\"other\", \"" + encoded.etag() + "\""), response);
+    EasyMock.verify(response);
+  }
+
+  @Test
+  public void testOtherEntitiesAreLeftAlone() throws Exception {
+    SchemaString schemaString = new SchemaString(SCHEMA);
+    MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+    // the strict mock rejects any change to the response
+    ContainerResponseContext response = response(schemaString, headers);
+    EasyMock.replay(response);
+
+    filter.filter(request(null), response);
+    EasyMock.verify(response);
+    assertEquals(0, headers.size());
+  }
+
+  @Test
+  public void testEncodedSchemaStringIsASchemaString() throws Exception {
+    EncodedResponse encoded = encode();
+    EncodedSchemaString schemaString = new EncodedSchemaString(encoded);
+    assertEquals(new SchemaString(SCHEMA).toJson(), schemaString.toJson());
+    assertSame(encoded, schemaString.encodedResponse());
+  }
+
+  private static EncodedResponse encode() throws Exception {
+    return new SchemaResponseCache(1024 * 1024)
+        .get(DEFAULT_TENANT, 1, null, null, false, () -> new SchemaString(SCHEMA));
+  }
+
+  private static ContainerRequestContext request(String ifNoneMatch) {
+    ContainerRequestContext request = EasyMock.createMock(ContainerRequestContext.class);
+    EasyMock.expect(request.getHeaderString(HttpHeaders.IF_NONE_MATCH))
+        .andStubReturn(ifNoneMatch);
+    EasyMock.replay(request);
+    return request;
+  }
+
+  private static ContainerResponseContext response(Object entity,
+                                                   MultivaluedMap<String, Object> headers) {
+    ContainerResponseContext response = EasyMock.createMock(ContainerResponseContext.class);
+    EasyMock.expect(response.getEntity()).andStubReturn(entity);
+    EasyMock.expect(response.getHeaders()).andStubReturn(headers);
+    EasyMock.expect(response.getEntityAnnotations()).andStubReturn(new Annotation[0]);
+    EasyMock.expect(response.getMediaType()).andStubReturn(MediaType.APPLICATION_JSON_TYPE);
+    return response;
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.rest.filters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import io.confluent.kafka.schemaregistry.rest.exceptions.Errors;
+import io.confluent.kafka.schemaregistry.storage.KafkaSchemaRegistry;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreTimeoutException;
+import io.confluent.rest.exceptions.RestException;
+import java.util.concurrent.CompletableFuture;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class OffsetTokenFilterTest {
+
+  @Test
+  public void testWrites() {
+    assertTrue(OffsetTokenFilter.isWrite("POST", "subjects/test/versions"));
+    assertTrue(OffsetTokenFilter.isWrite("POST", "subjects/:.ctx:test/versions/"));
+    assertTrue(OffsetTokenFilter.isWrite("DELETE", "subjects/test"));
+    assertTrue(OffsetTokenFilter.isWrite("DELETE", "subjects/test/versions/1"));
+    assertTrue(OffsetTokenFilter.isWrite("PUT", "config/test"));
+    assertTrue(OffsetTokenFilter.isWrite("PUT", "mode"));
+  }
+
+  @Test
+  public void testReads() {
+    assertFalse(OffsetTokenFilter.isWrite("GET", "subjects/test/versions"));
+    assertFalse(OffsetTokenFilter.isWrite("GET", "schemas/ids/1"));
+    // lookups and compatibility checks
+    assertFalse(OffsetTokenFilter.isWrite("POST", "subjects/test"));
+    assertFalse(OffsetTokenFilter.isWrite("POST", "compatibility/subjects/test/versions"));
+    assertFalse(OffsetTokenFilter.isWrite("POST", "compatibility/subjects/test/versions/latest"));
+  }
+
+  @Test
+  public void testOffsetOfWriteIsHonoredOnRead() throws Exception {
+    KafkaSchemaRegistry schemaRegistry = EasyMock.createMock(KafkaSchemaRegistry.class);
+    EasyMock.expect(schemaRegistry.writeOffset()).andReturn(42L);
+    EasyMock.expect(schemaRegistry.offsetReached(42L))
+        .andReturn(CompletableFuture.completedFuture(42L));
+    EasyMock.replay(schemaRegistry);
+    OffsetTokenFilter filter = new OffsetTokenFilter(schemaRegistry);
+
+    MultivaluedMap<String, Object> responseHeaders = new MultivaluedHashMap<>();
+    filter.filter(request("POST", "subjects/test/versions", null), response(responseHeaders));
+    String offset = (String) responseHeaders.getFirst(OffsetTokenFilter.OFFSET_HEADER);
+    assertEquals("42", offset);
+
+    // the read is let through, as the strict mock would reject an abort
+    filter.filter(request("GET", "subjects/test/versions/latest", offset));
+    EasyMock.verify(schemaRegistry);
+  }
+
+  @Test
+  public void testTimeoutWaitingForOffset() throws Exception {
+    KafkaSchemaRegistry schemaRegistry = EasyMock.createMock(KafkaSchemaRegistry.class);
+    CompletableFuture<Long> timedOut = new CompletableFuture<>();
+    timedOut.completeExceptionally(new StoreTimeoutException("behind"));
+    EasyMock.expect(schemaRegistry.offsetReached(42L)).andReturn(timedOut);
+    EasyMock.replay(schemaRegistry);
+
+    try {
+      new OffsetTokenFilter(schemaRegistry)
+          .filter(request("GET", "subjects/test/versions/latest", "42"));
+      fail("Expected a timeout waiting for the offset");
+    } catch (RestException e) {
+      assertEquals(Errors.OPERATION_TIMEOUT_ERROR_CODE, e.getErrorCode());
+    }
+  }
+
+  @Test
+  public void testInvalidMinOffset() throws Exception {
+    KafkaSchemaRegistry schemaRegistry = EasyMock.createMock(KafkaSchemaRegistry.class);
+    EasyMock.replay(schemaRegistry);
+    ContainerRequestContext request = EasyMock.createMock(ContainerRequestContext.class);
+    EasyMock.expect(request.getHeaderString(OffsetTokenFilter.MIN_OFFSET_HEADER))
+        .andReturn("latest");
+    Capture<Response> aborted = Capture.newInstance();
+    request.abortWith(EasyMock.capture(aborted));
+    EasyMock.replay(request);
+
+    new OffsetTokenFilter(schemaRegistry).filter(request);
+    assertEquals(400, aborted.getValue().getStatus());
+  }
+
+  private static ContainerRequestContext request(String method, String path, String minOffset) {
+    ContainerRequestContext request = EasyMock.createMock(ContainerRequestContext.class);
+    UriInfo uriInfo = EasyMock.createMock(UriInfo.class);
+    EasyMock.expect(request.getHeaderString(OffsetTokenFilter.MIN_OFFSET_HEADER))
+        .andStubReturn(minOffset);
+    EasyMock.expect(request.getMethod()).andStubReturn(method);
+    EasyMock.expect(request.getUriInfo()).andStubReturn(uriInfo);
+    EasyMock.expect(uriInfo.getPath(false)).andStubReturn(path);
+    EasyMock.replay(request, uriInfo);
+    return request;
+  }
+
+  private static ContainerResponseContext response(MultivaluedMap<String, Object> headers) {
+    ContainerResponseContext response = EasyMock.createMock(ContainerResponseContext.class);
+    EasyMock.expect(response.getStatusInfo()).andStubReturn(Response.Status.OK);
+    EasyMock.expect(response.getHeaders()).andStubReturn(headers);
+    EasyMock.replay(response);
+    return response;
+  }
+}
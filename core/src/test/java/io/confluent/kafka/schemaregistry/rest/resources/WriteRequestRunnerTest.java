@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.rest.resources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.ws.rs.container.AsyncResponse;
+
+import io.confluent.kafka.schemaregistry.rest.exceptions.Errors;
+import io.confluent.rest.exceptions.RestException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WriteRequestRunnerTest {
+
+  private final WriteRequestRunner runner = new WriteRequestRunner();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private ThreadPoolExecutor executor;
+
+  @Before
+  public void setUp() throws Exception {
+    executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(1));
+    CountDownLatch started = new CountDownLatch(1);
+    // occupy the only thread, so that the next write is queued
+    runner.run(executor, response(new AtomicReference<>()), () -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    started.await();
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testWriteIsRejectedWhenTheQueueIsFull() {
+    AtomicReference<Object> queued = new AtomicReference<>();
+    AtomicReference<Object> rejected = new AtomicReference<>();
+    runner.run(executor, response(queued), () -> { });
+    runner.run(executor, response(rejected), () -> { });
+
+    assertNull(queued.get());
+    assertRejected(rejected.get());
+  }
+
+  @Test
+  public void testQueuedWriteIsResumedOnShutdown() {
+    AtomicReference<Object> queued = new AtomicReference<>();
+    runner.run(executor, response(queued), () -> { });
+
+    WriteRequestRunner.reject(executor.shutdownNow(),
+        Errors.writeRequestRejectedException("shutting down"));
+    assertRejected(queued.get());
+  }
+
+  private static void assertRejected(Object resumed) {
+    assertTrue(resumed instanceof RestException);
+    assertEquals(503, ((RestException) resumed).getStatus());
+    assertEquals(Errors.WRITE_REQUEST_REJECTED_ERROR_CODE,
+        ((RestException) resumed).getErrorCode());
+  }
+
+  private static AsyncResponse response(AtomicReference<Object> resumed) {
+    return (AsyncResponse) Proxy.newProxyInstance(AsyncResponse.class.getClassLoader(),
+        new Class<?>[] {AsyncResponse.class}, (proxy, method, args) -> {
+          if (method.getName().equals("resume")) {
+            resumed.set(args[0]);
+            return true;
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.confluent.kafka.schemaregistry.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.confluent.kafka.schemaregistry.storage.serialization.SchemaRegistrySerializer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class CompactInMemoryCacheTest {
+
+  private static final String SMALL_SCHEMA = "\"string\"";
+
+  private final CompactInMemoryCache<SchemaRegistryKey, SchemaRegistryValue> cache =
+      new CompactInMemoryCache<>(new SchemaRegistrySerializer());
+
+  @Test
+  public void testReadsReturnPlainValues() throws Exception {
+    String schema = largeSchema(0);
+    SchemaValue value = register("a", 1, 1, schema);
+    value.setOffset(5L);
+    value.setTimestamp(1000L);
+    cache.put(value.toKey(), value);
+
+    SchemaValue stored = (SchemaValue) cache.get(new SchemaKey("a", 1));
+    assertEquals(SchemaValue.class, stored.getClass());
+    assertEquals(value, stored);
+    assertEquals(Long.valueOf(5L), stored.getOffset());
+    assertEquals(Long.valueOf(1000L), stored.getTimestamp());
+
+    try (CloseableIterator<SchemaRegistryValue> iter = cache.getAll(null, null)) {
+      assertEquals(value, iter.next());
+      assertFalse(iter.hasNext());
+    }
+    assertTrue(cache.schemaTextBytes() < schema.length());
+  }
+
+  @Test
+  public void testSchemaTextIsShared() throws Exception {
+    register("a", 1, 1, SMALL_SCHEMA);
+    register("b", 1, 1, SMALL_SCHEMA);
+    register(":.ctx:c", 1, 1, SMALL_SCHEMA);
+    register("a", 2, 2, largeSchema(2));
+    assertEquals(2, cache.schemaTextCount());
+    assertEquals(SMALL_SCHEMA, ((SchemaValue) cache.get(new SchemaKey("b", 1))).getSchema());
+
+    tombstone("a", 1);
+    tombstone("b", 1);
+    assertEquals(2, cache.schemaTextCount());
+    tombstone(":.ctx:c", 1);
+    assertEquals(1, cache.schemaTextCount());
+  }
+
+  @Test
+  public void testReplacedValueReleasesText() throws Exception {
+    SchemaValue replaced = register("a", 1, 1, SMALL_SCHEMA);
+    SchemaValue old = (SchemaValue) cache.put(new SchemaKey("a", 1),
+        new SchemaValue("a", 1, 2, largeSchema(1), false));
+    assertEquals(replaced, old);
+    assertEquals(1, cache.schemaTextCount());
+  }
+
+  @Test
+  public void testClearSubjects() throws Exception {
+    register("a", 1, 1, SMALL_SCHEMA);
+    register("a", 2, 2, largeSchema(2));
+    SchemaKey key = new SchemaKey("a", 1);
+    SchemaValue deleted = new SchemaValue("a", 1, 1, SMALL_SCHEMA, true);
+    cache.schemaDeleted(key, deleted, (SchemaValue) cache.put(key, deleted));
+
+    assertEquals(Integer.valueOf(1), cache.clearSubjects("a").get("AVRO"));
+    assertNull(cache.get(key));
+    assertEquals(1, cache.schemaTextCount());
+    assertEquals(Integer.valueOf(2), cache.latestVersion("a", true));
+  }
+
+  @Test
+  public void testIndexes() throws Exception {
+    SchemaValue value = register("a", 1, 7, largeSchema(1));
+    register("b", 3, 7, largeSchema(1));
+    SchemaIdAndSubjects idAndSubjects = cache.schemaIdAndSubjects(
+        new io.confluent.kafka.schemaregistry.client.rest.entities.Schema(
+            "a", 1, 7, value.getSchemaType(), new ArrayList<>(), value.getSchema()));
+    assertEquals(7, idAndSubjects.getSchemaId());
+    assertEquals(2, idAndSubjects.allSubjectVersions().size());
+    assertTrue(Arrays.asList(new SchemaKey("a", 1), new SchemaKey("b", 3))
+        .contains(cache.schemaKeyById(7, "a")));
+  }
+
+  @Test
+  public void testCompactValueIsMutable() throws Exception {
+    SchemaValue value = register("a", 1, 1, largeSchema(0));
+    SchemaValue compacted = (SchemaValue) cache.compact(value.toKey(), value);
+    try {
+      assertEquals(value.getSchema(), compacted.getSchema());
+      assertEquals(value.hashCode(), compacted.hashCode());
+      assertEquals(value.toString(), compacted.toString());
+
+      compacted.setSchema(SMALL_SCHEMA);
+      assertEquals(SMALL_SCHEMA, compacted.getSchema());
+      assertEquals(new SchemaValue("a", 1, 1, SMALL_SCHEMA, false).hashCode(),
+          compacted.hashCode());
+
+      // putting it back compacts it again, and releases the text of the value it replaces
+      cache.put(value.toKey(), compacted);
+      assertEquals(SMALL_SCHEMA, ((SchemaValue) cache.get(value.toKey())).getSchema());
+      assertEquals(2, cache.schemaTextCount());
+      register("a", 1, 1, SMALL_SCHEMA);
+      assertEquals(2, cache.schemaTextCount());
+    } finally {
+      cache.discard(compacted);
+    }
+    assertEquals(1, cache.schemaTextCount());
+  }
+
+  private SchemaValue register(String subject, int version, int id, String schema)
+      throws Exception {
+    SchemaKey key = new SchemaKey(subject, version);
+    SchemaValue value = new SchemaValue(subject, version, id, schema, false);
+    SchemaValue oldValue = (SchemaValue) cache.put(key, value);
+    cache.schemaRegistered(key, value, oldValue);
+    return value;
+  }
+
+  private void tombstone(String subject, int version) throws Exception {
+    SchemaKey key = new SchemaKey(subject, version);
+    SchemaValue oldValue = (SchemaValue) cache.delete(key);
+    cache.schemaTombstoned(key, oldValue);
+  }
+
+  private static String largeSchema(int n) {
+    List<String> fields = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      fields.add("{\"name\":\"field" + i + "\",\"type\":\"string\"}");
+    }
+    return "{\"type\":\"record\",\"name\":\"Record" + n + "\",\"fields\":["
+        + String.join(",", fields) + "]}";
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage;
+
+import io.confluent.kafka.schemaregistry.CompatibilityLevel;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.metrics.MetricsContainer;
+import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class CompatibilityCacheTest {
+
+  private static final String TENANT = "default";
+  private static final String SUBJECT = "test";
+  private static final String SCHEMA = "{\"type\":\"record\",\"name\":\"r\",\"fields\":[]}";
+
+  private MetricsContainer metricsContainer;
+  private CompatibilityCache cache;
+  private final AtomicInteger checks = new AtomicInteger();
+
+  @Before
+  public void setUp() throws Exception {
+    Properties props = new Properties();
+    props.put(SchemaRegistryConfig.KAFKASTORE_BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+    metricsContainer = new MetricsContainer(new SchemaRegistryConfig(props), "cluster");
+    cache = new CompatibilityCache(100,
+        metricsContainer.getCompatibilityCacheHits(),
+        metricsContainer.getCompatibilityCacheMisses());
+  }
+
+  @After
+  public void tearDown() {
+    metricsContainer.getMetrics().close();
+  }
+
+  @Test
+  public void testRepeatedCheckIsCached() throws Exception {
+    List<String> first = check(CompatibilityLevel.BACKWARD, previous(1, 2));
+    List<String> second = check(CompatibilityLevel.BACKWARD, previous(1, 2));
+
+    assertEquals(first, second);
+    assertEquals(1, checks.get());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testOtherVersionsOrLevelAreChecked() throws Exception {
+    check(CompatibilityLevel.BACKWARD, previous(1));
+    check(CompatibilityLevel.BACKWARD, previous(1, 2));
+    check(CompatibilityLevel.FULL, previous(1, 2));
+    check(CompatibilityLevel.FULL, previous(1, 2));
+
+    assertEquals(3, checks.get());
+    assertEquals(3, cache.size());
+  }
+
+  @Test
+  public void testInvalidateAll() throws Exception {
+    check(CompatibilityLevel.BACKWARD, previous(1));
+    cache.invalidateAll();
+    check(CompatibilityLevel.BACKWARD, previous(1));
+
+    assertEquals(2, checks.get());
+  }
+
+  @Test
+  public void testSchemasWithoutIdsAreNotCached() throws Exception {
+    Schema previous = new Schema(SUBJECT, 1, null, null, Collections.emptyList(), SCHEMA);
+    check(CompatibilityLevel.BACKWARD, Collections.singletonList(previous));
+    check(CompatibilityLevel.BACKWARD, Collections.singletonList(previous));
+
+    assertEquals(2, checks.get());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testDisabledCache() throws Exception {
+    cache = new CompatibilityCache(0,
+        metricsContainer.getCompatibilityCacheHits(),
+        metricsContainer.getCompatibilityCacheMisses());
+    check(CompatibilityLevel.BACKWARD, previous(1));
+    check(CompatibilityLevel.BACKWARD, previous(1));
+
+    assertEquals(2, checks.get());
+  }
+
+  private List<String> check(CompatibilityLevel level, List<Schema> previousSchemas)
+      throws Exception {
+    Schema newSchema = new Schema(SUBJECT, null, null, null, Collections.emptyList(), SCHEMA);
+    return cache.get(TENANT, SUBJECT, newSchema, level, previousSchemas, () -> {
+      checks.incrementAndGet();
+      return Collections.singletonList("incompatible");
+    });
+  }
+
+  private static List<Schema> previous(Integer... ids) {
+    Schema[] schemas = new Schema[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      schemas[i] = new Schema(SUBJECT, i + 1, ids[i], null, Collections.emptyList(), SCHEMA);
+    }
+    return Arrays.asList(schemas);
+  }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.confluent.kafka.schemaregistry.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.After;
+import org.junit.Test;
+
+public class GroupCommitterTest {
+
+  private static final String TOPIC = "_schemas";
+
+  private final MockProducer<byte[], byte[]> producer =
+      new MockProducer<>(true, new ByteArraySerializer(), new ByteArraySerializer());
+  private final List<Long> waitedOffsets = new CopyOnWriteArrayList<>();
+  private final Map<String, Long> ackedOffsets = new ConcurrentHashMap<>();
+  private GroupCommitter<String> committer;
+
+  @After
+  public void teardown() {
+    if (committer != null) {
+      committer.close();
+    }
+  }
+
+  @Test
+  public void testWritesWithinWindowShareOneWait() throws Exception {
+    committer = newCommitter(10, 500, (offset, timeoutMs) -> {
+      waitedOffsets.add(offset);
+      return CompletableFuture.completedFuture(offset);
+    });
+    List<Future<Long>> results = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      results.add(committer.submit("key" + i, record("key" + i)));
+    }
+    for (int i = 0; i < 5; i++) {
+      assertEquals(Long.valueOf(i), results.get(i).get(5, TimeUnit.SECONDS));
+      assertEquals(Long.valueOf(i), ackedOffsets.get("key" + i));
+    }
+    assertEquals(5, producer.history().size());
+    assertEquals(1, waitedOffsets.size());
+    assertEquals(Long.valueOf(4), waitedOffsets.get(0));
+  }
+
+  @Test
+  public void testConcurrentMultiRecordWritesShareOneCommit() throws Exception {
+    committer = newCommitter(100, 500, (offset, timeoutMs) -> {
+      waitedOffsets.add(offset);
+      return CompletableFuture.completedFuture(offset);
+    });
+    // registrations write several records each, e.g. a schema and a config, from their threads
+    int writers = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(writers);
+    try {
+      List<Future<Future<Long>>> submitted = new ArrayList<>();
+      for (int w = 0; w < writers; w++) {
+        String prefix = "writer" + w + "-";
+        submitted.add(executor.submit(() -> committer.submitAll(
+            Arrays.asList(prefix + "a", prefix + "b"),
+            Arrays.asList(record(prefix + "a"), record(prefix + "b")))));
+      }
+      for (Future<Future<Long>> result : submitted) {
+        result.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(2 * writers, producer.history().size());
+    assertEquals(1, waitedOffsets.size());
+    assertEquals(Long.valueOf(2 * writers - 1), waitedOffsets.get(0));
+    // the records of each write are sent together and in order
+    for (int i = 0; i < producer.history().size(); i += 2) {
+      String first = new String(producer.history().get(i).key());
+      String second = new String(producer.history().get(i + 1).key());
+      assertTrue(first.endsWith("-a"));
+      assertEquals(first.substring(0, first.length() - 1) + "b", second);
+    }
+  }
+
+  @Test
+  public void testGroupIsBoundedByMaxSize() throws Exception {
+    committer = newCommitter(2, 500, (offset, timeoutMs) -> {
+      waitedOffsets.add(offset);
+      return CompletableFuture.completedFuture(offset);
+    });
+    List<Future<Long>> results = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      results.add(committer.submit("key" + i, record("key" + i)));
+    }
+    for (Future<Long> result : results) {
+      result.get(5, TimeUnit.SECONDS);
+    }
+    assertEquals(2, waitedOffsets.size());
+    assertEquals(Long.valueOf(1), waitedOffsets.get(0));
+    assertEquals(Long.valueOf(3), waitedOffsets.get(1));
+  }
+
+  @Test
+  public void testNextGroupIsSentWhileReaderCatchesUp() throws Exception {
+    List<CompletableFuture<Long>> watches = new CopyOnWriteArrayList<>();
+    committer = newCommitter(1, 0, (offset, timeoutMs) -> {
+      CompletableFuture<Long> watch = new CompletableFuture<>();
+      watches.add(watch);
+      return watch;
+    });
+    Future<Long> first = committer.submit("key0", record("key0"));
+    Future<Long> second = committer.submit("key1", record("key1"));
+    long deadline = System.currentTimeMillis() + 5000;
+    while (watches.size() < 2 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    // both groups were sent although the reader has not caught up to the first
+    assertEquals(2, watches.size());
+    assertEquals(2, producer.history().size());
+    assertFalse(first.isDone());
+    watches.get(0).complete(0L);
+    assertEquals(Long.valueOf(0), first.get(5, TimeUnit.SECONDS));
+    assertFalse(second.isDone());
+    watches.get(1).complete(1L);
+    assertEquals(Long.valueOf(1), second.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testReaderTimeoutFailsTheGroup() throws Exception {
+    committer = newCommitter(10, 0, (offset, timeoutMs) -> {
+      CompletableFuture<Long> future = new CompletableFuture<>();
+      future.completeExceptionally(new StoreTimeoutException("reader is behind"));
+      return future;
+    });
+    Future<Long> result = committer.submit("key", record("key"));
+    try {
+      result.get(5, TimeUnit.SECONDS);
+      fail("Expected the write to fail");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof StoreTimeoutException);
+    }
+    // the record was acked, so the offset is still tracked
+    assertEquals(Long.valueOf(0), ackedOffsets.get("key"));
+  }
+
+  @Test
+  public void testClosedCommitterRejectsWrites() throws Exception {
+    committer = newCommitter(10, 0, (offset, timeoutMs) -> {
+      waitedOffsets.add(offset);
+      return CompletableFuture.completedFuture(offset);
+    });
+    committer.close();
+    try {
+      committer.submit("key", record("key"));
+      fail("Expected the write to be rejected");
+    } catch (StoreException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testWritesRacingCloseAreCompleted() throws Exception {
+    committer = newCommitter(10, 0,
+        (offset, timeoutMs) -> CompletableFuture.completedFuture(offset));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    List<Future<Long>> results = new CopyOnWriteArrayList<>();
+    try {
+      Future<?> writer = executor.submit(() -> {
+        for (int i = 0; ; i++) {
+          try {
+            results.add(committer.submit("key" + i, record("key" + i)));
+          } catch (StoreException e) {
+            return;
+          }
+        }
+      });
+      Thread.sleep(50);
+      committer.close();
+      writer.get(5, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+    // every accepted write is either committed or failed by close, rather than left waiting
+    for (Future<Long> result : results) {
+      assertTrue(result.isDone());
+      try {
+        result.get();
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof StoreException);
+      }
+    }
+  }
+
+  @Test
+  public void testWriteTimedOutWhileQueuedIsNotSent() throws Exception {
+    MockProducer<byte[], byte[]> slowProducer =
+        new MockProducer<>(false, new ByteArraySerializer(), new ByteArraySerializer());
+    committer = newCommitter(slowProducer, 1, 0,
+        (offset, timeoutMs) -> CompletableFuture.completedFuture(offset));
+    CompletableFuture<Long> first = committer.submit("key0", record("key0"));
+    long deadline = System.currentTimeMillis() + 5000;
+    while (slowProducer.history().isEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    // the committer waits for the ack of the first write, so the second stays queued
+    CompletableFuture<Long> second = committer.submit("key1", record("key1"));
+    try {
+      GroupCommitter.await(second, 50);
+      fail("Expected the write to time out");
+    } catch (TimeoutException e) {
+      // expected
+    }
+    assertTrue(slowProducer.completeNext());
+    assertEquals(Long.valueOf(0), first.get(5, TimeUnit.SECONDS));
+    // a later write is committed after the committer took the second one off the queue
+    CompletableFuture<Long> third = committer.submit("key2", record("key2"));
+    deadline = System.currentTimeMillis() + 5000;
+    while (slowProducer.history().size() < 2 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(slowProducer.completeNext());
+    assertEquals(Long.valueOf(1), third.get(5, TimeUnit.SECONDS));
+    assertEquals(2, slowProducer.history().size());
+    assertEquals("key2", new String(slowProducer.history().get(1).key()));
+    try {
+      second.get();
+      fail("Expected the write to have failed");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof StoreTimeoutException);
+    }
+  }
+
+  private GroupCommitter<String> newCommitter(int maxGroupSize, long windowMs,
+                                              GroupCommitter.OffsetWaiter waiter) {
+    return newCommitter(producer, maxGroupSize, windowMs, waiter);
+  }
+
+  private GroupCommitter<String> newCommitter(MockProducer<byte[], byte[]> producer,
+                                              int maxGroupSize, long windowMs,
+                                              GroupCommitter.OffsetWaiter waiter) {
+    return new GroupCommitter<>(producer, maxGroupSize, windowMs, 5000, waiter,
+        ackedOffsets::put, null);
+  }
+
+  private static ProducerRecord<byte[], byte[]> record(String key) {
+    return new ProducerRecord<>(TOPIC, 0, key.getBytes(), new byte[0]);
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.confluent.kafka.schemaregistry.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.confluent.kafka.schemaregistry.storage.serialization.SchemaRegistrySerializer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.function.Predicate;
+import org.junit.Test;
+
+public class InMemoryCacheTest {
+
+  private final InMemoryCache<SchemaRegistryKey, SchemaRegistryValue> cache =
+      new InMemoryCache<>(new SchemaRegistrySerializer());
+
+  @Test
+  public void testSubjectsAndLatestVersion() throws Exception {
+    register("b", 1, 1);
+    register("b", 2, 2);
+    register("a", 1, 3);
+    register(":.ctx:c", 1, 4);
+
+    assertEquals(new LinkedHashSet<>(Arrays.asList("a", "b", ":.ctx:c")),
+        cache.subjects(null, false));
+    assertEquals(Collections.singleton("b"), cache.subjects("b", false));
+    assertTrue(cache.hasSubjects("b", false));
+    assertFalse(cache.hasSubjects("d", true));
+    assertEquals(Integer.valueOf(2), cache.latestVersion("b", false));
+    assertEquals(new LinkedHashSet<>(Arrays.asList("a", "b")),
+        cache.subjectsInRange("", String.valueOf(Character.MAX_VALUE), false));
+    assertEquals(Collections.singleton(":.ctx:c"),
+        cache.subjectsInRange(":.ctx:", ":.ctx:" + Character.MAX_VALUE, false));
+  }
+
+  @Test
+  public void testOverriddenSubjectPredicate() throws Exception {
+    // a subclass that scopes subjects to a prefix, and matches a subject with its prefix
+    InMemoryCache<SchemaRegistryKey, SchemaRegistryValue> scoped =
+        new InMemoryCache<SchemaRegistryKey, SchemaRegistryValue>(new SchemaRegistrySerializer()) {
+          @Override
+          protected Predicate<String> matchingSubjectPredicate(String subject) {
+            return s -> s.startsWith("t1_") && (subject == null || s.equals("t1_" + subject));
+          }
+
+          @Override
+          protected boolean exactSubjectMatch() {
+            return false;
+          }
+        };
+    register(scoped, "t1_a", 1, 1);
+    register(scoped, "t2_a", 1, 2);
+
+    assertEquals(Collections.singleton("t1_a"), scoped.subjects(null, false));
+    assertEquals(Collections.singleton("t1_a"), scoped.subjects("a", false));
+    assertTrue(scoped.hasSubjects("a", false));
+    assertEquals(Collections.singleton("t1_a"),
+        scoped.subjectsInRange("", String.valueOf(Character.MAX_VALUE), false));
+  }
+
+  @Test
+  public void testSoftDeleteAndTombstone() throws Exception {
+    register("a", 1, 1);
+    register("a", 2, 2);
+
+    softDelete("a", 2, 2);
+    assertEquals(Integer.valueOf(1), cache.latestVersion("a", false));
+    assertEquals(Integer.valueOf(2), cache.latestVersion("a", true));
+
+    softDelete("a", 1, 1);
+    assertFalse(cache.hasSubjects("a", false));
+    assertTrue(cache.hasSubjects("a", true));
+    assertNull(cache.latestVersion("a", false));
+    assertEquals(Collections.singleton("a"), cache.subjects(null, true));
+
+    tombstone("a", 1, 1);
+    tombstone("a", 2, 2);
+    assertFalse(cache.hasSubjects("a", true));
+    assertTrue(cache.subjects(null, true).isEmpty());
+  }
+
+  @Test
+  public void testClearSubjects() throws Exception {
+    register("a", 1, 1);
+    register("a", 2, 2);
+    softDelete("a", 1, 1);
+
+    cache.clearSubjects("a");
+    assertTrue(cache.hasSubjects("a", false));
+    assertEquals(Integer.valueOf(2), cache.latestVersion("a", true));
+
+    softDelete("a", 2, 2);
+    cache.clearSubjects("a");
+    assertFalse(cache.hasSubjects("a", true));
+  }
+
+  @Test
+  public void testSchemaKeyByIdInAnyContext() throws Exception {
+    register("a", 1, 1);
+    register(":.ctx2:b", 1, 2);
+    register(":.ctx1:c", 1, 2);
+    register(":.ctx1:d", 1, 3);
+
+    assertEquals(new SchemaKey(":.ctx1:c", 1), cache.schemaKeyByIdInAnyContext(2));
+    assertEquals(new SchemaKey(":.ctx1:d", 1), cache.schemaKeyByIdInAnyContext(3));
+    assertEquals(new SchemaKey("a", 1), cache.schemaKeyByIdInAnyContext(1));
+    assertNull(cache.schemaKeyByIdInAnyContext(4));
+
+    tombstone(":.ctx1:c", 1, 2);
+    assertEquals(new SchemaKey(":.ctx2:b", 1), cache.schemaKeyByIdInAnyContext(2));
+    softDelete(":.ctx2:b", 1, 2);
+    cache.clearSubjects(":.ctx2:b");
+    assertNull(cache.schemaKeyByIdInAnyContext(2));
+  }
+
+  private void register(String subject, int version, int id) throws Exception {
+    register(cache, subject, version, id);
+  }
+
+  private static void register(InMemoryCache<SchemaRegistryKey, SchemaRegistryValue> cache,
+                               String subject, int version, int id) throws Exception {
+    SchemaKey key = new SchemaKey(subject, version);
+    SchemaValue value = new SchemaValue(subject, version, id, "\"string\"", false);
+    SchemaValue oldValue = (SchemaValue) cache.put(key, value);
+    cache.schemaRegistered(key, value, oldValue);
+  }
+
+  private void softDelete(String subject, int version, int id) throws Exception {
+    SchemaKey key = new SchemaKey(subject, version);
+    SchemaValue value = new SchemaValue(subject, version, id, "\"string\"", true);
+    SchemaValue oldValue = (SchemaValue) cache.put(key, value);
+    cache.schemaDeleted(key, value, oldValue);
+  }
+
+  private void tombstone(String subject, int version, int id) throws Exception {
+    SchemaKey key = new SchemaKey(subject, version);
+    SchemaValue oldValue = (SchemaValue) cache.delete(key);
+    cache.schemaTombstoned(key, oldValue);
+  }
+}
@@ -36,6 +36,7 @@ import io.confluent.kafka.schemaregistry.storage.serialization.SchemaRegistrySer
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Iterator;
 import java.util.Properties;
@@ -199,6 +200,28 @@ public class KafkaStoreTest extends ClusterTestHarness {
     }
   }
 
+  @Test
+  public void testPutAll() throws Exception {
+    KafkaStore<String, String> kafkaStore = StoreUtils.createAndInitKafkaStoreInstance(bootstrapServers);
+    try {
+      kafkaStore.put("Kafka", "Rocks");
+      Map<String, String> entries = new LinkedHashMap<>();
+      for (int i = 0; i < 10; i++) {
+        entries.put("key" + i, "value" + i);
+      }
+      entries.put("Kafka", null);
+      kafkaStore.putAll(entries);
+      // the local store has caught up with the whole batch once putAll returns
+      for (int i = 0; i < 10; i++) {
+        assertEquals("Retrieved value should match entered value",
+            "value" + i, kafkaStore.get("key" + i));
+      }
+      assertNull("Value should have been deleted", kafkaStore.get("Kafka"));
+    } finally {
+      kafkaStore.close();
+    }
+  }
+
   @Test
   public void testDeleteAfterRestart() throws Exception {
     Store<String, String> inMemoryStore = new InMemoryCache<>(StringSerializer.INSTANCE);
@@ -252,6 +275,40 @@ public class KafkaStoreTest extends ClusterTestHarness {
 
 
 
+  @Test
+  public void testParallelBootstrapKeepsOrderPerKey() throws Exception {
+    KafkaStore<String, String> kafkaStore = StoreUtils.createAndInitKafkaStoreInstance(bootstrapServers);
+    try {
+      // enough records for the bootstrap to decode batches in parallel, with each key
+      // overwritten several times
+      Map<String, String> entries = new LinkedHashMap<>();
+      for (int round = 0; round < 5; round++) {
+        for (int i = 0; i < 100; i++) {
+          entries.put("key" + i, "value" + i + "-" + round);
+        }
+        kafkaStore.putAll(entries);
+        entries.clear();
+      }
+      kafkaStore.delete("key0");
+    } finally {
+      kafkaStore.close();
+    }
+
+    Properties props = new Properties();
+    props.put(SchemaRegistryConfig.KAFKASTORE_BOOTSTRAP_DECODE_THREADS_CONFIG, 4);
+    kafkaStore = StoreUtils.createAndInitKafkaStoreInstance(bootstrapServers,
+        new InMemoryCache<>(StringSerializer.INSTANCE), props);
+    try {
+      assertNull("Value should have been deleted", kafkaStore.get("key0"));
+      for (int i = 1; i < 100; i++) {
+        assertEquals("Retrieved value should be the last value written",
+            "value" + i + "-4", kafkaStore.get("key" + i));
+      }
+    } finally {
+      kafkaStore.close();
+    }
+  }
+
   @Test
   public void testCustomGroupIdConfig() throws Exception {
     Store<String, String> inMemoryStore = new InMemoryCache<>(StringSerializer.INSTANCE);
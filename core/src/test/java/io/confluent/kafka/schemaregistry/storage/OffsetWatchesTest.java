@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.confluent.kafka.schemaregistry.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+public class OffsetWatchesTest {
+
+  private final OffsetWatches watches = new OffsetWatches("offset-watch-test");
+
+  @After
+  public void teardown() {
+    watches.close();
+  }
+
+  @Test
+  public void testReachedOffsetCompletesImmediately() throws Exception {
+    watches.advance(5L);
+    CompletableFuture<Long> watch = watches.watch(3L, 1, TimeUnit.SECONDS);
+    assertTrue(watch.isDone());
+    assertEquals(Long.valueOf(5), watch.get());
+    assertEquals(0, watches.size());
+  }
+
+  @Test
+  public void testAdvanceCompletesWatchesUpToOffset() throws Exception {
+    CompletableFuture<Long> first = watches.watch(1L, 10, TimeUnit.SECONDS);
+    CompletableFuture<Long> second = watches.watch(3L, 10, TimeUnit.SECONDS);
+    CompletableFuture<Long> third = watches.watch(2L, 10, TimeUnit.SECONDS);
+    watches.advance(2L);
+    assertEquals(Long.valueOf(2), first.get());
+    assertEquals(Long.valueOf(2), third.get());
+    assertFalse(second.isDone());
+    assertEquals(1, watches.size());
+    watches.advance(3L);
+    assertEquals(Long.valueOf(3), second.get());
+    assertEquals(0, watches.size());
+  }
+
+  @Test
+  public void testWatchTimesOut() throws Exception {
+    CompletableFuture<Long> watch = watches.watch(1L, 50, TimeUnit.MILLISECONDS);
+    try {
+      watch.get(5, TimeUnit.SECONDS);
+      fail("Expected the watch to time out");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof StoreTimeoutException);
+    }
+    assertEquals(0, watches.size());
+  }
+
+  @Test
+  public void testCloseFailsPendingWatches() throws Exception {
+    CompletableFuture<Long> watch = watches.watch(1L, 10, TimeUnit.SECONDS);
+    watches.close();
+    try {
+      watch.get(5, TimeUnit.SECONDS);
+      fail("Expected the watch to fail");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof StoreException);
+    }
+    assertTrue(watches.watch(2L, 10, TimeUnit.SECONDS).isCompletedExceptionally());
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.confluent.kafka.schemaregistry.storage;
+
+import static io.confluent.kafka.schemaregistry.storage.SchemaRegistry.DEFAULT_TENANT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.json.JsonSchema;
+import io.confluent.kafka.schemaregistry.metrics.SchemaRegistryMetric;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.common.metrics.Metrics;
+import org.junit.After;
+import org.junit.Test;
+
+public class ParsedSchemaCacheTest {
+
+  private static final String STRING_SCHEMA = "\"string\"";
+  private static final String INT_SCHEMA = "\"int\"";
+
+  private final Metrics metrics = new Metrics();
+  private final SchemaRegistryMetric hits = metric("hits");
+  private final SchemaRegistryMetric misses = metric("misses");
+  private final SchemaRegistryMetric evictions = metric("evictions");
+  private final AtomicInteger parses = new AtomicInteger();
+
+  @After
+  public void teardown() {
+    metrics.close();
+  }
+
+  @Test
+  public void testLookupById() throws Exception {
+    ParsedSchemaCache cache = new ParsedSchemaCache(1024 * 1024, hits, misses, evictions);
+    ParsedSchema first = get(cache, "subject", 1, STRING_SCHEMA);
+    ParsedSchema second = get(cache, "other", 1, STRING_SCHEMA);
+    assertSame(first, second);
+    assertEquals(1, parses.get());
+    assertEquals(1, hits.get());
+    assertEquals(1, misses.get());
+  }
+
+  @Test
+  public void testSameSchemaInOtherContextIsSharedByMd5() throws Exception {
+    ParsedSchemaCache cache = new ParsedSchemaCache(1024 * 1024, hits, misses, evictions);
+    ParsedSchema first = get(cache, "subject", 1, STRING_SCHEMA);
+    ParsedSchema second = get(cache, ":.ctx:subject", 5, STRING_SCHEMA);
+    assertSame(first, second);
+    assertEquals(1, parses.get());
+  }
+
+  @Test
+  public void testReusedIdIsParsedAgain() throws Exception {
+    ParsedSchemaCache cache = new ParsedSchemaCache(1024 * 1024, hits, misses, evictions);
+    get(cache, "subject", 1, STRING_SCHEMA);
+    ParsedSchema parsed = get(cache, "subject", 1, INT_SCHEMA);
+    assertEquals(INT_SCHEMA, parsed.canonicalString());
+    assertEquals(2, parses.get());
+  }
+
+  @Test
+  public void testEqualSchemaTextIsMatchedById() throws Exception {
+    ParsedSchemaCache cache = new ParsedSchemaCache(1024 * 1024, hits, misses, evictions);
+    ParsedSchema first = get(cache, "subject", 1, STRING_SCHEMA);
+    // an equal copy of the text, e.g. after the stored value has been deserialized again
+    ParsedSchema second = get(cache, "subject", 1, new String(STRING_SCHEMA));
+    assertSame(first, second);
+    assertEquals(1, parses.get());
+    assertEquals(1, hits.get());
+  }
+
+  @Test
+  public void testSameTextWithOtherTypeIsParsedAgain() throws Exception {
+    ParsedSchemaCache cache = new ParsedSchemaCache(1024 * 1024, hits, misses, evictions);
+    ParsedSchema avro = get(cache, "subject", 1, AvroSchema.TYPE, STRING_SCHEMA);
+    // the same text and id, as looked up in a context where it is a JSON schema
+    ParsedSchema json = get(cache, "subject", 1, JsonSchema.TYPE, STRING_SCHEMA);
+    ParsedSchema other = get(cache, ":.ctx:subject", 2, JsonSchema.TYPE, STRING_SCHEMA);
+    assertEquals(AvroSchema.TYPE, avro.schemaType());
+    assertEquals(JsonSchema.TYPE, json.schemaType());
+    assertSame(json, other);
+    assertSame(avro, get(cache, "subject", 1, null, STRING_SCHEMA));
+    assertEquals(2, parses.get());
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    ParsedSchemaCache cache = new ParsedSchemaCache(1024 * 1024, hits, misses, evictions);
+    get(cache, "subject", 1, STRING_SCHEMA);
+    cache.invalidate(DEFAULT_TENANT,
+        new SchemaValue("subject", 1, 1, STRING_SCHEMA, false));
+    assertEquals(0, cache.size());
+    get(cache, "subject", 1, STRING_SCHEMA);
+    assertEquals(2, parses.get());
+  }
+
+  @Test
+  public void testEvictionByWeight() throws Exception {
+    int entryWeight = ParsedSchemaCache.ENTRY_OVERHEAD_BYTES
+        + ParsedSchemaCache.BYTES_PER_SCHEMA_CHAR * STRING_SCHEMA.length();
+    // room for a few entries only, each schema takes an id and an MD5 entry
+    ParsedSchemaCache cache = new ParsedSchemaCache(4 * entryWeight, hits, misses, evictions);
+    for (int i = 0; i < 10; i++) {
+      get(cache, "subject" + i, i, i % 2 == 0 ? STRING_SCHEMA : INT_SCHEMA);
+    }
+    assertTrue(cache.size() <= 4);
+    assertTrue(evictions.get() > 0);
+  }
+
+  private ParsedSchema get(ParsedSchemaCache cache, String subject, int id, String schema)
+      throws Exception {
+    return get(cache, subject, id, AvroSchema.TYPE, schema);
+  }
+
+  private ParsedSchema get(ParsedSchemaCache cache, String subject, int id, String schemaType,
+                           String schema) throws Exception {
+    return cache.get(DEFAULT_TENANT, subject, id, schemaType, schema, Collections.emptyList(),
+        () -> {
+          parses.incrementAndGet();
+          return JsonSchema.TYPE.equals(schemaType)
+              ? new JsonSchema(schema)
+              : new AvroSchema(schema);
+        });
+  }
+
+  private SchemaRegistryMetric metric(String name) {
+    return new SchemaRegistryMetric(metrics, name, metrics.metricName(name, "test"));
+  }
+}
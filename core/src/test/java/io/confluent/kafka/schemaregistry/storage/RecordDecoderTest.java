@@ -0,0 +1,222 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.confluent.kafka.schemaregistry.storage.exceptions.SerializationException;
+import io.confluent.kafka.schemaregistry.storage.serialization.Serializer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.After;
+import org.junit.Test;
+
+public class RecordDecoderTest {
+
+  private static final String TOPIC = "_schemas";
+  private static final String NOOP_KEY = "noop";
+  private static final int THREADS = 4;
+  private static final int MIN_PARALLEL_RECORDS = 8;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+  private final Set<String> decodingThreads = ConcurrentHashMap.newKeySet();
+  private final RecordDecoder<String, String> decoder =
+      new RecordDecoder<>(new TestSerializer(), NOOP_KEY, MIN_PARALLEL_RECORDS);
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testParallelDecodeKeepsOffsetOrder() {
+    List<ConsumerRecord<byte[], byte[]>> records = records(1000);
+
+    List<RecordDecoder.DecodedRecord<String, String>> decoded =
+        decoder.decode(records, executor, THREADS);
+
+    assertDecoded(records, decoded);
+    assertTrue("Records should be decoded on the executor",
+        decodingThreads.stream().noneMatch(name -> name.equals(currentThread())));
+  }
+
+  @Test
+  public void testChunkBoundaries() {
+    // batch sizes around the parallel threshold and multiples of the number of chunks
+    int[] sizes = {0, 1, MIN_PARALLEL_RECORDS - 1, MIN_PARALLEL_RECORDS,
+        MIN_PARALLEL_RECORDS + 1, THREADS * 10 - 1, THREADS * 10, THREADS * 10 + 1};
+    for (int size : sizes) {
+      List<ConsumerRecord<byte[], byte[]>> records = records(size);
+      assertDecoded(records, decoder.decode(records, executor, THREADS));
+    }
+  }
+
+  @Test
+  public void testSmallBatchIsDecodedOnCallingThread() {
+    List<ConsumerRecord<byte[], byte[]>> records = records(MIN_PARALLEL_RECORDS - 1);
+
+    assertDecoded(records, decoder.decode(records, executor, THREADS));
+    assertEquals(1, decodingThreads.size());
+    assertTrue(decodingThreads.contains(currentThread()));
+  }
+
+  @Test
+  public void testFailedRecordsAreKeptInOrder() {
+    List<ConsumerRecord<byte[], byte[]>> records = records(100);
+    records.set(10, record(10, "bad-key", "value10"));
+    records.set(50, record(50, "key50", "bad-value"));
+    records.set(60, record(60, "boom-key", "value60"));
+    records.set(99, record(99, "key99", "boom-value"));
+    records.set(70, record(70, NOOP_KEY, "bad-value"));
+
+    List<RecordDecoder.DecodedRecord<String, String>> decoded =
+        decoder.decode(records, executor, THREADS);
+
+    assertEquals(records.size(), decoded.size());
+    for (int i = 0; i < records.size(); i++) {
+      RecordDecoder.DecodedRecord<String, String> record = decoded.get(i);
+      assertEquals(i, record.record().offset());
+      switch (i) {
+        case 10:
+          assertTrue(record.keyException() instanceof SerializationException);
+          break;
+        case 60:
+          assertTrue(record.keyException() instanceof IllegalStateException);
+          break;
+        case 50:
+          assertEquals("key50", record.key());
+          assertTrue(record.valueException() instanceof SerializationException);
+          break;
+        case 99:
+          assertTrue(record.valueException() instanceof IllegalStateException);
+          break;
+        case 70:
+          // the value of a noop record is not deserialized
+          assertEquals(NOOP_KEY, record.key());
+          assertNull(record.value());
+          assertNull(record.valueException());
+          break;
+        default:
+          assertNull(record.keyException());
+          assertNull(record.valueException());
+          assertEquals("value" + i, record.value());
+      }
+    }
+  }
+
+  @Test
+  public void testShutDownExecutorDecodesOnCallingThread() {
+    executor.shutdown();
+    List<ConsumerRecord<byte[], byte[]>> records = records(100);
+
+    assertDecoded(records, decoder.decode(records, executor, THREADS));
+    assertTrue(decodingThreads.contains(currentThread()));
+  }
+
+  @Test
+  public void testTombstone() {
+    List<ConsumerRecord<byte[], byte[]>> records = records(100);
+    records.set(42, new ConsumerRecord<>(TOPIC, 0, 42, bytes("key42"), null));
+
+    List<RecordDecoder.DecodedRecord<String, String>> decoded =
+        decoder.decode(records, executor, THREADS);
+
+    assertEquals("key42", decoded.get(42).key());
+    assertNull(decoded.get(42).value());
+    assertNull(decoded.get(42).valueException());
+  }
+
+  private static void assertDecoded(List<ConsumerRecord<byte[], byte[]>> records,
+                                    List<RecordDecoder.DecodedRecord<String, String>> decoded) {
+    assertEquals(records.size(), decoded.size());
+    for (int i = 0; i < records.size(); i++) {
+      assertEquals(records.get(i), decoded.get(i).record());
+      assertEquals("key" + i, decoded.get(i).key());
+      assertEquals("value" + i, decoded.get(i).value());
+    }
+  }
+
+  private static List<ConsumerRecord<byte[], byte[]>> records(int count) {
+    List<ConsumerRecord<byte[], byte[]>> records = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      records.add(record(i, "key" + i, "value" + i));
+    }
+    return records;
+  }
+
+  private static ConsumerRecord<byte[], byte[]> record(long offset, String key, String value) {
+    return new ConsumerRecord<>(TOPIC, 0, offset, bytes(key), bytes(value));
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String currentThread() {
+    return Thread.currentThread().getName();
+  }
+
+  private class TestSerializer implements Serializer<String, String> {
+
+    @Override
+    public byte[] serializeKey(String key) {
+      return bytes(key);
+    }
+
+    @Override
+    public byte[] serializeValue(String value) {
+      return bytes(value);
+    }
+
+    @Override
+    public String deserializeKey(byte[] key) throws SerializationException {
+      return deserialize(key);
+    }
+
+    @Override
+    public String deserializeValue(String key, byte[] value) throws SerializationException {
+      return deserialize(value);
+    }
+
+    private String deserialize(byte[] bytes) throws SerializationException {
+      decodingThreads.add(currentThread());
+      String s = new String(bytes, StandardCharsets.UTF_8);
+      if (s.startsWith("bad")) {
+        throw new SerializationException("Bad record " + s);
+      } else if (s.startsWith("boom")) {
+        throw new IllegalStateException("Unexpected record " + s);
+      }
+      return s;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+  }
+}
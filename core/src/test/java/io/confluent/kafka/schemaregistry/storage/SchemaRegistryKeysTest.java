@@ -172,6 +172,21 @@ public class SchemaRegistryKeysTest {
     testStoreKeyOrder(expectedOrder);
   }
 
+  @Test
+  public void testContextKeyComparator() throws Exception {
+    SchemaKey defaultContextKey = new SchemaKey("foo", 1);
+    SchemaKey contextKey = new SchemaKey(":.ctx:bar", 1);
+    SchemaKey contextKeyWithLongerName = new SchemaKey(":.ctx:barbaz", 1);
+    SchemaKey longerContextKey = new SchemaKey(":.ctx2:bar", 1);
+    SchemaRegistryKey[] expectedOrder =
+        {defaultContextKey, contextKey, contextKeyWithLongerName, longerContextKey};
+    testStoreKeyOrder(expectedOrder);
+
+    // the default context may also be given explicitly
+    SubjectKeyComparator<SchemaRegistryKey> comparator = new SubjectKeyComparator<>();
+    assertEquals(0, comparator.compare(defaultContextKey, new SchemaKey(":.:foo", 1)));
+  }
+
   private void testStoreKeyOrder(SchemaRegistryKey[] orderedKeys)
           throws StoreInitializationException {
     int numKeys = orderedKeys.length;
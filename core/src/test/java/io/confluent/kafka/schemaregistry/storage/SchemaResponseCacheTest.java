@@ -0,0 +1,112 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.confluent.kafka.schemaregistry.storage;
+
+import static io.confluent.kafka.schemaregistry.storage.SchemaRegistry.DEFAULT_TENANT;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.storage.SchemaResponseCache.EncodedResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class SchemaResponseCacheTest {
+
+  private static final String SCHEMA = "{\"type\":\"string\"}";
+
+  private final SchemaResponseCache cache = new SchemaResponseCache(1024 * 1024);
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  public void testResponseIsEncodedOnce() throws Exception {
+    EncodedResponse first = get(1, false, SCHEMA);
+    EncodedResponse second = get(1, false, SCHEMA);
+    assertSame(first, second);
+    assertEquals(1, loads.get());
+    assertEquals(SchemaString.fromJson(new String(first.body(), StandardCharsets.UTF_8)),
+        new SchemaString(SCHEMA));
+  }
+
+  @Test
+  public void testRawResponse() throws Exception {
+    EncodedResponse raw = get(1, true, SCHEMA);
+    assertArrayEquals(SCHEMA.getBytes(StandardCharsets.UTF_8), raw.body());
+    assertNotEquals(raw.etag(), get(1, false, SCHEMA).etag());
+  }
+
+  @Test
+  public void testNotFoundIsNotCached() throws Exception {
+    assertNull(get(1, false, null));
+    assertNull(get(1, false, null));
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    get(1, false, SCHEMA);
+    get(2, false, SCHEMA);
+    cache.invalidate(1);
+    get(1, false, SCHEMA);
+    get(2, false, SCHEMA);
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  public void testInvalidateDropsEveryFormatOfTheId() throws Exception {
+    get(1, false, SCHEMA);
+    get(1, true, SCHEMA);
+    get(2, true, SCHEMA);
+    assertEquals(3, cache.indexedKeys());
+    cache.invalidate(1);
+    assertEquals(1, cache.indexedKeys());
+    get(1, false, SCHEMA);
+    get(1, true, SCHEMA);
+    get(2, true, SCHEMA);
+    assertEquals(5, loads.get());
+  }
+
+  @Test
+  public void testEvictedResponsesAreUnindexed() throws Exception {
+    SchemaResponseCache small = new SchemaResponseCache(1024);
+    for (int id = 0; id < 100; id++) {
+      small.get(DEFAULT_TENANT, id, null, null, true, () -> new SchemaString(SCHEMA));
+    }
+    assertTrue(small.indexedKeys() < 100);
+  }
+
+  @Test
+  public void testLoadRacingInvalidateIsNotCached() throws Exception {
+    cache.get(DEFAULT_TENANT, 1, null, null, false, () -> {
+      loads.incrementAndGet();
+      cache.invalidate(1);
+      return new SchemaString(SCHEMA);
+    });
+    get(1, false, SCHEMA);
+    assertEquals(2, loads.get());
+  }
+
+  private EncodedResponse get(int id, boolean raw, String schema) throws Exception {
+    return cache.get(DEFAULT_TENANT, id, null, null, raw, () -> {
+      loads.incrementAndGet();
+      return schema != null ? new SchemaString(schema) : null;
+    });
+  }
+}
@@ -15,8 +15,12 @@
 
 package io.confluent.kafka.schemaregistry.storage;
 
+import io.confluent.kafka.schemaregistry.CompatibilityLevel;
 import io.confluent.kafka.schemaregistry.avro.AvroSchema;
 import io.confluent.kafka.schemaregistry.protobuf.ProtobufSchema;
+import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
+import java.util.Arrays;
+import java.util.Collections;
 import org.junit.Test;
 
 import io.confluent.kafka.schemaregistry.storage.exceptions.SerializationException;
@@ -161,6 +165,63 @@ public class SchemaValuesTest {
     assertEquals(newSchema, schemaValue.getSchema());
   }
 
+  @Test
+  public void testSchemaValueBinaryRoundTrip() throws SerializationException {
+    SchemaKey key = new SchemaKey("test", 2);
+    SchemaRegistrySerializer serializer = new SchemaRegistrySerializer();
+    serializer.configure(Collections.singletonMap(
+        SchemaRegistryConfig.KAFKASTORE_VALUE_ENCODING_CONFIG,
+        SchemaRegistryConfig.KAFKASTORE_VALUE_ENCODING_BINARY));
+    SchemaValue schemaValue = new SchemaValue("test", 2, 7, ProtobufSchema.TYPE,
+        Collections.singletonList(new SchemaReference("ref.proto", "ref", 1)),
+        "syntax = \"proto3\";\nmessage Caf\u00e9 { string name = 1; }\n", true);
+    schemaValue.setOffset(42L);
+    schemaValue.setTimestamp(123L);
+
+    byte[] bytes = serializer.serializeValue(schemaValue);
+    assertEquals(0, bytes[0]);
+    SchemaValue decoded = (SchemaValue) serializer.deserializeValue(key, bytes);
+
+    assertEquals(schemaValue, decoded);
+    assertEquals(schemaValue.getReferences(), decoded.getReferences());
+    assertEquals(42L, decoded.getOffset().longValue());
+    assertEquals(123L, decoded.getTimestamp().longValue());
+  }
+
+  @Test
+  public void testSchemaValueJsonAndBinaryAreBothReadable() throws SerializationException {
+    SchemaKey key = new SchemaKey("test", 1);
+    SchemaValue schemaValue = new SchemaValue("test", 1, 1, "\"string\"", false);
+    SchemaRegistrySerializer json = new SchemaRegistrySerializer();
+    SchemaRegistrySerializer binary = new SchemaRegistrySerializer();
+    binary.configure(Collections.singletonMap(
+        SchemaRegistryConfig.KAFKASTORE_VALUE_ENCODING_CONFIG,
+        SchemaRegistryConfig.KAFKASTORE_VALUE_ENCODING_BINARY));
+
+    assertEquals(schemaValue, binary.deserializeValue(key, json.serializeValue(schemaValue)));
+    assertEquals(schemaValue, json.deserializeValue(key, binary.serializeValue(schemaValue)));
+    // only schema values are binary encoded
+    ConfigValue configValue = new ConfigValue(null, CompatibilityLevel.FULL);
+    assertEquals('{', binary.serializeValue(configValue)[0]);
+  }
+
+  @Test
+  public void testTruncatedBinarySchemaValue() {
+    SchemaKey key = new SchemaKey("test", 1);
+    SchemaRegistrySerializer serializer = new SchemaRegistrySerializer();
+    serializer.configure(Collections.singletonMap(
+        SchemaRegistryConfig.KAFKASTORE_VALUE_ENCODING_CONFIG,
+        SchemaRegistryConfig.KAFKASTORE_VALUE_ENCODING_BINARY));
+    try {
+      byte[] bytes = serializer.serializeValue(
+          new SchemaValue("test", 1, 1, "\"string\"", false));
+      serializer.deserializeValue(key, Arrays.copyOf(bytes, bytes.length - 3));
+      fail("Deserialization of a truncated value should fail");
+    } catch (SerializationException e) {
+      // expected
+    }
+  }
+
   private void assertSchemaValue(String subject, int version, int schemaId,
                                  String schema, String type, boolean deleted,
                                  SchemaValue schemaValue) {
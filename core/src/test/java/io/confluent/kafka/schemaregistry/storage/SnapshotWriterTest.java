@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.confluent.kafka.schemaregistry.CompatibilityLevel;
+import io.confluent.kafka.schemaregistry.storage.serialization.SchemaRegistrySerializer;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SnapshotWriterTest {
+
+  private static final String TOPIC = "_schemas";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final SchemaRegistrySerializer serializer = new SchemaRegistrySerializer();
+  private final List<Runnable> tasks = new ArrayList<>();
+  private final Executor executor = tasks::add;
+  private final AtomicInteger checkpoints = new AtomicInteger();
+  private InMemoryCache<SchemaRegistryKey, SchemaRegistryValue> store;
+  private StoreSnapshot snapshot;
+  private SnapshotWriter<SchemaRegistryKey, SchemaRegistryValue> writer;
+
+  @Before
+  public void setUp() throws Exception {
+    store = new InMemoryCache<>(serializer);
+    store.init();
+    new File(folder.getRoot(), TOPIC).mkdirs();
+    snapshot = new StoreSnapshot(folder.getRoot().getAbsolutePath(), TOPIC);
+    writer = new SnapshotWriter<>(snapshot, serializer, executor);
+  }
+
+  @Test
+  public void testWritesCopyInBackground() throws Exception {
+    put("subject2", 5L);
+    put("subject1", 3L);
+
+    assertTrue(writer.write(store, checkpoints::incrementAndGet));
+    assertNull("Snapshot should be written by the executor", snapshot.read());
+    // records applied after the copy is taken are not in the snapshot
+    put("subject3", 7L);
+    runTasks();
+
+    List<StoreSnapshot.Entry> entries = snapshot.read();
+    assertEquals(2, entries.size());
+    assertEquals(3L, entries.get(0).offset());
+    assertEquals(5L, entries.get(1).offset());
+    assertEquals(new ConfigKey("subject1"),
+        serializer.deserializeKey(entries.get(0).key()));
+    assertEquals(1, checkpoints.get());
+    assertFalse(writer.failed());
+  }
+
+  @Test
+  public void testSkipsWhileWriteInFlight() throws Exception {
+    put("subject1", 3L);
+
+    assertTrue(writer.write(store, checkpoints::incrementAndGet));
+    assertFalse(writer.write(store, checkpoints::incrementAndGet));
+    runTasks();
+    assertTrue(writer.write(store, checkpoints::incrementAndGet));
+    runTasks();
+    assertEquals(2, checkpoints.get());
+  }
+
+  @Test
+  public void testSkipsUnknownOffset() throws Exception {
+    put("subject1", 3L);
+    put("subject2", null);
+
+    assertFalse(writer.write(store, checkpoints::incrementAndGet));
+    assertTrue(tasks.isEmpty());
+    assertNull(snapshot.read());
+    assertEquals(0, checkpoints.get());
+  }
+
+  @Test
+  public void testFailedWriteIsReported() throws Exception {
+    put("subject1", 3L);
+    folder.delete();
+
+    assertTrue(writer.write(store, checkpoints::incrementAndGet));
+    runTasks();
+    assertEquals(0, checkpoints.get());
+    assertTrue(writer.failed());
+    assertFalse(writer.failed());
+  }
+
+  private void put(String subject, Long offset) throws Exception {
+    ConfigValue value = new ConfigValue(subject, CompatibilityLevel.FULL);
+    value.setOffset(offset);
+    value.setTimestamp(offset != null ? 1000L + offset : null);
+    store.put(new ConfigKey(subject), value);
+  }
+
+  private void runTasks() {
+    List<Runnable> toRun = new ArrayList<>(tasks);
+    tasks.clear();
+    toRun.forEach(Runnable::run);
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.confluent.kafka.schemaregistry.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StoreSnapshotTest {
+
+  private static final String TOPIC = "_schemas";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    StoreSnapshot snapshot = newSnapshot();
+    snapshot.write(Arrays.asList(entry(3, "key1", "value1"), entry(7, "key2", "")));
+
+    List<StoreSnapshot.Entry> entries = snapshot.read();
+    assertEquals(2, entries.size());
+    assertEquals(3, entries.get(0).offset());
+    assertEquals(1003, entries.get(0).timestamp());
+    assertArrayEquals(bytes("key1"), entries.get(0).key());
+    assertArrayEquals(bytes("value1"), entries.get(0).value());
+    assertEquals(7, entries.get(1).offset());
+    assertArrayEquals(bytes("key2"), entries.get(1).key());
+    assertArrayEquals(bytes(""), entries.get(1).value());
+  }
+
+  @Test
+  public void testWriteReplacesPreviousSnapshot() throws Exception {
+    StoreSnapshot snapshot = newSnapshot();
+    snapshot.write(Arrays.asList(entry(3, "key1", "value1"), entry(7, "key2", "value2")));
+    snapshot.write(Collections.singletonList(entry(9, "key3", "value3")));
+
+    List<StoreSnapshot.Entry> entries = snapshot.read();
+    assertEquals(1, entries.size());
+    assertEquals(9, entries.get(0).offset());
+  }
+
+  @Test
+  public void testMissingSnapshot() throws Exception {
+    assertNull(newSnapshot().read());
+  }
+
+  @Test
+  public void testCorruptSnapshot() throws Exception {
+    StoreSnapshot snapshot = newSnapshot();
+    snapshot.write(Collections.singletonList(entry(3, "key1", "value1")));
+    File file = new File(new File(folder.getRoot(), TOPIC), StoreSnapshot.SNAPSHOT_FILE_NAME);
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.seek(raf.length() - 12);
+      raf.write('X');
+    }
+    assertNull(snapshot.read());
+  }
+
+  @Test
+  public void testTruncatedSnapshot() throws Exception {
+    StoreSnapshot snapshot = newSnapshot();
+    snapshot.write(Collections.singletonList(entry(3, "key1", "value1")));
+    File file = new File(new File(folder.getRoot(), TOPIC), StoreSnapshot.SNAPSHOT_FILE_NAME);
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(raf.length() - 10);
+    }
+    assertNull(snapshot.read());
+  }
+
+  @Test
+  public void testCorruptLength() throws Exception {
+    StoreSnapshot snapshot = newSnapshot();
+    snapshot.write(Collections.singletonList(entry(3, "key1", "value1")));
+    // the size of the key of the first entry, after the header, offset and timestamp
+    int keySizePosition = 4 + 4 + 4 + 8 + 8;
+    for (int size : new int[] {Integer.MAX_VALUE, -1}) {
+      writeInt(keySizePosition, size, false);
+      assertNull(snapshot.read());
+      // a length that is wrong even though the checksum matches is rejected too
+      writeInt(keySizePosition, size, true);
+      assertNull(snapshot.read());
+    }
+  }
+
+  private void writeInt(int position, int value, boolean updateCrc) throws Exception {
+    File file = new File(new File(folder.getRoot(), TOPIC), StoreSnapshot.SNAPSHOT_FILE_NAME);
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.seek(position);
+      raf.writeInt(value);
+      if (updateCrc) {
+        byte[] content = new byte[(int) raf.length() - 8];
+        raf.seek(0);
+        raf.readFully(content);
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        raf.writeLong(crc.getValue());
+      }
+    }
+  }
+
+  private StoreSnapshot newSnapshot() {
+    new File(folder.getRoot(), TOPIC).mkdirs();
+    return new StoreSnapshot(folder.getRoot().getAbsolutePath(), TOPIC);
+  }
+
+  private static StoreSnapshot.Entry entry(long offset, String key, String value) {
+    return new StoreSnapshot.Entry(offset, 1000 + offset, bytes(key), bytes(value));
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+}
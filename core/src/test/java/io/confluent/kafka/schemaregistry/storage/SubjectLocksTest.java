@@ -0,0 +1,218 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.confluent.kafka.schemaregistry.storage;
+
+import static io.confluent.kafka.schemaregistry.storage.SchemaRegistry.DEFAULT_TENANT;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import org.junit.After;
+import org.junit.Test;
+
+public class SubjectLocksTest {
+
+  private final SubjectLocks locks = new SubjectLocks(16);
+  private final ExecutorService other = Executors.newSingleThreadExecutor();
+
+  @After
+  public void teardown() {
+    other.shutdownNow();
+  }
+
+  @Test
+  public void testSameSubjectIsExclusive() throws Exception {
+    Lock lock = locks.lockFor(DEFAULT_TENANT, "subject");
+    lock.lock();
+    try {
+      assertFalse(tryLockFromOtherThread("subject"));
+    } finally {
+      lock.unlock();
+    }
+    assertTrue(tryLockFromOtherThread("subject"));
+  }
+
+  @Test
+  public void testContextWriteExcludesSubjectsInContext() throws Exception {
+    Lock lock = locks.lockFor(DEFAULT_TENANT, ":.ctx:");
+    lock.lock();
+    try {
+      assertFalse(tryLockFromOtherThread(":.ctx:subject"));
+      assertFalse(tryLockFromOtherThread(":.ctx:"));
+      assertFalse(tryLockFromOtherThread(null));
+    } finally {
+      lock.unlock();
+    }
+    assertTrue(tryLockFromOtherThread(":.ctx:subject"));
+  }
+
+  @Test
+  public void testGlobalWriteExcludesAllWrites() throws Exception {
+    Lock lock = locks.lockFor(DEFAULT_TENANT, null);
+    lock.lock();
+    try {
+      assertFalse(tryLockFromOtherThread("subject"));
+      assertFalse(tryLockFromOtherThread(":.ctx:subject"));
+      assertFalse(tryLockFromOtherThread(":.ctx:"));
+    } finally {
+      lock.unlock();
+    }
+    assertTrue(tryLockFromOtherThread(null));
+  }
+
+  @Test
+  public void testSubjectWritesShareContext() throws Exception {
+    Lock lock = locks.lockFor(DEFAULT_TENANT, "subject");
+    lock.lock();
+    try {
+      // a write to another subject only needs the shared context and global locks, so some
+      // subject that does not map to the held stripe can be written concurrently
+      boolean acquired = false;
+      for (int i = 0; i < 100 && !acquired; i++) {
+        acquired = tryLockFromOtherThread("other" + i);
+      }
+      assertTrue(acquired);
+      // writes to the enclosing context or the global scope must wait
+      assertFalse(tryLockFromOtherThread(""));
+      assertFalse(tryLockFromOtherThread(null));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Test
+  public void testSameSchemaIsExclusive() throws Exception {
+    Lock lock = locks.lockForSchema(".", "{\"type\":\"string\"}");
+    lock.lock();
+    try {
+      assertFalse(other.submit(() -> {
+        Lock l = locks.lockForSchema(".", "{\"type\":\"string\"}");
+        boolean acquired = l.tryLock();
+        if (acquired) {
+          l.unlock();
+        }
+        return acquired;
+      }).get());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Test
+  public void testWriteWithReferencesExcludesReferencedSubjects() throws Exception {
+    Lock lock = locks.lockFor(DEFAULT_TENANT, "subject",
+        Arrays.asList("referenced", ":.ctx:referenced"));
+    lock.lock();
+    try {
+      assertFalse(tryLockFromOtherThread("subject"));
+      assertFalse(tryLockFromOtherThread("referenced"));
+      assertFalse(tryLockFromOtherThread(":.ctx:referenced"));
+      // the context of a referenced subject is held shared, not exclusively
+      assertFalse(tryLockFromOtherThread(":.ctx:"));
+    } finally {
+      lock.unlock();
+    }
+    assertTrue(tryLockFromOtherThread("referenced"));
+    assertTrue(tryLockFromOtherThread(":.ctx:"));
+  }
+
+  @Test
+  public void testRegistrationsRacingDeletesLeaveNoDanglingReferences() throws Exception {
+    // a registration checks that the referenced subjects exist and records its references,
+    // while a delete checks that a subject is not referenced and removes it
+    List<String> referenced = new ArrayList<>();
+    Map<String, Set<String>> referencedBy = new ConcurrentHashMap<>();
+    for (int i = 0; i < 8; i++) {
+      String subject = (i % 2 == 0 ? "" : ":.ctx:") + "referenced" + i;
+      referenced.add(subject);
+      referencedBy.put(subject, ConcurrentHashMap.newKeySet());
+    }
+    Set<String> deleted = ConcurrentHashMap.newKeySet();
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> results = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int thread = t;
+        results.add(executor.submit(() -> {
+          Random random = new Random(thread);
+          for (int i = 0; i < 200; i++) {
+            if (thread % 2 == 0) {
+              String subject = "subject-" + thread + "-" + i;
+              List<String> refs = new ArrayList<>(referenced);
+              Collections.shuffle(refs, random);
+              refs = refs.subList(0, 1 + random.nextInt(3));
+              Lock lock = locks.lockFor(DEFAULT_TENANT, subject, refs);
+              lock.lock();
+              try {
+                if (refs.stream().noneMatch(deleted::contains)) {
+                  Thread.yield();
+                  refs.forEach(ref -> referencedBy.get(ref).add(subject));
+                }
+              } finally {
+                lock.unlock();
+              }
+            } else {
+              String subject = referenced.get(random.nextInt(referenced.size()));
+              Lock lock = locks.lockFor(DEFAULT_TENANT, subject);
+              lock.lock();
+              try {
+                if (referencedBy.get(subject).isEmpty()) {
+                  Thread.yield();
+                  deleted.add(subject);
+                }
+              } finally {
+                lock.unlock();
+              }
+            }
+          }
+        }));
+      }
+      for (Future<?> result : results) {
+        // a deadlock between writes locking several subjects would time out here
+        result.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    for (String subject : deleted) {
+      assertTrue(subject + " was deleted while referenced",
+          referencedBy.get(subject).isEmpty());
+    }
+  }
+
+  private boolean tryLockFromOtherThread(String subject) throws Exception {
+    return other.submit(() -> {
+      Lock lock = locks.lockFor(DEFAULT_TENANT, subject);
+      boolean acquired = lock.tryLock();
+      if (acquired) {
+        lock.unlock();
+      }
+      return acquired;
+    }).get();
+  }
+}
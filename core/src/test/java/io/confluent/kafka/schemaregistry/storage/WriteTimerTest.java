@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.kafka.schemaregistry.storage;
+
+import io.confluent.kafka.schemaregistry.metrics.MetricsContainer;
+import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
+import org.apache.kafka.common.metrics.KafkaMetric;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class WriteTimerTest {
+
+  private MetricsContainer metricsContainer;
+
+  @Before
+  public void setUp() throws Exception {
+    Properties props = new Properties();
+    props.put(SchemaRegistryConfig.KAFKASTORE_BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+    metricsContainer = new MetricsContainer(new SchemaRegistryConfig(props), "cluster");
+  }
+
+  @After
+  public void tearDown() {
+    metricsContainer.getMetrics().close();
+  }
+
+  @Test
+  public void testNestedStartJoinsRunningTimer() {
+    WriteTimer timer = WriteTimer.start("register", "test", metricsContainer, 0);
+    try {
+      WriteTimer nested = WriteTimer.start("register", "test", metricsContainer, 0);
+      assertSame(timer, nested);
+      nested.finish();
+      assertSame(timer, WriteTimer.current());
+    } finally {
+      timer.finish();
+    }
+    assertNull(WriteTimer.current());
+  }
+
+  @Test
+  public void testOnlyMarkedPhasesAreRecorded() {
+    WriteTimer timer = WriteTimer.start("set-mode", "test", metricsContainer, 0);
+    WriteTimer.endCurrentPhase(WriteTimer.Phase.LOCK);
+    WriteTimer.endCurrentPhase(WriteTimer.Phase.PRODUCE);
+    WriteTimer.endCurrentPhase(WriteTimer.Phase.PRODUCE);
+    String breakdown = timer.breakdown();
+    timer.finish();
+
+    assertTrue(breakdown, breakdown.startsWith("lock="));
+    assertTrue(breakdown, breakdown.contains(", produce="));
+    assertFalse(breakdown, breakdown.contains("apply"));
+    assertTrue(hasHistogram("set-mode", "lock"));
+    assertTrue(hasHistogram("set-mode", "produce"));
+    assertTrue(hasHistogram("set-mode", WriteTimer.TOTAL));
+    assertFalse(hasHistogram("set-mode", "apply"));
+  }
+
+  @Test
+  public void testPhasesMarkedByOtherThreadAreMergedByWriter() throws Exception {
+    WriteTimer timer = WriteTimer.start("register", "test", metricsContainer, 0);
+    WriteTimer.endCurrentPhase(WriteTimer.Phase.PREPARE);
+    Thread committer = new Thread(() -> {
+      timer.markPhaseEnd(WriteTimer.Phase.QUEUE);
+      timer.markPhaseEnd(WriteTimer.Phase.PRODUCE);
+    });
+    committer.start();
+    committer.join();
+    // the marks are only added once the writing thread ends its next phase
+    assertFalse(timer.breakdown(), timer.breakdown().contains("queue"));
+    WriteTimer.endCurrentPhase(WriteTimer.Phase.APPLY);
+    String breakdown = timer.breakdown();
+    timer.finish();
+
+    assertTrue(breakdown, breakdown.matches(
+        "prepare=\\d+ ms, queue=\\d+ ms, produce=\\d+ ms, apply=\\d+ ms"));
+    assertTrue(hasHistogram("register", "queue"));
+    assertTrue(hasHistogram("register", "produce"));
+  }
+
+  @Test
+  public void testPhaseMarkedByOtherThreadIsMergedOnFinish() throws Exception {
+    WriteTimer timer = WriteTimer.start("delete-subject", "test", metricsContainer, 0);
+    Thread committer = new Thread(() -> timer.markPhaseEnd(WriteTimer.Phase.QUEUE));
+    committer.start();
+    committer.join();
+    timer.finish();
+
+    assertTrue(hasHistogram("delete-subject", "queue"));
+    assertFalse(hasHistogram("delete-subject", "apply"));
+  }
+
+  @Test
+  public void testNoTimerIsNoop() {
+    WriteTimer.endCurrentPhase(WriteTimer.Phase.APPLY);
+    assertNull(WriteTimer.current());
+  }
+
+  // histograms are created when a phase is first recorded
+  private boolean hasHistogram(String operation, String phase) {
+    for (KafkaMetric metric : metricsContainer.getMetrics().metrics().values()) {
+      if (metric.metricName().name().equals("write-phase-latency-ms-max")
+          && operation.equals(metric.metricName().tags().get("operation"))
+          && phase.equals(metric.metricName().tags().get("phase"))) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
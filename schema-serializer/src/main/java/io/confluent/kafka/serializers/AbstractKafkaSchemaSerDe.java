@@ -18,6 +18,7 @@ package io.confluent.kafka.serializers;
 
 import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
 import io.confluent.kafka.schemaregistry.utils.BoundedConcurrentHashMap;
+import io.confluent.kafka.schemaregistry.utils.RefreshAheadCache;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -29,12 +30,17 @@ import org.apache.avro.generic.GenericContainer;
 import org.apache.kafka.common.KafkaException;
 import org.apache.kafka.common.errors.InvalidConfigurationException;
 import org.apache.kafka.common.errors.SerializationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 import io.confluent.kafka.schemaregistry.ParsedSchema;
 import io.confluent.kafka.schemaregistry.SchemaProvider;
@@ -50,6 +56,8 @@ import io.confluent.kafka.serializers.subject.TopicNameStrategy;
  */
 public abstract class AbstractKafkaSchemaSerDe {
 
+  private static final Logger log = LoggerFactory.getLogger(AbstractKafkaSchemaSerDe.class);
+
   protected static final byte MAGIC_BYTE = 0x0;
   protected static final int idSize = 4;
   private static int DEFAULT_CACHE_CAPACITY = 1000;
@@ -61,6 +69,11 @@ public abstract class AbstractKafkaSchemaSerDe {
   protected Map<SubjectSchema, ParsedSchema> latestVersions =
       new BoundedConcurrentHashMap<>(DEFAULT_CACHE_CAPACITY);
   protected boolean useSchemaReflection;
+  // the parsed latest versions, with the id they were parsed from, when latest versions expire
+  private RefreshAheadCache<SubjectSchema, LatestVersion> latestVersionsById;
+  // visible for testing, read when the serde is configured
+  LongSupplier nanoClock = System::nanoTime;
+  Executor refreshExecutor;
 
 
   protected void configureClientProperties(
@@ -89,6 +102,29 @@ public abstract class AbstractKafkaSchemaSerDe {
     keySubjectNameStrategy = config.keySubjectNameStrategy();
     valueSubjectNameStrategy = config.valueSubjectNameStrategy();
     useSchemaReflection = config.useSchemaReflection();
+    long latestCacheTtl = config.latestCacheTtl();
+    if (latestCacheTtl <= 0) {
+      latestVersionsById = null;
+    } else if (refreshExecutor != null) {
+      latestVersionsById = new RefreshAheadCache<>(DEFAULT_CACHE_CAPACITY, latestCacheTtl,
+          TimeUnit.SECONDS, refreshExecutor, nanoClock);
+    } else {
+      latestVersionsById = new RefreshAheadCache<>(DEFAULT_CACHE_CAPACITY, latestCacheTtl,
+          TimeUnit.SECONDS, nanoClock);
+    }
+
+    prefetchSchemas(config.prefetchSubjectPrefixes());
+  }
+
+  // a failed prefetch leaves the schemas to be fetched when they are first used
+  private void prefetchSchemas(List<String> subjectPrefixes) {
+    for (String subjectPrefix : subjectPrefixes) {
+      try {
+        schemaRegistry.prefetchSchemasBySubjectPrefix(subjectPrefix);
+      } catch (IOException | RestClientException | RuntimeException e) {
+        log.warn("Could not prefetch the schemas of subjects with prefix {}", subjectPrefix, e);
+      }
+    }
   }
 
   /**
@@ -198,7 +234,22 @@ public abstract class AbstractKafkaSchemaSerDe {
   protected ParsedSchema lookupLatestVersion(
       String subject, ParsedSchema schema, boolean latestCompatStrict)
       throws IOException, RestClientException {
-    return lookupLatestVersion(schemaRegistry, subject, schema, latestVersions, latestCompatStrict);
+    RefreshAheadCache<SubjectSchema, LatestVersion> cache = latestVersionsById;
+    if (cache == null) {
+      return lookupLatestVersion(
+          schemaRegistry, subject, schema, latestVersions, latestCompatStrict);
+    }
+    // once the TTL expires, the cached version is still served while it is refreshed in the
+    // background; the schema is only parsed and checked again when the latest version changes
+    SubjectSchema ss = new SubjectSchema(subject, schema);
+    return cache.get(ss, () -> {
+      SchemaMetadata schemaMetadata = schemaRegistry.getLatestSchemaMetadata(subject);
+      LatestVersion previous = cache.peek(ss);
+      ParsedSchema latestSchema = previous != null && previous.id == schemaMetadata.getId()
+          ? previous.schema
+          : parseLatestVersion(schemaRegistry, schemaMetadata, schema, latestCompatStrict);
+      return new LatestVersion(schemaMetadata.getId(), latestSchema);
+    }).schema;
   }
 
   protected static ParsedSchema lookupLatestVersion(
@@ -215,23 +266,8 @@ public abstract class AbstractKafkaSchemaSerDe {
     }
     if (latestVersion == null) {
       SchemaMetadata schemaMetadata = schemaRegistry.getLatestSchemaMetadata(subject);
-      Optional<ParsedSchema> optSchema =
-          schemaRegistry.parseSchema(
-              schemaMetadata.getSchemaType(),
-              schemaMetadata.getSchema(),
-              schemaMetadata.getReferences());
-      latestVersion = optSchema.orElseThrow(
-          () -> new IOException("Invalid schema " + schemaMetadata.getSchema()
-              + " with refs " + schemaMetadata.getReferences()
-              + " of type " + schemaMetadata.getSchemaType()));
-      // Sanity check by testing latest is backward compatibility with schema
-      // Don't test for forward compatibility so unions can be handled properly
-      if (latestCompatStrict && !latestVersion.isBackwardCompatible(schema).isEmpty()) {
-        throw new IOException("Incompatible schema " + schemaMetadata.getSchema()
-            + " with refs " + schemaMetadata.getReferences()
-            + " of type " + schemaMetadata.getSchemaType()
-            + " for schema " + schema.canonicalString());
-      }
+      latestVersion = parseLatestVersion(
+          schemaRegistry, schemaMetadata, schema, latestCompatStrict);
       if (cache != null) {
         cache.put(ss, latestVersion);
       }
@@ -239,6 +275,42 @@ public abstract class AbstractKafkaSchemaSerDe {
     return latestVersion;
   }
 
+  private static ParsedSchema parseLatestVersion(
+      SchemaRegistryClient schemaRegistry,
+      SchemaMetadata schemaMetadata,
+      ParsedSchema schema,
+      boolean latestCompatStrict)
+      throws IOException {
+    Optional<ParsedSchema> optSchema =
+        schemaRegistry.parseSchema(
+            schemaMetadata.getSchemaType(),
+            schemaMetadata.getSchema(),
+            schemaMetadata.getReferences());
+    ParsedSchema latestVersion = optSchema.orElseThrow(
+        () -> new IOException("Invalid schema " + schemaMetadata.getSchema()
+            + " with refs " + schemaMetadata.getReferences()
+            + " of type " + schemaMetadata.getSchemaType()));
+    // Sanity check by testing latest is backward compatibility with schema
+    // Don't test for forward compatibility so unions can be handled properly
+    if (latestCompatStrict && !latestVersion.isBackwardCompatible(schema).isEmpty()) {
+      throw new IOException("Incompatible schema " + schemaMetadata.getSchema()
+          + " with refs " + schemaMetadata.getReferences()
+          + " of type " + schemaMetadata.getSchemaType()
+          + " for schema " + schema.canonicalString());
+    }
+    return latestVersion;
+  }
+
+  private static class LatestVersion {
+    private final int id;
+    private final ParsedSchema schema;
+
+    LatestVersion(int id, ParsedSchema schema) {
+      this.id = id;
+      this.schema = schema;
+    }
+  }
+
   protected ByteBuffer getByteBuffer(byte[] payload) {
     ByteBuffer buffer = ByteBuffer.wrap(payload);
     if (buffer.get() != MAGIC_BYTE) {
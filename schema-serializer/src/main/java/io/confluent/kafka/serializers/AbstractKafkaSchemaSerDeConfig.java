@@ -27,6 +27,7 @@ import org.apache.kafka.common.config.AbstractConfig;
 import org.apache.kafka.common.config.ConfigDef;
 import org.apache.kafka.common.config.ConfigDef.Importance;
 import  org.apache.kafka.common.config.ConfigDef.Type;
+import org.apache.kafka.common.config.ConfigException;
 import io.confluent.kafka.schemaregistry.client.SchemaRegistryClientConfig;
 import io.confluent.kafka.serializers.subject.TopicNameStrategy;
 import io.confluent.kafka.serializers.subject.strategy.SubjectNameStrategy;
@@ -157,6 +158,41 @@ public class AbstractKafkaSchemaSerDeConfig extends AbstractConfig {
       "The port number of the proxy server that will be used to connect to the schema registry "
           + "instances.";
 
+  public static final String PERSISTENT_CACHE_DIR =
+      SchemaRegistryClientConfig.PERSISTENT_CACHE_DIR_CONFIG;
+  public static final String PERSISTENT_CACHE_DIR_DEFAULT = null;
+  public static final String PERSISTENT_CACHE_DIR_DOC =
+      "A local directory in which to cache the schemas fetched by id, so that the client does "
+          + "not fetch them from the schema registry again after a restart. Clients of the same "
+          + "or different registries may share the directory. By default, there is no such cache.";
+
+  public static final String PERSISTENT_CACHE_MAX_BYTES =
+      SchemaRegistryClientConfig.PERSISTENT_CACHE_MAX_BYTES_CONFIG;
+  public static final long PERSISTENT_CACHE_MAX_BYTES_DEFAULT =
+      SchemaRegistryClientConfig.PERSISTENT_CACHE_MAX_BYTES_DEFAULT;
+  public static final String PERSISTENT_CACHE_MAX_BYTES_DOC =
+      "The maximum size of the schemas in the persistent cache directory, above which the "
+          + "oldest are deleted.";
+
+  public static final String PREFETCH_SUBJECT_PREFIXES = "prefetch.subject.prefixes";
+  public static final String PREFETCH_SUBJECT_PREFIXES_DOC =
+      "Prefixes of the subjects whose schemas are fetched in one request per prefix when the "
+          + "serializer or deserializer is configured, so that the first records of these subjects "
+          + "do not each wait for a schema lookup. By default, no schemas are prefetched.";
+
+  public static final String LATEST_CACHE_TTL =
+      SchemaRegistryClientConfig.LATEST_CACHE_TTL_CONFIG;
+  public static final long LATEST_CACHE_TTL_DEFAULT =
+      SchemaRegistryClientConfig.LATEST_CACHE_TTL_DEFAULT;
+  public static final String LATEST_CACHE_TTL_DOC =
+      "The time in seconds for which the latest version of a subject, as used by "
+          + USE_LATEST_VERSION + ", is cached. After this time, the latest version is looked up "
+          + "again; the schema registry client configured by the serializer caches it for the "
+          + "same time and refreshes it in the background, so that a new latest version is used "
+          + "within about twice this time without records waiting for the lookup. The default "
+          + "of -1 caches the latest version of a subject until the serializer is closed; 0 is "
+          + "not allowed.";
+
   public static ConfigDef baseConfigDef() {
     ConfigDef configDef = new ConfigDef()
         .define(SCHEMA_REGISTRY_URL_CONFIG, Type.LIST,
@@ -194,7 +230,21 @@ public class AbstractKafkaSchemaSerDeConfig extends AbstractConfig {
         .define(PROXY_HOST, Type.STRING, PROXY_HOST_DEFAULT,
                 Importance.LOW, PROXY_HOST_DOC)
         .define(PROXY_PORT, Type.INT, PROXY_PORT_DEFAULT,
-                Importance.LOW, PROXY_PORT_DOC);
+                Importance.LOW, PROXY_PORT_DOC)
+        .define(PERSISTENT_CACHE_DIR, Type.STRING, PERSISTENT_CACHE_DIR_DEFAULT,
+                Importance.LOW, PERSISTENT_CACHE_DIR_DOC)
+        .define(PERSISTENT_CACHE_MAX_BYTES, Type.LONG, PERSISTENT_CACHE_MAX_BYTES_DEFAULT,
+                Importance.LOW, PERSISTENT_CACHE_MAX_BYTES_DOC)
+        .define(PREFETCH_SUBJECT_PREFIXES, Type.LIST, "",
+                Importance.LOW, PREFETCH_SUBJECT_PREFIXES_DOC)
+        .define(LATEST_CACHE_TTL, Type.LONG, LATEST_CACHE_TTL_DEFAULT,
+                ConfigDef.CompositeValidator.of(ConfigDef.Range.atLeast(-1),
+                    ConfigDef.LambdaValidator.with((name, value) -> {
+                      if (value != null && (Long) value == 0) {
+                        throw new ConfigException(name, value, "Must be -1 or positive");
+                      }
+                    }, () -> "not 0")),
+                Importance.LOW, LATEST_CACHE_TTL_DOC);
     SchemaRegistryClientConfig.withClientSslSupport(
         configDef, SchemaRegistryClientConfig.CLIENT_NAMESPACE);
     return configDef;
@@ -216,6 +266,14 @@ public class AbstractKafkaSchemaSerDeConfig extends AbstractConfig {
     return this.getList(SCHEMA_REGISTRY_URL_CONFIG);
   }
 
+  public List<String> prefetchSubjectPrefixes() {
+    return this.getList(PREFETCH_SUBJECT_PREFIXES);
+  }
+
+  public long latestCacheTtl() {
+    return this.getLong(LATEST_CACHE_TTL);
+  }
+
   public boolean autoRegisterSchema() {
     return this.getBoolean(AUTO_REGISTER_SCHEMAS);
   }